@@ -1 +1 @@
-package chapter_8.course_implementation.expressions;import chapter_8.course_implementation.expressions.exceptions.*;/** * A class of binary expressions, representing the addition of the * operand at the left-hand side and the operand at the right-hand * side. *  * @version  2.0 * @author   Eric Steegmans */public class Addition extends BinaryExpression {	/**	 * Initialize this new addition with given operands.	 *	 * @param  left	 *         The left operand for this new addition.	 * @param  right	 *         The right operand for this new addition.	 * @effect This new addition is initialized as a binary expression	 *         with the given operands.	 *       | super(left,right)	 */	public Addition(Expression left, Expression right)			throws IllegalOperandException {		super(left, right);	}	/**	 * Return the value of this addition.	 *	 * @return The sum of the values of the operands of this addition.	 *       | result ==	 *       |   getLeftOperand().getValue() + 	 *       |   getRightOperand().getValue()	 */	@Override	public long getValue() {		return getLeftOperand().getValue() + getRightOperand().getValue();	}	/**	 * Return the symbol representing the operator of this addition.	 * 	 * @return The string "+"	 *       | result.equals("+")	 */	@Override	public String getOperatorSymbol() {		return "+";	}}
\ No newline at end of file
+package chapter_8.course_implementation.expressions;import java.util.List;import chapter_8.course_implementation.expressions.exceptions.*;/** * A class of binary expressions, representing the addition of the * operand at the left-hand side and the operand at the right-hand * side. *  * @version  2.0 * @author   Eric Steegmans */public class Addition extends BinaryExpression {	/**	 * Initialize this new addition with given operands.	 *	 * @param  left	 *         The left operand for this new addition.	 * @param  right	 *         The right operand for this new addition.	 * @effect This new addition is initialized as a binary expression	 *         with the given operands.	 *       | super(left,right)	 */	public Addition(Expression left, Expression right)			throws IllegalOperandException {		super(left, right);	}	/**	 * Return the value of this addition.	 *	 * @return The sum of the values of the operands of this addition.	 *       | result ==	 *       |   getLeftOperand().getValue() + 	 *       |   getRightOperand().getValue()	 */	@Override	public long getValue() {		return getLeftOperand().getValue() + getRightOperand().getValue();	}	/**	 * Return the value of this addition, if its operands had the given	 * values.	 *	 * @return The sum of the given values.	 *       | result == leftValue + rightValue	 */	@Override	public long computeValue(long leftValue, long rightValue) {		return leftValue + rightValue;	}	/**	 * Return a simplified version of this addition.	 * 	 * @return If this addition is mutable, the resulting expression	 *         adds the simplified operands of the chain of additions	 *         starting from this addition, in a balanced tree. The	 *         values of the immutable operands of that chain are folded	 *         into a single integer literal, that is left out if its	 *         value is 0. If no other operands remain, the resulting	 *         expression is the integer literal 0.	 *       | if (isMutable())	 *       |   then result.getValue() == getValue()	 */	@Override	public Expression simplify() {		if (!isMutable())			return super.simplify();		List<Expression> operands = getSimplifiedChainOperands();		Expression last = operands.get(operands.size() - 1);		if (!last.isMutable() && (last.getValue() == 0))			operands.remove(operands.size() - 1);		if (operands.isEmpty())			return IntegerLiteral.ZERO;		return combineBalanced(operands, Addition::new);	}	/**	 * Return the symbol representing the operator of this addition.	 * 	 * @return The string "+"	 *       | result.equals("+")	 */	@Override	public String getOperatorSymbol() {		return "+";	}}
\ No newline at end of file
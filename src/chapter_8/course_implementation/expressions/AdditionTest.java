@@ -32,6 +32,10 @@ public class AdditionTest {
 		new Addition(new IntegerLiteral(1), null);
 	}
 
+	@Test public void computeValue_SingleCase() {
+		assertEquals(6L, addition_3_2.computeValue(10, -4));
+	}
+
 	@Test public void getValue_SingleCase() {
 		assertEquals(5L, addition_3_2.getValue());
 	}
@@ -40,4 +44,61 @@ public class AdditionTest {
 		assertEquals("+", addition_3_2.getOperatorSymbol());
 	}
 
+
+	@Test public void simplify_ImmutableExpression() {
+		Expression result = addition_3_2.simplify();
+		assertTrue(result instanceof IntegerLiteral);
+		assertEquals(5L, result.getValue());
+	}
+
+	@Test public void simplify_AddingZero() {
+		MemoryCell cell = new MemoryCell(1);
+		assertSame(cell, new Addition(cell, new IntegerLiteral(0)).simplify());
+		assertSame(cell, new Addition(new Subtraction(new IntegerLiteral(4),
+			new IntegerLiteral(4)), cell).simplify());
+		assertSame(cell, new Addition(new Addition(new IntegerLiteral(3), cell),
+			new IntegerLiteral(-3)).simplify());
+	}
+
+	@Test public void simplify_FoldingConstants() {
+		MemoryCell cell_1 = new MemoryCell(1);
+		MemoryCell cell_2 = new MemoryCell(2);
+		Expression result = new Addition(new Addition(new IntegerLiteral(3),
+			cell_1), new Addition(cell_2, new IntegerLiteral(4))).simplify();
+		assertEquals("M1+(M2+7)", result.toString());
+	}
+
+	@Test public void simplify_BalancingChain() {
+		MemoryCell[] cells = new MemoryCell[8];
+		Expression chain = cells[0] = new MemoryCell(0);
+		for (int i = 1; i < cells.length; i++)
+			chain = new Addition(chain, cells[i] = new MemoryCell(i));
+		assertEquals("((M0+M1)+(M2+M3))+((M4+M5)+(M6+M7))",
+			chain.simplify().toString());
+	}
+
+	@Test public void simplify_NestedChain() {
+		MemoryCell cell_1 = new MemoryCell(1);
+		MemoryCell cell_2 = new MemoryCell(2);
+		MemoryCell cell_3 = new MemoryCell(3);
+		Expression result = new Addition(cell_1, new Negation(new Negation(
+			new Addition(new Addition(cell_2, new IntegerLiteral(1)), cell_3))))
+			.simplify();
+		assertEquals("(M1+M2)+(M3+1)", result.toString());
+	}
+
+
+	@Test public void simplify_OnlyCancellingOperands() {
+		MemoryCell cell_1 = new MemoryCell(1);
+		MemoryCell cell_2 = new MemoryCell(2);
+		Expression result = new Addition(new Subtraction(cell_1, cell_1),
+			new IntegerLiteral(0)).simplify();
+		assertTrue(result instanceof IntegerLiteral);
+		assertEquals(0L, result.getValue());
+		result = new Addition(new Subtraction(cell_1, cell_1),
+			new Subtraction(cell_2, cell_2)).simplify();
+		assertTrue(result instanceof IntegerLiteral);
+		assertEquals(0L, result.getValue());
+	}
+
 }
@@ -5,8 +5,11 @@ import org.junit.runners.Suite;
 
 @RunWith(Suite.class) @Suite.SuiteClasses( { ExpressionTest.class,
 	BasicExpressionTest.class, IntegerLiteralTest.class, MemoryCellTest.class,
+	MemoryTest.class,
 	ComposedExpressionTest.class, UnaryExpressionTest.class,
 	NegationTest.class, BinaryExpressionTest.class, AdditionTest.class,
-	MultiplicationTest.class, SubtractionTest.class }) public class AllTests {
+	MultiplicationTest.class, SubtractionTest.class,
+	ExpressionCompilerTest.class, CompiledExpressionTest.class,
+	IncrementalEvaluatorTest.class }) public class AllTests {
 
 }
@@ -1 +1 @@
-package chapter_8.course_implementation.expressions;import be.kuleuven.cs.som.annotate.*;import chapter_8.course_implementation.expressions.exceptions.*;/** * A class of binary arithmetic expressions. *   A binary expression involves a single operator applied *   to a left-hand operand and a right-hand operand. *  * @version  2.0 * @author   Eric Steegmans */public abstract class BinaryExpression extends ComposedExpression {	/**	 * Initialize this new binary expression with given operands.	 *	 * @param  left	 *         The left operand for this new binary expression.	 * @param  right	 *         The right operand for this new binary expression.	 * @post   The left operand of this new binary expression is the	 *         same as the given left operand.	 *       | new.getLeftOperand() == left	 * @post   The right operand of this new binary expression is the	 *         same as the given right operand.	 *       | new.getRightOperand() == right	 * @throws IllegalOperandException	 *         This new binary expression cannot have the given left	 *         operand or the given right operand as its operand.	 *      |     (! canHaveAsOperand(left))	 *      |  || (! canHaveAsOperand(right))	 */	@Model	protected BinaryExpression(Expression left, Expression right)			throws IllegalOperandException {		if (!canHaveAsOperand(left))			throw new IllegalOperandException(this, left);		if (!canHaveAsOperand(right))			throw new IllegalOperandException(this, right);		setOperandAt(1, left);		setOperandAt(2, right);	}	/**	 * Return the number of operands involved in this binary expression.	 *	 * @return A binary expression always involves two operands.	 *       | result == 2	 */	@Override	@Basic	public final int getNbOperands() {		return 2;	}	/**	 * Check whether this binary expression can have the given	 * number as its number of operands.	 *	 * @return True if and only if the given number is 2.	 *       | result == (number == 2)	 */	@Override	@Raw	public final boolean canHaveAsNbOperands(int number) {		return number == 2;	}	/**	 * Return the operand of this binary expression at the given index.	 * 	 * @return If the given index is 1, the left operand of this	 *         binary expression; otherwise the right operand of	 *         this binary expression.	 *       | if (index == 1)	 *       |   then result == getLeftOperand()	 *       |   else result == getRightOperand()	 */	@Override	@Raw	public final Expression getOperandAt(int index)			throws IndexOutOfBoundsException {		if ((index != 1) && (index != 2))			throw new IndexOutOfBoundsException();		if (index == 1)			return getLeftOperand();		else			return getRightOperand();	}	/**	 * Set the operand for this binary expression at the given	 * index to the given operand.	 */	@Override	@Raw	protected void setOperandAt(int index, Expression operand) {		if (index == 1)			this.leftOperand = operand;		else			this.rightOperand = operand;	}	/**	 * Return the left operand of this binary expression.	 */	@Basic	public Expression getLeftOperand() {		return leftOperand;	}	/**	 * Variable referencing the left operand of this	 * binary expression.	 *	 * @note   This variable is not qualified final, such that operands	 *         can be changed in cloning unary expressions.	 */	private Expression leftOperand;	/**	 * Return the right operand of this binary expression.	 */	@Basic	public Expression getRightOperand() {		return rightOperand;	}	/**	 * Variable referencing the right operand of this	 * binary expression.	 *	 * @note   This variable is not qualified final, such that operands	 *         can be changed in cloning unary expressions.	 */	private Expression rightOperand;	/**	 * Return a textual representation of this binary expression.	 *	 * @return If both operands of this binary expression are basic expressions,	 *         the textual representation of the left operand of this binary	 *         expression, followed by the symbol representing the operator	 *         of this binary expression followed by the textual representation	 *         of the right operand of this binary expression.	 *       | if ( (getLeftOperand() instanceof BasicExpression) &&	 *       |      (getRightOperand() instanceof BasicExpression) )	 *       |   then result.equals	 *       |          (getLeftOperand().toString() + getOperator() +	 *       |           getRightOperand().toString())	 * @return If the left operand of this binary expression is a basic expression	 *         and the right operand of this binary expression is a composed expression,	 *         the textual representation of the left operand of this binary	 *         expression, followed by the symbol representing the operator	 *         of this binary expression followed by the textual representation	 *         of the right operand of this binary expression in parenthesis.	 *       | if ( (getLeftOperand() instanceof BasicExpression) &&	 *       |      (getRightOperand() instanceof ComposedExpression) )	 *       |   then result.equals	 *       |          (getLeftOperand().toString() + getOperator() +	 *       |           "(" + getRightOperand().toString() + ")")	 * @return If the left operand of this binary expression is a composed expression	 *         and the right operand of this binary expression is a basic expression,	 *         the textual representation of the left operand of this binary	 *         expression in parenthesis, followed by the symbol representing the operator	 *         of this binary expression followed by the textual representation	 *         of the right operand of this binary expression.	 *       | if ( (getLeftOperand() instanceof ComposedExpression) &&	 *       |      (getRightOperand() instanceof BasicExpression) )	 *       |   then result.equals	 *       |          ("(" + getLeftOperand().toString() + ")" + getOperator() +	 *       |           getRightOperand().toString())	 * @return If both operands of this binary expression are composed expressions,	 *         the textual representation of the left operand of this binary	 *         expression in parenthesis, followed by the symbol representing the operator	 *         of this binary expression followed by the textual representation	 *         of the right operand of this binary expression in parenthesis.	 *       | if ( (getLeftOperand() instanceof ComposedExpression) &&	 *       |      (getRightOperand() instanceof ComposedExpression) )	 *       |   then result.equals	 *       |          ("(" + getLeftOperand().toString() + ")" + getOperator() +	 *       |           "(" + getRightOperand().toString() + ")")	 * @note   In the specification of this method, we assume that the classification of	 *         expressions into basic expressions and composed expressions is total. This	 *         means that we assume that no other kinds of expressions will ever be	 *         introduced next to basic expressions and composed expressions.	 */	@Override	public String toString() {		String result;		if (getLeftOperand() instanceof BasicExpression)			result = getLeftOperand().toString();		else if (getLeftOperand() instanceof ComposedExpression)			result = "(" + getLeftOperand().toString() + ")";		else			throw new Error("Unknown expression type!");		result += getOperatorSymbol();		if (getRightOperand() instanceof BasicExpression)			result += getRightOperand().toString();		else if (getRightOperand() instanceof ComposedExpression)			result += "(" + getRightOperand().toString() + ")";		else			throw new Error("Unknown expression type!");		return result;	}}
\ No newline at end of file
+package chapter_8.course_implementation.expressions;import java.util.*;import java.util.function.BinaryOperator;import be.kuleuven.cs.som.annotate.*;import chapter_8.course_implementation.expressions.exceptions.*;/** * A class of binary arithmetic expressions. *   A binary expression involves a single operator applied *   to a left-hand operand and a right-hand operand. *  * @version  2.0 * @author   Eric Steegmans */public abstract class BinaryExpression extends ComposedExpression {	/**	 * Initialize this new binary expression with given operands.	 *	 * @param  left	 *         The left operand for this new binary expression.	 * @param  right	 *         The right operand for this new binary expression.	 * @post   The left operand of this new binary expression is the	 *         same as the given left operand.	 *       | new.getLeftOperand() == left	 * @post   The right operand of this new binary expression is the	 *         same as the given right operand.	 *       | new.getRightOperand() == right	 * @throws IllegalOperandException	 *         This new binary expression cannot have the given left	 *         operand or the given right operand as its operand.	 *      |     (! canHaveAsOperand(left))	 *      |  || (! canHaveAsOperand(right))	 */	@Model	protected BinaryExpression(Expression left, Expression right)			throws IllegalOperandException {		if (!canHaveAsOperand(left))			throw new IllegalOperandException(this, left);		if (!canHaveAsOperand(right))			throw new IllegalOperandException(this, right);		setOperandAt(1, left);		setOperandAt(2, right);	}	/**	 * Return the number of operands involved in this binary expression.	 *	 * @return A binary expression always involves two operands.	 *       | result == 2	 */	@Override	@Basic	public final int getNbOperands() {		return 2;	}	/**	 * Check whether this binary expression can have the given	 * number as its number of operands.	 *	 * @return True if and only if the given number is 2.	 *       | result == (number == 2)	 */	@Override	@Raw	public final boolean canHaveAsNbOperands(int number) {		return number == 2;	}	/**	 * Return the operand of this binary expression at the given index.	 * 	 * @return If the given index is 1, the left operand of this	 *         binary expression; otherwise the right operand of	 *         this binary expression.	 *       | if (index == 1)	 *       |   then result == getLeftOperand()	 *       |   else result == getRightOperand()	 */	@Override	@Raw	public final Expression getOperandAt(int index)			throws IndexOutOfBoundsException {		if ((index != 1) && (index != 2))			throw new IndexOutOfBoundsException();		if (index == 1)			return getLeftOperand();		else			return getRightOperand();	}	/**	 * Set the operand for this binary expression at the given	 * index to the given operand.	 */	@Override	@Raw	protected void setOperandAt(int index, Expression operand) {		if (index == 1)			this.leftOperand = operand;		else			this.rightOperand = operand;	}	/**	 * Return the left operand of this binary expression.	 */	@Basic	public Expression getLeftOperand() {		return leftOperand;	}	/**	 * Variable referencing the left operand of this	 * binary expression.	 *	 * @note   This variable is not qualified final, such that operands	 *         can be changed in cloning unary expressions.	 */	private Expression leftOperand;	/**	 * Return the right operand of this binary expression.	 */	@Basic	public Expression getRightOperand() {		return rightOperand;	}	/**	 * Variable referencing the right operand of this	 * binary expression.	 *	 * @note   This variable is not qualified final, such that operands	 *         can be changed in cloning unary expressions.	 */	private Expression rightOperand;	/**	 * Return the value of this binary expression, if its operands had	 * the given values.	 *	 * @param  leftValue	 *         The value to be used for the left operand of this binary	 *         expression.	 * @param  rightValue	 *         The value to be used for the right operand of this binary	 *         expression.	 * @return The value of this binary expression is the result of this	 *         method applied to the values of its operands.	 *       | getValue() ==	 *       |   computeValue(getLeftOperand().getValue(),	 *       |     getRightOperand().getValue())	 * @note   Evaluators that compute the values of all the operands	 *         themselves use this method to apply the operator of this	 *         binary expression.	 */	public abstract long computeValue(long leftValue, long rightValue);	/**	 * Return the simplified operands of the chain of binary expressions	 * of the same class as this binary expression, starting from this	 * binary expression, in the order from left to right.	 * 	 * @return The values of all immutable operands of the chain are	 *         folded into a single integer literal, at the end of the	 *         resulting list. All other operands are mutable.	 * @note   Folding operands that are not adjacent in the chain is only	 *         correct for associative and commutative operators. Additions	 *         and multiplications of longs are associative and commutative,	 *         even if their result overflows.	 */	@Model	protected List<Expression> getSimplifiedChainOperands() {		List<Expression> result = new ArrayList<Expression>();		IntegerLiteral constant = addSimplifiedChainOperands(this, result, null);		if (constant != null)			result.add(constant);		return result;	}	/**	 * Add the simplified operands of the chain starting from the given	 * expression to the given list, and return the given constant combined	 * with the values of all immutable operands of that chain.	 */	private IntegerLiteral addSimplifiedChainOperands(Expression expression,			List<Expression> result, IntegerLiteral constant) {		if ((expression.getClass() == getClass()) && expression.isMutable()) {			BinaryExpression chain = (BinaryExpression) expression;			constant = addSimplifiedChainOperands(chain.getLeftOperand(),				result, constant);			return addSimplifiedChainOperands(chain.getRightOperand(), result,				constant);		}		Expression simplified = expression.simplify();		if (!simplified.isMutable())			return new IntegerLiteral((constant == null) ? simplified.getValue()				: computeValue(constant.getValue(), simplified.getValue()));		// Simplifying an operand may yield a new chain, e.g. for -(-(x+y)).		if (simplified.getClass() == getClass())			return addSimplifiedChainOperands(simplified, result, constant);		result.add(simplified);		return constant;	}	/**	 * Return a balanced tree of binary expressions, combining the given	 * operands from left to right by means of the given constructor.	 * 	 * @param  operands	 *         The operands to combine.	 * @param  constructor	 *         The constructor of the binary expressions combining the	 *         operands.	 * @return The depth of the resulting tree is logarithmic in the number	 *         of given operands.	 */	@Model	protected static Expression combineBalanced(List<Expression> operands,			BinaryOperator<Expression> constructor) {		assert !operands.isEmpty();		return combineBalanced(operands, 0, operands.size(), constructor);	}	/**	 * Return a balanced tree of binary expressions, combining the operands	 * in the given range of the given list.	 */	private static Expression combineBalanced(List<Expression> operands,			int from, int to, BinaryOperator<Expression> constructor) {		if (to - from == 1)			return operands.get(from);		int middle = (from + to) / 2;		return constructor.apply(combineBalanced(operands, from, middle,			constructor), combineBalanced(operands, middle, to, constructor));	}	/**	 * Return a textual representation of this binary expression.	 *	 * @return If both operands of this binary expression are basic expressions,	 *         the textual representation of the left operand of this binary	 *         expression, followed by the symbol representing the operator	 *         of this binary expression followed by the textual representation	 *         of the right operand of this binary expression.	 *       | if ( (getLeftOperand() instanceof BasicExpression) &&	 *       |      (getRightOperand() instanceof BasicExpression) )	 *       |   then result.equals	 *       |          (getLeftOperand().toString() + getOperator() +	 *       |           getRightOperand().toString())	 * @return If the left operand of this binary expression is a basic expression	 *         and the right operand of this binary expression is a composed expression,	 *         the textual representation of the left operand of this binary	 *         expression, followed by the symbol representing the operator	 *         of this binary expression followed by the textual representation	 *         of the right operand of this binary expression in parenthesis.	 *       | if ( (getLeftOperand() instanceof BasicExpression) &&	 *       |      (getRightOperand() instanceof ComposedExpression) )	 *       |   then result.equals	 *       |          (getLeftOperand().toString() + getOperator() +	 *       |           "(" + getRightOperand().toString() + ")")	 * @return If the left operand of this binary expression is a composed expression	 *         and the right operand of this binary expression is a basic expression,	 *         the textual representation of the left operand of this binary	 *         expression in parenthesis, followed by the symbol representing the operator	 *         of this binary expression followed by the textual representation	 *         of the right operand of this binary expression.	 *       | if ( (getLeftOperand() instanceof ComposedExpression) &&	 *       |      (getRightOperand() instanceof BasicExpression) )	 *       |   then result.equals	 *       |          ("(" + getLeftOperand().toString() + ")" + getOperator() +	 *       |           getRightOperand().toString())	 * @return If both operands of this binary expression are composed expressions,	 *         the textual representation of the left operand of this binary	 *         expression in parenthesis, followed by the symbol representing the operator	 *         of this binary expression followed by the textual representation	 *         of the right operand of this binary expression in parenthesis.	 *       | if ( (getLeftOperand() instanceof ComposedExpression) &&	 *       |      (getRightOperand() instanceof ComposedExpression) )	 *       |   then result.equals	 *       |          ("(" + getLeftOperand().toString() + ")" + getOperator() +	 *       |           "(" + getRightOperand().toString() + ")")	 * @note   In the specification of this method, we assume that the classification of	 *         expressions into basic expressions and composed expressions is total. This	 *         means that we assume that no other kinds of expressions will ever be	 *         introduced next to basic expressions and composed expressions.	 */	@Override	public String toString() {		String result;		if (getLeftOperand() instanceof BasicExpression)			result = getLeftOperand().toString();		else if (getLeftOperand() instanceof ComposedExpression)			result = "(" + getLeftOperand().toString() + ")";		else			throw new Error("Unknown expression type!");		result += getOperatorSymbol();		if (getRightOperand() instanceof BasicExpression)			result += getRightOperand().toString();		else if (getRightOperand() instanceof ComposedExpression)			result += "(" + getRightOperand().toString() + ")";		else			throw new Error("Unknown expression type!");		return result;	}}
\ No newline at end of file
@@ -0,0 +1,433 @@
+package chapter_8.course_implementation.expressions;
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.ToLongFunction;
+import java.util.stream.IntStream;
+
+import be.kuleuven.cs.som.annotate.*;
+
+/**
+ * A class of compiled expressions, evaluating an expression by means
+ * of a register file.
+ *   A compiled expression assigns a register to each memory cell involved
+ *   in its expression. The value of the expression is computed from the
+ *   values stored in an array of registers, instead of from the values
+ *   stored in the memory cells themselves. Compiled expressions are built
+ *   by an expression compiler, as a flat program of instructions, and if
+ *   possible as a class generated for their expression.
+ *
+ * @invar    Each register of a compiled expression is assigned to an
+ *           effective memory cell, involved in its expression.
+ *         | for each I in 0..getNbRegisters()-1:
+ *         |   getExpression().hasAsSubExpression(getCellAt(I))
+ * @invar    Different registers are assigned to different memory cells.
+ *         | for each I,J in 0..getNbRegisters()-1:
+ *         |   (I != J) ==> (getCellAt(I) != getCellAt(J))
+ *
+ * @version  2.0
+ * @author   Eric Steegmans
+ */
+public class CompiledExpression {
+
+	/**
+	 * Initialize this new compiled expression with given expression and
+	 * with the program built by the given expression compiler.
+	 *
+	 * @param  expression
+	 *         The expression that has been compiled.
+	 * @param  compiler
+	 *         The expression compiler that has compiled the given
+	 *         expression.
+	 * @post   The expression of this new compiled expression is the same
+	 *         as the given expression.
+	 *       | new.getExpression() == expression
+	 * @post   The memory cells assigned to the registers of this new
+	 *         compiled expression are the memory cells to which the given
+	 *         compiler has assigned a register.
+	 */
+	CompiledExpression(Expression expression, ExpressionCompiler compiler) {
+		this.expression = expression;
+		this.cells = compiler.cells.toArray(new MemoryCell[compiler.cells.size()]);
+		this.initialSlots = new long[compiler.nbSlots];
+		for (Map.Entry<Integer, Long> constant : compiler.constants.entrySet())
+			initialSlots[constant.getKey()] = constant.getValue();
+		int nbInstructions = compiler.nbInstructions;
+		this.opcodes = Arrays.copyOf(compiler.opcodes, nbInstructions);
+		this.leftSlots = Arrays.copyOf(compiler.leftSlots, nbInstructions);
+		this.rightSlots = Arrays.copyOf(compiler.rightSlots, nbInstructions);
+		this.resultSlots = Arrays.copyOf(compiler.resultSlots, nbInstructions);
+		this.operators = Arrays.copyOf(compiler.operators, nbInstructions);
+		this.resultSlot = compiler.resultSlot;
+		this.generatedEvaluator = compiler.generatedEvaluator;
+	}
+
+	/**
+	 * Return the expression that has been compiled into this compiled
+	 * expression.
+	 */
+	@Basic @Immutable
+	public Expression getExpression() {
+		return this.expression;
+	}
+
+	/**
+	 * Variable referencing the expression that has been compiled into
+	 * this compiled expression.
+	 */
+	private final Expression expression;
+
+	/**
+	 * Return the number of registers of this compiled expression.
+	 */
+	@Basic @Immutable
+	public int getNbRegisters() {
+		return cells.length;
+	}
+
+	/**
+	 * Return the memory cell assigned to the given register of this
+	 * compiled expression.
+	 *
+	 * @param  register
+	 *         The index of the register.
+	 * @throws IndexOutOfBoundsException
+	 *         The given register is negative, or not less than the
+	 *         number of registers of this compiled expression.
+	 *       | (register < 0) || (register >= getNbRegisters())
+	 */
+	@Basic @Immutable
+	public MemoryCell getCellAt(int register)
+			throws IndexOutOfBoundsException {
+		return cells[register];
+	}
+
+	/**
+	 * Return the register assigned to the given memory cell.
+	 *
+	 * @param  cell
+	 *         The memory cell to look for.
+	 * @return The index of the register assigned to the given memory cell,
+	 *         or -1 if no register is assigned to it.
+	 *       | if (for some I in 0..getNbRegisters()-1: getCellAt(I) == cell)
+	 *       |   then getCellAt(result) == cell
+	 *       |   else result == -1
+	 */
+	public int getRegisterOf(MemoryCell cell) {
+		for (int register = 0; register < cells.length; register++)
+			if (cells[register] == cell)
+				return register;
+		return -1;
+	}
+
+	/**
+	 * Variable referencing the memory cells assigned to the registers of
+	 * this compiled expression.
+	 */
+	private final MemoryCell[] cells;
+
+	/**
+	 * Return a new array of registers, storing the current values of the
+	 * memory cells assigned to them.
+	 *
+	 * @return The resulting array has a register for each register of
+	 *         this compiled expression, storing the value of its memory
+	 *         cell.
+	 *       | (result.length == getNbRegisters()) &&
+	 *       | for each I in 0..getNbRegisters()-1:
+	 *       |   result[I] == getCellAt(I).getValue()
+	 */
+	public long[] loadRegisters() {
+		long[] registers = new long[cells.length];
+		for (int register = 0; register < cells.length; register++)
+			registers[register] = cells[register].getValue();
+		return registers;
+	}
+
+	/**
+	 * Return the value of the compiled expression, given the values in
+	 * the given registers.
+	 *
+	 * @param  registers
+	 *         The values to be used for the memory cells assigned to the
+	 *         registers of this compiled expression.
+	 * @return The value of the compiled expression, if each memory cell
+	 *         stored the value in its register.
+	 *       | for each I in 0..getNbRegisters()-1:
+	 *       |   getCellAt(I).setValue(registers[I])
+	 *       | result == getExpression().getValue()
+	 * @throws IllegalArgumentException
+	 *         The given array of registers is not effective, or it has
+	 *         less registers than this compiled expression.
+	 *       | (registers == null) || (registers.length < getNbRegisters())
+	 * @note   The memory cells themselves are not consulted, nor changed.
+	 */
+	public long getValue(long[] registers) throws IllegalArgumentException {
+		if ((registers == null) || (registers.length < cells.length))
+			throw new IllegalArgumentException();
+		if (generatedEvaluator != null)
+			return generatedEvaluator.applyAsLong(registers);
+		long[] slots = initialSlots.clone();
+		System.arraycopy(registers, 0, slots, 0, cells.length);
+		for (int i = 0; i < opcodes.length; i++) {
+			long left = slots[leftSlots[i]];
+			long right = slots[rightSlots[i]];
+			long result;
+			switch (opcodes[i]) {
+			case ExpressionCompiler.ADD:
+				result = left + right;
+				break;
+			case ExpressionCompiler.SUBTRACT:
+				result = left - right;
+				break;
+			case ExpressionCompiler.MULTIPLY:
+				result = left * right;
+				break;
+			case ExpressionCompiler.NEGATE:
+				result = -left;
+				break;
+			case ExpressionCompiler.UNARY:
+				result = ((UnaryExpression) operators[i]).computeValue(left);
+				break;
+			default:
+				result = ((BinaryExpression) operators[i]).computeValue(left,
+					right);
+			}
+			slots[resultSlots[i]] = result;
+		}
+		return slots[resultSlot];
+	}
+
+	/**
+	 * Return the current value of the compiled expression.
+	 *
+	 * @return The current value of the compiled expression.
+	 *       | result == getExpression().getValue()
+	 */
+	public long getValue() {
+		return getValue(loadRegisters());
+	}
+
+	/**
+	 * Return the values of the compiled expression for each row of the
+	 * given columns.
+	 *
+	 * @param  columns
+	 *         The columns of values to be used for the memory cells of
+	 *         the compiled expression, indexed by their address.
+	 * @param  nbRows
+	 *         The number of rows to evaluate.
+	 * @return The resulting array stores the value of the compiled
+	 *         expression for each row, if each memory cell stored the value
+	 *         in the column of its address at that row.
+	 *       | (result.length == nbRows) &&
+	 *       | for each row in 0..nbRows-1:
+	 *       |   result[row] == getValue(new long[] {
+	 *       |     columns[getCellAt(0).getAddress()][row], ...,
+	 *       |     columns[getCellAt(getNbRegisters()-1).getAddress()][row] })
+	 * @throws IllegalArgumentException
+	 *         The given columns are not effective, the given number of rows
+	 *         is negative, or the given columns have no effective column
+	 *         with at least the given number of rows for the address of
+	 *         some memory cell of the compiled expression.
+	 *       | (columns == null) || (nbRows < 0) ||
+	 *       | (for some I in 0..getNbRegisters()-1:
+	 *       |    (getCellAt(I).getAddress() >= columns.length) ||
+	 *       |    (columns[getCellAt(I).getAddress()] == null) ||
+	 *       |    (columns[getCellAt(I).getAddress()].length < nbRows))
+	 * @note   The rows are evaluated in blocks. Each instruction is applied
+	 *         to all the rows of a block in a single loop, that the virtual
+	 *         machine can compile to vector instructions. The values of a
+	 *         block fit in the caches of the processor.
+	 */
+	public long[] getValues(long[][] columns, int nbRows)
+			throws IllegalArgumentException {
+		long[][] registerColumns = getRegisterColumns(columns, nbRows);
+		long[] result = new long[nbRows];
+		evaluateRows(registerColumns, result, 0, nbRows);
+		return result;
+	}
+
+	/**
+	 * Return the values of the compiled expression for each row of the
+	 * given columns, using several threads.
+	 *
+	 * @param  columns
+	 *         The columns of values to be used for the memory cells of
+	 *         the compiled expression, indexed by their address.
+	 * @param  nbRows
+	 *         The number of rows to evaluate.
+	 * @return The resulting array stores the same values as the array
+	 *         resulting from evaluating the rows in a single thread.
+	 *       | Arrays.equals(result, getValues(columns,nbRows))
+	 * @throws IllegalArgumentException
+	 *         The given columns are not effective, the given number of rows
+	 *         is negative, or the given columns have no effective column
+	 *         with at least the given number of rows for the address of
+	 *         some memory cell of the compiled expression.
+	 *       | (columns == null) || (nbRows < 0) ||
+	 *       | (for some I in 0..getNbRegisters()-1:
+	 *       |    (getCellAt(I).getAddress() >= columns.length) ||
+	 *       |    (columns[getCellAt(I).getAddress()] == null) ||
+	 *       |    (columns[getCellAt(I).getAddress()].length < nbRows))
+	 * @note   The rows are split in ranges of successive rows, that are
+	 *         evaluated independently of each other in the common fork-join
+	 *         pool. Each range stores its values in its own part of the
+	 *         resulting array. Few rows are evaluated in a single thread
+	 *         right away.
+	 */
+	public long[] getValuesInParallel(long[][] columns, int nbRows)
+			throws IllegalArgumentException {
+		final long[][] registerColumns = getRegisterColumns(columns, nbRows);
+		final long[] result = new long[nbRows];
+		final int nbRanges = Math.min(nbRows / MIN_RANGE_SIZE,
+			4 * ForkJoinPool.getCommonPoolParallelism());
+		if (nbRanges < 2)
+			evaluateRows(registerColumns, result, 0, nbRows);
+		else
+			IntStream.range(0, nbRanges).parallel().forEach(i ->
+				evaluateRows(registerColumns, result,
+					(int) ((long) i * nbRows / nbRanges),
+					(int) ((long) (i + 1) * nbRows / nbRanges)));
+		return result;
+	}
+
+	/**
+	 * The minimal number of rows in each of the ranges evaluated by
+	 * different threads.
+	 */
+	public static final int MIN_RANGE_SIZE = 1 << 14;
+
+	/**
+	 * Return the columns of values of the registers of this compiled
+	 * expression, taken from the given columns.
+	 *
+	 * @throws IllegalArgumentException
+	 *         The given columns are not effective, the given number of rows
+	 *         is negative, or the given columns have no effective column
+	 *         with at least the given number of rows for the address of
+	 *         some memory cell of the compiled expression.
+	 */
+	private long[][] getRegisterColumns(long[][] columns, int nbRows)
+			throws IllegalArgumentException {
+		if ((columns == null) || (nbRows < 0))
+			throw new IllegalArgumentException();
+		long[][] registerColumns = new long[cells.length][];
+		for (int register = 0; register < cells.length; register++) {
+			int address = cells[register].getAddress();
+			if ((address >= columns.length) || (columns[address] == null)
+					|| (columns[address].length < nbRows))
+				throw new IllegalArgumentException();
+			registerColumns[register] = columns[address];
+		}
+		return registerColumns;
+	}
+
+	/**
+	 * Store the values of this compiled expression for the rows in the
+	 * given range of the given columns of registers in the given result.
+	 *
+	 * @note   The slots of each block of rows are stored in a column of
+	 *         their own. Those columns are only allocated once for all
+	 *         the blocks in the given range.
+	 */
+	private void evaluateRows(long[][] registerColumns, long[] result,
+			int from, int to) {
+		long[][] slots = new long[initialSlots.length][BLOCK_SIZE];
+		for (int slot = cells.length; slot < initialSlots.length; slot++)
+			Arrays.fill(slots[slot], initialSlots[slot]);
+		for (int start = from; start < to; start += BLOCK_SIZE) {
+			int nbRows = Math.min(BLOCK_SIZE, to - start);
+			for (int register = 0; register < cells.length; register++)
+				System.arraycopy(registerColumns[register], start,
+					slots[register], 0, nbRows);
+			for (int i = 0; i < opcodes.length; i++)
+				evaluateInstruction(i, slots[leftSlots[i]],
+					slots[rightSlots[i]], slots[resultSlots[i]], nbRows);
+			System.arraycopy(slots[resultSlot], 0, result, start, nbRows);
+		}
+	}
+
+	/**
+	 * Apply the instruction at the given index to the given number of
+	 * values in the given columns of operands, and store its results in
+	 * the given column.
+	 */
+	private void evaluateInstruction(int index, long[] left, long[] right,
+			long[] result, int nbRows) {
+		switch (opcodes[index]) {
+		case ExpressionCompiler.ADD:
+			for (int row = 0; row < nbRows; row++)
+				result[row] = left[row] + right[row];
+			break;
+		case ExpressionCompiler.SUBTRACT:
+			for (int row = 0; row < nbRows; row++)
+				result[row] = left[row] - right[row];
+			break;
+		case ExpressionCompiler.MULTIPLY:
+			for (int row = 0; row < nbRows; row++)
+				result[row] = left[row] * right[row];
+			break;
+		case ExpressionCompiler.NEGATE:
+			for (int row = 0; row < nbRows; row++)
+				result[row] = -left[row];
+			break;
+		case ExpressionCompiler.UNARY:
+			UnaryExpression unary = (UnaryExpression) operators[index];
+			for (int row = 0; row < nbRows; row++)
+				result[row] = unary.computeValue(left[row]);
+			break;
+		default:
+			BinaryExpression binary = (BinaryExpression) operators[index];
+			for (int row = 0; row < nbRows; row++)
+				result[row] = binary.computeValue(left[row], right[row]);
+		}
+	}
+
+	/**
+	 * The number of rows evaluated at once by batch evaluations.
+	 */
+	private static final int BLOCK_SIZE = 256;
+
+	/**
+	 * Variable referencing the initial values of the slots used by the
+	 * instructions of this compiled expression. Slots storing the value
+	 * of an immutable subexpression are initialized with that value.
+	 */
+	private final long[] initialSlots;
+
+	/**
+	 * Variables referencing the opcodes, the slots of the operands, the
+	 * slots of the results and the composed expressions of the instructions
+	 * of this compiled expression, in the order of their execution.
+	 */
+	private final byte[] opcodes;
+
+	private final int[] leftSlots, rightSlots, resultSlots;
+
+	private final ComposedExpression[] operators;
+
+	/**
+	 * Variable registering the slot storing the value of the compiled
+	 * expression, after all instructions have been executed.
+	 */
+	private final int resultSlot;
+
+	/**
+	 * Check whether this compiled expression is evaluated by means of a
+	 * class generated for its expression, instead of by executing its
+	 * instructions one by one.
+	 */
+	@Basic @Immutable
+	public boolean hasGeneratedEvaluator() {
+		return this.generatedEvaluator != null;
+	}
+
+	/**
+	 * Variable referencing the function evaluating this compiled expression
+	 * by means of a generated class, or the null reference if no class has
+	 * been generated for it.
+	 */
+	private final ToLongFunction<long[]> generatedEvaluator;
+
+}
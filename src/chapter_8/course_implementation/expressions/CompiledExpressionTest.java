@@ -0,0 +1,132 @@
+package chapter_8.course_implementation.expressions;
+
+import static org.junit.Assert.*;
+
+import org.junit.*;
+
+public class CompiledExpressionTest {
+
+	private MemoryCell cell_1, cell_2, otherCell;
+
+	private CompiledExpression compiled;
+
+	@Before public void setUp() throws Exception {
+		cell_1 = new MemoryCell(1);
+		cell_2 = new MemoryCell(2);
+		otherCell = new MemoryCell(3);
+		cell_1.setValue(10);
+		cell_2.setValue(4);
+		// M2*(M1-M2)+M1
+		compiled = ExpressionCompiler.compile(new Addition(new Multiplication(
+			cell_2, new Subtraction(cell_1, cell_2)), cell_1));
+	}
+
+	@Test public void getRegisterOf_SeveralCases() {
+		assertEquals(0, compiled.getRegisterOf(cell_2));
+		assertEquals(1, compiled.getRegisterOf(cell_1));
+		assertEquals(-1, compiled.getRegisterOf(otherCell));
+		assertEquals(-1, compiled.getRegisterOf(null));
+	}
+
+	@Test(expected = IndexOutOfBoundsException.class) public void getCellAt_IllegalRegister() {
+		compiled.getCellAt(2);
+	}
+
+	@Test public void loadRegisters_SingleCase() {
+		assertArrayEquals(new long[] { 4, 10 }, compiled.loadRegisters());
+	}
+
+	@Test public void getValue_GivenRegisters() {
+		assertEquals(2L * (5 - 2) + 5, compiled.getValue(new long[] { 2, 5 }));
+		assertEquals(10L, cell_1.getValue());
+		assertEquals(4L, cell_2.getValue());
+	}
+
+	@Test public void getValue_MoreRegisters() {
+		assertEquals(2L * (5 - 2) + 5,
+			compiled.getValue(new long[] { 2, 5, 100 }));
+	}
+
+	@Test(expected = IllegalArgumentException.class) public void getValue_TooFewRegisters() {
+		compiled.getValue(new long[] { 2 });
+	}
+
+	@Test(expected = IllegalArgumentException.class) public void getValue_NonEffectiveRegisters() {
+		compiled.getValue(null);
+	}
+
+	@Test public void getValue_CurrentValues() {
+		assertEquals(4L * (10 - 4) + 10, compiled.getValue());
+		cell_1.setValue(0);
+		assertEquals(4L * (0 - 4), compiled.getValue());
+	}
+
+	@Test public void getValues_LegalCase() {
+		long[][] columns = { null, { 10, 0, -3, 7 }, { 4, 4, 5, 7, 100 } };
+		assertArrayEquals(new long[] { 4L * (10 - 4) + 10, 4L * (0 - 4),
+			5L * (-3 - 5) - 3 }, compiled.getValues(columns, 3));
+		assertArrayEquals(new long[0], compiled.getValues(columns, 0));
+	}
+
+	@Test public void getValues_ManyRows() {
+		Expression expression = new Subtraction(new Negation(new Multiplication(
+			cell_1, new IntegerLiteral(3))), new Addition(cell_2, new IntegerLiteral(-8)));
+		CompiledExpression compiledExpression = ExpressionCompiler.compile(expression);
+		long[][] columns = new long[3][1000];
+		for (int row = 0; row < 1000; row++) {
+			columns[1][row] = row;
+			columns[2][row] = row * row;
+		}
+		long[] values = compiledExpression.getValues(columns, 1000);
+		for (int row = 0; row < 1000; row++)
+			assertEquals(-3L * row - (row * row - 8), values[row]);
+	}
+
+	@Test public void getValues_ImmutableExpression() {
+		CompiledExpression compiledExpression = ExpressionCompiler.compile(
+			new Multiplication(new IntegerLiteral(6), new IntegerLiteral(7)));
+		assertArrayEquals(new long[] { 42, 42, 42 },
+			compiledExpression.getValues(new long[0][], 3));
+	}
+
+	@Test(expected = IllegalArgumentException.class) public void getValues_MissingColumn() {
+		compiled.getValues(new long[][] { null, { 1, 2 } }, 2);
+	}
+
+	@Test(expected = IllegalArgumentException.class) public void getValues_ShortColumn() {
+		compiled.getValues(new long[][] { null, { 1, 2 }, { 3 } }, 2);
+	}
+
+	@Test(expected = IllegalArgumentException.class) public void getValues_NonEffectiveColumns() {
+		compiled.getValues(null, 0);
+	}
+
+	@Test(expected = IllegalArgumentException.class) public void getValues_NegativeNbRows() {
+		compiled.getValues(new long[3][2], -1);
+	}
+
+	@Test public void getValuesInParallel_ManyRows() {
+		int nbRows = 5 * CompiledExpression.MIN_RANGE_SIZE + 3;
+		long[][] columns = new long[3][nbRows];
+		for (int row = 0; row < nbRows; row++) {
+			columns[1][row] = row;
+			columns[2][row] = nbRows - 2 * row;
+		}
+		long[] values = compiled.getValuesInParallel(columns, nbRows);
+		assertEquals(nbRows, values.length);
+		for (int row = 0; row < nbRows; row++)
+			assertEquals(columns[2][row] * (row - columns[2][row]) + row,
+				values[row]);
+	}
+
+	@Test public void getValuesInParallel_FewRows() {
+		long[][] columns = { null, { 10, 0 }, { 4, 4 } };
+		assertArrayEquals(new long[] { 4L * (10 - 4) + 10, 4L * (0 - 4) },
+			compiled.getValuesInParallel(columns, 2));
+	}
+
+	@Test(expected = IllegalArgumentException.class) public void getValuesInParallel_MissingColumn() {
+		compiled.getValuesInParallel(new long[2][100000], 100000);
+	}
+
+}
@@ -44,6 +44,27 @@ public abstract class Expression implements Cloneable {
 	 */
 	public abstract boolean isMutable();
 
+	/**
+	 * Return a simplified version of this expression.
+	 * 
+	 * @return The resulting expression has the same value as this
+	 *         expression, whatever the values of its memory cells.
+	 *       | result.getValue() == getValue()
+	 * @return If this expression is immutable, the resulting expression
+	 *         is an integer literal with the value of this expression.
+	 *       | if (! isMutable())
+	 *       |   then (result instanceof IntegerLiteral) &&
+	 *       |        (result.getValue() == getValue())
+	 * @note   The resulting expression involves the same memory cells
+	 *         as this expression, or some of them. Memory cells are
+	 *         never cloned. This expression itself is not changed.
+	 */
+	public Expression simplify() {
+		if (!isMutable())
+			return new IntegerLiteral(getValue());
+		return this;
+	}
+
 	/**
 	 * Check whether this expression is equal to the given object.
 	 * 
@@ -0,0 +1,353 @@
+package chapter_8.course_implementation.expressions;
+
+import java.util.Random;
+
+/**
+ * A class collecting micro benchmarks for expressions.
+ *		Each benchmark is run a number of times to warm up the virtual
+ *		machine, after which the average time of a number of measured runs
+ *		is reported. Benchmarks of evaluations evaluate the same expression,
+ *		involving a fixed number of memory cells, many times in a row,
+ *		changing the value of one memory cell before each evaluation.
+ *
+ * @version  1.0
+ * @author   Eric Steegmans
+ */
+public class ExpressionBenchmark {
+
+	public static void main(String args[]) {
+		int nbEvaluations = (args.length > 0) ? Integer.parseInt(args[0]) : 1000000;
+		benchmarkCompiledExpressions(nbEvaluations);
+		benchmarkMemoryBanks(nbEvaluations / 100);
+		benchmarkBatchEvaluations(nbEvaluations);
+		benchmarkIncrementalEvaluations(nbEvaluations / 100);
+		benchmarkSimplifiedExpressions(nbEvaluations);
+	}
+
+	/**
+	 * Number of runs to warm up the virtual machine before measuring.
+	 */
+	private static final int NB_WARMUP_RUNS = 5;
+
+	/**
+	 * Number of measured runs for each benchmark.
+	 */
+	private static final int NB_MEASURED_RUNS = 10;
+
+	/**
+	 * Number of memory cells involved in the expressions of the benchmarks.
+	 */
+	static final int NB_CELLS = 16;
+
+	/**
+	 * Number of binary operators in the expressions of the benchmarks.
+	 */
+	static final int NB_OPERATORS = 255;
+
+	/**
+	 * Variable collecting results of benchmarks, to prevent the virtual
+	 * machine from eliminating the code under test.
+	 */
+	static long sink;
+
+	/**
+	 * Run the given benchmark, and print the average time per operation.
+	 */
+	static void run(String name, int nbEvaluations, Runnable benchmark) {
+		for (int i = 0; i < NB_WARMUP_RUNS; i++)
+			benchmark.run();
+		long start = System.nanoTime();
+		for (int i = 0; i < NB_MEASURED_RUNS; i++)
+			benchmark.run();
+		long elapsed = System.nanoTime() - start;
+		System.out.printf("%-50s %10.2f ns/operation%n", name,
+				(double) elapsed / NB_MEASURED_RUNS / nbEvaluations);
+	}
+
+	/**
+	 * Return a new array of memory cells with successive addresses.
+	 */
+	static MemoryCell[] createCells() {
+		MemoryCell[] cells = new MemoryCell[NB_CELLS];
+		for (int i = 0; i < NB_CELLS; i++)
+			cells[i] = new MemoryCell(i);
+		return cells;
+	}
+
+	/**
+	 * Return a randomly shaped expression with the given number of binary
+	 * operators, whose basic expressions are the given memory cells and
+	 * small integer literals.
+	 */
+	static Expression createExpression(MemoryCell[] cells, int nbOperators,
+			Random random) {
+		if (nbOperators == 0) {
+			if (random.nextInt(4) == 0)
+				return new IntegerLiteral(random.nextInt(10));
+			return cells[random.nextInt(cells.length)];
+		}
+		int nbLeftOperators = random.nextInt(nbOperators);
+		Expression left = createExpression(cells, nbLeftOperators, random);
+		Expression right = createExpression(cells,
+				nbOperators - 1 - nbLeftOperators, random);
+		switch (random.nextInt(4)) {
+		case 0:
+			return new Addition(left, right);
+		case 1:
+			return new Subtraction(left, right);
+		case 2:
+			return new Multiplication(left, right);
+		default:
+			return new Negation(new Addition(left, right));
+		}
+	}
+
+	/**
+	 * Compare evaluating an expression by means of its method getValue,
+	 * with evaluating its compiled expression. Compiled expressions are
+	 * evaluated from registers loaded from the memory cells before each
+	 * evaluation, and from registers changed directly.
+	 */
+	public static void benchmarkCompiledExpressions(final int nbEvaluations) {
+		final MemoryCell[] cells = createCells();
+		final Expression expression = createExpression(cells, NB_OPERATORS,
+				new Random(NB_OPERATORS));
+		final CompiledExpression compiled = ExpressionCompiler.compile(expression);
+		run("Expression.getValue", nbEvaluations, new Runnable() {
+			public void run() {
+				for (int i = 0; i < nbEvaluations; i++) {
+					cells[i % NB_CELLS].setValue(i);
+					sink += expression.getValue();
+				}
+			}
+		});
+		run("CompiledExpression.getValue, loading registers", nbEvaluations,
+				new Runnable() {
+			public void run() {
+				for (int i = 0; i < nbEvaluations; i++) {
+					cells[i % NB_CELLS].setValue(i);
+					sink += compiled.getValue();
+				}
+			}
+		});
+		run("CompiledExpression.getValue, given registers", nbEvaluations,
+				new Runnable() {
+			public void run() {
+				long[] registers = compiled.loadRegisters();
+				for (int i = 0; i < nbEvaluations; i++) {
+					registers[i % registers.length] = i;
+					sink += compiled.getValue(registers);
+				}
+			}
+		});
+	}
+
+	/**
+	 * Compare evaluating an expression for each row of columns of values
+	 * for its memory cells, by setting the values of the memory cells before
+	 * each evaluation, with evaluating its compiled expression for each
+	 * row, and with evaluating all rows at once.
+	 */
+	public static void benchmarkBatchEvaluations(final int nbRows) {
+		final MemoryCell[] cells = createCells();
+		final Expression expression = createExpression(cells, NB_OPERATORS,
+				new Random(NB_OPERATORS));
+		final CompiledExpression compiled = ExpressionCompiler.compile(expression);
+		final long[][] columns = new long[NB_CELLS][nbRows];
+		Random random = new Random(nbRows);
+		for (long[] column : columns)
+			for (int row = 0; row < nbRows; row++)
+				column[row] = random.nextInt(100);
+		run("Rows, setting memory cells", nbRows, new Runnable() {
+			public void run() {
+				for (int row = 0; row < nbRows; row++) {
+					for (int address = 0; address < NB_CELLS; address++)
+						cells[address].setValue(columns[address][row]);
+					sink += expression.getValue();
+				}
+			}
+		});
+		run("Rows, CompiledExpression.getValue", nbRows, new Runnable() {
+			public void run() {
+				long[] registers = new long[compiled.getNbRegisters()];
+				for (int row = 0; row < nbRows; row++) {
+					for (int register = 0; register < registers.length; register++)
+						registers[register] =
+							columns[compiled.getCellAt(register).getAddress()][row];
+					sink += compiled.getValue(registers);
+				}
+			}
+		});
+		run("Rows, CompiledExpression.getValues", nbRows, new Runnable() {
+			public void run() {
+				sink += compiled.getValues(columns, nbRows)[nbRows - 1];
+			}
+		});
+		run("Rows, CompiledExpression.getValuesInParallel", nbRows,
+				new Runnable() {
+			public void run() {
+				sink += compiled.getValuesInParallel(columns, nbRows)[nbRows - 1];
+			}
+		});
+	}
+
+	/**
+	 * Compare evaluating an expression by means of its method getValue,
+	 * with evaluating its simplified version. The expressions are a random
+	 * expression, and a degenerate chain of additions and multiplications
+	 * by 1, half of whose operands are integer literals.
+	 */
+	public static void benchmarkSimplifiedExpressions(final int nbEvaluations) {
+		final MemoryCell[] cells = createCells();
+		final Expression expression = createExpression(cells, NB_OPERATORS,
+				new Random(NB_OPERATORS));
+		final Expression simplified = expression.simplify();
+		run("Expression.getValue, original expression", nbEvaluations,
+				new Runnable() {
+			public void run() {
+				for (int i = 0; i < nbEvaluations; i++) {
+					cells[i % NB_CELLS].setValue(i);
+					sink += expression.getValue();
+				}
+			}
+		});
+		run("Expression.getValue, simplified expression", nbEvaluations,
+				new Runnable() {
+			public void run() {
+				for (int i = 0; i < nbEvaluations; i++) {
+					cells[i % NB_CELLS].setValue(i);
+					sink += simplified.getValue();
+				}
+			}
+		});
+		Expression chain = cells[0];
+		for (int i = 1; i <= NB_OPERATORS / 2; i++)
+			chain = new Addition(new Multiplication(chain, new IntegerLiteral(1)),
+					(i % 2 == 0) ? cells[i % NB_CELLS] : new IntegerLiteral(i));
+		final Expression degenerate = chain;
+		final Expression simplifiedDegenerate = degenerate.simplify();
+		run("Expression.getValue, degenerate chain", nbEvaluations,
+				new Runnable() {
+			public void run() {
+				for (int i = 0; i < nbEvaluations; i++) {
+					cells[i % NB_CELLS].setValue(i);
+					sink += degenerate.getValue();
+				}
+			}
+		});
+		run("Expression.getValue, simplified degenerate chain", nbEvaluations,
+				new Runnable() {
+			public void run() {
+				for (int i = 0; i < nbEvaluations; i++) {
+					cells[i % NB_CELLS].setValue(i);
+					sink += simplifiedDegenerate.getValue();
+				}
+			}
+		});
+	}
+
+	/**
+	 * Number of memory cells involved in the expression of the benchmark
+	 * of incremental evaluations.
+	 */
+	static final int NB_INCREMENTAL_CELLS = 1024;
+
+	/**
+	 * Number of binary operators in the expression of the benchmark of
+	 * incremental evaluations.
+	 */
+	static final int NB_INCREMENTAL_OPERATORS = 4095;
+
+	/**
+	 * Compare evaluating a large expression by means of its method getValue,
+	 * with evaluating it incrementally, after the value of a single memory
+	 * cell has changed. Incremental evaluations either check all memory
+	 * cells for changes, or only check the memory cell that has changed.
+	 */
+	public static void benchmarkIncrementalEvaluations(final int nbEvaluations) {
+		final MemoryCell[] cells = new MemoryCell[NB_INCREMENTAL_CELLS];
+		for (int i = 0; i < NB_INCREMENTAL_CELLS; i++)
+			cells[i] = new MemoryCell(i);
+		final Expression expression = createExpression(cells,
+				NB_INCREMENTAL_OPERATORS, new Random(NB_INCREMENTAL_OPERATORS));
+		final IncrementalEvaluator evaluator = new IncrementalEvaluator(expression);
+		run("Changing a cell, Expression.getValue", nbEvaluations,
+				new Runnable() {
+			public void run() {
+				for (int i = 0; i < nbEvaluations; i++) {
+					cells[i % NB_INCREMENTAL_CELLS].setValue(i);
+					sink += expression.getValue();
+				}
+			}
+		});
+		run("Changing a cell, incremental, checking all cells", nbEvaluations,
+				new Runnable() {
+			public void run() {
+				for (int i = 0; i < nbEvaluations; i++) {
+					cells[i % NB_INCREMENTAL_CELLS].setValue(i);
+					sink += evaluator.getValue();
+				}
+			}
+		});
+		run("Changing a cell, incremental, given changed cell",
+				nbEvaluations, new Runnable() {
+			public void run() {
+				for (int i = 0; i < nbEvaluations; i++) {
+					MemoryCell cell = cells[i % NB_INCREMENTAL_CELLS];
+					cell.setValue(i);
+					sink += evaluator.getValueAfterChanges(cell);
+				}
+			}
+		});
+	}
+
+	/**
+	 * Number of memory cells in the contexts switched by the benchmark
+	 * of memory banks.
+	 */
+	static final int NB_CONTEXT_CELLS = 4096;
+
+	/**
+	 * Compare switching between two contexts of values for the same memory
+	 * cells, by setting the value of each memory cell, with switching by
+	 * selecting another bank of the memory of the memory cells.
+	 */
+	public static void benchmarkMemoryBanks(final int nbSwitches) {
+		final MemoryCell[] cells = new MemoryCell[NB_CONTEXT_CELLS];
+		for (int i = 0; i < NB_CONTEXT_CELLS; i++)
+			cells[i] = new MemoryCell(i);
+		final long[][] contexts = new long[2][NB_CONTEXT_CELLS];
+		for (int i = 0; i < NB_CONTEXT_CELLS; i++) {
+			contexts[0][i] = i;
+			contexts[1][i] = -i;
+		}
+		run("Switching contexts, setting each memory cell", nbSwitches,
+				new Runnable() {
+			public void run() {
+				for (int i = 0; i < nbSwitches; i++) {
+					long[] context = contexts[i % 2];
+					for (int address = 0; address < NB_CONTEXT_CELLS; address++)
+						cells[address].setValue(context[address]);
+					sink += cells[i % NB_CONTEXT_CELLS].getValue();
+				}
+			}
+		});
+		final Memory memory = new Memory();
+		final MemoryCell[] memoryCells = new MemoryCell[NB_CONTEXT_CELLS];
+		for (int i = 0; i < NB_CONTEXT_CELLS; i++)
+			memoryCells[i] = new MemoryCell(memory, i);
+		memory.store(0, contexts[0]);
+		memory.selectBank(memory.addBank());
+		memory.store(0, contexts[1]);
+		run("Switching contexts, selecting a memory bank", nbSwitches,
+				new Runnable() {
+			public void run() {
+				for (int i = 0; i < nbSwitches; i++) {
+					memory.selectBank(i % 2);
+					sink += memoryCells[i % NB_CONTEXT_CELLS].getValue();
+				}
+			}
+		});
+	}
+
+}
@@ -0,0 +1,568 @@
+package chapter_8.course_implementation.expressions;
+
+import java.io.*;
+import java.util.*;
+import java.util.function.ToLongFunction;
+
+/**
+ * A class of compilers turning expressions into compiled expressions.
+ *   An expression compiler translates an expression into a flat program
+ *   of instructions. Each instruction applies a single operator to values
+ *   stored in slots, and stores its result in a temporary slot. The first
+ *   slots are the registers, to which the memory cells of the expression
+ *   are assigned. Immutable subexpressions are replaced by a slot storing
+ *   their value. Temporary slots are reused, as soon as the values stored
+ *   in them have been used.
+ *   Expressions only involving additions, subtractions, multiplications
+ *   and negations are also translated into the bytecode of a class of
+ *   their own, evaluating the expression in a single method without any
+ *   loops or branches.
+ *
+ * @note   A compiled expression executes its instructions in a single loop,
+ *         instead of invoking a method for each of its subexpressions. The
+ *         operators of additions, subtractions, multiplications and
+ *         negations are applied by the loop itself. The generated bytecode
+ *         avoids that loop as well, and is compiled to machine code by the
+ *         virtual machine once it has been executed often enough.
+ *
+ * @version  2.0
+ * @author   Eric Steegmans
+ */
+public class ExpressionCompiler {
+
+	/**
+	 * Return a compiled expression for the given expression.
+	 *
+	 * @param  expression
+	 *         The expression to be compiled.
+	 * @return The resulting compiled expression compiles the given
+	 *         expression.
+	 *       | result.getExpression() == expression
+	 * @return A register is assigned to each memory cell involved in the
+	 *         given expression, in the order in which they appear in the
+	 *         textual representation of the given expression.
+	 *       | for each cell in MemoryCell:
+	 *       |   (result.getRegisterOf(cell) >= 0) ==
+	 *       |     expression.hasAsSubExpression(cell)
+	 * @throws IllegalArgumentException
+	 *         The given expression is not effective, or it involves
+	 *         expressions that are neither integer literals, nor memory
+	 *         cells, nor unary expressions, nor binary expressions.
+	 *       | expression == null
+	 * @note   Changes to the structure of the given expression after it
+	 *         has been compiled are not reflected in the resulting
+	 *         compiled expression. Changes to the values of its memory
+	 *         cells are reflected in the registers loaded from them.
+	 */
+	public static CompiledExpression compile(Expression expression)
+			throws IllegalArgumentException {
+		if (expression == null)
+			throw new IllegalArgumentException();
+		ExpressionCompiler compiler = new ExpressionCompiler();
+		compiler.assignRegisters(expression);
+		compiler.nbSlots = compiler.cells.size();
+		compiler.resultSlot = compiler.compileSubExpression(expression);
+		compiler.placeTemporaries();
+		compiler.generatedEvaluator = compiler.generateEvaluator(expression);
+		return new CompiledExpression(expression, compiler);
+	}
+
+	/**
+	 * Initialize this new expression compiler without any registers
+	 * assigned and without any instructions.
+	 */
+	private ExpressionCompiler() {
+	}
+
+	/**
+	 * Assign a register to each memory cell involved in the given
+	 * expression that has no register yet.
+	 */
+	private void assignRegisters(Expression expression) {
+		if (expression instanceof MemoryCell) {
+			if (!registers.containsKey(expression)) {
+				registers.put((MemoryCell) expression, cells.size());
+				cells.add((MemoryCell) expression);
+			}
+		} else if (expression.isMutable()
+				&& (expression instanceof ComposedExpression)) {
+			ComposedExpression composed = (ComposedExpression) expression;
+			for (int pos = 1; pos <= composed.getNbOperands(); pos++)
+				assignRegisters(composed.getOperandAt(pos));
+		}
+	}
+
+	/**
+	 * Variable referencing the memory cells to which a register has been
+	 * assigned, in the order of their registers.
+	 */
+	final List<MemoryCell> cells = new ArrayList<MemoryCell>();
+
+	/**
+	 * Variable referencing a map of the memory cells to which a register
+	 * has been assigned to their register.
+	 *
+	 * @note   Memory cells are only equal to themselves. The map therefore
+	 *         compares them by their identity.
+	 */
+	private final Map<MemoryCell, Integer> registers =
+		new IdentityHashMap<MemoryCell, Integer>();
+
+	/**
+	 * Add the instructions computing the value of the given expression,
+	 * and return the slot in which that value ends up.
+	 */
+	private int compileSubExpression(Expression expression)
+			throws IllegalArgumentException {
+		if (expression instanceof MemoryCell)
+			return registers.get(expression);
+		if (!expression.isMutable()) {
+			constants.put(nbSlots, expression.getValue());
+			return nbSlots++;
+		}
+		int nbTemporariesInUse = nbTemporaries;
+		if (expression instanceof UnaryExpression) {
+			UnaryExpression unary = (UnaryExpression) expression;
+			int operandSlot = compileSubExpression(unary.getOperand());
+			nbTemporaries = nbTemporariesInUse;
+			return addInstruction((unary instanceof Negation) ? NEGATE : UNARY,
+				operandSlot, operandSlot, unary);
+		}
+		if (expression instanceof BinaryExpression) {
+			BinaryExpression binary = (BinaryExpression) expression;
+			int leftSlot = compileSubExpression(binary.getLeftOperand());
+			int rightSlot = compileSubExpression(binary.getRightOperand());
+			nbTemporaries = nbTemporariesInUse;
+			byte opcode = BINARY;
+			if (binary instanceof Addition)
+				opcode = ADD;
+			else if (binary instanceof Subtraction)
+				opcode = SUBTRACT;
+			else if (binary instanceof Multiplication)
+				opcode = MULTIPLY;
+			return addInstruction(opcode, leftSlot, rightSlot, binary);
+		}
+		throw new IllegalArgumentException();
+	}
+
+	/**
+	 * Add an instruction with the given opcode, applied to the values
+	 * in the given slots, and return the slot receiving its result.
+	 *
+	 * @note   The result is stored in the first temporary slot that is
+	 *         not in use. Temporary slots are numbered -1, -2, ... until
+	 *         all instructions have been added.
+	 */
+	private int addInstruction(byte opcode, int leftSlot, int rightSlot,
+			ComposedExpression operator) {
+		if (nbInstructions == opcodes.length) {
+			int newLength = 2 * opcodes.length;
+			opcodes = Arrays.copyOf(opcodes, newLength);
+			leftSlots = Arrays.copyOf(leftSlots, newLength);
+			rightSlots = Arrays.copyOf(rightSlots, newLength);
+			resultSlots = Arrays.copyOf(resultSlots, newLength);
+			operators = Arrays.copyOf(operators, newLength);
+		}
+		opcodes[nbInstructions] = opcode;
+		leftSlots[nbInstructions] = leftSlot;
+		rightSlots[nbInstructions] = rightSlot;
+		resultSlots[nbInstructions] = -(++nbTemporaries);
+		operators[nbInstructions] = operator;
+		nbInstructions++;
+		maxNbTemporaries = Math.max(maxNbTemporaries, nbTemporaries);
+		return -nbTemporaries;
+	}
+
+	/**
+	 * Place the temporary slots after the registers and the slots storing
+	 * the values of immutable subexpressions.
+	 */
+	private void placeTemporaries() {
+		for (int i = 0; i < nbInstructions; i++) {
+			leftSlots[i] = placeSlot(leftSlots[i]);
+			rightSlots[i] = placeSlot(rightSlots[i]);
+			resultSlots[i] = placeSlot(resultSlots[i]);
+		}
+		resultSlot = placeSlot(resultSlot);
+		nbSlots += maxNbTemporaries;
+	}
+
+	/**
+	 * Return the place of the given slot.
+	 */
+	private int placeSlot(int slot) {
+		return (slot < 0) ? nbSlots - slot - 1 : slot;
+	}
+
+	/**
+	 * Variables registering the number of temporary slots in use, and the
+	 * maximal number of temporary slots used so far.
+	 *
+	 * @note   The operands of an instruction are computed before its own
+	 *         value is computed. Their temporary slots are no longer in use
+	 *         once that instruction has been added. The number of temporary
+	 *         slots is therefore bounded by the depth of the expression,
+	 *         instead of by its number of operators.
+	 */
+	private int nbTemporaries, maxNbTemporaries;
+
+	/**
+	 * Return a function evaluating the given expression by means of a
+	 * class generated for it, or the null reference if no such class can
+	 * be generated.
+	 *
+	 * @note   The generated class implements the interface ToLongFunction.
+	 *         Its method applyAsLong pushes the values of the basic
+	 *         expressions on the operand stack, in the order of the postfix
+	 *         notation of the given expression, and applies the operators
+	 *         to the values on top of the stack. The class is defined by a
+	 *         class loader of its own, such that it can be unloaded once
+	 *         the compiled expression is no longer used.
+	 * @note   No class is generated for expressions with other operators,
+	 *         nor for expressions whose method would be too large to be
+	 *         compiled to machine code by the virtual machine.
+	 */
+	private ToLongFunction<long[]> generateEvaluator(Expression expression) {
+		ByteArrayOutputStream code = new ByteArrayOutputStream();
+		// Load the array of registers, passed as an object.
+		code.write(0x2b); // aload_1
+		code.write(0xc0); // checkcast
+		code.write(0);
+		code.write(LONG_ARRAY_CLASS);
+		code.write(0x4d); // astore_2
+		if (!generateCode(expression, code))
+			return null;
+		code.write(0xad); // lreturn
+		if (code.size() > MAX_GENERATED_CODE_SIZE)
+			return null;
+		try {
+			Class<?> generatedClass =
+				new EvaluatorLoader().define(generateClass(code.toByteArray()));
+			@SuppressWarnings("unchecked")
+			ToLongFunction<long[]> evaluator = (ToLongFunction<long[]>)
+				generatedClass.getConstructor().newInstance();
+			return evaluator;
+		} catch (IOException | ReflectiveOperationException exc) {
+			return null;
+		}
+	}
+
+	/**
+	 * Add the bytecode pushing the value of the given expression on the
+	 * operand stack to the given code, and return whether that is possible.
+	 */
+	private boolean generateCode(Expression expression,
+			ByteArrayOutputStream code) {
+		if (code.size() > MAX_GENERATED_CODE_SIZE)
+			return false;
+		if (expression instanceof MemoryCell) {
+			int register = registers.get(expression);
+			growStack(2);
+			code.write(0x2c); // aload_2
+			if (register <= 5)
+				code.write(0x03 + register); // iconst_<register>
+			else if (register <= Byte.MAX_VALUE) {
+				code.write(0x10); // bipush
+				code.write(register);
+			} else if (register <= Short.MAX_VALUE) {
+				code.write(0x11); // sipush
+				code.write(register >> 8);
+				code.write(register);
+			} else
+				return false;
+			code.write(0x2f); // laload
+		} else if (!expression.isMutable()) {
+			long value = expression.getValue();
+			growStack(2);
+			if ((value == 0) || (value == 1))
+				code.write(0x09 + (int) value); // lconst_<value>
+			else {
+				int index = getConstantIndex(value);
+				if (index > 0xffff)
+					return false;
+				code.write(0x14); // ldc2_w
+				code.write(index >> 8);
+				code.write(index);
+			}
+		} else if (expression instanceof Negation) {
+			if (!generateCode(((Negation) expression).getOperand(), code))
+				return false;
+			code.write(0x75); // lneg
+		} else if ((expression instanceof Addition)
+				|| (expression instanceof Subtraction)
+				|| (expression instanceof Multiplication)) {
+			BinaryExpression binary = (BinaryExpression) expression;
+			if (!generateCode(binary.getLeftOperand(), code)
+					|| !generateCode(binary.getRightOperand(), code))
+				return false;
+			if (binary instanceof Addition)
+				code.write(0x61); // ladd
+			else if (binary instanceof Subtraction)
+				code.write(0x65); // lsub
+			else
+				code.write(0x69); // lmul
+			stackSize -= 2;
+		} else
+			return false;
+		return true;
+	}
+
+	/**
+	 * Register that the given number of words are pushed on the operand
+	 * stack of the generated method.
+	 *
+	 * @note   Loading a register temporarily takes the array and the index
+	 *         of the register, before both are replaced by its value.
+	 */
+	private void growStack(int nbWords) {
+		stackSize += nbWords;
+		maxStackSize = Math.max(maxStackSize, stackSize);
+	}
+
+	/**
+	 * Return the index in the constant pool of the generated class of the
+	 * given value, adding it to the constant pool if it is not there yet.
+	 */
+	private int getConstantIndex(long value) {
+		Integer index = constantIndexes.get(value);
+		if (index == null) {
+			index = constantPoolSize;
+			constantIndexes.put(value, index);
+			// Long constants take two entries in the constant pool.
+			constantPoolSize += 2;
+		}
+		return index;
+	}
+
+	/**
+	 * Return the bytes of a class implementing ToLongFunction, whose method
+	 * applyAsLong executes the given code.
+	 */
+	private byte[] generateClass(byte[] code) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(bytes);
+		out.writeInt(0xcafebabe);
+		out.writeShort(0);
+		out.writeShort(52);
+		out.writeShort(constantPoolSize);
+		writeClassEntry(out, 1, "CompiledExpression$Evaluator");
+		writeClassEntry(out, 3, "java/lang/Object");
+		writeClassEntry(out, 5, "java/util/function/ToLongFunction");
+		out.writeByte(1); // 7
+		out.writeUTF("<init>");
+		out.writeByte(1); // 8
+		out.writeUTF("()V");
+		out.writeByte(12); // 9: name and type of the constructor
+		out.writeShort(7);
+		out.writeShort(8);
+		out.writeByte(10); // 10: constructor of Object
+		out.writeShort(4);
+		out.writeShort(9);
+		out.writeByte(1); // 11
+		out.writeUTF("applyAsLong");
+		out.writeByte(1); // 12
+		out.writeUTF("(Ljava/lang/Object;)J");
+		out.writeByte(1); // 13
+		out.writeUTF("Code");
+		writeClassEntry(out, 14, "[J");
+		long[] constants = new long[constantIndexes.size()];
+		for (Map.Entry<Long, Integer> constant : constantIndexes.entrySet())
+			constants[(constant.getValue() - FIRST_CONSTANT_INDEX) / 2] =
+				constant.getKey();
+		for (long constant : constants) {
+			out.writeByte(5);
+			out.writeLong(constant);
+		}
+		out.writeShort(0x0031); // public final super
+		out.writeShort(2);
+		out.writeShort(4);
+		out.writeShort(1);
+		out.writeShort(6);
+		out.writeShort(0);
+		out.writeShort(2);
+		writeMethod(out, 7, 8, 1, 1,
+			new byte[] { 0x2a, (byte) 0xb7, 0, 10, (byte) 0xb1 });
+		writeMethod(out, 11, 12, maxStackSize, 3, code);
+		out.writeShort(0);
+		return bytes.toByteArray();
+	}
+
+	/**
+	 * Write the constant pool entries of a class with the given internal
+	 * name to the given stream, the first of which has the given index.
+	 */
+	private static void writeClassEntry(DataOutputStream out, int index,
+			String name) throws IOException {
+		out.writeByte(1);
+		out.writeUTF(name);
+		out.writeByte(7);
+		out.writeShort(index);
+	}
+
+	/**
+	 * Write a public method with the given name, descriptor, maximal stack
+	 * size, number of local variables and code to the given stream.
+	 */
+	private static void writeMethod(DataOutputStream out, int nameIndex,
+			int descriptorIndex, int maxStackSize, int nbLocals, byte[] code)
+			throws IOException {
+		out.writeShort(0x0001);
+		out.writeShort(nameIndex);
+		out.writeShort(descriptorIndex);
+		out.writeShort(1);
+		out.writeShort(13);
+		out.writeInt(12 + code.length);
+		out.writeShort(maxStackSize);
+		out.writeShort(nbLocals);
+		out.writeInt(code.length);
+		out.write(code);
+		out.writeShort(0);
+		out.writeShort(0);
+	}
+
+	/**
+	 * A class of class loaders, each defining a single evaluator generated
+	 * for a compiled expression.
+	 */
+	private static class EvaluatorLoader extends ClassLoader {
+
+		EvaluatorLoader() {
+			super(ExpressionCompiler.class.getClassLoader());
+		}
+
+		Class<?> define(byte[] bytes) {
+			return defineClass(null, bytes, 0, bytes.length);
+		}
+
+	}
+
+	/**
+	 * The maximal size of the code of generated methods.
+	 *
+	 * @note   The virtual machine does not compile methods with more than
+	 *         8000 bytes of code to machine code.
+	 */
+	private static final int MAX_GENERATED_CODE_SIZE = 8000;
+
+	/**
+	 * The index in the constant pool of generated classes
+	 * of the class of arrays of longs.
+	 */
+	private static final int LONG_ARRAY_CLASS = 15;
+
+	/**
+	 * The index in the constant pool of generated classes of the first
+	 * long constant.
+	 */
+	private static final int FIRST_CONSTANT_INDEX = 16;
+
+	/**
+	 * Variable referencing a map of the long constants in the constant pool
+	 * of the generated class to their index.
+	 */
+	private final Map<Long, Integer> constantIndexes = new HashMap<Long, Integer>();
+
+	/**
+	 * Variable registering the number of entries in the constant pool of
+	 * the generated class, including the unused entry at index 0.
+	 */
+	private int constantPoolSize = FIRST_CONSTANT_INDEX;
+
+	/**
+	 * Variables registering the current and the maximal number of words
+	 * on the operand stack of the generated method.
+	 */
+	private int stackSize, maxStackSize;
+
+	/**
+	 * Variable referencing the function evaluating the compiled expression
+	 * by means of a generated class, or the null reference if no class has
+	 * been generated.
+	 */
+	ToLongFunction<long[]> generatedEvaluator;
+
+	/**
+	 * Opcode of instructions adding the values in two slots.
+	 */
+	static final byte ADD = 0;
+
+	/**
+	 * Opcode of instructions subtracting the value in the right slot from
+	 * the value in the left slot.
+	 */
+	static final byte SUBTRACT = 1;
+
+	/**
+	 * Opcode of instructions multiplying the values in two slots.
+	 */
+	static final byte MULTIPLY = 2;
+
+	/**
+	 * Opcode of instructions negating the value in a slot.
+	 */
+	static final byte NEGATE = 3;
+
+	/**
+	 * Opcode of instructions applying the operator of a unary expression
+	 * to the value in a slot.
+	 */
+	static final byte UNARY = 4;
+
+	/**
+	 * Opcode of instructions applying the operator of a binary expression
+	 * to the values in two slots.
+	 */
+	static final byte BINARY = 5;
+
+	/**
+	 * Variable registering the number of instructions added so far.
+	 */
+	int nbInstructions = 0;
+
+	/**
+	 * Variable referencing the opcodes of the instructions added so far.
+	 */
+	byte[] opcodes = new byte[16];
+
+	/**
+	 * Variable referencing the slots of the left operands, or of the only
+	 * operand, of the instructions added so far.
+	 */
+	int[] leftSlots = new int[16];
+
+	/**
+	 * Variable referencing the slots of the right operands of the
+	 * instructions added so far.
+	 */
+	int[] rightSlots = new int[16];
+
+	/**
+	 * Variable referencing the slots receiving the results of the
+	 * instructions added so far.
+	 */
+	int[] resultSlots = new int[16];
+
+	/**
+	 * Variable referencing the composed expressions compiled into the
+	 * instructions added so far.
+	 */
+	ComposedExpression[] operators = new ComposedExpression[16];
+
+	/**
+	 * Variable registering the number of slots used so far.
+	 */
+	int nbSlots;
+
+	/**
+	 * Variable referencing a map of the slots storing the value of an
+	 * immutable subexpression to that value.
+	 */
+	final Map<Integer, Long> constants = new HashMap<Integer, Long>();
+
+	/**
+	 * Variable registering the slot storing the value of the compiled
+	 * expression.
+	 */
+	int resultSlot;
+
+}
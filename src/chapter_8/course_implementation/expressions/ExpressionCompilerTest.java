@@ -0,0 +1,139 @@
+package chapter_8.course_implementation.expressions;
+
+import static org.junit.Assert.*;
+
+import org.junit.*;
+
+public class ExpressionCompilerTest {
+
+	private MemoryCell cell_1, cell_2;
+
+	private Expression someExpression;
+
+	@Before public void setUp() throws Exception {
+		cell_1 = new MemoryCell(1);
+		cell_2 = new MemoryCell(2);
+		cell_1.setValue(7);
+		cell_2.setValue(-3);
+		// (M1*M2)-(-(M1+(2*5))+M2)
+		someExpression = new Subtraction(new Multiplication(cell_1, cell_2),
+			new Addition(new Negation(new Addition(cell_1, new Multiplication(
+				new IntegerLiteral(2), new IntegerLiteral(5)))), cell_2));
+	}
+
+	@Test public void compile_LegalCase() {
+		CompiledExpression compiled = ExpressionCompiler.compile(someExpression);
+		assertSame(someExpression, compiled.getExpression());
+		assertEquals(2, compiled.getNbRegisters());
+		assertSame(cell_1, compiled.getCellAt(0));
+		assertSame(cell_2, compiled.getCellAt(1));
+		assertEquals(someExpression.getValue(), compiled.getValue());
+	}
+
+	@Test public void compile_BasicExpressions() throws Exception {
+		assertEquals(4L, ExpressionCompiler.compile(new IntegerLiteral(4))
+			.getValue());
+		CompiledExpression compiled = ExpressionCompiler.compile(cell_1);
+		assertEquals(1, compiled.getNbRegisters());
+		assertEquals(7L, compiled.getValue());
+	}
+
+	@Test public void compile_ImmutableExpression() throws Exception {
+		CompiledExpression compiled = ExpressionCompiler.compile(new Negation(
+			new Multiplication(new IntegerLiteral(6), new IntegerLiteral(7))));
+		assertEquals(0, compiled.getNbRegisters());
+		assertEquals(-42L, compiled.getValue(new long[0]));
+	}
+
+	@Test public void compile_AllOperandKinds() throws Exception {
+		Expression literal = new IntegerLiteral(5);
+		Expression composed = new Negation(cell_2);
+		Expression[] operands = { cell_1, literal, composed };
+		for (Expression left : operands)
+			for (Expression right : operands) {
+				Expression[] expressions = { new Addition(left, right),
+					new Subtraction(left, right), new Multiplication(left, right) };
+				for (Expression expression : expressions)
+					assertEquals(expression.getValue(),
+						ExpressionCompiler.compile(expression).getValue());
+			}
+	}
+
+	@Test public void compile_DifferentCellsSameAddress() throws Exception {
+		MemoryCell otherCell_1 = new MemoryCell(1);
+		otherCell_1.setValue(100);
+		CompiledExpression compiled = ExpressionCompiler.compile(
+			new Addition(cell_1, otherCell_1));
+		assertEquals(2, compiled.getNbRegisters());
+		assertEquals(107L, compiled.getValue());
+	}
+
+	@Test public void compile_LaterChangesToCells() {
+		CompiledExpression compiled = ExpressionCompiler.compile(someExpression);
+		for (long value = -10; value <= 10; value++) {
+			cell_1.setValue(value);
+			cell_2.setValue(3 * value + 1);
+			assertEquals(someExpression.getValue(), compiled.getValue());
+		}
+	}
+
+	@Test public void compile_GeneratedEvaluator() {
+		CompiledExpression compiled = ExpressionCompiler.compile(someExpression);
+		assertTrue(compiled.hasGeneratedEvaluator());
+		assertEquals(2L * 7 - (-(2 + 10) + 7), compiled.getValue(new long[] { 2, 7 }));
+	}
+
+	@Test public void compile_ManyRegistersAndConstants() {
+		Expression[] operands = new Expression[600];
+		for (int i = 0; i < operands.length; i += 2) {
+			operands[i] = new MemoryCell(i);
+			((MemoryCell) operands[i]).setValue(i - 300);
+			operands[i + 1] = new IntegerLiteral(((i % 3) == 0) ? i / 3 % 2 :
+				1000000007L * i);
+		}
+		Expression expression = combine(operands, 0, operands.length);
+		CompiledExpression compiled = ExpressionCompiler.compile(expression);
+		assertEquals(300, compiled.getNbRegisters());
+		assertTrue(compiled.hasGeneratedEvaluator());
+		assertEquals(expression.getValue(), compiled.getValue());
+	}
+
+	@Test public void compile_LargeExpression() {
+		Expression[] operands = new Expression[4000];
+		for (int i = 0; i < operands.length; i++) {
+			operands[i] = new MemoryCell(i);
+			((MemoryCell) operands[i]).setValue(i % 7 - 3);
+		}
+		Expression expression = combine(operands, 0, operands.length);
+		CompiledExpression compiled = ExpressionCompiler.compile(expression);
+		assertFalse(compiled.hasGeneratedEvaluator());
+		assertEquals(expression.getValue(), compiled.getValue());
+	}
+
+	/**
+	 * Return a balanced expression combining the given operands in the
+	 * given range by additions, subtractions, multiplications and negations.
+	 */
+	private static Expression combine(Expression[] operands, int from, int to) {
+		if (to - from == 1)
+			return operands[from];
+		int middle = (from + to) / 2;
+		Expression left = combine(operands, from, middle);
+		Expression right = combine(operands, middle, to);
+		switch (middle % 4) {
+		case 0:
+			return new Addition(left, right);
+		case 1:
+			return new Subtraction(left, right);
+		case 2:
+			return new Multiplication(left, right);
+		default:
+			return new Negation(new Addition(left, right));
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class) public void compile_NonEffectiveExpression() {
+		ExpressionCompiler.compile(null);
+	}
+
+}
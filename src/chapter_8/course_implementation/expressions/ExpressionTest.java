@@ -2,6 +2,8 @@ package chapter_8.course_implementation.expressions;
 
 import static org.junit.Assert.*;
 
+import java.util.Random;
+
 import org.junit.*;
 
 public class ExpressionTest {
@@ -110,4 +112,33 @@ public class ExpressionTest {
 		assertTrue(result.length() > 0);
 	}
 
+
+	@Test
+	public void simplify_ImmutableExpression() {
+		Expression result = someExpression.simplify();
+		assertTrue(result instanceof IntegerLiteral);
+		assertEquals(9L, result.getValue());
+	}
+
+	@Test
+	public void simplify_MemoryCell() {
+		assertSame(mutableExpression, mutableExpression.simplify());
+	}
+
+	@Test
+	public void simplify_RandomExpressions() {
+		MemoryCell[] cells = ExpressionBenchmark.createCells();
+		Random random = new Random(25);
+		for (int i = 0; i < 100; i++) {
+			Expression expression = ExpressionBenchmark.createExpression(cells,
+					random.nextInt(50), random);
+			Expression result = expression.simplify();
+			for (int j = 0; j < 10; j++) {
+				for (MemoryCell cell : cells)
+					cell.setValue(random.nextInt(5) - 2);
+				assertEquals(expression.getValue(), result.getValue());
+			}
+		}
+	}
+
 }
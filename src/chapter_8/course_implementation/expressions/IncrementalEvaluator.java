@@ -0,0 +1,315 @@
+package chapter_8.course_implementation.expressions;
+
+import java.util.*;
+
+import be.kuleuven.cs.som.annotate.*;
+
+/**
+ * A class of evaluators, re-evaluating an expression incrementally as
+ * the values of its memory cells change.
+ *   An incremental evaluator caches the value of each subexpression of its
+ *   expression. It registers the subexpressions reading each memory cell,
+ *   and the composed expression of which each subexpression is an operand.
+ *   If the value of a memory cell has changed, only the subexpressions on
+ *   the path from that memory cell to the root of the expression are
+ *   computed again. The values of all other subexpressions are taken from
+ *   the cache.
+ *
+ * @note   Changes to the values of memory cells are detected by comparing
+ *         their current value with the value used in the last evaluation.
+ *         Memory cells in a memory may thus also be changed by storing
+ *         values in their memory, or by selecting another bank. Clients
+ *         knowing which memory cells have changed can restrict that
+ *         comparison to those memory cells.
+ * @note   Changes to the structure of the expression after this evaluator
+ *         has been created are not reflected in its values.
+ *
+ * @version  2.0
+ * @author   Eric Steegmans
+ */
+public class IncrementalEvaluator {
+
+	/**
+	 * Initialize this new incremental evaluator with given expression.
+	 *
+	 * @param  expression
+	 *         The expression to evaluate.
+	 * @post   The expression of this new incremental evaluator is the same
+	 *         as the given expression.
+	 *       | new.getExpression() == expression
+	 * @post   The values of all the composed subexpressions of the given
+	 *         expression have been computed.
+	 * @throws IllegalArgumentException
+	 *         The given expression is not effective, or it involves
+	 *         expressions that are neither integer literals, nor memory
+	 *         cells, nor unary expressions, nor binary expressions.
+	 *       | expression == null
+	 */
+	public IncrementalEvaluator(Expression expression)
+			throws IllegalArgumentException {
+		if (expression == null)
+			throw new IllegalArgumentException();
+		this.expression = expression;
+		Map<MemoryCell, List<Integer>> cellReaders =
+			new IdentityHashMap<MemoryCell, List<Integer>>();
+		root = addNode(expression, -1, cellReaders);
+		cells = cellReaders.keySet().toArray(new MemoryCell[cellReaders.size()]);
+		readers = new int[cells.length][];
+		cellValues = new long[cells.length];
+		for (int cell = 0; cell < cells.length; cell++) {
+			cellIndexes.put(cells[cell], cell);
+			List<Integer> nodes = cellReaders.get(cells[cell]);
+			readers[cell] = new int[nodes.size()];
+			for (int i = 0; i < nodes.size(); i++)
+				readers[cell][i] = nodes.get(i);
+			cellValues[cell] = cells[cell].getValue();
+			for (int node : readers[cell])
+				values[node] = cellValues[cell];
+		}
+		values = Arrays.copyOf(values, nbNodes);
+		parents = Arrays.copyOf(parents, nbNodes);
+		leftOperands = Arrays.copyOf(leftOperands, nbNodes);
+		rightOperands = Arrays.copyOf(rightOperands, nbNodes);
+		operators = Arrays.copyOf(operators, nbNodes);
+		dirty = Arrays.copyOf(dirty, nbNodes);
+		recompute(root);
+	}
+
+	/**
+	 * Add the nodes for the given expression and all its subexpressions,
+	 * and return the index of the node for the given expression.
+	 *
+	 * @note   Memory cells and immutable subexpressions are leaves. The
+	 *         nodes of memory cells are registered in the given map.
+	 *         Composed expressions are marked dirty, such that their value
+	 *         is computed in the first evaluation.
+	 */
+	private int addNode(Expression expression, int parent,
+			Map<MemoryCell, List<Integer>> cellReaders)
+			throws IllegalArgumentException {
+		if (nbNodes == values.length) {
+			int newLength = 2 * values.length;
+			values = Arrays.copyOf(values, newLength);
+			parents = Arrays.copyOf(parents, newLength);
+			leftOperands = Arrays.copyOf(leftOperands, newLength);
+			rightOperands = Arrays.copyOf(rightOperands, newLength);
+			operators = Arrays.copyOf(operators, newLength);
+			dirty = Arrays.copyOf(dirty, newLength);
+		}
+		int node = nbNodes++;
+		parents[node] = parent;
+		if (expression instanceof MemoryCell) {
+			List<Integer> nodes = cellReaders.get(expression);
+			if (nodes == null) {
+				nodes = new ArrayList<Integer>();
+				cellReaders.put((MemoryCell) expression, nodes);
+			}
+			nodes.add(node);
+		} else if (!expression.isMutable())
+			values[node] = expression.getValue();
+		else if (expression instanceof UnaryExpression) {
+			// Adding nodes may replace the arrays of nodes.
+			int operand = addNode(((UnaryExpression) expression).getOperand(),
+				node, cellReaders);
+			operators[node] = (UnaryExpression) expression;
+			leftOperands[node] = operand;
+			dirty[node] = true;
+		} else if (expression instanceof BinaryExpression) {
+			BinaryExpression binary = (BinaryExpression) expression;
+			int leftOperand = addNode(binary.getLeftOperand(), node, cellReaders);
+			int rightOperand = addNode(binary.getRightOperand(), node,
+				cellReaders);
+			operators[node] = binary;
+			leftOperands[node] = leftOperand;
+			rightOperands[node] = rightOperand;
+			dirty[node] = true;
+		} else
+			throw new IllegalArgumentException();
+		return node;
+	}
+
+	/**
+	 * Return the expression evaluated by this incremental evaluator.
+	 */
+	@Basic @Immutable
+	public Expression getExpression() {
+		return this.expression;
+	}
+
+	/**
+	 * Variable referencing the expression evaluated by this incremental
+	 * evaluator.
+	 */
+	private final Expression expression;
+
+	/**
+	 * Return the current value of the expression of this incremental
+	 * evaluator.
+	 *
+	 * @return The current value of the expression of this incremental
+	 *         evaluator.
+	 *       | result == getExpression().getValue()
+	 * @post   The number of recomputed nodes is the number of composed
+	 *         subexpressions on the paths from the memory cells whose value
+	 *         has changed since the previous evaluation to the root of the
+	 *         expression.
+	 * @note   Each memory cell of the expression is consulted once. The
+	 *         value of each composed subexpression is computed at most once.
+	 */
+	public long getValue() {
+		nbRecomputedNodes = 0;
+		for (int cell = 0; cell < cells.length; cell++)
+			checkCell(cell);
+		return recompute(root);
+	}
+
+	/**
+	 * Return the current value of the expression of this incremental
+	 * evaluator, given that only the given memory cells may have changed
+	 * since the previous evaluation.
+	 *
+	 * @param  changedCells
+	 *         The memory cells whose value may have changed.
+	 * @pre    The value of each memory cell of the expression that is not
+	 *         one of the given memory cells has not changed since the
+	 *         previous evaluation.
+	 * @return The current value of the expression of this incremental
+	 *         evaluator.
+	 *       | result == getExpression().getValue()
+	 * @throws IllegalArgumentException
+	 *         The given array of memory cells is not effective.
+	 *       | changedCells == null
+	 * @note   Only the given memory cells are consulted. Memory cells that
+	 *         are not involved in the expression are ignored. Evaluating the
+	 *         expression after a single memory cell has changed thus takes
+	 *         time proportional to the depth of the expression, instead of
+	 *         to its size.
+	 */
+	public long getValueAfterChanges(MemoryCell... changedCells)
+			throws IllegalArgumentException {
+		if (changedCells == null)
+			throw new IllegalArgumentException();
+		nbRecomputedNodes = 0;
+		for (MemoryCell changedCell : changedCells) {
+			Integer cell = cellIndexes.get(changedCell);
+			if (cell != null)
+				checkCell(cell);
+		}
+		return recompute(root);
+	}
+
+	/**
+	 * Mark the paths from the nodes reading the given memory cell to the
+	 * root as dirty, if its value has changed since the previous evaluation.
+	 */
+	private void checkCell(int cell) {
+		long value = cells[cell].getValue();
+		if (value != cellValues[cell]) {
+			cellValues[cell] = value;
+			for (int node : readers[cell]) {
+				values[node] = value;
+				markDirty(parents[node]);
+			}
+		}
+	}
+
+	/**
+	 * Return the number of composed subexpressions whose value has been
+	 * computed again in the last evaluation of this incremental evaluator.
+	 */
+	@Basic
+	public int getNbRecomputedNodes() {
+		return nbRecomputedNodes;
+	}
+
+	/**
+	 * Variable registering the number of composed subexpressions whose
+	 * value has been computed again in the last evaluation.
+	 */
+	private int nbRecomputedNodes;
+
+	/**
+	 * Mark the given node and all the nodes on its path to the root as
+	 * dirty.
+	 *
+	 * @note   Nodes above a node that is already dirty are dirty as well.
+	 *         Marking stops at the first node that is already dirty.
+	 */
+	private void markDirty(int node) {
+		while ((node >= 0) && !dirty[node]) {
+			dirty[node] = true;
+			node = parents[node];
+		}
+	}
+
+	/**
+	 * Return the value of the given node, computing it again if it is
+	 * dirty.
+	 */
+	private long recompute(int node) {
+		if (!dirty[node])
+			return values[node];
+		long value;
+		if (operators[node] instanceof UnaryExpression)
+			value = ((UnaryExpression) operators[node])
+				.computeValue(recompute(leftOperands[node]));
+		else
+			value = ((BinaryExpression) operators[node]).computeValue(
+				recompute(leftOperands[node]), recompute(rightOperands[node]));
+		values[node] = value;
+		dirty[node] = false;
+		nbRecomputedNodes++;
+		return value;
+	}
+
+	/**
+	 * Variable referencing the memory cells of the expression.
+	 */
+	private final MemoryCell[] cells;
+
+	/**
+	 * Variable referencing a map of the memory cells of the expression to
+	 * their index.
+	 */
+	private final Map<MemoryCell, Integer> cellIndexes =
+		new IdentityHashMap<MemoryCell, Integer>();
+
+	/**
+	 * Variable referencing, for each memory cell of the expression, the
+	 * nodes reading that memory cell.
+	 */
+	private final int[][] readers;
+
+	/**
+	 * Variable referencing the value of each memory cell of the expression,
+	 * as used in the last evaluation.
+	 */
+	private final long[] cellValues;
+
+	/**
+	 * Variable registering the node of the expression itself.
+	 */
+	private final int root;
+
+	/**
+	 * Variable registering the number of nodes of the expression.
+	 */
+	private int nbNodes = 0;
+
+	/**
+	 * Variables referencing, for each node, its cached value, the node of
+	 * which it is an operand or -1 for the root, the nodes of its operands
+	 * and its composed expression, if any, and whether its cached value
+	 * must be computed again.
+	 */
+	private long[] values = new long[16];
+
+	private int[] parents = new int[16];
+
+	private int[] leftOperands = new int[16], rightOperands = new int[16];
+
+	private ComposedExpression[] operators = new ComposedExpression[16];
+
+	private boolean[] dirty = new boolean[16];
+
+}
@@ -0,0 +1,124 @@
+package chapter_8.course_implementation.expressions;
+
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+import org.junit.*;
+
+public class IncrementalEvaluatorTest {
+
+	private MemoryCell cell_1, cell_2, cell_3;
+
+	private Expression someExpression;
+
+	private IncrementalEvaluator evaluator;
+
+	@Before public void setUp() throws Exception {
+		cell_1 = new MemoryCell(1);
+		cell_2 = new MemoryCell(2);
+		cell_3 = new MemoryCell(3);
+		cell_1.setValue(7);
+		cell_2.setValue(-3);
+		cell_3.setValue(2);
+		// ((M1*M2)-(-M3))+((M2+(2*5))*M3)
+		someExpression = new Addition(new Subtraction(new Multiplication(cell_1,
+			cell_2), new Negation(cell_3)), new Multiplication(new Addition(
+			cell_2, new Multiplication(new IntegerLiteral(2), new IntegerLiteral(5))),
+			cell_3));
+		evaluator = new IncrementalEvaluator(someExpression);
+	}
+
+	@Test public void constructor_LegalCase() {
+		assertSame(someExpression, evaluator.getExpression());
+		assertEquals(6, evaluator.getNbRecomputedNodes());
+		assertEquals(someExpression.getValue(), evaluator.getValue());
+	}
+
+	@Test public void constructor_BasicExpressions() throws Exception {
+		assertEquals(4L, new IncrementalEvaluator(new IntegerLiteral(4))
+			.getValue());
+		IncrementalEvaluator cellEvaluator = new IncrementalEvaluator(cell_1);
+		assertEquals(7L, cellEvaluator.getValue());
+		cell_1.setValue(8);
+		assertEquals(8L, cellEvaluator.getValue());
+		assertEquals(0, cellEvaluator.getNbRecomputedNodes());
+	}
+
+	@Test(expected = IllegalArgumentException.class) public void constructor_NonEffectiveExpression() {
+		new IncrementalEvaluator(null);
+	}
+
+	@Test public void getValue_NoChanges() {
+		assertEquals(someExpression.getValue(), evaluator.getValue());
+		assertEquals(0, evaluator.getNbRecomputedNodes());
+		cell_1.setValue(7);
+		assertEquals(someExpression.getValue(), evaluator.getValue());
+		assertEquals(0, evaluator.getNbRecomputedNodes());
+	}
+
+	@Test public void getValue_SingleChange() {
+		cell_1.setValue(100);
+		assertEquals(someExpression.getValue(), evaluator.getValue());
+		assertEquals(3, evaluator.getNbRecomputedNodes());
+	}
+
+	@Test public void getValue_CellReadTwice() {
+		cell_3.setValue(-5);
+		assertEquals(someExpression.getValue(), evaluator.getValue());
+		assertEquals(4, evaluator.getNbRecomputedNodes());
+		cell_2.setValue(0);
+		cell_1.setValue(1);
+		assertEquals(someExpression.getValue(), evaluator.getValue());
+		assertEquals(5, evaluator.getNbRecomputedNodes());
+	}
+
+	@Test public void getValueAfterChanges_LegalCase() {
+		cell_1.setValue(100);
+		cell_3.setValue(-5);
+		assertEquals(someExpression.getValue(),
+			evaluator.getValueAfterChanges(cell_1, cell_3, new MemoryCell(1)));
+		assertEquals(5, evaluator.getNbRecomputedNodes());
+		assertEquals(someExpression.getValue(), evaluator.getValueAfterChanges());
+		assertEquals(0, evaluator.getNbRecomputedNodes());
+	}
+
+	@Test public void getValueAfterChanges_OtherCell() {
+		MemoryCell otherCell = new MemoryCell(1);
+		otherCell.setValue(100);
+		assertEquals(someExpression.getValue(),
+			evaluator.getValueAfterChanges(otherCell));
+		assertEquals(0, evaluator.getNbRecomputedNodes());
+	}
+
+	@Test(expected = IllegalArgumentException.class) public void getValueAfterChanges_NonEffectiveCells() {
+		evaluator.getValueAfterChanges((MemoryCell[]) null);
+	}
+
+	@Test public void getValue_CellsInMemory() {
+		Memory memory = new Memory();
+		MemoryCell cell = new MemoryCell(memory, 4);
+		MemoryCell otherCell = new MemoryCell(memory, 4);
+		Expression expression = new Subtraction(new Negation(cell), otherCell);
+		IncrementalEvaluator memoryEvaluator = new IncrementalEvaluator(expression);
+		memory.setValueAt(4, 10);
+		assertEquals(-20L, memoryEvaluator.getValue());
+		memory.selectBank(memory.addBank());
+		assertEquals(0L, memoryEvaluator.getValue());
+		assertEquals(2, memoryEvaluator.getNbRecomputedNodes());
+	}
+
+	@Test public void getValue_RandomChanges() {
+		MemoryCell[] cells = ExpressionBenchmark.createCells();
+		Random random = new Random(24);
+		Expression expression = ExpressionBenchmark.createExpression(cells, 200,
+			random);
+		IncrementalEvaluator randomEvaluator = new IncrementalEvaluator(expression);
+		for (int i = 0; i < 1000; i++) {
+			for (int j = random.nextInt(3); j > 0; j--)
+				cells[random.nextInt(cells.length)].setValue(random.nextInt(21) - 10);
+			assertEquals(expression.getValue(), randomEvaluator.getValue());
+		}
+	}
+
+}
@@ -87,6 +87,17 @@ public class IntegerLiteral extends BasicExpression {
 		return false;
 	}
 
+	/**
+	 * Return a simplified version of this integer literal.
+	 * 
+	 * @return This integer literal itself.
+	 *       | result == this
+	 */
+	@Override
+	public Expression simplify() {
+		return this;
+	}
+
 	/**
 	 * Return a textual representation of this integer literal.
 	 *
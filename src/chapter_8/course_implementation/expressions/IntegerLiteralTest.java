@@ -57,4 +57,10 @@ public class IntegerLiteralTest {
 		assertEquals("123",literal_123.toString());
 	}
 
+
+	@Test public void simplify_SingleCase() {
+		Expression literal = new IntegerLiteral(5);
+		assertSame(literal, literal.simplify());
+	}
+
 }
@@ -0,0 +1,404 @@
+package chapter_8.course_implementation.expressions;
+
+import java.util.Arrays;
+
+import be.kuleuven.cs.som.annotate.*;
+import chapter_8.course_implementation.expressions.exceptions.IllegalAddressException;
+
+/**
+ * A class of memories storing a value at each valid address.
+ *   Memory cells created in a memory do not store a value of their own.
+ *   Instead, they store their value in their memory, at their address.
+ *   Different memory cells with the same address in the same memory
+ *   therefore always have the same value.
+ *   A memory involves one or more banks. Each bank stores a value at each
+ *   address. Only the values in the selected bank are seen by the memory
+ *   cells of the memory. Selecting another bank changes the values of all
+ *   those memory cells at once, without touching any of them.
+ *
+ * @invar    A memory has at least one bank.
+ *         | getNbBanks() >= 1
+ * @invar    The selected bank of a memory is one of its banks.
+ *         | (getSelectedBank() >= 0) && (getSelectedBank() < getNbBanks())
+ * @note     The values of each bank are stored in pages of successive
+ *           addresses, that are only allocated once a value is stored in
+ *           them. Values at addresses in pages that have not been allocated
+ *           are 0. Values can thus be stored at any valid address, however
+ *           high, without allocating memory for all lower addresses.
+ *
+ * @version  2.0
+ * @author   Eric Steegmans
+ */
+public class Memory {
+
+	/**
+	 * Initialize this new memory with a single bank, storing 0 at each
+	 * address.
+	 *
+	 * @post   This new memory has a single bank, which is selected.
+	 *       | (new.getNbBanks() == 1) && (new.getSelectedBank() == 0)
+	 * @post   This new memory stores 0 at each valid address.
+	 *       | for each address in 0..Integer.MAX_VALUE:
+	 *       |   new.getValueAt(address) == 0
+	 */
+	public Memory() {
+		banks = new Bank[] { new Bank() };
+		values = banks[0];
+	}
+
+	/**
+	 * Return the value stored at the given address in the selected bank
+	 * of this memory.
+	 *
+	 * @param  address
+	 *         The address of the value to return.
+	 * @throws IllegalAddressException
+	 *         The given address is not a valid address for a memory cell.
+	 *       | ! MemoryCell.isValidAddress(address)
+	 */
+	@Basic
+	public long getValueAt(int address) throws IllegalAddressException {
+		long[] page = values.getPage(checkAddress(address));
+		return (page == null) ? 0 : page[address & PAGE_MASK];
+	}
+
+	/**
+	 * Store the given value at the given address in the selected bank
+	 * of this memory.
+	 *
+	 * @param  address
+	 *         The address at which the value must be stored.
+	 * @param  value
+	 *         The value to store.
+	 * @post   The given value is stored at the given address.
+	 *       | new.getValueAt(address) == value
+	 * @throws IllegalAddressException
+	 *         The given address is not a valid address for a memory cell.
+	 *       | ! MemoryCell.isValidAddress(address)
+	 */
+	public void setValueAt(int address, long value)
+			throws IllegalAddressException {
+		values.getOrCreatePage(checkAddress(address))[address & PAGE_MASK] = value;
+	}
+
+	/**
+	 * Copy the values stored at successive addresses in the selected bank
+	 * of this memory to the given array.
+	 *
+	 * @param  address
+	 *         The address of the first value to copy.
+	 * @param  destination
+	 *         The array to which the values must be copied.
+	 * @post   Each element of the given array stores the value at the
+	 *         corresponding address, starting from the given address.
+	 *       | for each I in 0..destination.length-1:
+	 *       |   (new destination)[I] == getValueAt(address+I)
+	 * @throws IllegalArgumentException
+	 *         The given array is not effective.
+	 *       | destination == null
+	 * @throws IllegalAddressException
+	 *         Some of the addresses to copy from are not valid addresses
+	 *         for a memory cell.
+	 *       | ! MemoryCell.isValidAddress(address) ||
+	 *       | ! MemoryCell.isValidAddress(address+destination.length-1)
+	 */
+	public void load(int address, long[] destination)
+			throws IllegalArgumentException, IllegalAddressException {
+		checkRange(address, destination);
+		int copied = 0;
+		while (copied < destination.length) {
+			int current = address + copied;
+			int nbValues = Math.min(PAGE_SIZE - (current & PAGE_MASK),
+				destination.length - copied);
+			long[] page = values.getPage(current);
+			if (page == null)
+				Arrays.fill(destination, copied, copied + nbValues, 0L);
+			else
+				System.arraycopy(page, current & PAGE_MASK, destination, copied,
+					nbValues);
+			copied += nbValues;
+		}
+	}
+
+	/**
+	 * Store the values in the given array at successive addresses in the
+	 * selected bank of this memory.
+	 *
+	 * @param  address
+	 *         The address at which the first value must be stored.
+	 * @param  source
+	 *         The array of values to store.
+	 * @post   Each element of the given array is stored at the corresponding
+	 *         address, starting from the given address.
+	 *       | for each I in 0..source.length-1:
+	 *       |   new.getValueAt(address+I) == source[I]
+	 * @throws IllegalArgumentException
+	 *         The given array is not effective.
+	 *       | source == null
+	 * @throws IllegalAddressException
+	 *         Some of the addresses to store at are not valid addresses for
+	 *         a memory cell.
+	 *       | ! MemoryCell.isValidAddress(address) ||
+	 *       | ! MemoryCell.isValidAddress(address+source.length-1)
+	 */
+	public void store(int address, long[] source)
+			throws IllegalArgumentException, IllegalAddressException {
+		checkRange(address, source);
+		int copied = 0;
+		while (copied < source.length) {
+			int current = address + copied;
+			int nbValues = Math.min(PAGE_SIZE - (current & PAGE_MASK),
+				source.length - copied);
+			System.arraycopy(source, copied, values.getOrCreatePage(current),
+				current & PAGE_MASK, nbValues);
+			copied += nbValues;
+		}
+	}
+
+	/**
+	 * Return a snapshot of the values stored in the selected bank of this
+	 * memory.
+	 *
+	 * @return The resulting memory has a single bank, storing the same
+	 *         value at each address as the selected bank of this memory.
+	 *       | (result.getNbBanks() == 1) &&
+	 *       | for each I in 0..Integer.MAX_VALUE:
+	 *       |   result.getValueAt(I) == getValueAt(I)
+	 * @note   The pages of the selected bank are copied. Later changes to
+	 *         this memory are not reflected in the snapshot, nor the other
+	 *         way around.
+	 */
+	public Memory snapshot() {
+		Memory result = new Memory();
+		result.banks[0] = result.values = values.copy();
+		return result;
+	}
+
+	/**
+	 * Restore the values stored in the selected bank of this memory to
+	 * the values in the selected bank of the given snapshot.
+	 *
+	 * @param  snapshot
+	 *         The memory whose values must be restored.
+	 * @post   The selected bank of this memory stores the same value at
+	 *         each address as the selected bank of the given snapshot.
+	 *       | for each I in 0..Integer.MAX_VALUE:
+	 *       |   new.getValueAt(I) == snapshot.getValueAt(I)
+	 * @throws IllegalArgumentException
+	 *         The given snapshot is not effective.
+	 *       | snapshot == null
+	 * @note   The pages of the given snapshot are copied. Later changes to
+	 *         it are not reflected in this memory.
+	 */
+	public void restore(Memory snapshot) throws IllegalArgumentException {
+		if (snapshot == null)
+			throw new IllegalArgumentException();
+		banks[selectedBank] = values = snapshot.values.copy();
+	}
+
+	/**
+	 * Return the number of banks of this memory.
+	 */
+	@Basic
+	public int getNbBanks() {
+		return nbBanks;
+	}
+
+	/**
+	 * Return the index of the selected bank of this memory.
+	 */
+	@Basic
+	public int getSelectedBank() {
+		return selectedBank;
+	}
+
+	/**
+	 * Add a new bank to this memory, storing 0 at each address.
+	 *
+	 * @return The index of the new bank, which is the highest index of
+	 *         the banks of this memory.
+	 *       | result == new.getNbBanks() - 1
+	 * @post   The number of banks of this memory is incremented by 1.
+	 *       | new.getNbBanks() == getNbBanks() + 1
+	 * @post   The selected bank of this memory is not changed.
+	 *       | new.getSelectedBank() == getSelectedBank()
+	 */
+	public int addBank() {
+		if (nbBanks == banks.length)
+			banks = Arrays.copyOf(banks, 2 * nbBanks);
+		banks[nbBanks] = new Bank();
+		return nbBanks++;
+	}
+
+	/**
+	 * Select the given bank of this memory.
+	 *
+	 * @param  bank
+	 *         The index of the bank to select.
+	 * @post   The given bank is the selected bank of this memory.
+	 *       | new.getSelectedBank() == bank
+	 * @throws IndexOutOfBoundsException
+	 *         The given index is negative, or not less than the number of
+	 *         banks of this memory.
+	 *       | (bank < 0) || (bank >= getNbBanks())
+	 * @note   Selecting a bank takes constant time, whatever the number
+	 *         of values stored in it.
+	 */
+	public void selectBank(int bank) throws IndexOutOfBoundsException {
+		if ((bank < 0) || (bank >= nbBanks))
+			throw new IndexOutOfBoundsException();
+		selectedBank = bank;
+		values = banks[bank];
+	}
+
+	/**
+	 * Return the given address, if it is a valid address.
+	 *
+	 * @throws IllegalAddressException
+	 *         The given address is not a valid address for a memory cell.
+	 *       | ! MemoryCell.isValidAddress(address)
+	 */
+	private static int checkAddress(int address) throws IllegalAddressException {
+		if (!MemoryCell.isValidAddress(address))
+			throw new IllegalAddressException(address);
+		return address;
+	}
+
+	/**
+	 * Check whether the given array can be loaded from or stored at
+	 * successive addresses, starting from the given address.
+	 *
+	 * @throws IllegalArgumentException
+	 *         The given array is not effective.
+	 *       | values == null
+	 * @throws IllegalAddressException
+	 *         Some of the addresses covered by the given array are not valid
+	 *         addresses for a memory cell.
+	 *       | ! MemoryCell.isValidAddress(address) ||
+	 *       | ! MemoryCell.isValidAddress(address+values.length-1)
+	 */
+	private static void checkRange(int address, long[] values)
+			throws IllegalArgumentException, IllegalAddressException {
+		if (values == null)
+			throw new IllegalArgumentException();
+		checkAddress(address);
+		if ((long) address + values.length - 1 > Integer.MAX_VALUE)
+			throw new IllegalAddressException(address + values.length - 1);
+	}
+
+	/**
+	 * A class of banks, storing their values in pages that are only
+	 * allocated once a value is stored in them.
+	 *   An address is split in the index of a directory of pages, the
+	 *   index of a page in that directory, and the index of its value in
+	 *   that page. Directories are allocated lazily as well, such that a
+	 *   bank only takes memory for the regions of addresses in use.
+	 */
+	private static final class Bank {
+
+		/**
+		 * Return the page storing the value at the given address, or the
+		 * null reference if no value has been stored in that page yet.
+		 */
+		long[] getPage(int address) {
+			long[][] directory = directories[address >>> DIRECTORY_SHIFT];
+			if (directory == null)
+				return null;
+			return directory[(address >>> PAGE_SHIFT) & DIRECTORY_MASK];
+		}
+
+		/**
+		 * Return the page storing the value at the given address,
+		 * allocating it if it does not exist yet.
+		 */
+		long[] getOrCreatePage(int address) {
+			long[][] directory = directories[address >>> DIRECTORY_SHIFT];
+			if (directory == null)
+				directory = directories[address >>> DIRECTORY_SHIFT] =
+					new long[DIRECTORY_SIZE][];
+			int index = (address >>> PAGE_SHIFT) & DIRECTORY_MASK;
+			if (directory[index] == null)
+				directory[index] = new long[PAGE_SIZE];
+			return directory[index];
+		}
+
+		/**
+		 * Return a new bank storing the same values as this bank, in
+		 * copies of the pages of this bank.
+		 */
+		Bank copy() {
+			Bank result = new Bank();
+			for (int i = 0; i < directories.length; i++)
+				if (directories[i] != null) {
+					result.directories[i] = new long[DIRECTORY_SIZE][];
+					for (int j = 0; j < DIRECTORY_SIZE; j++)
+						if (directories[i][j] != null)
+							result.directories[i][j] = directories[i][j].clone();
+				}
+			return result;
+		}
+
+		/**
+		 * Variable referencing the directories of pages of this bank.
+		 */
+		private final long[][][] directories =
+			new long[1 << (31 - DIRECTORY_SHIFT)][][];
+
+	}
+
+	/**
+	 * The number of bits of an address selecting a value in a page.
+	 */
+	private static final int PAGE_SHIFT = 12;
+
+	/**
+	 * The number of values stored in each page.
+	 */
+	private static final int PAGE_SIZE = 1 << PAGE_SHIFT;
+
+	/**
+	 * The mask selecting the index of a value in its page.
+	 */
+	private static final int PAGE_MASK = PAGE_SIZE - 1;
+
+	/**
+	 * The number of bits of an address selecting a page and a value in
+	 * that page.
+	 */
+	private static final int DIRECTORY_SHIFT = PAGE_SHIFT + 10;
+
+	/**
+	 * The number of pages in each directory.
+	 */
+	private static final int DIRECTORY_SIZE = 1 << (DIRECTORY_SHIFT - PAGE_SHIFT);
+
+	/**
+	 * The mask selecting the index of a page in its directory.
+	 */
+	private static final int DIRECTORY_MASK = DIRECTORY_SIZE - 1;
+
+	/**
+	 * Variable referencing the banks of this memory.
+	 * Only the first getNbBanks() elements of this array are used.
+	 */
+	private Bank[] banks;
+
+	/**
+	 * Variable registering the number of banks of this memory.
+	 */
+	private int nbBanks = 1;
+
+	/**
+	 * Variable registering the index of the selected bank of this memory.
+	 */
+	private int selectedBank = 0;
+
+	/**
+	 * Variable referencing the selected bank of this memory.
+	 *
+	 * @note   This variable always references the same bank as the
+	 *         element of the banks at the index of the selected bank.
+	 */
+	private Bank values;
+
+}
@@ -6,6 +6,9 @@ import chapter_8.course_implementation.expressions.exceptions.IllegalAddressExce
 /**
  * A class of memory cells involving an address and
  * a contents that serves as the value of a memory cell.
+ *   Memory cells created in a memory store their contents
+ *   in that memory, at their address. Other memory cells
+ *   store their contents themselves.
  * 
  * @invar    The address of each memory cell must be a valid
  *           address for any memory cell.
@@ -35,9 +38,46 @@ public class MemoryCell extends BasicExpression {
 		if (!isValidAddress(address))
 			throw new IllegalAddressException(address);
 		this.address = address;
+		this.memory = null;
 		setValue(0);
 	}
 
+	/**
+	 * Initialize this new memory cell with given address in
+	 * the given memory.
+	 * 
+	 * @param  memory
+	 *         The memory in which this new memory cell stores
+	 *         its value.
+	 * @param  address
+	 *         The address of this new memory cell.
+	 * @post   The memory of this new memory cell is the same
+	 *         as the given memory.
+	 *       | new.getMemory() == memory
+	 * @post   The address of this new memory cell is equal to
+	 *         to the given address.
+	 *       | new.getAddress() == address
+	 * @post   The value of this new memory cell is the value
+	 *         stored at the given address in the given memory.
+	 *       | new.getValue() == memory.getValueAt(address)
+	 * @throws IllegalArgumentException
+	 *         The given memory is not effective.
+	 *       | memory == null
+	 * @throws IllegalAddressException
+	 *         The given address is not a valid address for a
+	 *         memory cell.
+	 *       | ! isValidAddress(address)
+	 */
+	public MemoryCell(Memory memory, int address)
+			throws IllegalArgumentException, IllegalAddressException {
+		if (memory == null)
+			throw new IllegalArgumentException();
+		if (!isValidAddress(address))
+			throw new IllegalAddressException(address);
+		this.address = address;
+		this.memory = memory;
+	}
+
 	/**
 	 * Check whether this memory cell is equal to the given object.
 	 *
@@ -71,6 +111,29 @@ public class MemoryCell extends BasicExpression {
 		}
 	}
 
+	/**
+	 * Check whether this memory cell always has the same value as the
+	 * given memory cell.
+	 * 
+	 * @param  other
+	 *         The memory cell to compare with.
+	 * @return True if and only if the given memory cell is the same as
+	 *         this memory cell, or if both memory cells have the same
+	 *         address in the same memory.
+	 *       | result ==
+	 *       |   (other == this) ||
+	 *       |   ( (other != null) && (getMemory() != null) &&
+	 *       |     (getMemory() == other.getMemory()) &&
+	 *       |     (getAddress() == other.getAddress()) )
+	 */
+	public boolean alwaysHasSameValueAs(MemoryCell other) {
+		if (other == this)
+			return true;
+		return (other != null) && (memory != null)
+				&& (memory == other.getMemory())
+				&& (address == other.getAddress());
+	}
+
 	/**
 	 * Check whether the state of this memory cell can be changed.
 	 * 
@@ -108,12 +171,35 @@ public class MemoryCell extends BasicExpression {
 	 */
 	private final int address;
 
+	/**
+	 * Return the memory in which this memory cell stores its value,
+	 * or the null reference if it stores its value itself.
+	 */
+	@Basic @Immutable
+	public Memory getMemory() {
+		return memory;
+	}
+
+	/**
+	 * Variable referencing the memory in which this memory cell
+	 * stores its value.
+	 */
+	private final Memory memory;
+
 	/**
 	 * Return the value stored in this memory cell.
+	 * 
+	 * @note   The value of a memory cell in a memory is the value
+	 *         stored at its address in the selected bank of its
+	 *         memory.
+	 *       | if (getMemory() != null)
+	 *       |   then result == getMemory().getValueAt(getAddress())
 	 */
 	@Override
 	@Basic
 	public long getValue() {
+		if (memory != null)
+			return memory.getValueAt(address);
 		return value;
 	}
 
@@ -125,13 +211,21 @@ public class MemoryCell extends BasicExpression {
 	 * @post   The value stored in this memory cell is equal to the
 	 *         given value.
 	 *       | new.getValue() == value
+	 * @effect If this memory cell is in a memory, the given value
+	 *         is stored at its address in that memory.
+	 *       | if (getMemory() != null)
+	 *       |   then getMemory().setValueAt(getAddress(), value)
 	 */
 	public void setValue(long value) {
-		this.value = value;
+		if (memory != null)
+			memory.setValueAt(address, value);
+		else
+			this.value = value;
 	}
 
 	/**
-	 * Variable registering the value stored in this memory cell.
+	 * Variable registering the value stored in this memory cell,
+	 * if it is not in a memory.
 	 */
 	private long value;
 
@@ -28,6 +28,26 @@ public class MemoryCellTest {
 		assertEquals(0L, theCell.getValue());
 	}
 
+	@Test public void constructor_InMemory() throws Exception {
+		Memory memory = new Memory();
+		memory.setValueAt(1000, 12);
+		MemoryCell theCell = new MemoryCell(memory, 1000);
+		assertSame(memory, theCell.getMemory());
+		assertEquals(1000, theCell.getAddress());
+		assertEquals(12L, theCell.getValue());
+		assertNull(cell_100.getMemory());
+	}
+
+	@Test(expected = IllegalArgumentException.class) public void constructor_NonEffectiveMemory()
+			throws Exception {
+		new MemoryCell(null, 10);
+	}
+
+	@Test(expected = IllegalAddressException.class) public void constructor_IllegalAddressInMemory()
+			throws Exception {
+		new MemoryCell(new Memory(), -1);
+	}
+
 	@Test(expected = IllegalAddressException.class) public void testIllegalCase()
 			throws Exception {
 		new MemoryCell(-1);
@@ -90,10 +110,46 @@ public class MemoryCellTest {
 		assertEquals(222L,someCell.getValue());
 	}
 	
+	@Test public void setValue_SameAddressInMemory() {
+		Memory memory = new Memory();
+		MemoryCell theCell = new MemoryCell(memory, 100);
+		MemoryCell otherCell = new MemoryCell(memory, 100);
+		theCell.setValue(222);
+		assertEquals(222L, otherCell.getValue());
+		assertEquals(222L, memory.getValueAt(100));
+		assertEquals(0L, cell_100.getValue());
+		assertNotEquals(theCell, otherCell);
+		assertTrue(theCell.isIdenticalTo(otherCell));
+	}
+
+	@Test public void setValue_SwitchingBanks() {
+		Memory memory = new Memory();
+		MemoryCell theCell = new MemoryCell(memory, 7);
+		theCell.setValue(1);
+		memory.selectBank(memory.addBank());
+		assertEquals(0L, theCell.getValue());
+		theCell.setValue(2);
+		memory.selectBank(0);
+		assertEquals(1L, theCell.getValue());
+	}
+
 	@Test public void toString_SingleCase() {
 			assertEquals("M"+cell_100.getAddress(),cell_100.toString());
 			// Checking correctness of the specification.
 			assertEquals("M100",cell_100.toString());
 	}
 
+
+	@Test public void alwaysHasSameValueAs_SeveralCases() {
+		Memory memory = new Memory();
+		MemoryCell theCell = new MemoryCell(memory, 100);
+		assertTrue(cell_100.alwaysHasSameValueAs(cell_100));
+		assertFalse(cell_100.alwaysHasSameValueAs(otherCell_100));
+		assertTrue(theCell.alwaysHasSameValueAs(new MemoryCell(memory, 100)));
+		assertFalse(theCell.alwaysHasSameValueAs(new MemoryCell(memory, 101)));
+		assertFalse(theCell.alwaysHasSameValueAs(new MemoryCell(new Memory(), 100)));
+		assertFalse(theCell.alwaysHasSameValueAs(cell_100));
+		assertFalse(cell_100.alwaysHasSameValueAs(null));
+	}
+
 }
@@ -0,0 +1,159 @@
+package chapter_8.course_implementation.expressions;
+
+import static org.junit.Assert.*;
+
+import org.junit.*;
+
+import chapter_8.course_implementation.expressions.exceptions.IllegalAddressException;
+
+public class MemoryTest {
+
+	private Memory theMemory;
+
+	@Before public void setUp() throws Exception {
+		theMemory = new Memory();
+		theMemory.setValueAt(3, 30);
+		theMemory.setValueAt(5, 50);
+	}
+
+	@Test public void constructor_SingleCase() {
+		Memory newMemory = new Memory();
+		assertEquals(1, newMemory.getNbBanks());
+		assertEquals(0, newMemory.getSelectedBank());
+		assertEquals(0L, newMemory.getValueAt(0));
+		assertEquals(0L, newMemory.getValueAt(Integer.MAX_VALUE));
+	}
+
+	@Test public void setValueAt_LegalCase() {
+		assertEquals(30L, theMemory.getValueAt(3));
+		assertEquals(0L, theMemory.getValueAt(4));
+		theMemory.setValueAt(100000, -7);
+		assertEquals(-7L, theMemory.getValueAt(100000));
+		assertEquals(50L, theMemory.getValueAt(5));
+	}
+
+	@Test(expected = IllegalAddressException.class) public void setValueAt_IllegalAddress() {
+		theMemory.setValueAt(-1, 10);
+	}
+
+	@Test(expected = IllegalAddressException.class) public void getValueAt_IllegalAddress() {
+		theMemory.getValueAt(-1);
+	}
+
+	@Test public void load_LegalCase() {
+		long[] values = { 1, 1, 1, 1, 1 };
+		theMemory.load(2, values);
+		assertArrayEquals(new long[] { 0, 30, 0, 50, 0 }, values);
+		theMemory.load(1000, values);
+		assertArrayEquals(new long[5], values);
+	}
+
+	@Test(expected = IllegalAddressException.class) public void load_BeyondHighestAddress() {
+		theMemory.load(Integer.MAX_VALUE, new long[2]);
+	}
+
+	@Test(expected = IllegalArgumentException.class) public void load_NonEffectiveArray() {
+		theMemory.load(0, null);
+	}
+
+	@Test public void store_LegalCase() {
+		theMemory.store(4, new long[] { 40, 41, 42 });
+		assertEquals(30L, theMemory.getValueAt(3));
+		assertEquals(40L, theMemory.getValueAt(4));
+		assertEquals(41L, theMemory.getValueAt(5));
+		assertEquals(42L, theMemory.getValueAt(6));
+		theMemory.store(1000, new long[] { 7 });
+		assertEquals(7L, theMemory.getValueAt(1000));
+	}
+
+	@Test(expected = IllegalAddressException.class) public void store_IllegalAddress() {
+		theMemory.store(-2, new long[] { 1, 2, 3 });
+	}
+
+	@Test public void setValueAt_HighestAddress() {
+		theMemory.setValueAt(Integer.MAX_VALUE, 77);
+		assertEquals(77L, theMemory.getValueAt(Integer.MAX_VALUE));
+		assertEquals(0L, theMemory.getValueAt(Integer.MAX_VALUE - 1));
+		assertEquals(30L, theMemory.getValueAt(3));
+	}
+
+	@Test public void setValueAt_SparseAddresses() {
+		theMemory.setValueAt(1000000000, 1);
+		theMemory.setValueAt(1500000000, 2);
+		assertEquals(1L, theMemory.getValueAt(1000000000));
+		assertEquals(2L, theMemory.getValueAt(1500000000));
+		assertEquals(0L, theMemory.getValueAt(1000000001));
+		assertEquals(0L, theMemory.getValueAt(1250000000));
+	}
+
+	@Test public void loadAndStore_AcrossPages() {
+		long[] values = new long[10000];
+		for (int i = 0; i < values.length; i++)
+			values[i] = i + 1;
+		theMemory.store(Integer.MAX_VALUE - 9999, values);
+		assertEquals(1L, theMemory.getValueAt(Integer.MAX_VALUE - 9999));
+		assertEquals(10000L, theMemory.getValueAt(Integer.MAX_VALUE));
+		long[] loaded = new long[10002];
+		theMemory.load(Integer.MAX_VALUE - 10001, loaded);
+		assertEquals(0L, loaded[0]);
+		assertEquals(0L, loaded[1]);
+		for (int i = 0; i < values.length; i++)
+			assertEquals(values[i], loaded[i + 2]);
+	}
+
+	@Test public void snapshot_Independent() {
+		theMemory.setValueAt(Integer.MAX_VALUE, 9);
+		Memory snapshot = theMemory.snapshot();
+		assertEquals(1, snapshot.getNbBanks());
+		assertEquals(30L, snapshot.getValueAt(3));
+		assertEquals(50L, snapshot.getValueAt(5));
+		assertEquals(9L, snapshot.getValueAt(Integer.MAX_VALUE));
+		snapshot.setValueAt(3, 99);
+		theMemory.setValueAt(5, 55);
+		assertEquals(30L, theMemory.getValueAt(3));
+		assertEquals(50L, snapshot.getValueAt(5));
+	}
+
+	@Test public void restore_LegalCase() {
+		Memory snapshot = theMemory.snapshot();
+		theMemory.setValueAt(3, 33);
+		theMemory.setValueAt(2000000000, 1);
+		theMemory.restore(snapshot);
+		assertEquals(30L, theMemory.getValueAt(3));
+		assertEquals(0L, theMemory.getValueAt(2000000000));
+		snapshot.setValueAt(3, 8);
+		assertEquals(30L, theMemory.getValueAt(3));
+	}
+
+	@Test(expected = IllegalArgumentException.class) public void restore_NonEffectiveSnapshot() {
+		theMemory.restore(null);
+	}
+
+	@Test public void addBank_SingleCase() {
+		assertEquals(1, theMemory.addBank());
+		assertEquals(2, theMemory.addBank());
+		assertEquals(3, theMemory.getNbBanks());
+		assertEquals(0, theMemory.getSelectedBank());
+		assertEquals(30L, theMemory.getValueAt(3));
+	}
+
+	@Test public void selectBank_LegalCase() {
+		int bank = theMemory.addBank();
+		theMemory.selectBank(bank);
+		assertEquals(bank, theMemory.getSelectedBank());
+		assertEquals(0L, theMemory.getValueAt(3));
+		theMemory.setValueAt(3, 300);
+		theMemory.setValueAt(5000, 1);
+		theMemory.selectBank(0);
+		assertEquals(30L, theMemory.getValueAt(3));
+		assertEquals(0L, theMemory.getValueAt(5000));
+		theMemory.selectBank(bank);
+		assertEquals(300L, theMemory.getValueAt(3));
+		assertEquals(1L, theMemory.getValueAt(5000));
+	}
+
+	@Test(expected = IndexOutOfBoundsException.class) public void selectBank_IllegalBank() {
+		theMemory.selectBank(1);
+	}
+
+}
@@ -1 +1 @@
-package chapter_8.course_implementation.expressions;import chapter_8.course_implementation.expressions.exceptions.*;/** * A class of binary expressions, representing the multiplication of * the operand at the left-hand side with the operand at the right * hand side. *  * @version  2.0 * @author   Eric Steegmans */public class Multiplication extends BinaryExpression {	/**	 * Initialize this new multiplication with given operands.	 *	 * @param  left	 *         The left operand for this new multiplication.	 * @param  right	 *         The right operand for this new multiplication.	 * @effect This new multiplication is initialized as a binary expression	 *         with the given operands.	 *       | super(left,right)	 */	public Multiplication(Expression left, Expression right)			throws IllegalOperandException {		super(left, right);	}	/**	 * Return the value of this multiplication.	 *	 * @return The product of the values of the operands of this addition.	 *       | result ==	 *       |   getLeftOperand().getValue() *	 *       |   getRightOperand().getValue()	 */	@Override	public long getValue() {		return getLeftOperand().getValue() * getRightOperand().getValue();	}	/**	 * Return the symbol representing the operator of this multiplication.	 * 	 * @return The string "*"	 *       | result.equals("*")	 */	@Override	public String getOperatorSymbol() {		return "*";	}}
\ No newline at end of file
+package chapter_8.course_implementation.expressions;import java.util.List;import chapter_8.course_implementation.expressions.exceptions.*;/** * A class of binary expressions, representing the multiplication of * the operand at the left-hand side with the operand at the right * hand side. *  * @version  2.0 * @author   Eric Steegmans */public class Multiplication extends BinaryExpression {	/**	 * Initialize this new multiplication with given operands.	 *	 * @param  left	 *         The left operand for this new multiplication.	 * @param  right	 *         The right operand for this new multiplication.	 * @effect This new multiplication is initialized as a binary expression	 *         with the given operands.	 *       | super(left,right)	 */	public Multiplication(Expression left, Expression right)			throws IllegalOperandException {		super(left, right);	}	/**	 * Return the value of this multiplication.	 *	 * @return The product of the values of the operands of this addition.	 *       | result ==	 *       |   getLeftOperand().getValue() *	 *       |   getRightOperand().getValue()	 */	@Override	public long getValue() {		return getLeftOperand().getValue() * getRightOperand().getValue();	}	/**	 * Return the value of this multiplication, if its operands had the given	 * values.	 *	 * @return The product of the given values.	 *       | result == leftValue * rightValue	 */	@Override	public long computeValue(long leftValue, long rightValue) {		return leftValue * rightValue;	}	/**	 * Return a simplified version of this multiplication.	 * 	 * @return If this multiplication is mutable, the resulting expression	 *         multiplies the simplified operands of the chain of	 *         multiplications starting from this multiplication, in a	 *         balanced tree. The values of the immutable operands of that	 *         chain are folded into a single integer literal, that is left	 *         out if its value is 1. If no other operands remain, the	 *         resulting expression is the integer literal 1.	 *       | if (isMutable())	 *       |   then result.getValue() == getValue()	 * @return If the values of the immutable operands of the chain of	 *         multiplications starting from this multiplication multiply	 *         to 0, the resulting expression is the integer literal 0.	 */	@Override	public Expression simplify() {		if (!isMutable())			return super.simplify();		List<Expression> operands = getSimplifiedChainOperands();		Expression last = operands.get(operands.size() - 1);		if (!last.isMutable()) {			if (last.getValue() == 0)				return IntegerLiteral.ZERO;			if (last.getValue() == 1)				operands.remove(operands.size() - 1);		}		if (operands.isEmpty())			return new IntegerLiteral(1);		return combineBalanced(operands, Multiplication::new);	}	/**	 * Return the symbol representing the operator of this multiplication.	 * 	 * @return The string "*"	 *       | result.equals("*")	 */	@Override	public String getOperatorSymbol() {		return "*";	}}
\ No newline at end of file
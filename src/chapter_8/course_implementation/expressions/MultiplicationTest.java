@@ -32,6 +32,10 @@ public class MultiplicationTest {
 		new Multiplication(new IntegerLiteral(1), null);
 	}
 	
+	@Test public void computeValue_SingleCase() {
+		assertEquals(-40L, multiplication_3_4.computeValue(10, -4));
+	}
+
 	@Test public void getValue_SingleCase() {
 		assertEquals(12L,multiplication_3_4.getValue());
 	}
@@ -40,4 +44,39 @@ public class MultiplicationTest {
 		assertEquals("*",multiplication_3_4.getOperatorSymbol());
 	}
 
+
+	@Test public void simplify_MultiplyingByOne() {
+		MemoryCell cell = new MemoryCell(1);
+		assertSame(cell, new Multiplication(new IntegerLiteral(1), cell)
+			.simplify());
+		assertSame(cell, new Multiplication(new Multiplication(cell,
+			new IntegerLiteral(-1)), new IntegerLiteral(-1)).simplify());
+	}
+
+	@Test public void simplify_MultiplyingByZero() {
+		MemoryCell cell = new MemoryCell(1);
+		cell.setValue(12);
+		Expression result = new Multiplication(new Addition(cell, cell),
+			new Multiplication(new IntegerLiteral(0), cell)).simplify();
+		assertTrue(result instanceof IntegerLiteral);
+		assertEquals(0L, result.getValue());
+	}
+
+	@Test public void simplify_BalancingChain() {
+		Expression chain = new MemoryCell(0);
+		for (int i = 1; i < 4; i++)
+			chain = new Multiplication(new MemoryCell(i), chain);
+		chain = new Multiplication(chain, new IntegerLiteral(3));
+		assertEquals("(M3*M2)*(M1*(M0*3))", chain.simplify().toString());
+	}
+
+
+	@Test public void simplify_OnlyNeutralOperands() {
+		MemoryCell cell = new MemoryCell(1);
+		Expression result = new Multiplication(new Addition(new Subtraction(
+			cell, cell), new IntegerLiteral(1)), new IntegerLiteral(1)).simplify();
+		assertTrue(result instanceof IntegerLiteral);
+		assertEquals(1L, result.getValue());
+	}
+
 }
@@ -1 +1 @@
-package chapter_8.course_implementation.expressions;import chapter_8.course_implementation.expressions.exceptions.*;/** * A class of unary expressions, representing the negation of * a given operand. *  * @version  2.0 * @author   Eric Steegmans */public class Negation extends UnaryExpression {	/**	 * Initialize this new negation with given operand.	 *	 * @param  operand	 *         The operand for this new negation.	 * @effect This new negation is initialized as a unary expression	 *         with the given operand as its operand.	 *       | super(operand)	 */	public Negation(Expression operand) throws IllegalOperandException {		super(operand);	}	/**	 * Return the value of this negation.	 *	 * @return The negation of the value of the operand of this negation.	 *       | result == - getOperand().getValue()	 */	@Override	public long getValue() {		return -getOperand().getValue();	}	/**	 * Return the symbol representing the operator of this negation.	 * 	 * @return The string "-"	 *       | result.equals("-")	 */	@Override	public String getOperatorSymbol() {		return "-";	}}
\ No newline at end of file
+package chapter_8.course_implementation.expressions;import chapter_8.course_implementation.expressions.exceptions.*;/** * A class of unary expressions, representing the negation of * a given operand. *  * @version  2.0 * @author   Eric Steegmans */public class Negation extends UnaryExpression {	/**	 * Initialize this new negation with given operand.	 *	 * @param  operand	 *         The operand for this new negation.	 * @effect This new negation is initialized as a unary expression	 *         with the given operand as its operand.	 *       | super(operand)	 */	public Negation(Expression operand) throws IllegalOperandException {		super(operand);	}	/**	 * Return the value of this negation.	 *	 * @return The negation of the value of the operand of this negation.	 *       | result == - getOperand().getValue()	 */	@Override	public long getValue() {		return -getOperand().getValue();	}	/**	 * Return the value of this negation, if its operand had the given	 * value.	 *	 * @return The negation of the given value.	 *       | result == - operandValue	 */	@Override	public long computeValue(long operandValue) {		return -operandValue;	}	/**	 * Return a simplified version of this negation.	 * 	 * @return If this negation is mutable and the simplified version of	 *         its operand is a negation, the resulting expression is the	 *         operand of that negation.	 * @return If this negation is mutable and the simplified version of	 *         its operand is immutable, the resulting expression is a new	 *         integer literal with the value of this negation.	 * @return If this negation is mutable and the simplified version of	 *         its operand is neither immutable nor a negation, the resulting	 *         expression is a new negation of that simplified version.	 *       | if (isMutable())	 *       |   then result.getValue() == getValue()	 */	@Override	public Expression simplify() {		if (!isMutable())			return super.simplify();		return negate(getOperand().simplify());	}	/**	 * Return an expression negating the given simplified expression.	 * 	 * @param  operand	 *         The simplified expression to negate.	 * @return If the given expression is immutable, a new integer literal	 *         whose value is the negation of the value of that expression.	 *       | if (! operand.isMutable())	 *       |   then ( (result instanceof IntegerLiteral) &&	 *       |          (result.getValue() == - operand.getValue()) )	 * @return Otherwise, if the given expression is a negation, its operand.	 *       | if (operand.isMutable() && (operand instanceof Negation))	 *       |   then result == ((Negation)operand).getOperand()	 * @return Otherwise, a new negation of the given expression.	 *       | if (operand.isMutable() && (! (operand instanceof Negation)))	 *       |   then ( (result instanceof Negation) &&	 *       |          (((Negation)result).getOperand() == operand) )	 */	static Expression negate(Expression operand) {		if (!operand.isMutable())			return new IntegerLiteral(-operand.getValue());		if (operand instanceof Negation)			return ((Negation) operand).getOperand();		return new Negation(operand);	}	/**	 * Return the symbol representing the operator of this negation.	 * 	 * @return The string "-"	 *       | result.equals("-")	 */	@Override	public String getOperatorSymbol() {		return "-";	}}
\ No newline at end of file
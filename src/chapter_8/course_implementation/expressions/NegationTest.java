@@ -24,6 +24,10 @@ public class NegationTest {
 		new Negation(null);
 	}
 
+	@Test public void computeValue_SingleCase() {
+		assertEquals(7L, negation_10.computeValue(-7));
+	}
+
 	@Test public void getValue_SingleCase() {
 		assertEquals(-10L, negation_10.getValue());
 	}
@@ -32,4 +36,26 @@ public class NegationTest {
 		assertEquals("-", negation_10.getOperatorSymbol());
 	}
 
+
+	@Test public void simplify_ImmutableOperand() {
+		Expression result = new Negation(new Addition(new IntegerLiteral(2),
+			new IntegerLiteral(5))).simplify();
+		assertTrue(result instanceof IntegerLiteral);
+		assertEquals(-7L, result.getValue());
+	}
+
+	@Test public void simplify_DoubleNegation() {
+		MemoryCell cell = new MemoryCell(1);
+		assertSame(cell, new Negation(new Negation(cell)).simplify());
+		assertEquals("-M1", new Negation(new Negation(new Negation(cell)))
+			.simplify().toString());
+	}
+
+	@Test public void simplify_OperandSimplifiedToConstant() {
+		MemoryCell cell = new MemoryCell(1);
+		Expression result = new Negation(new Subtraction(cell, cell)).simplify();
+		assertTrue(result instanceof IntegerLiteral);
+		assertEquals(0L, result.getValue());
+	}
+
 }
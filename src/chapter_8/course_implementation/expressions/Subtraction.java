@@ -40,6 +40,60 @@ public class Subtraction extends BinaryExpression {
 		return getLeftOperand().getValue() - getRightOperand().getValue();
 	}
 
+	/**
+	 * Return the value of this subtraction, if its operands had the given
+	 * values.
+	 *
+	 * @return The difference between the given left value and
+	 *         the given right value.
+	 *       | result == leftValue - rightValue
+	 */
+	@Override
+	public long computeValue(long leftValue, long rightValue) {
+		return leftValue - rightValue;
+	}
+
+	/**
+	 * Return a simplified version of this subtraction.
+	 * 
+	 * @return If this subtraction is mutable, the resulting expression
+	 *         has the same value as this subtraction, whatever the values
+	 *         of its memory cells.
+	 *       | if (isMutable())
+	 *       |   then result.getValue() == getValue()
+	 * @return If the simplified right operand is the integer literal 0,
+	 *         the resulting expression is the simplified left operand. If
+	 *         the simplified left operand is the integer literal 0, the
+	 *         resulting expression negates the simplified right operand.
+	 * @return If both operands or both simplified operands are the same
+	 *         expression, or memory cells that always have the same value,
+	 *         the resulting expression is the integer literal 0.
+	 * @return If both simplified operands are immutable, the resulting
+	 *         expression is a new integer literal.
+	 */
+	@Override
+	public Expression simplify() {
+		if (!isMutable())
+			return super.simplify();
+		// Simplifying a composed operand yields a new expression each time.
+		if (getLeftOperand() == getRightOperand())
+			return IntegerLiteral.ZERO;
+		Expression left = getLeftOperand().simplify();
+		Expression right = getRightOperand().simplify();
+		if (!right.isMutable() && (right.getValue() == 0))
+			return left;
+		if (!left.isMutable() && (left.getValue() == 0))
+			return Negation.negate(right);
+		if ((left == right) || ((left instanceof MemoryCell)
+				&& (right instanceof MemoryCell)
+				&& ((MemoryCell) left).alwaysHasSameValueAs((MemoryCell) right)))
+			return IntegerLiteral.ZERO;
+		if (!left.isMutable() && !right.isMutable())
+			return new IntegerLiteral(computeValue(left.getValue(),
+				right.getValue()));
+		return new Subtraction(left, right);
+	}
+
 	/**
 	 * Return the symbol representing the operator of this subtraction.
 	 * 
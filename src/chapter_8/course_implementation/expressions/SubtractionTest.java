@@ -3,6 +3,7 @@ package chapter_8.course_implementation.expressions;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 
 import org.junit.BeforeClass;
 import org.junit.Test;
@@ -38,6 +39,10 @@ public class SubtractionTest {
 		new Subtraction(new IntegerLiteral(1), null);
 	}
 
+	@Test public void computeValue_SingleCase() {
+		assertEquals(14L, subtraction_5_2.computeValue(10, -4));
+	}
+
 	@Test public void getValue_SingleCase() {
 		assertEquals(3L, subtraction_5_2.getValue());
 	}
@@ -46,4 +51,58 @@ public class SubtractionTest {
 		assertEquals("-", subtraction_5_2.getOperatorSymbol());
 	}
 
+	@Test public void simplify_ImmutableExpression() {
+		Expression result = subtraction_5_2.simplify();
+		assertTrue(result instanceof IntegerLiteral);
+		assertEquals(3L, result.getValue());
+	}
+
+	@Test public void simplify_SubtractingZero() {
+		MemoryCell cell = new MemoryCell(1);
+		assertSame(cell, new Subtraction(cell, new Multiplication(
+			new IntegerLiteral(0), new IntegerLiteral(5))).simplify());
+	}
+
+	@Test public void simplify_SubtractingFromZero() {
+		MemoryCell cell = new MemoryCell(1);
+		assertEquals("-M1", new Subtraction(new IntegerLiteral(0), cell)
+			.simplify().toString());
+		assertSame(cell, new Subtraction(new IntegerLiteral(0),
+			new Negation(cell)).simplify());
+	}
+
+	@Test public void simplify_SameCells() {
+		MemoryCell cell = new MemoryCell(1);
+		cell.setValue(10);
+		Expression result = new Subtraction(cell, new Negation(new Negation(
+			cell))).simplify();
+		assertSame(IntegerLiteral.ZERO, result);
+		Memory memory = new Memory();
+		assertSame(IntegerLiteral.ZERO, new Subtraction(new MemoryCell(memory, 3),
+			new MemoryCell(memory, 3)).simplify());
+	}
+
+	@Test public void simplify_DifferentCells() {
+		Expression result = new Subtraction(new MemoryCell(1),
+			new MemoryCell(1)).simplify();
+		assertEquals("M1-M1", result.toString());
+	}
+
+	@Test public void simplify_OperandsSimplifiedToConstants() {
+		MemoryCell cell_1 = new MemoryCell(1);
+		MemoryCell cell_2 = new MemoryCell(2);
+		Expression result = new Subtraction(new Addition(new Subtraction(cell_1,
+			cell_1), new IntegerLiteral(2)), new Addition(new Subtraction(cell_2,
+			cell_2), new IntegerLiteral(1))).simplify();
+		assertTrue(result instanceof IntegerLiteral);
+		assertEquals(1L, result.getValue());
+	}
+
+	@Test public void simplify_SharedComposedOperand() {
+		Expression product = new Multiplication(new MemoryCell(1),
+			new MemoryCell(2));
+		assertSame(IntegerLiteral.ZERO, new Subtraction(product, product)
+			.simplify());
+	}
+
 }
@@ -1 +1 @@
-package chapter_8.course_implementation.expressions;import be.kuleuven.cs.som.annotate.*;import chapter_8.course_implementation.expressions.exceptions.*;/** * A class of unary arithmetic expressions. *   A unary expression involves a single operator applied *   to a single operand. *  * @version  2.0 * @author   Eric Steegmans */public abstract class UnaryExpression extends ComposedExpression {	/**	 * Initialize this new unary expression with given operand.	 *	 * @param  operand	 *         The operand for this new unary expression.	 * @post   The operand for this new unary expression is the	 *         same as the given operand.	 *       | new.getOperand() == operand	 * @throws IllegalOperandException	 *         This new unary expression cannot have the given	 *         operand as its operand.	 *       | ! canHaveAsOperand(operand)	 */	@Model	protected UnaryExpression(Expression operand)			throws IllegalOperandException {		if (!canHaveAsOperand(operand))			throw new IllegalOperandException(this, operand);		setOperandAt(1, operand);	}	/**	 * Return the number of operands involved in this unary expression.	 *	 * @return A unary expression always involves a single operand.	 *       | result == 1	 */	@Override	@Basic	public final int getNbOperands() {		return 1;	}	/**	 * Check whether this unary expression can have the given	 * number as its number of operands.	 *	 * @return True if and only if the given number is 1.	 *       | result == (number == 1)	 */	@Override	@Raw	public final boolean canHaveAsNbOperands(int number) {		return number == 1;	}	/**	 * Return the operand of this unary expression at the given index.	 * 	 * @return The one and only operand of this unary expression.	 *       | result == getOperand()	 */	@Override	public final Expression getOperandAt(int index)			throws IndexOutOfBoundsException {		if (index != 1)			throw new IndexOutOfBoundsException();		return getOperand();	}	/**	 * Return the operand of this unary expression.	 */	@Basic	public Expression getOperand() {		return operand;	}	/**	 * Set the operand for this unary expression at the given	 * index to the given operand.	 */	@Override	protected void setOperandAt(int index, Expression operand) {		this.operand = operand;	}	/**	 * Variable referencing the operand of this unary expression.	 * 	 * @note    This variable is not qualified final, such that operands	 *          can be changed in cloning unary expressions.	 */	private Expression operand;	/**	 * Return a textual representation of this unary expression.	 *	 * @return If the operand of this unary expression is a basic expression,	 *         the symbol representing the operator of this unary	 *         expression followed by the textual representation of	 *         the operand of this unary expression.	 *       | if (getOperand() instanceof BasicExpression)	 *       |   then result.equals	 *       |          (getOperator() + getOperand().toString())	 * @return If the operand of this unary expression is a composed expression,	 *         the symbol representing the operator of this unary	 *         expression followed by the textual representation of	 *         the operand of this unary expression in paranthesis.	 *       | if (getOperand() instanceof ComposedExpression)	 *       |   then result.equals	 *       |          (getOperator() + "(" + getOperand().toString() + ")")	 */	@Override	public String toString() {		if (getOperand() instanceof BasicExpression)			return getOperatorSymbol() + getOperand().toString();		if (getOperand() instanceof ComposedExpression)			return getOperatorSymbol() + "(" + getOperand().toString() + ")";		throw new Error("Unknown expression type!");	}}
\ No newline at end of file
+package chapter_8.course_implementation.expressions;import be.kuleuven.cs.som.annotate.*;import chapter_8.course_implementation.expressions.exceptions.*;/** * A class of unary arithmetic expressions. *   A unary expression involves a single operator applied *   to a single operand. *  * @version  2.0 * @author   Eric Steegmans */public abstract class UnaryExpression extends ComposedExpression {	/**	 * Initialize this new unary expression with given operand.	 *	 * @param  operand	 *         The operand for this new unary expression.	 * @post   The operand for this new unary expression is the	 *         same as the given operand.	 *       | new.getOperand() == operand	 * @throws IllegalOperandException	 *         This new unary expression cannot have the given	 *         operand as its operand.	 *       | ! canHaveAsOperand(operand)	 */	@Model	protected UnaryExpression(Expression operand)			throws IllegalOperandException {		if (!canHaveAsOperand(operand))			throw new IllegalOperandException(this, operand);		setOperandAt(1, operand);	}	/**	 * Return the number of operands involved in this unary expression.	 *	 * @return A unary expression always involves a single operand.	 *       | result == 1	 */	@Override	@Basic	public final int getNbOperands() {		return 1;	}	/**	 * Check whether this unary expression can have the given	 * number as its number of operands.	 *	 * @return True if and only if the given number is 1.	 *       | result == (number == 1)	 */	@Override	@Raw	public final boolean canHaveAsNbOperands(int number) {		return number == 1;	}	/**	 * Return the operand of this unary expression at the given index.	 * 	 * @return The one and only operand of this unary expression.	 *       | result == getOperand()	 */	@Override	public final Expression getOperandAt(int index)			throws IndexOutOfBoundsException {		if (index != 1)			throw new IndexOutOfBoundsException();		return getOperand();	}	/**	 * Return the operand of this unary expression.	 */	@Basic	public Expression getOperand() {		return operand;	}	/**	 * Set the operand for this unary expression at the given	 * index to the given operand.	 */	@Override	protected void setOperandAt(int index, Expression operand) {		this.operand = operand;	}	/**	 * Variable referencing the operand of this unary expression.	 * 	 * @note    This variable is not qualified final, such that operands	 *          can be changed in cloning unary expressions.	 */	private Expression operand;	/**	 * Return the value of this unary expression, if its operand had	 * the given value.	 *	 * @param  operandValue	 *         The value to be used for the operand of this unary expression.	 * @return The value of this unary expression is the result of this	 *         method applied to the value of its operand.	 *       | getValue() == computeValue(getOperand().getValue())	 * @note   Evaluators that compute the values of all the operands	 *         themselves use this method to apply the operator of this	 *         unary expression.	 */	public abstract long computeValue(long operandValue);	/**	 * Return a textual representation of this unary expression.	 *	 * @return If the operand of this unary expression is a basic expression,	 *         the symbol representing the operator of this unary	 *         expression followed by the textual representation of	 *         the operand of this unary expression.	 *       | if (getOperand() instanceof BasicExpression)	 *       |   then result.equals	 *       |          (getOperator() + getOperand().toString())	 * @return If the operand of this unary expression is a composed expression,	 *         the symbol representing the operator of this unary	 *         expression followed by the textual representation of	 *         the operand of this unary expression in paranthesis.	 *       | if (getOperand() instanceof ComposedExpression)	 *       |   then result.equals	 *       |          (getOperator() + "(" + getOperand().toString() + ")")	 */	@Override	public String toString() {		if (getOperand() instanceof BasicExpression)			return getOperatorSymbol() + getOperand().toString();		if (getOperand() instanceof ComposedExpression)			return getOperatorSymbol() + "(" + getOperand().toString() + ")";		throw new Error("Unknown expression type!");	}}
\ No newline at end of file
@@ -9,6 +9,15 @@ import org.junit.runners.Suite;
     NonEmptyBinaryTreeTest.class, LeafBinaryTreeTest.class, ComposedBinaryTreeTest.class,
     UnsortedBinaryTreeTest.class, EmptyUnsortedTreeTest.class, LeafUnsortedTreeTest.class,
     ComposedUnsortedTreeTest.class, SearchTreeTest.class, EmptySearchTreeTest.class,
-    NonEmptySearchTreeTest.class, LeafSearchTreeTest.class, ComposedSearchTreeTest.class })
+    NonEmptySearchTreeTest.class, LeafSearchTreeTest.class, ComposedSearchTreeTest.class,
+    BalancedSearchTreeTest.class, BalancedLeafSearchTreeTest.class,
+    BalancedEmptySearchTreeTest.class, PersistentSearchTreeTest.class,
+    PersistentLeafSearchTreeTest.class, PersistentEmptySearchTreeTest.class,
+    ConcurrentSearchTreeTest.class, IntSearchTreeTest.class, LongSearchTreeTest.class,
+    ComparatorSearchTreeTest.class, ComparatorLeafSearchTreeTest.class,
+    ComparatorEmptySearchTreeTest.class, CountedSearchTreeTest.class,
+    IndexedUnsortedTreeTest.class, PlacementStrategyTest.class,
+    FrozenSearchTreeTest.class, OffHeapLongSearchTreeTest.class,
+    MappedSearchTreeTest.class, SetOperationTest.class })
 public class AllTests {
 }
\ No newline at end of file
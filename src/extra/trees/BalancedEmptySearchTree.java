@@ -0,0 +1,64 @@
+package extra.trees;
+
+import extra.trees.exceptions.*;
+
+/**
+ * A class of balanced empty search trees.
+ *   Adding an element to a balanced empty search tree yields a new
+ *   balanced leaf search tree. Balanced empty search trees are the
+ *   starting point for building balanced search trees one element at
+ *   a time.
+ *
+ * @version  2.0
+ * @author   Eric Steegmans
+ */
+public class BalancedEmptySearchTree extends EmptySearchTree {
+
+    /**
+     * Return a reference to a predefined balanced empty search tree.
+     *
+     * @return A reference to an effective predefined balanced empty
+     *         search tree.
+     *       | result != null
+     */
+    public static BalancedEmptySearchTree getPrototype() {
+        return prototype;
+    }
+
+    /**
+     * Initialize this new balanced empty search tree.
+     */
+    protected BalancedEmptySearchTree() {
+    }
+
+    /**
+     * The prototype instance of a balanced empty search tree.
+     *
+     * @invar  The prototype of the balanced empty search tree is effective.
+     *       | prototype != null
+     */
+    private static BalancedEmptySearchTree prototype = new BalancedEmptySearchTree();
+
+    /**
+     * Return a new balanced leaf search tree storing the given element.
+     *
+     * @return The resulting tree is a new balanced leaf search tree.
+     *       | result instanceof BalancedLeafSearchTree
+     */
+    @Override
+    public BalancedLeafSearchTree addElement(Object element)
+            throws IllegalElementException {
+        return new BalancedLeafSearchTree(element);
+    }
+
+    /**
+     * Remove one occurrence of the given element from this balanced
+     * empty search tree.
+     */
+    @Override
+    public BalancedEmptySearchTree removeElement(Object element)
+            throws IllegalElementException {
+        return (BalancedEmptySearchTree) super.removeElement(element);
+    }
+
+}
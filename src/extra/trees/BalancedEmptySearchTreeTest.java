@@ -0,0 +1,40 @@
+package extra.trees;
+
+import static org.junit.Assert.*;
+
+import org.junit.*;
+
+import extra.trees.exceptions.IllegalElementException;
+
+public class BalancedEmptySearchTreeTest {
+
+    // Test for the method getPrototype
+
+    @Test
+    public void getPrototype_SingleCase() {
+        assertNotNull(BalancedEmptySearchTree.getPrototype());
+        assertNotSame(EmptySearchTree.getPrototype(), BalancedEmptySearchTree.getPrototype());
+    }
+
+    // Test for the method addElement
+
+    @Test
+    public void addElement_LegalCase() throws Exception {
+        BalancedLeafSearchTree newTree = BalancedEmptySearchTree.getPrototype().addElement(5);
+        assertEquals(1, newTree.getNbOccurrencesOf(5));
+        assertTrue(BalancedEmptySearchTree.getPrototype().isEmpty());
+    }
+
+    @Test(expected = IllegalElementException.class)
+    public void addElement_IllegalCase() throws Exception {
+        BalancedEmptySearchTree.getPrototype().addElement(null);
+    }
+
+    // Test for the method removeElement
+
+    @Test(expected = IllegalElementException.class)
+    public void removeElement_SingleCase() throws Exception {
+        BalancedEmptySearchTree.getPrototype().removeElement(5);
+    }
+
+}
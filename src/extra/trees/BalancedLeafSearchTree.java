@@ -0,0 +1,93 @@
+package extra.trees;
+
+import extra.trees.exceptions.*;
+
+/**
+ * A class of balanced search trees consisting of a single leaf.
+ *   Adding an element to a balanced leaf search tree yields a new
+ *   balanced search tree. Removing its element yields the balanced
+ *   empty search tree. Balanced search trees that shrink to a single
+ *   element thus keep balancing themselves once they grow again.
+ *
+ * @version  2.0
+ * @author   Eric Steegmans
+ */
+@SuppressWarnings("all")
+public class BalancedLeafSearchTree extends LeafSearchTree {
+
+    /**
+     * Initialize this new balanced leaf search tree with given element.
+     *
+     * @param  element
+     *         The element to be stored in this new balanced leaf search
+     *         tree.
+     * @effect This new balanced leaf search tree is initialized as a
+     *         leaf search tree with the given element.
+     *       | super(element)
+     */
+    public BalancedLeafSearchTree(Object element)
+            throws IllegalElementException {
+        super(element);
+    }
+
+    /**
+     * Return a new balanced search tree storing the element of this
+     * balanced leaf search tree and the given element.
+     *
+     * @return The resulting tree is a new balanced search tree.
+     *       | result instanceof BalancedSearchTree
+     * @throws IllegalElementException
+     *         This balanced leaf search tree cannot have the given
+     *         element as one of its elements.
+     *       | ! canHaveAsElement(element)
+     */
+    @Override
+    public BalancedSearchTree addElement(Object element)
+            throws IllegalElementException {
+        if (!canHaveAsElement(element))
+            throw new IllegalElementException(element, this);
+        BalancedLeafSearchTree leaf = new BalancedLeafSearchTree(element);
+        if (compareElements(getRootElement(), element) >= 0)
+            return new BalancedSearchTree(getRootElement(), leaf,
+                BalancedEmptySearchTree.getPrototype());
+        else
+            return new BalancedSearchTree(getRootElement(),
+                BalancedEmptySearchTree.getPrototype(), leaf);
+    }
+
+    /**
+     * Remove one occurrence of the given element from this balanced leaf
+     * search tree.
+     *
+     * @return The balanced empty search tree.
+     *       | result == BalancedEmptySearchTree.getPrototype()
+     */
+    @Override
+    public BalancedEmptySearchTree removeElement(Object element)
+            throws IllegalElementException {
+        if (!hasAsElement(element))
+            throw new IllegalElementException(element, this);
+        return removeRootElement();
+    }
+
+    /**
+     * Return a clone of this balanced leaf search tree.
+     */
+    @Override
+    public BalancedLeafSearchTree clone() {
+        return (BalancedLeafSearchTree) super.clone();
+    }
+
+    /**
+     * Remove the element stored in the root of this balanced leaf search
+     * tree.
+     *
+     * @return The balanced empty search tree.
+     *       | result == BalancedEmptySearchTree.getPrototype()
+     */
+    @Override
+    protected BalancedEmptySearchTree removeRootElement() {
+        return BalancedEmptySearchTree.getPrototype();
+    }
+
+}
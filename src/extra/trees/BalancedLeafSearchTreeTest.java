@@ -0,0 +1,55 @@
+package extra.trees;
+
+import static org.junit.Assert.*;
+
+import org.junit.*;
+
+import extra.trees.exceptions.IllegalElementException;
+
+public class BalancedLeafSearchTreeTest {
+
+    private BalancedLeafSearchTree theTree;
+
+    @Before
+    public void setUp() throws Exception {
+        theTree = new BalancedLeafSearchTree(23);
+    }
+
+    // Test for the method addElement
+
+    @Test
+    public void addElement_LegalCase() throws Exception {
+        BalancedSearchTree newTree = theTree.addElement(10);
+        assertEquals(2, newTree.getNbElements());
+        assertEquals(10, newTree.first());
+        assertEquals(2, newTree.getHeight());
+        assertTrue(newTree.addElement(5).addElement(1) instanceof BalancedSearchTree);
+    }
+
+    @Test(expected = IllegalElementException.class)
+    public void addElement_IllegalCase() throws Exception {
+        theTree.addElement("abc");
+    }
+
+    // Test for the method removeElement
+
+    @Test
+    public void removeElement_LegalCase() throws Exception {
+        assertSame(BalancedEmptySearchTree.getPrototype(), theTree.removeElement(23));
+    }
+
+    @Test(expected = IllegalElementException.class)
+    public void removeElement_NonExistingElement() throws Exception {
+        theTree.removeElement(10);
+    }
+
+    // Test for the method clone
+
+    @Test
+    public void clone_SingleCase() {
+        BalancedLeafSearchTree clone = theTree.clone();
+        assertNotSame(theTree, clone);
+        assertEquals(1, clone.getNbOccurrencesOf(23));
+    }
+
+}
@@ -0,0 +1,741 @@
+package extra.trees;
+
+import java.util.*;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import be.kuleuven.cs.som.annotate.*;
+
+import extra.trees.exceptions.*;
+
+/**
+ * A class of height-balanced composed search trees.
+ *   A balanced search tree rebalances itself after each addition and
+ *   removal of an element, such that the heights of its left subtree and
+ *   of its right subtree never differ by more than one (AVL trees).
+ *   Its height is therefore logarithmic in its number of elements, no
+ *   matter in which order elements are added.
+ *   In contrast to composed search trees in general, elements equal to
+ *   the root element may be stored in the left subtree as well as in the
+ *   right subtree, because rotations move elements from one side of the
+ *   root to the other side.
+ *
+ * @invar   The subtrees of each balanced search tree are empty search
+ *          trees, leaf search trees or balanced search trees.
+ *        | isBalancedSubTree(getLeftTree()) &&
+ *        | isBalancedSubTree(getRightTree())
+ * @invar   The heights of the subtrees of each balanced search tree
+ *          differ by at most one.
+ *        | Math.abs(getHeightOf(getLeftTree()) -
+ *        |          getHeightOf(getRightTree())) <= 1
+ *
+ * @version  2.0
+ * @author   Eric Steegmans
+ */
+@SuppressWarnings("all")
+public class BalancedSearchTree extends ComposedSearchTree {
+
+    /**
+     * Initialize this new balanced search tree with given elements.
+     *
+     * @param   elements
+     *          The elements to be stored in this new balanced search tree.
+     * @effect  This new balanced search tree is initialized as a composed
+     *          search tree with the given elements.
+     *        | super(elements)
+     */
+    public BalancedSearchTree(Object... elements)
+            throws IllegalArgumentException, IllegalElementException {
+        super(elements);
+        updateHeight();
+    }
+
+    /**
+     * Initialize this new balanced search tree with given root element
+     * and given subtrees.
+     *
+     * @param   element
+     *          The element to be stored in the root of this new balanced
+     *          search tree.
+     * @param   left
+     *          The left subtree for this new balanced search tree.
+     * @param   right
+     *          The right subtree for this new balanced search tree.
+     * @pre     The heights of the given subtrees differ by at most one.
+     *        | Math.abs(getHeightOf(left) - getHeightOf(right)) <= 1
+     * @effect  This new balanced search tree is initialized as a composed
+     *          search tree with the given element as its root element
+     *          and with the given trees as its subtrees.
+     *        | super(element,left,right)
+     */
+    protected BalancedSearchTree(Object element, SearchTree left,
+            SearchTree right) throws IllegalElementException {
+        super(element, left, right);
+        updateHeight();
+    }
+
+    /**
+     * Initialize this new balanced search tree with the null reference as
+     * its root element.
+     *
+     * @effect  This new balanced search tree is initialized as a composed
+     *          search tree with the null reference as its root element.
+     *        | super()
+     * @note    Subclasses using this constructor must register the root
+     *          element and the subtrees of the new tree themselves, and must
+     *          compute its height afterwards.
+     */
+    @Raw
+    protected BalancedSearchTree() {
+    }
+
+    /**
+     * Return a search tree storing the given elements, in which all
+     * subtrees have the same number of elements up to one.
+     *
+     * @param   elements
+     *          The elements to be stored in the resulting search tree.
+     * @return  The resulting search tree stores the given elements, and
+     *          it is built from them in ascending order.
+     *        | result == fromSorted(sorted(elements), elements.length)
+     * @throws  IllegalElementException
+     *          One of the given elements is not an effective comparable
+     *          object.
+     *        | for some element in elements:
+     *        |   ! (element instanceof Comparable)
+     * @throws  IllegalElementException
+     *          At least one of the given elements is not comparable with
+     *          the first element.
+     *        | for some I in 1..elements.length:
+     *        |   ... [Unable to specify this part in a formal way,
+     *        |     because the interface Comparable lacks methods]
+     * @note    The given array is copied and sorted, after which the
+     *          resulting tree is built in linear time. Adding the elements
+     *          one by one would also rebalance the tree after each addition.
+     */
+    public static SearchTree fromElements(Object... elements)
+            throws IllegalElementException {
+        Object[] sortedElements = elements.clone();
+        for (Object element : sortedElements) {
+            if (!(element instanceof Comparable))
+                throw new IllegalElementException(element, null);
+            try {
+                ((Comparable) sortedElements[0]).compareTo(element);
+            }
+            catch (ClassCastException exc) {
+                throw new IllegalElementException(element, null);
+            }
+        }
+        Arrays.sort(sortedElements);
+        return fromSorted(Arrays.asList(sortedElements).iterator(),
+            sortedElements.length);
+    }
+
+    /**
+     * Return a search tree storing the given number of elements returned
+     * by the given iterator, in which all subtrees have the same number
+     * of elements up to one.
+     *
+     * @param   elements
+     *          An iterator returning the elements to be stored in the
+     *          resulting search tree in ascending order.
+     * @param   nbElements
+     *          The number of elements to take from the given iterator.
+     * @return  A balanced empty search tree if the given number of elements
+     *          is zero, a balanced leaf search tree if it is one, and a
+     *          balanced search tree otherwise.
+     *        | if (nbElements == 0)
+     *        |   then result == BalancedEmptySearchTree.getPrototype()
+     *        | else if (nbElements == 1)
+     *        |   then result instanceof BalancedLeafSearchTree
+     *        | else result instanceof BalancedSearchTree
+     * @return  The resulting search tree stores the first elements returned
+     *          by the given iterator, up to the given number of elements.
+     *        | result.getNbElements() == nbElements
+     * @return  The number of elements in the left subtree and in the right
+     *          subtree of each subtree of the resulting tree differs by at
+     *          most one.
+     * @throws  IllegalArgumentException
+     *          The given number of elements is negative, or the given
+     *          iterator returns less elements than that number.
+     *        | nbElements < 0
+     * @throws  IllegalArgumentException
+     *          The given iterator does not return its elements in
+     *          ascending order.
+     * @throws  IllegalElementException
+     *          The given iterator returns an element that is not an
+     *          effective comparable object, or that is not comparable
+     *          with the elements returned before.
+     * @note    The resulting tree is built in linear time, without storing
+     *          the elements in between. Only the given number of elements
+     *          is taken from the given iterator.
+     */
+    public static SearchTree fromSorted(Iterator<?> elements, int nbElements)
+            throws IllegalArgumentException, IllegalElementException {
+        if (nbElements < 0)
+            throw new IllegalArgumentException();
+        return buildFromSorted(new SortedElements(elements), nbElements);
+    }
+
+    /**
+     * Return a search tree storing all the elements delivered by the given
+     * stream, in which all subtrees have the same number of elements up
+     * to one.
+     *
+     * @param   elements
+     *          A stream delivering the elements to be stored in the
+     *          resulting search tree.
+     * @return  The resulting search tree stores all the elements delivered
+     *          by the given stream.
+     *        | result == fromElements(elements.toArray())
+     * @throws  IllegalElementException
+     *          The given stream delivers elements that are not effective
+     *          comparable objects, or that are not comparable with each
+     *          other.
+     * @note    If the given stream knows its exact size and delivers its
+     *          elements in their natural order, the resulting tree is built
+     *          while the elements are delivered. Otherwise all the elements
+     *          are collected and sorted first.
+     */
+    public static SearchTree fromStream(Stream<?> elements)
+            throws IllegalElementException {
+        Spliterator<?> spliterator = elements.spliterator();
+        if (spliterator.hasCharacteristics(Spliterator.SIZED)
+                && spliterator.hasCharacteristics(Spliterator.SORTED)
+                && (spliterator.getComparator() == null)
+                && (spliterator.getExactSizeIfKnown() <= Integer.MAX_VALUE))
+            return fromSorted(Spliterators.iterator(spliterator),
+                (int) spliterator.getExactSizeIfKnown());
+        return fromElements(StreamSupport.stream(spliterator, false).toArray());
+    }
+
+    /**
+     * Return a search tree storing the given number of elements taken
+     * from the given sequence of elements.
+     *
+     * @note    The left subtree is built first, followed by the root element
+     *          and the right subtree, such that the elements are taken from
+     *          the given sequence in ascending order.
+     */
+    private static SearchTree buildFromSorted(SortedElements elements,
+            int nbElements) {
+        if (nbElements == 0)
+            return BalancedEmptySearchTree.getPrototype();
+        int nbLeftElements = (nbElements - 1) / 2;
+        SearchTree left = buildFromSorted(elements, nbLeftElements);
+        Object rootElement = elements.next();
+        SearchTree right = buildFromSorted(elements, nbElements - 1 - nbLeftElements);
+        if (nbElements == 1)
+            return new BalancedLeafSearchTree(rootElement);
+        return new BalancedSearchTree(rootElement, left, right);
+    }
+
+    /**
+     * A class of sequences of elements checking that the elements
+     * returned by an iterator are in ascending order.
+     */
+    private static class SortedElements {
+
+        private SortedElements(Iterator<?> elements) {
+            this.elements = elements;
+        }
+
+        private Object next()
+                throws IllegalArgumentException, IllegalElementException {
+            if (!elements.hasNext())
+                throw new IllegalArgumentException();
+            Object element = elements.next();
+            if (!(element instanceof Comparable))
+                throw new IllegalElementException(element, null);
+            try {
+                if ((previousElement != null)
+                        && (((Comparable) previousElement).compareTo(element) > 0))
+                    throw new IllegalArgumentException();
+            }
+            catch (ClassCastException exc) {
+                throw new IllegalElementException(element, null);
+            }
+            previousElement = element;
+            return element;
+        }
+
+        private final Iterator<?> elements;
+
+        private Object previousElement;
+
+    }
+
+    /**
+     * Return the number of occurrences of the given element in this
+     * balanced search tree.
+     */
+    @Basic
+    @Override
+    public int getNbOccurrencesOf(Object element) {
+        // Re-implementation, because elements equal to the root element
+        // may be stored in both subtrees.
+        try {
+            if (getRootElement() == null)
+                return super.getNbOccurrencesOf(element);
+            int comparison = compareElements(getRootElement(), element);
+            if (comparison > 0)
+                return getLeftTree().getNbOccurrencesOf(element);
+            if (comparison < 0)
+                return getRightTree().getNbOccurrencesOf(element);
+            return (getRootElement().equals(element) ? 1 : 0)
+                + getLeftTree().getNbOccurrencesOf(element)
+                + getRightTree().getNbOccurrencesOf(element);
+        }
+        catch (ClassCastException exc) {
+            // The given element is not comparable with the root element
+            // of this balanced search tree.
+            return 0;
+        }
+        catch (NullPointerException exc) {
+            assert element == null;
+            return 0;
+        }
+    }
+
+    /**
+     * Check whether the given element is stored in this balanced search tree.
+     */
+    @Override
+    public boolean hasAsElement(Object element) {
+        try {
+            int comparison = compareElements(getRootElement(), element);
+            if (comparison > 0)
+                return getLeftTree().hasAsElement(element);
+            if (comparison < 0)
+                return getRightTree().hasAsElement(element);
+            return getRootElement().equals(element)
+                || getLeftTree().hasAsElement(element)
+                || getRightTree().hasAsElement(element);
+        }
+        catch (ClassCastException exc) {
+            // The given element is not comparable with the root element
+            // of this balanced search tree.
+            return false;
+        }
+        catch (NullPointerException exc) {
+            assert element == null;
+            return false;
+        }
+    }
+
+    /**
+     * Add the given element to this balanced search tree.
+     *
+     * @return  The balanced search tree returned by getTreeForUpdate(),
+     *          extended with the given element.
+     * @post    The height of the new left subtree and the height of the
+     *          new right subtree of this balanced search tree differ by
+     *          at most one.
+     *        | Math.abs(getHeightOf(new.getLeftTree()) -
+     *        |          getHeightOf(new.getRightTree())) <= 1
+     */
+    @Override
+    public BalancedSearchTree addElement(Object element)
+            throws IllegalElementException {
+        if (!canHaveAsElement(element))
+            throw new IllegalElementException(element, this);
+        BalancedSearchTree result = getTreeForUpdate();
+        if (compareElements(result.getRootElement(), element) >= 0)
+            result.setLeftTree(addToSubTree(result.getLeftTree(), element));
+        else
+            result.setRightTree(addToSubTree(result.getRightTree(), element));
+        result.rebalance();
+        return result;
+    }
+
+    /**
+     * Return the given subtree of this balanced search tree extended with
+     * the given element.
+     *
+     * @param   tree
+     *          The subtree to extend.
+     * @param   element
+     *          The element to add.
+     * @return  The resulting tree is an empty search tree, a leaf search
+     *          tree or a balanced search tree storing all the elements
+     *          of the given tree complemented with the given element.
+     *        | isBalancedSubTree(result) &&
+     *        | result.getNbOccurrencesOf(element) ==
+     *        |   tree.getNbOccurrencesOf(element) + 1
+     */
+    private SearchTree addToSubTree(SearchTree tree, Object element)
+            throws IllegalElementException {
+        if (tree instanceof BalancedSearchTree)
+            return ((BalancedSearchTree) tree).addElement(element);
+        if (tree.isEmpty())
+            return createLeaf(element);
+        // A leaf search tree must be turned into a balanced search tree
+        // instead of into an ordinary composed search tree.
+        Object leafElement = ((LeafSearchTree) tree).getRootElement();
+        if (compareElements(leafElement, element) >= 0)
+            return createTree(leafElement, createLeaf(element),
+                EmptySearchTree.getPrototype());
+        else
+            return createTree(leafElement, EmptySearchTree.getPrototype(),
+                createLeaf(element));
+    }
+
+    /**
+     * Remove one occurrence of the given element from this balanced
+     * search tree.
+     *
+     * @note    The changes are applied to the balanced search tree returned
+     *          by getTreeForUpdate().
+     */
+    @Override
+    public NonEmptySearchTree removeElement(Object element)
+            throws IllegalElementException {
+        int comparison;
+        try {
+            comparison = compareElements(getRootElement(), element);
+        }
+        catch (ClassCastException exc) {
+            throw new IllegalElementException(element, this);
+        }
+        catch (NullPointerException exc) {
+            assert element == null;
+            throw new IllegalElementException(element, this);
+        }
+        BalancedSearchTree resultTree = getTreeForUpdate();
+        if ((comparison == 0) && getRootElement().equals(element))
+            return (NonEmptySearchTree) getUnsharedTree(
+                resultTree.removeRootElement());
+        if ((comparison > 0)
+                || ((comparison == 0) && getLeftTree().hasAsElement(element)))
+            resultTree.setLeftTree(getLeftTree().removeElement(element));
+        else
+            resultTree.setRightTree(getRightTree().removeElement(element));
+        NonEmptySearchTree result = resultTree.changeToLeafTree();
+        if (result == resultTree)
+            resultTree.rebalance();
+        return result;
+    }
+
+    /**
+     * Return a clone of this balanced search tree.
+     */
+    @Override
+    public BalancedSearchTree clone() {
+        return (BalancedSearchTree) super.clone();
+    }
+
+    /**
+     * Remove the element stored in the root of this balanced search tree.
+     *
+     * @note    If both subtrees are non-empty, the root element is replaced
+     *          by the smallest element of the right subtree.
+     */
+    @Override
+    protected NonEmptySearchTree removeRootElement() {
+        if (getLeftTree().isEmpty())
+            return (NonEmptySearchTree) getRightTree();
+        if (getRightTree().isEmpty())
+            return (NonEmptySearchTree) getLeftTree();
+        NonEmptyBinaryTreeImpl node = (NonEmptyBinaryTreeImpl) getRightTree();
+        while (!node.getLeftTree().isEmpty())
+            node = (NonEmptyBinaryTreeImpl) node.getLeftTree();
+        Object successor = node.getRootElement();
+        try {
+            setRightTree(getRightTree().removeElement(successor));
+        }
+        catch (IllegalElementException exc) {
+            assert false;
+        }
+        setRootElement(successor);
+        rebalance();
+        return this;
+    }
+
+    /**
+     * Return the height of this balanced search tree.
+     *
+     * @return  The height of this balanced search tree is one more than
+     *          the maximum of the heights of its subtrees.
+     *        | result == 1 + Math.max(getHeightOf(getLeftTree()),
+     *        |                        getHeightOf(getRightTree()))
+     */
+    @Basic @Raw
+    public int getHeight() {
+        return this.height;
+    }
+
+    /**
+     * Return the height of the given search tree.
+     *
+     * @param   tree
+     *          The tree whose height must be returned.
+     * @return  Zero if the given tree is empty.
+     *        | if (tree.isEmpty())
+     *        |   then result == 0
+     * @return  One if the given tree is a leaf search tree.
+     *        | if (tree instanceof LeafSearchTree)
+     *        |   then result == 1
+     * @return  The height of the given tree if it is a balanced
+     *          search tree.
+     *        | if (tree instanceof BalancedSearchTree)
+     *        |   then result == ((BalancedSearchTree)tree).getHeight()
+     */
+    public static int getHeightOf(SearchTree tree) {
+        if (tree instanceof BalancedSearchTree)
+            return ((BalancedSearchTree) tree).getHeight();
+        return tree.isEmpty() ? 0 : 1;
+    }
+
+    /**
+     * Recompute the height of this balanced search tree from the heights
+     * of its subtrees.
+     *
+     * @post    The new height of this balanced search tree is one more than
+     *          the maximum of the heights of its subtrees.
+     *        | new.getHeight() == 1 + Math.max(getHeightOf(getLeftTree()),
+     *        |                                 getHeightOf(getRightTree()))
+     */
+    @Raw
+    protected final void updateHeight() {
+        this.height = 1 + Math.max(getHeightOf(getLeftTree()),
+            getHeightOf(getRightTree()));
+    }
+
+    /**
+     * Variable registering the height of this balanced search tree.
+     *
+     * @note    This variable is deliberately not initialized in its
+     *          declaration. The constructor of composed search trees adds
+     *          elements, and thereby already computes the height, before
+     *          initializers of this class would be executed.
+     */
+    private int height;
+
+    /**
+     * Restore the balance of this balanced search tree after one of its
+     * subtrees has grown or shrunk by one level.
+     *
+     * @post    The heights of the new subtrees of this balanced search
+     *          tree differ by at most one.
+     *        | Math.abs(getHeightOf(new.getLeftTree()) -
+     *        |          getHeightOf(new.getRightTree())) <= 1
+     * @post    The elements of this balanced search tree are left
+     *          untouched.
+     *        | for each object in (Object union {null}):
+     *        |   new.getNbOccurrencesOf(object) == getNbOccurrencesOf(object)
+     */
+    private void rebalance() {
+        int balance = getHeightOf(getLeftTree()) - getHeightOf(getRightTree());
+        if (balance > 1) {
+            BalancedSearchTree leftTree = (BalancedSearchTree) getLeftTree();
+            if (getHeightOf(leftTree.getLeftTree()) < getHeightOf(leftTree.getRightTree())) {
+                leftTree = leftTree.getTreeForUpdate();
+                leftTree.rotateLeft();
+                setLeftTree(leftTree);
+            }
+            rotateRight();
+        }
+        else if (balance < -1) {
+            BalancedSearchTree rightTree = (BalancedSearchTree) getRightTree();
+            if (getHeightOf(rightTree.getRightTree()) < getHeightOf(rightTree.getLeftTree())) {
+                rightTree = rightTree.getTreeForUpdate();
+                rightTree.rotateRight();
+                setRightTree(rightTree);
+            }
+            rotateLeft();
+        }
+        else
+            updateHeight();
+    }
+
+    /**
+     * Rotate this balanced search tree to the left.
+     *   The root element of the right subtree becomes the root element of
+     *   this tree. The old root element moves down into the left subtree.
+     *   This tree itself stays the root of the rotated tree.
+     *
+     * @pre     The right subtree of this balanced search tree is not empty.
+     *        | ! getRightTree().isEmpty()
+     */
+    private void rotateLeft() {
+        NonEmptyBinaryTreeImpl rightTree =
+            (NonEmptyBinaryTreeImpl) getSubTreeForUpdate(getRightTree());
+        SearchTree newLeftTree = createNode(getRootElement(), getLeftTree(),
+            (SearchTree) rightTree.getLeftTree());
+        setRootElement(rightTree.getRootElement());
+        setLeftTree(newLeftTree);
+        setRightTree((SearchTree) rightTree.getRightTree());
+        updateHeight();
+    }
+
+    /**
+     * Rotate this balanced search tree to the right.
+     *   The root element of the left subtree becomes the root element of
+     *   this tree. The old root element moves down into the right subtree.
+     *   This tree itself stays the root of the rotated tree.
+     *
+     * @pre     The left subtree of this balanced search tree is not empty.
+     *        | ! getLeftTree().isEmpty()
+     */
+    private void rotateRight() {
+        NonEmptyBinaryTreeImpl leftTree =
+            (NonEmptyBinaryTreeImpl) getSubTreeForUpdate(getLeftTree());
+        SearchTree newRightTree = createNode(getRootElement(),
+            (SearchTree) leftTree.getRightTree(), getRightTree());
+        setRootElement(leftTree.getRootElement());
+        setRightTree(newRightTree);
+        setLeftTree((SearchTree) leftTree.getLeftTree());
+        updateHeight();
+    }
+
+    /**
+     * Return a new search tree with the given root element and the given
+     * subtrees.
+     *
+     * @return  A new leaf search tree storing the given element if both
+     *          given trees are empty; a new balanced search tree with the
+     *          given element and the given subtrees otherwise.
+     *        | if (left.isEmpty() && right.isEmpty())
+     *        |   then result == createLeaf(element)
+     *        |   else result == createTree(element,left,right)
+     */
+    private SearchTree createNode(Object element, SearchTree left,
+            SearchTree right) {
+        try {
+            if (left.isEmpty() && right.isEmpty())
+                return createLeaf(element);
+            return createTree(element, left, right);
+        }
+        catch (IllegalElementException exc) {
+            assert false;
+            return null;
+        }
+    }
+
+    /**
+     * Return the balanced search tree to be changed when elements are added
+     * to or removed from this balanced search tree.
+     *
+     * @return  This balanced search tree, if it is not shared.
+     *        | if (! isShared())
+     *        |   then result == this
+     * @return  A clone of this balanced search tree, if it is shared.
+     *        | if (isShared())
+     *        |   then (result != this) && (! result.isShared())
+     * @note    Subclasses may return a new balanced search tree with the
+     *          same root element and the same subtrees as this balanced
+     *          search tree, such that this tree itself is never changed.
+     *          All changes to balanced search trees, including rotations
+     *          of their subtrees, are applied to the tree returned by this
+     *          method.
+     */
+    protected BalancedSearchTree getTreeForUpdate() {
+        return isShared() ? clone() : this;
+    }
+
+    /**
+     * Return a new balanced search tree with the given root element and
+     * the given subtrees.
+     *
+     * @param   element
+     *          The root element for the new tree.
+     * @param   left
+     *          The left subtree for the new tree.
+     * @param   right
+     *          The right subtree for the new tree.
+     * @pre     At least one of the given trees is not empty.
+     *        | (! left.isEmpty()) || (! right.isEmpty())
+     * @return  A new balanced search tree of the same kind as this balanced
+     *          search tree, with the given element as its root element and
+     *          with the given trees as its subtrees.
+     */
+    protected BalancedSearchTree createTree(Object element, SearchTree left,
+            SearchTree right) throws IllegalElementException {
+        return new BalancedSearchTree(element, left, right);
+    }
+
+    /**
+     * Return a new leaf search tree storing the given element.
+     *
+     * @return  The resulting tree is a new balanced leaf search tree, such
+     *          that it keeps balancing itself once this balanced search tree
+     *          has shrunk to it and grows again.
+     *        | result instanceof BalancedLeafSearchTree
+     */
+    @Override
+    protected LeafSearchTree createLeaf(Object element)
+            throws IllegalElementException {
+        return new BalancedLeafSearchTree(element);
+    }
+
+    /**
+     * Check whether the given tree can be used as a subtree of a
+     * balanced search tree.
+     *
+     * @param   tree
+     *          The tree to check.
+     * @return  True if and only if the given tree is an empty search tree,
+     *          a leaf search tree or a balanced search tree.
+     *        | result ==
+     *        |   (tree instanceof EmptySearchTree) ||
+     *        |   (tree instanceof LeafSearchTree) ||
+     *        |   (tree instanceof BalancedSearchTree)
+     */
+    public static boolean isBalancedSubTree(BinaryTree tree) {
+        return (tree instanceof EmptySearchTree)
+            || (tree instanceof LeafSearchTree)
+            || (tree instanceof BalancedSearchTree);
+    }
+
+    /**
+     * Check whether this balanced search tree can have the given
+     * binary tree as its left subtree.
+     *
+     * @return  False if the given tree cannot be used as a subtree of
+     *          a balanced search tree.
+     *        | if (! isBalancedSubTree(tree))
+     *        |   then result == false
+     */
+    @Override
+    protected boolean canHaveAsLeftTree(BinaryTree tree) {
+        return isBalancedSubTree(tree) && super.canHaveAsLeftTree(tree);
+    }
+
+    /**
+     * Check whether this balanced search tree can have the given
+     * binary tree as its right subtree.
+     *
+     * @return  True if and only if the given binary tree is an empty
+     *          search tree, a leaf search tree or a balanced search tree
+     *          different from this balanced search tree, and if the given
+     *          binary tree does not have this balanced search tree as a
+     *          direct or indirect subtree, and if this balanced search tree
+     *          can have each of the elements in the given tree as an element,
+     *          and if each of the elements in the given tree is greater than
+     *          or equal to the element in the root of this balanced tree.
+     *        | result ==
+     *        |   isBalancedSubTree(tree) && (tree != this) &&
+     *        |   (! tree.hasAsSubTree(this)) &&
+     *        |   ( for each Object in (Object union {null}):
+     *        |       if (tree.hasAsElement(object))
+     *        |         then this.canHaveAsElement(object) ) &&
+     *        |   ( for each comparable in Comparable:
+     *        |       if (tree.hasAsElement(comparable))
+     *        |         then compareElements(this.getRootElement(),comparable) <= 0 )
+     */
+    @Override
+    protected boolean canHaveAsRightTree(BinaryTree tree) {
+        if ((!isBalancedSubTree(tree)) || (tree == this)
+                || tree.hasAsSubTree(this))
+            return false;
+        Iterator treeIterator = tree.iterator();
+        while (treeIterator.hasNext()) {
+            Object nextElement = treeIterator.next();
+            if (!this.canHaveAsElement(nextElement))
+                return false;
+            if (compareElements(getRootElement(), nextElement) > 0)
+                return false;
+        }
+        return true;
+    }
+
+}
@@ -0,0 +1,377 @@
+package extra.trees;
+
+import static org.junit.Assert.*;
+
+import java.util.*;
+
+import org.junit.*;
+
+import extra.trees.exceptions.IllegalElementException;
+
+@SuppressWarnings("rawtypes")
+public class BalancedSearchTreeTest {
+
+    private BalancedSearchTree theTree;
+
+    @Before
+    public void setUp() throws Exception {
+        theTree = new BalancedSearchTree(20, 50, 40, 20, 70, 20, 100);
+    }
+
+    private static void assertBalanced(SearchTree tree) {
+        if (tree instanceof BalancedSearchTree) {
+            BalancedSearchTree balancedTree = (BalancedSearchTree) tree;
+            int leftHeight = BalancedSearchTree.getHeightOf(balancedTree.getLeftTree());
+            int rightHeight = BalancedSearchTree.getHeightOf(balancedTree.getRightTree());
+            assertTrue(Math.abs(leftHeight - rightHeight) <= 1);
+            assertEquals(1 + Math.max(leftHeight, rightHeight), balancedTree.getHeight());
+            assertBalanced(balancedTree.getLeftTree());
+            assertBalanced(balancedTree.getRightTree());
+        }
+    }
+
+    // Test for the constructor
+
+    @Test
+    public void constructor_LegalCase() throws Exception {
+        BalancedSearchTree newTree = new BalancedSearchTree(20, 10, 30, 5, 10);
+        assertEquals(5, newTree.getNbElements());
+        assertEquals(2, newTree.getNbOccurrencesOf(10));
+        assertBalanced(newTree);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void constructor_LessThanTwoElements() throws Exception {
+        new BalancedSearchTree(20);
+    }
+
+    @Test(expected = IllegalElementException.class)
+    public void constructor_IncompatibleElements() throws Exception {
+        new BalancedSearchTree(20, "abc", 30);
+    }
+
+    // Test for the method getNbOccurrencesOf
+
+    @Test
+    public void getNbOccurrencesOf_ElementOccurs() {
+        assertEquals(3, theTree.getNbOccurrencesOf(20));
+    }
+
+    @Test
+    public void getNbOccurrencesOf_DuplicatesAfterRotations() throws Exception {
+        for (int i = 0; i < 50; i++)
+            theTree.addElement(20);
+        assertEquals(53, theTree.getNbOccurrencesOf(20));
+        assertBalanced(theTree);
+    }
+
+    @Test
+    public void getNbOccurrencesOf_NonComparableElement() {
+        assertEquals(0, theTree.getNbOccurrencesOf("abc"));
+    }
+
+    // Test for the method hasAsElement
+
+    @Test
+    public void hasAsElement_ElementOccurs() {
+        assertTrue(theTree.hasAsElement(70));
+    }
+
+    @Test
+    public void hasAsElement_ElementDoesNotOccur() {
+        assertFalse(theTree.hasAsElement(-100));
+    }
+
+    @Test
+    public void hasAsElement_NonEffectiveElement() {
+        assertFalse(theTree.hasAsElement(null));
+    }
+
+    // Test for the method addElement
+
+    @Test
+    public void addElement_SortedElements() throws Exception {
+        BalancedSearchTree newTree = new BalancedSearchTree(0, 1);
+        for (int i = 2; i < 1000; i++)
+            assertSame(newTree, newTree.addElement(i));
+        assertEquals(1000, newTree.getNbElements());
+        assertTrue(newTree.getHeight() <= 15);
+        assertBalanced(newTree);
+    }
+
+    @Test
+    public void addElement_ReverseSortedElements() throws Exception {
+        BalancedSearchTree newTree = new BalancedSearchTree(1000, 999);
+        for (int i = 998; i > 0; i--)
+            newTree.addElement(i);
+        assertTrue(newTree.getHeight() <= 15);
+        assertBalanced(newTree);
+    }
+
+    @Test(expected = IllegalElementException.class)
+    public void addElement_IllegalCase() throws Exception {
+        theTree.addElement(null);
+    }
+
+    // Test for the method removeElement
+
+    @Test
+    public void removeElement_TreeWithTwoElements() throws Exception {
+        BalancedSearchTree newTree = new BalancedSearchTree(10, 20);
+        NonEmptySearchTree resultTree = newTree.removeElement(20);
+        assertTrue(resultTree instanceof LeafSearchTree);
+        assertEquals(1, resultTree.getNbOccurrencesOf(10));
+    }
+
+    @Test
+    public void removeElement_TreeWithMoreThanTwoElements() throws Exception {
+        NonEmptySearchTree resultTree = theTree.removeElement(20);
+        assertEquals(6, resultTree.getNbElements());
+        assertEquals(2, resultTree.getNbOccurrencesOf(20));
+        assertEquals(1, resultTree.getNbOccurrencesOf(100));
+        assertBalanced(resultTree);
+    }
+
+    @Test
+    public void removeElement_ManyElements() throws Exception {
+        SearchTree newTree = new BalancedSearchTree(0, 1);
+        for (int i = 2; i < 500; i++)
+            newTree = newTree.addElement(i);
+        for (int i = 0; i < 500; i += 2)
+            newTree = newTree.removeElement(i);
+        assertEquals(250, newTree.getNbElements());
+        assertFalse(newTree.hasAsElement(100));
+        assertTrue(newTree.hasAsElement(101));
+        assertBalanced(newTree);
+    }
+
+    @Test
+    public void removeElement_ShrinkToLeafAndGrowAgain() throws Exception {
+        SearchTree newTree = new BalancedSearchTree(0, 1, 2);
+        newTree = newTree.removeElement(0).removeElement(2);
+        assertTrue(newTree instanceof BalancedLeafSearchTree);
+        for (int i = 2; i < 3000; i++)
+            newTree = newTree.addElement(i);
+        assertEquals(2999, newTree.getNbElements());
+        assertTrue(newTree instanceof BalancedSearchTree);
+        // An AVL tree with n elements is at most 1.45*log2(n+2) high.
+        assertTrue(((BalancedSearchTree) newTree).getHeight() <= 17);
+        assertBalanced(newTree);
+    }
+
+    @Test(expected = IllegalElementException.class)
+    public void removeElement_NonExistingElement() throws Exception {
+        theTree.removeElement(33);
+    }
+
+    @Test(expected = IllegalElementException.class)
+    public void removeElement_NonComparableElement() throws Exception {
+        theTree.removeElement("abc");
+    }
+
+    // Test for the method clone
+
+    @Test
+    public void clone_SingleCase() {
+        BalancedSearchTree clone = theTree.clone();
+        assertNotSame(theTree, clone);
+        assertSame(theTree.getClass(), clone.getClass());
+        assertEquals(theTree.getHeight(), clone.getHeight());
+        assertEquals(3, clone.getNbOccurrencesOf(20));
+    }
+
+    @Test
+    public void clone_RotationsNotShared() throws Exception {
+        BalancedSearchTree clone = theTree.clone();
+        SearchTree changedClone = clone;
+        for (int i = 0; i < 100; i++)
+            changedClone = changedClone.addElement(i);
+        assertEquals(7, theTree.getNbElements());
+        assertEquals(3, theTree.getNbOccurrencesOf(20));
+        assertFalse(theTree.hasAsElement(0));
+        assertEquals(107, changedClone.getNbElements());
+        assertBalanced(theTree);
+        assertBalanced(changedClone);
+    }
+
+    @Test
+    public void clone_RandomChanges() throws Exception {
+        ComposedBinaryTreeTest.checkRandomChanges(theTree, new Random(3));
+        ComposedBinaryTreeTest.checkRandomChanges(
+            new ComparatorSearchTree(Integer.class, Comparator.reverseOrder(), 5, 1),
+            new Random(4));
+    }
+
+    // Test for the method iterator
+
+    @Test
+    public void iterator_AscendingOrder() throws Exception {
+        Iterator theIterator = theTree.iterator();
+        assertEquals(20, theIterator.next());
+        assertEquals(20, theIterator.next());
+        assertEquals(20, theIterator.next());
+        assertEquals(40, theIterator.next());
+        assertEquals(50, theIterator.next());
+        assertEquals(70, theIterator.next());
+        assertEquals(100, theIterator.next());
+        assertFalse(theIterator.hasNext());
+    }
+
+    // Test for the method getHeightOf
+
+    @Test
+    public void getHeightOf_EmptyTree() {
+        assertEquals(0, BalancedSearchTree.getHeightOf(EmptySearchTree.getPrototype()));
+    }
+
+    @Test
+    public void getHeightOf_LeafTree() throws Exception {
+        assertEquals(1, BalancedSearchTree.getHeightOf(new LeafSearchTree(5)));
+    }
+
+    // Test for the method canHaveAsRightTree
+
+    @Test
+    public void canHaveAsRightTree_ElementsEqualToRoot() throws Exception {
+        assertTrue(theTree.canHaveAsRightTree(new LeafSearchTree(theTree.getRootElement())));
+    }
+
+    @Test
+    public void canHaveAsRightTree_OrdinaryComposedTree() throws Exception {
+        int rootValue = (Integer) theTree.getRootElement();
+        assertFalse(theTree.canHaveAsRightTree(new ComposedSearchTree(rootValue + 1, rootValue + 2)));
+    }
+
+    // Test for the method subTreeIterator
+
+    @Test
+    public void subTreeIterator_DuplicatesOnBothSides() throws Exception {
+        for (int i = 0; i < 50; i++)
+            theTree.addElement(20);
+        assertEquals(53, theTree.subTreeStream(20, 21).count());
+        assertEquals(0, theTree.headTreeStream(20).count());
+        assertEquals(20, theTree.floor(39));
+        assertEquals(40, theTree.higher(20));
+    }
+
+    // Test for the method fromElements
+
+    @Test
+    public void fromElements_UnsortedElements() throws Exception {
+        SearchTree newTree = BalancedSearchTree.fromElements(50, 10, 40, 10, 30, 20, 60);
+        assertTrue(newTree instanceof BalancedSearchTree);
+        assertEquals(7, newTree.getNbElements());
+        assertEquals(2, newTree.getNbOccurrencesOf(10));
+        assertEquals(3, ((BalancedSearchTree) newTree).getHeight());
+        assertBalanced(newTree);
+    }
+
+    @Test
+    public void fromElements_FewElements() throws Exception {
+        assertTrue(BalancedSearchTree.fromElements() instanceof EmptySearchTree);
+        assertTrue(BalancedSearchTree.fromElements(5) instanceof LeafSearchTree);
+    }
+
+    @Test
+    public void fromElements_FewElementsGrowBalanced() throws Exception {
+        SearchTree emptyTree = BalancedSearchTree.fromElements();
+        SearchTree leafTree = BalancedSearchTree.fromElements(7);
+        assertTrue(leafTree.addElement(8) instanceof BalancedSearchTree);
+        for (int i = 0; i < 1000; i++) {
+            emptyTree = emptyTree.addElement(i);
+            leafTree = leafTree.addElement(i);
+        }
+        assertTrue(emptyTree instanceof BalancedSearchTree);
+        assertTrue(leafTree instanceof BalancedSearchTree);
+        assertTrue(((BalancedSearchTree) emptyTree).getHeight() <= 14);
+        assertTrue(((BalancedSearchTree) leafTree).getHeight() <= 14);
+        assertBalanced(emptyTree);
+        assertBalanced(leafTree);
+    }
+
+    @Test
+    public void fromElements_ManyDuplicates() throws Exception {
+        Object[] elements = new Object[100];
+        for (int i = 0; i < elements.length; i++)
+            elements[i] = i % 3;
+        SearchTree newTree = BalancedSearchTree.fromElements(elements);
+        assertEquals(34, newTree.getNbOccurrencesOf(0));
+        assertEquals(33, newTree.getNbOccurrencesOf(2));
+        assertBalanced(newTree);
+        newTree = newTree.removeElement(1);
+        assertEquals(32, newTree.getNbOccurrencesOf(1));
+    }
+
+    @Test(expected = IllegalElementException.class)
+    public void fromElements_IncompatibleElements() throws Exception {
+        BalancedSearchTree.fromElements(20, "abc", 30);
+    }
+
+    @Test(expected = IllegalElementException.class)
+    public void fromElements_NonEffectiveElement() throws Exception {
+        BalancedSearchTree.fromElements(20, null);
+    }
+
+    // Test for the method fromSorted
+
+    @Test
+    public void fromSorted_LegalCase() throws Exception {
+        java.util.List<Integer> elements = new java.util.ArrayList<Integer>();
+        for (int i = 0; i < 1000; i++)
+            elements.add(i);
+        SearchTree newTree = BalancedSearchTree.fromSorted(elements.iterator(), 1000);
+        assertEquals(1000, newTree.getNbElements());
+        assertEquals(10, ((BalancedSearchTree) newTree).getHeight());
+        assertBalanced(newTree);
+        Iterator theIterator = newTree.iterator();
+        for (int i = 0; i < 1000; i++)
+            assertEquals(i, theIterator.next());
+        newTree.addElement(1000);
+        assertBalanced(newTree);
+    }
+
+    @Test
+    public void fromSorted_OnlyFirstElementsTaken() throws Exception {
+        Iterator<Integer> elements = java.util.Arrays.asList(1, 2, 3, 4).iterator();
+        assertEquals(3, BalancedSearchTree.fromSorted(elements, 3).getNbElements());
+        assertEquals(4, (int) elements.next());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void fromSorted_UnsortedElements() throws Exception {
+        BalancedSearchTree.fromSorted(java.util.Arrays.asList(1, 3, 2).iterator(), 3);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void fromSorted_NotEnoughElements() throws Exception {
+        BalancedSearchTree.fromSorted(java.util.Arrays.asList(1, 2).iterator(), 3);
+    }
+
+    // Test for the method fromStream
+
+    @Test
+    public void fromStream_SortedSizedStream() throws Exception {
+        SearchTree newTree = BalancedSearchTree.fromStream(
+                java.util.stream.IntStream.range(0, 500).boxed().sorted());
+        assertEquals(500, newTree.getNbElements());
+        assertBalanced(newTree);
+    }
+
+    @Test
+    public void fromStream_UnsortedStream() throws Exception {
+        SearchTree newTree = BalancedSearchTree.fromStream(
+                java.util.stream.Stream.of(5, 3, 9, 1).filter(x -> x != 9));
+        assertEquals(3, newTree.getNbElements());
+        assertEquals(1, ((NonEmptySearchTree) newTree).first());
+        assertBalanced(newTree);
+    }
+
+    @Test
+    public void fromStream_TreeStream() throws Exception {
+        SearchTree newTree = BalancedSearchTree.fromStream(theTree.stream());
+        assertEquals(7, newTree.getNbElements());
+        assertEquals(3, newTree.getNbOccurrencesOf(20));
+        assertBalanced(newTree);
+    }
+
+}
@@ -1,7 +1,10 @@
 package extra.trees;
 
 import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
 import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import be.kuleuven.cs.som.annotate.*;
 import extra.trees.exceptions.*;
@@ -108,6 +111,24 @@ public interface BinaryTree extends Iterable<Object>, Cloneable {
         return (getNbElements() == 0);
     }
 
+    /**
+     * Return a hash code for the elements of this binary tree.
+     *
+     * @return The sum of the element hashes of all the occurrences of all
+     *         the elements (the null reference included) in this binary tree.
+     *       | result ==
+     *       |   sum( { object in (Object union {null}) :
+     *       |       getNbOccurrencesOf(object) *
+     *       |         NonEmptyBinaryTreeImpl.getElementHash(object) } )
+     * @note   The content hash does not depend on the shape of this binary
+     *         tree, nor on the order in which its elements have been added.
+     *         Binary trees with the same elements therefore have the same
+     *         content hash, and binary trees with different content hashes
+     *         do not have the same elements.
+     */
+    @Raw
+    public abstract long getContentHash();
+
 
     /**
      * Add the given element to this binary tree.
@@ -207,17 +228,48 @@ public interface BinaryTree extends Iterable<Object>, Cloneable {
      */
     public abstract Iterator<Object> iterator();
     
+    /**
+     * Return a spliterator traversing all the elements in this binary tree.
+     *
+     * @return An effective spliterator that traverses all the elements in
+     *         this tree in the same order as the iterator for this tree.
+     * @return The resulting spliterator knows the exact number of elements
+     *         it will traverse, and so do all the spliterators split off
+     *         from it.
+     *       | result.hasCharacteristics(Spliterator.ORDERED) &&
+     *       | result.hasCharacteristics(Spliterator.SIZED) &&
+     *       | result.hasCharacteristics(Spliterator.SUBSIZED) &&
+     *       | (result.getExactSizeIfKnown() == getNbElements())
+     */
+    @Override
+    public default Spliterator<Object> spliterator() {
+        return Spliterators.spliterator(iterator(), getNbElements(),
+            Spliterator.ORDERED);
+    }
+
     /**
      * Return a stream that delivers all objects of this binary tree.
      *    
      * @return An effective stream that delivers all the elements in
      *         this tree in the same order as the iterator for this tree.
+     *       | result == StreamSupport.stream(spliterator(),false)
      */
     public default Stream<Object> stream() {
-    	Stream.Builder<Object> builder = Stream.builder();
-    	for (Object element: this)
-    		builder.accept(element);
-    	return builder.build();    		
+        return StreamSupport.stream(spliterator(), false);
+    }
+
+    /**
+     * Return a possibly parallel stream that delivers all objects of this
+     * binary tree.
+     *
+     * @return An effective stream that delivers all the elements in this
+     *         tree, and that can be processed in parallel.
+     *       | result == StreamSupport.stream(spliterator(),true)
+     * @note   The elements can only be processed in parallel if the
+     *         spliterator for this tree can be split.
+     */
+    public default Stream<Object> parallelStream() {
+        return StreamSupport.stream(spliterator(), true);
     }
     
     /**
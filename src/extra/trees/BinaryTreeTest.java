@@ -1,6 +1,8 @@
 package extra.trees;
 
 import static org.junit.Assert.*;
+import java.util.Iterator;
+import java.util.Spliterator;
 import java.util.stream.Stream;
 
 import org.junit.*;
@@ -135,6 +137,43 @@ public class BinaryTreeTest {
     	
     }
         
+    @Test public void stream_UnsortedTree() {
+        Object[] elements = treeWithTheObject.stream().toArray();
+        Iterator iterator = treeWithTheObject.iterator();
+        for (Object element: elements)
+            assertSame(iterator.next(),element);
+        assertFalse(iterator.hasNext());
+    }
+
+    // Test for the method parallelStream.
+
+    @Test public void parallelStream_LargeTree() throws Exception {
+        SearchTree tree = new BalancedSearchTree(0,1);
+        for (int i = 2; i < 5000; i++)
+            tree.addElement(i);
+        assertEquals(5000L*4999L/2L,
+            tree.parallelStream().mapToLong(x -> (Integer)x).sum());
+        Object[] elements = tree.parallelStream().toArray();
+        for (int i = 0; i < 5000; i++)
+            assertEquals(i,elements[i]);
+    }
+
+    // Test for the method spliterator.
+
+    @Test public void spliterator_EmptyTree() {
+        Spliterator spliterator = emptyTree.spliterator();
+        assertEquals(0,spliterator.getExactSizeIfKnown());
+        assertTrue(spliterator.hasCharacteristics(Spliterator.ORDERED));
+        assertFalse(spliterator.tryAdvance(x -> fail()));
+    }
+
+    @Test public void spliterator_LeafSearchTree() throws Exception {
+        Spliterator spliterator = new LeafSearchTree(5).spliterator();
+        assertEquals(1,spliterator.getExactSizeIfKnown());
+        assertTrue(spliterator.hasCharacteristics(Spliterator.SORTED));
+        assertNull(spliterator.getComparator());
+    }
+
     // Test for the method hasAsSubtree (in BinaryTreeImpl)
     
     @Test public void hasAsSubtree_NonEffectiveTree() {
@@ -0,0 +1,132 @@
+package extra.trees;
+
+import java.util.Comparator;
+import be.kuleuven.cs.som.annotate.*;
+
+import extra.trees.exceptions.*;
+
+/**
+ * A class of empty search trees ordering the elements added to them by
+ * means of a given comparator.
+ *   In contrast to ordinary empty search trees, comparator empty search
+ *   trees are not all identical: each of them registers the type of the
+ *   elements it can have and the comparator ordering them. Adding an
+ *   element to a comparator empty search tree yields a comparator leaf
+ *   search tree with the same element type and the same comparator.
+ *
+ * @invar   The element type and the comparator of each comparator empty
+ *          search tree are effective.
+ *        | (getElementType() != null) && (getComparator() != null)
+ *
+ * @version  2.0
+ * @author   Eric Steegmans
+ */
+@SuppressWarnings("all")
+public class ComparatorEmptySearchTree extends EmptySearchTree {
+
+    /**
+     * Initialize this new comparator empty search tree with given element
+     * type and given comparator.
+     *
+     * @param   elementType
+     *          The type of the elements of this new comparator empty search
+     *          tree.
+     * @param   comparator
+     *          The comparator ordering the elements of this new comparator
+     *          empty search tree.
+     * @post    The element type and the comparator of this new comparator
+     *          empty search tree are the same as the given element type and
+     *          the given comparator.
+     *        | (new.getElementType() == elementType) &&
+     *        | (new.getComparator() == comparator)
+     * @throws  IllegalArgumentException
+     *          The given element type or the given comparator is not
+     *          effective.
+     *        | (elementType == null) || (comparator == null)
+     */
+    public ComparatorEmptySearchTree(Class<?> elementType,
+            Comparator<?> comparator) throws IllegalArgumentException {
+        if ((elementType == null) || (comparator == null))
+            throw new IllegalArgumentException();
+        this.elementType = elementType;
+        this.comparator = (Comparator<Object>) comparator;
+    }
+
+    /**
+     * Return the type of the elements of this comparator empty search tree.
+     */
+    @Basic @Raw
+    public Class<?> getElementType() {
+        return this.elementType;
+    }
+
+    /**
+     * Variable referencing the type of the elements of this comparator
+     * empty search tree.
+     */
+    private final Class<?> elementType;
+
+    /**
+     * Return the comparator ordering the elements of this comparator empty
+     * search tree.
+     */
+    @Basic @Raw
+    @Override
+    public Comparator<Object> getComparator() {
+        return this.comparator;
+    }
+
+    /**
+     * Variable referencing the comparator ordering the elements of this
+     * comparator empty search tree.
+     */
+    private final Comparator<Object> comparator;
+
+    /**
+     * Compare the given elements by means of the comparator of this
+     * comparator empty search tree.
+     *
+     * @return  The result of comparing the given elements by means of the
+     *          comparator of this comparator empty search tree.
+     *        | result == getComparator().compare(first,second)
+     */
+    @Override
+    public int compareElements(Object first, Object second) {
+        return comparator.compare(first, second);
+    }
+
+    /**
+     * Check whether this comparator empty search tree can have occurrences
+     * of the given element.
+     *
+     * @return  True if and only if the given element belongs to the element
+     *          type of this comparator empty search tree.
+     *        | result == getElementType().isInstance(element)
+     */
+    @Raw
+    @Override
+    public boolean canHaveAsElement(Object element) {
+        return elementType.isInstance(element);
+    }
+
+    /**
+     * Add the given element to this comparator empty search tree.
+     *
+     * @return  The resulting tree is a new comparator leaf search tree with
+     *          the same element type and the same comparator as this
+     *          comparator empty search tree, storing the given element.
+     *        | (result.getElementType() == getElementType()) &&
+     *        | (result.getComparator() == getComparator()) &&
+     *        | result.hasAsElement(element)
+     * @throws  IllegalElementException
+     *          This comparator empty search tree cannot have the given
+     *          element as one of its elements.
+     *        | ! canHaveAsElement(element)
+     */
+    @Override
+    public ComparatorLeafSearchTree addElement(Object element)
+            throws IllegalElementException {
+        return new ComparatorLeafSearchTree(elementType, comparator, element);
+    }
+
+}
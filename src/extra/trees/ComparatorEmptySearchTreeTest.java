@@ -0,0 +1,56 @@
+package extra.trees;
+
+import static org.junit.Assert.*;
+
+import org.junit.*;
+
+import extra.trees.exceptions.IllegalElementException;
+
+public class ComparatorEmptySearchTreeTest {
+
+    private static ComparatorEmptySearchTree theTree;
+
+    @BeforeClass
+    public static void setUp() throws Exception {
+        theTree = new ComparatorEmptySearchTree(String.class,
+            String.CASE_INSENSITIVE_ORDER);
+    }
+
+    // Test for the constructor
+
+    @Test(expected = IllegalArgumentException.class)
+    public void constructor_NonEffectiveComparator() throws Exception {
+        new ComparatorEmptySearchTree(String.class, null);
+    }
+
+    // Test for the method canHaveAsElement
+
+    @Test
+    public void canHaveAsElement_SeveralCases() {
+        assertTrue(theTree.canHaveAsElement("abc"));
+        assertFalse(theTree.canHaveAsElement(12));
+        assertFalse(theTree.canHaveAsElement(null));
+    }
+
+    // Test for the method addElement
+
+    @Test
+    public void addElement_LegalCase() throws Exception {
+        ComparatorLeafSearchTree result = theTree.addElement("abc");
+        assertTrue(result.hasAsElement("abc"));
+        assertSame(String.CASE_INSENSITIVE_ORDER, result.getComparator());
+    }
+
+    @Test(expected = IllegalElementException.class)
+    public void addElement_IllegalCase() throws Exception {
+        theTree.addElement(12);
+    }
+
+    // Test for the method subTreeIterator
+
+    @Test(expected = IllegalArgumentException.class)
+    public void subTreeIterator_BoundsInWrongOrder() throws Exception {
+        theTree.subTreeIterator("B", "a");
+    }
+
+}
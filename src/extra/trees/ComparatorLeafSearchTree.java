@@ -0,0 +1,200 @@
+package extra.trees;
+
+import java.util.Comparator;
+import be.kuleuven.cs.som.annotate.*;
+
+import extra.trees.exceptions.*;
+
+/**
+ * A class of leaf search trees ordering their elements by means of a
+ * given comparator.
+ *   Comparator leaf search trees have an element type and a comparator,
+ *   just like comparator search trees. Adding an element to them yields
+ *   a comparator search tree; removing their element yields a comparator
+ *   empty search tree. Both have the same element type and the same
+ *   comparator.
+ *
+ * @invar   The element type and the comparator of each comparator leaf
+ *          search tree are effective.
+ *        | (getElementType() != null) && (getComparator() != null)
+ *
+ * @version  2.0
+ * @author   Eric Steegmans
+ */
+@SuppressWarnings("all")
+public class ComparatorLeafSearchTree extends LeafSearchTree {
+
+    /**
+     * Initialize this new comparator leaf search tree with given element
+     * type, given comparator and given element.
+     *
+     * @param   elementType
+     *          The type of the elements of this new comparator leaf search
+     *          tree.
+     * @param   comparator
+     *          The comparator ordering the elements of this new comparator
+     *          leaf search tree.
+     * @param   element
+     *          The element to be stored in this new comparator leaf search
+     *          tree.
+     * @post    The element type and the comparator of this new comparator
+     *          leaf search tree are the same as the given element type and
+     *          the given comparator.
+     *        | (new.getElementType() == elementType) &&
+     *        | (new.getComparator() == comparator)
+     * @post    This new comparator leaf search tree stores the given element
+     *          as its only element.
+     *        | new.getNbOccurrencesOf(element) == 1
+     * @throws  IllegalArgumentException
+     *          The given element type or the given comparator is not
+     *          effective.
+     *        | (elementType == null) || (comparator == null)
+     * @throws  IllegalElementException
+     *          The given element does not belong to the given element type.
+     *        | ! elementType.isInstance(element)
+     */
+    public ComparatorLeafSearchTree(Class<?> elementType,
+            Comparator<?> comparator, Object element)
+            throws IllegalArgumentException, IllegalElementException {
+        if ((elementType == null) || (comparator == null))
+            throw new IllegalArgumentException();
+        this.elementType = elementType;
+        this.comparator = (Comparator<Object>) comparator;
+        if (!canHaveAsElement(element))
+            throw new IllegalElementException(element, this);
+        setRootElement(element);
+    }
+
+    /**
+     * Return the type of the elements of this comparator leaf search tree.
+     */
+    @Basic @Raw
+    public Class<?> getElementType() {
+        return this.elementType;
+    }
+
+    /**
+     * Variable referencing the type of the elements of this comparator
+     * leaf search tree.
+     */
+    private final Class<?> elementType;
+
+    /**
+     * Return the comparator ordering the elements of this comparator leaf
+     * search tree.
+     */
+    @Basic @Raw
+    @Override
+    public Comparator<Object> getComparator() {
+        return this.comparator;
+    }
+
+    /**
+     * Variable referencing the comparator ordering the elements of this
+     * comparator leaf search tree.
+     */
+    private final Comparator<Object> comparator;
+
+    /**
+     * Compare the given elements by means of the comparator of this
+     * comparator leaf search tree.
+     *
+     * @return  The result of comparing the given elements by means of the
+     *          comparator of this comparator leaf search tree.
+     *        | result == getComparator().compare(first,second)
+     */
+    @Override
+    public int compareElements(Object first, Object second) {
+        return comparator.compare(first, second);
+    }
+
+    /**
+     * Check whether this comparator leaf search tree can have occurrences
+     * of the given element.
+     *
+     * @return  True if and only if the given element belongs to the element
+     *          type of this comparator leaf search tree.
+     *        | result == getElementType().isInstance(element)
+     */
+    @Raw
+    @Override
+    public boolean canHaveAsElement(Object element) {
+        return elementType.isInstance(element);
+    }
+
+    /**
+     * Add the given element to this comparator leaf search tree.
+     *
+     * @return  The resulting tree is a new comparator search tree with the
+     *          same element type and the same comparator as this comparator
+     *          leaf search tree, storing the element of this leaf and the
+     *          given element.
+     *        | (result.getElementType() == getElementType()) &&
+     *        | (result.getComparator() == getComparator()) &&
+     *        | (result.getNbElements() == 2) &&
+     *        | result.hasAsElement(getRootElement()) &&
+     *        | result.hasAsElement(element)
+     * @throws  IllegalElementException
+     *          This comparator leaf search tree cannot have the given element
+     *          as one of its elements.
+     *        | ! canHaveAsElement(element)
+     */
+    @Override
+    public ComparatorSearchTree addElement(Object element)
+            throws IllegalElementException {
+        if (!canHaveAsElement(element))
+            throw new IllegalElementException(element, this);
+        ComparatorLeafSearchTree leaf =
+            new ComparatorLeafSearchTree(elementType, comparator, element);
+        if (compareElements(getRootElement(), element) >= 0)
+            return new ComparatorSearchTree(elementType, comparator,
+                getRootElement(), leaf, EmptySearchTree.getPrototype());
+        else
+            return new ComparatorSearchTree(elementType, comparator,
+                getRootElement(), EmptySearchTree.getPrototype(), leaf);
+    }
+
+    /**
+     * Remove one occurrence of the given element from this comparator leaf
+     * search tree.
+     *
+     * @return  The resulting tree is a new comparator empty search tree with
+     *          the same element type and the same comparator as this
+     *          comparator leaf search tree.
+     *        | (result instanceof ComparatorEmptySearchTree) &&
+     *        | (result.getElementType() == getElementType()) &&
+     *        | (result.getComparator() == getComparator())
+     */
+    @Override
+    public ComparatorEmptySearchTree removeElement(Object element)
+            throws IllegalElementException {
+        if (!hasAsElement(element))
+            throw new IllegalElementException(element, this);
+        return removeRootElement();
+    }
+
+    /**
+     * Return a clone of this comparator leaf search tree.
+     */
+    @Override
+    public ComparatorLeafSearchTree clone() {
+        return (ComparatorLeafSearchTree) super.clone();
+    }
+
+    /**
+     * Remove the element stored in the root of this comparator leaf
+     * search tree.
+     *
+     * @return  The resulting tree is a new comparator empty search tree with
+     *          the same element type and the same comparator as this
+     *          comparator leaf search tree.
+     *        | (result instanceof ComparatorEmptySearchTree) &&
+     *        | (result.getElementType() == getElementType()) &&
+     *        | (result.getComparator() == getComparator())
+     */
+    @Override
+    protected ComparatorEmptySearchTree removeRootElement() {
+        return new ComparatorEmptySearchTree(elementType, comparator);
+    }
+
+}
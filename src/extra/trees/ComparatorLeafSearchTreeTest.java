@@ -0,0 +1,72 @@
+package extra.trees;
+
+import static org.junit.Assert.*;
+
+import java.util.Comparator;
+
+import org.junit.*;
+
+import extra.trees.exceptions.IllegalElementException;
+
+public class ComparatorLeafSearchTreeTest {
+
+    private static ComparatorLeafSearchTree theTree;
+
+    @BeforeClass
+    public static void setUp() throws Exception {
+        theTree = new ComparatorLeafSearchTree(Integer.class,
+            Comparator.reverseOrder(), 23);
+    }
+
+    // Test for the constructor
+
+    @Test(expected = IllegalElementException.class)
+    public void constructor_IllegalElement() throws Exception {
+        new ComparatorLeafSearchTree(Integer.class, Comparator.reverseOrder(),
+            "abc");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void constructor_NonEffectiveElementType() throws Exception {
+        new ComparatorLeafSearchTree(null, Comparator.reverseOrder(), 23);
+    }
+
+    // Test for the method addElement
+
+    @Test
+    public void addElement_LegalCase() throws Exception {
+        ComparatorSearchTree newTree = theTree.addElement(10);
+        assertEquals(2, newTree.getNbElements());
+        assertEquals(23, newTree.first());
+        assertEquals(10, newTree.last());
+    }
+
+    @Test(expected = IllegalElementException.class)
+    public void addElement_IllegalCase() throws Exception {
+        theTree.addElement("abc");
+    }
+
+    // Test for the methods floor and higher
+
+    @Test
+    public void floorAndHigher_ReverseOrder() throws Exception {
+        assertEquals(23, theTree.floor(10));
+        assertNull(theTree.floor(30));
+        assertEquals(23, theTree.higher(30));
+    }
+
+    // Test for the method removeElement
+
+    @Test
+    public void removeElement_LegalCase() throws Exception {
+        ComparatorEmptySearchTree result = theTree.removeElement(23);
+        assertSame(theTree.getComparator(), result.getComparator());
+        assertSame(Integer.class, result.getElementType());
+    }
+
+    @Test(expected = IllegalElementException.class)
+    public void removeElement_NonExistingElement() throws Exception {
+        theTree.removeElement(10);
+    }
+
+}
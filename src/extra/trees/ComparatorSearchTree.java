@@ -0,0 +1,431 @@
+package extra.trees;
+
+import java.util.Comparator;
+import java.util.Iterator;
+import be.kuleuven.cs.som.annotate.*;
+
+import extra.trees.exceptions.*;
+
+/**
+ * A class of balanced search trees ordering their elements by means of
+ * a given comparator.
+ *   A comparator search tree is given the type of its elements and the
+ *   comparator ordering them at the time it is created. Checking whether
+ *   it can have some element then comes down to checking the type of that
+ *   element, instead of trying to compare it with the root element and
+ *   catching the exception that may result. Elements are always compared
+ *   by means of the same comparator.
+ *   All the trees that result from adding elements to or removing elements
+ *   from a comparator search tree have the same element type and the same
+ *   comparator.
+ *
+ * @invar   The element type and the comparator of each comparator search
+ *          tree are effective.
+ *        | (getElementType() != null) && (getComparator() != null)
+ * @invar   Each element of a comparator search tree belongs to its element
+ *          type.
+ *        | for each element in this:
+ *        |   getElementType().isInstance(element)
+ * @note    The elements of a comparator search tree are only compared by
+ *          means of its comparator. Its element type may therefore be any
+ *          type, including types of objects that are not comparable.
+ *
+ * @version  2.0
+ * @author   Eric Steegmans
+ */
+@SuppressWarnings("all")
+public class ComparatorSearchTree extends BalancedSearchTree {
+
+    /**
+     * Initialize this new comparator search tree with given element type,
+     * given comparator and given elements.
+     *
+     * @param   elementType
+     *          The type of the elements of this new comparator search tree.
+     * @param   comparator
+     *          The comparator ordering the elements of this new comparator
+     *          search tree.
+     * @param   elements
+     *          The elements to be stored in this new comparator search tree.
+     * @post    The element type and the comparator of this new comparator
+     *          search tree are the same as the given element type and the
+     *          given comparator.
+     *        | (new.getElementType() == elementType) &&
+     *        | (new.getComparator() == comparator)
+     * @post    The number of occurrences of each object in this new
+     *          comparator search tree is equal to the number of occurrences
+     *          of that element in the given array of elements.
+     *        | for each element in (Object union {null}):
+     *        |   (new.getNbOccurrencesOf(element) ==
+     *        |        ExtArray.getNbOcurrencesOf(elements,element))
+     * @throws  IllegalArgumentException
+     *          The given element type or the given comparator is not
+     *          effective.
+     *        | (elementType == null) || (comparator == null)
+     * @throws  IllegalArgumentException
+     *          The given array of elements does not have at least 2 elements.
+     *        | elements.length < 2
+     * @throws  IllegalElementException
+     *          At least one of the given elements does not belong to the
+     *          given element type.
+     *        | for some element in elements:
+     *        |   ! elementType.isInstance(element)
+     */
+    public ComparatorSearchTree(Class<?> elementType,
+            Comparator<?> comparator, Object... elements)
+            throws IllegalArgumentException, IllegalElementException {
+        this(addAll(elementType, comparator, elements));
+    }
+
+    /**
+     * Initialize this new comparator search tree with the same element
+     * type, the same comparator, the same root element and the same
+     * subtrees as the given comparator search tree.
+     *
+     * @param   tree
+     *          The comparator search tree to share the subtrees with.
+     * @effect  This new comparator search tree is initialized with the
+     *          element type, the comparator, the root element and the
+     *          subtrees of the given tree.
+     *        | this(tree.getElementType(),tree.getComparator(),
+     *        |   tree.getRootElement(),tree.getLeftTree(),tree.getRightTree())
+     */
+    private ComparatorSearchTree(ComparatorSearchTree tree)
+            throws IllegalElementException {
+        this(tree.getElementType(), tree.getComparator(),
+            tree.getRootElement(), tree.getLeftTree(), tree.getRightTree());
+    }
+
+    /**
+     * Initialize this new comparator search tree with given element type,
+     * given comparator, given root element and given subtrees.
+     *
+     * @param   elementType
+     *          The type of the elements of this new comparator search tree.
+     * @param   comparator
+     *          The comparator ordering the elements of this new comparator
+     *          search tree.
+     * @param   element
+     *          The element to be stored in the root of this new comparator
+     *          search tree.
+     * @param   left
+     *          The left subtree for this new comparator search tree.
+     * @param   right
+     *          The right subtree for this new comparator search tree.
+     * @pre     This new comparator search tree can have the given trees
+     *          as its left subtree, respectively as its right subtree.
+     *        | canHaveAsSubTrees(left,right)
+     * @pre     The heights of the given subtrees differ by at most one.
+     *        | Math.abs(getHeightOf(left) - getHeightOf(right)) <= 1
+     * @post    The element type and the comparator of this new comparator
+     *          search tree are the same as the given element type and the
+     *          given comparator.
+     *        | (new.getElementType() == elementType) &&
+     *        | (new.getComparator() == comparator)
+     * @post    The root element of this new comparator search tree is the
+     *          same as the given element, and its subtrees are the same as
+     *          the given trees.
+     *        | (new.getRootElement() == element) &&
+     *        | (new.getLeftTree() == left) && (new.getRightTree() == right)
+     * @throws  IllegalArgumentException
+     *          The given element type or the given comparator is not
+     *          effective.
+     *        | (elementType == null) || (comparator == null)
+     * @throws  IllegalElementException
+     *          The given element does not belong to the given element type.
+     *        | ! elementType.isInstance(element)
+     * @note    The element type and the comparator must be registered before
+     *          the root element and the subtrees can be checked. This new
+     *          comparator search tree is therefore first initialized as a
+     *          raw balanced search tree.
+     */
+    protected ComparatorSearchTree(Class<?> elementType,
+            Comparator<?> comparator, Object element, SearchTree left,
+            SearchTree right)
+            throws IllegalArgumentException, IllegalElementException {
+        if ((elementType == null) || (comparator == null))
+            throw new IllegalArgumentException();
+        this.elementType = elementType;
+        this.comparator = (Comparator<Object>) comparator;
+        if (!canHaveAsElement(element))
+            throw new IllegalElementException(element, this);
+        setRootElement(element);
+        setLeftTree(left);
+        setRightTree(right);
+        updateHeight();
+    }
+
+    /**
+     * Return a comparator search tree storing all the given elements.
+     *
+     * @throws  IllegalArgumentException
+     *          The given array of elements does not have at least 2 elements.
+     *        | elements.length < 2
+     */
+    private static ComparatorSearchTree addAll(
+            Class<?> elementType, Comparator<?> comparator,
+            Object[] elements)
+            throws IllegalArgumentException, IllegalElementException {
+        if (elements.length < 2)
+            throw new IllegalArgumentException();
+        SearchTree result =
+            new ComparatorEmptySearchTree(elementType, comparator);
+        for (Object element : elements)
+            result = result.addElement(element);
+        return (ComparatorSearchTree) result;
+    }
+
+    /**
+     * Return a comparator search tree with given element type and given
+     * comparator, storing the given number of elements returned by the
+     * given iterator, in which all subtrees have the same number of elements
+     * up to one.
+     *
+     * @param   elementType
+     *          The type of the elements of the resulting search tree.
+     * @param   comparator
+     *          The comparator ordering the elements of the resulting search
+     *          tree.
+     * @param   elements
+     *          An iterator returning the elements to be stored in the
+     *          resulting search tree in ascending order according to the
+     *          given comparator.
+     * @param   nbElements
+     *          The number of elements to take from the given iterator.
+     * @return  An empty comparator search tree if the given number of
+     *          elements is zero, a comparator leaf search tree if it is one,
+     *          and a comparator search tree otherwise, with the given element
+     *          type and the given comparator.
+     *        | if (nbElements == 0)
+     *        |   then result instanceof ComparatorEmptySearchTree
+     *        | else if (nbElements == 1)
+     *        |   then result instanceof ComparatorLeafSearchTree
+     *        | else result instanceof ComparatorSearchTree
+     * @return  The resulting search tree stores the first elements returned
+     *          by the given iterator, up to the given number of elements.
+     *        | result.getNbElements() == nbElements
+     * @throws  IllegalArgumentException
+     *          The given element type or the given comparator is not
+     *          effective.
+     *        | (elementType == null) || (comparator == null)
+     * @throws  IllegalArgumentException
+     *          The given number of elements is negative, or the given
+     *          iterator returns less elements than that number.
+     *        | nbElements < 0
+     * @throws  IllegalArgumentException
+     *          The given iterator does not return its elements in
+     *          ascending order according to the given comparator.
+     * @throws  IllegalElementException
+     *          The given iterator returns an element that does not belong
+     *          to the given element type.
+     * @note    Just like balanced search trees built from sorted elements,
+     *          the resulting tree is built in linear time.
+     */
+    public static SearchTree fromSorted(Class<?> elementType,
+            Comparator<?> comparator, Iterator<?> elements, int nbElements)
+            throws IllegalArgumentException, IllegalElementException {
+        if ((elementType == null) || (comparator == null) || (nbElements < 0))
+            throw new IllegalArgumentException();
+        return buildFromSorted(new ComparatorEmptySearchTree(elementType,
+            comparator), elements, nbElements, new Object[1]);
+    }
+
+    /**
+     * Return a comparator search tree with the same element type and the
+     * same comparator as the given empty tree, storing the given number of
+     * elements taken from the given iterator.
+     *
+     * @note    The last element taken from the given iterator is registered
+     *          in the given array, to check that the next element is not
+     *          less than it.
+     */
+    private static SearchTree buildFromSorted(ComparatorEmptySearchTree empty,
+            Iterator<?> elements, int nbElements, Object[] previousElement)
+            throws IllegalArgumentException, IllegalElementException {
+        if (nbElements == 0)
+            return empty;
+        int nbLeftElements = (nbElements - 1) / 2;
+        SearchTree left = buildFromSorted(empty, elements, nbLeftElements,
+            previousElement);
+        if (!elements.hasNext())
+            throw new IllegalArgumentException();
+        Object rootElement = elements.next();
+        if (!empty.canHaveAsElement(rootElement))
+            throw new IllegalElementException(rootElement, null);
+        if ((previousElement[0] != null)
+                && (empty.compareElements(previousElement[0], rootElement) > 0))
+            throw new IllegalArgumentException();
+        previousElement[0] = rootElement;
+        SearchTree right = buildFromSorted(empty, elements,
+            nbElements - 1 - nbLeftElements, previousElement);
+        if (nbElements == 1)
+            return new ComparatorLeafSearchTree(empty.getElementType(),
+                empty.getComparator(), rootElement);
+        return new ComparatorSearchTree(empty.getElementType(),
+            empty.getComparator(), rootElement, left, right);
+    }
+
+    /**
+     * Return the type of the elements of this comparator search tree.
+     */
+    @Basic @Raw
+    public Class<?> getElementType() {
+        return this.elementType;
+    }
+
+    /**
+     * Variable referencing the type of the elements of this comparator
+     * search tree.
+     */
+    private final Class<?> elementType;
+
+    /**
+     * Return the comparator ordering the elements of this comparator
+     * search tree.
+     */
+    @Basic @Raw
+    @Override
+    public Comparator<Object> getComparator() {
+        return this.comparator;
+    }
+
+    /**
+     * Variable referencing the comparator ordering the elements of this
+     * comparator search tree.
+     */
+    private final Comparator<Object> comparator;
+
+    /**
+     * Compare the given elements by means of the comparator of this
+     * comparator search tree.
+     *
+     * @return  The result of comparing the given elements by means of the
+     *          comparator of this comparator search tree.
+     *        | result == getComparator().compare(first,second)
+     */
+    @Override
+    public int compareElements(Object first, Object second) {
+        return comparator.compare(first, second);
+    }
+
+    /**
+     * Check whether this comparator search tree can have occurrences of
+     * the given element.
+     *
+     * @return  True if and only if the given element belongs to the element
+     *          type of this comparator search tree.
+     *        | result == getElementType().isInstance(element)
+     */
+    @Raw
+    @Override
+    public boolean canHaveAsElement(Object element) {
+        return elementType.isInstance(element);
+    }
+
+    /**
+     * Return the number of occurrences of the given element in this
+     * comparator search tree.
+     *
+     * @return  Zero if this comparator search tree cannot have the given
+     *          element as one of its elements.
+     *        | if (! canHaveAsElement(element))
+     *        |   then result == 0
+     */
+    @Basic
+    @Override
+    public int getNbOccurrencesOf(Object element) {
+        // Elements of another type are never passed to the comparator.
+        if (!canHaveAsElement(element))
+            return 0;
+        return super.getNbOccurrencesOf(element);
+    }
+
+    /**
+     * Check whether the given element is stored in this comparator
+     * search tree.
+     *
+     * @return  False if this comparator search tree cannot have the given
+     *          element as one of its elements.
+     *        | if (! canHaveAsElement(element))
+     *        |   then result == false
+     */
+    @Override
+    public boolean hasAsElement(Object element) {
+        return canHaveAsElement(element) && super.hasAsElement(element);
+    }
+
+    /**
+     * Add the given element to this comparator search tree.
+     *
+     * @return  The resulting tree is a comparator search tree with the same
+     *          element type and the same comparator as this comparator
+     *          search tree.
+     *        | (result.getElementType() == getElementType()) &&
+     *        | (result.getComparator() == getComparator())
+     */
+    @Override
+    public ComparatorSearchTree addElement(Object element)
+            throws IllegalElementException {
+        return (ComparatorSearchTree) super.addElement(element);
+    }
+
+    /**
+     * Remove one occurrence of the given element from this comparator
+     * search tree.
+     *
+     * @throws  IllegalElementException
+     *          This comparator search tree cannot have the given element as
+     *          one of its elements.
+     *        | ! canHaveAsElement(element)
+     */
+    @Override
+    public NonEmptySearchTree removeElement(Object element)
+            throws IllegalElementException {
+        if (!canHaveAsElement(element))
+            throw new IllegalElementException(element, this);
+        return super.removeElement(element);
+    }
+
+    /**
+     * Return a clone of this comparator search tree.
+     */
+    @Override
+    public ComparatorSearchTree clone() {
+        return (ComparatorSearchTree) super.clone();
+    }
+
+    /**
+     * Return a new comparator search tree with the given root element and
+     * the given subtrees.
+     *
+     * @return  The resulting tree is a new comparator search tree with the
+     *          same element type and the same comparator as this comparator
+     *          search tree.
+     *        | (result instanceof ComparatorSearchTree) &&
+     *        | (result.getElementType() == getElementType()) &&
+     *        | (result.getComparator() == getComparator())
+     */
+    @Override
+    protected ComparatorSearchTree createTree(Object element, SearchTree left,
+            SearchTree right) throws IllegalElementException {
+        return new ComparatorSearchTree(elementType, comparator, element,
+            left, right);
+    }
+
+    /**
+     * Return a new leaf search tree storing the given element.
+     *
+     * @return  The resulting tree is a new comparator leaf search tree with
+     *          the same element type and the same comparator as this
+     *          comparator search tree.
+     *        | (result instanceof ComparatorLeafSearchTree) &&
+     *        | (result.getElementType() == getElementType()) &&
+     *        | (result.getComparator() == getComparator())
+     */
+    @Override
+    protected ComparatorLeafSearchTree createLeaf(Object element)
+            throws IllegalElementException {
+        return new ComparatorLeafSearchTree(elementType, comparator, element);
+    }
+
+}
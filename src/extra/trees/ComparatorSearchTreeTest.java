@@ -0,0 +1,219 @@
+package extra.trees;
+
+import static org.junit.Assert.*;
+
+import java.util.*;
+
+import org.junit.*;
+
+import extra.trees.exceptions.IllegalElementException;
+
+@SuppressWarnings("rawtypes")
+public class ComparatorSearchTreeTest {
+
+    private ComparatorSearchTree theTree;
+
+    @Before
+    public void setUp() throws Exception {
+        theTree = new ComparatorSearchTree(String.class,
+            String.CASE_INSENSITIVE_ORDER, "pear", "Apple", "fig", "banana",
+            "Cherry", "apple");
+    }
+
+    private static List<Object> elementsOf(BinaryTree tree) {
+        List<Object> elements = new ArrayList<Object>();
+        for (Object element : tree)
+            elements.add(element);
+        return elements;
+    }
+
+    // Test for the constructor
+
+    @Test
+    public void constructor_LegalCase() throws Exception {
+        assertSame(String.class, theTree.getElementType());
+        assertSame(String.CASE_INSENSITIVE_ORDER, theTree.getComparator());
+        assertEquals(6, theTree.getNbElements());
+        assertEquals(1, theTree.getNbOccurrencesOf("Apple"));
+        assertEquals(1, theTree.getNbOccurrencesOf("apple"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void constructor_NonEffectiveComparator() throws Exception {
+        new ComparatorSearchTree(String.class, null, "a", "b");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void constructor_LessThanTwoElements() throws Exception {
+        new ComparatorSearchTree(String.class, String.CASE_INSENSITIVE_ORDER, "a");
+    }
+
+    @Test(expected = IllegalElementException.class)
+    public void constructor_IllegalElement() throws Exception {
+        new ComparatorSearchTree(String.class, String.CASE_INSENSITIVE_ORDER,
+            "a", 3);
+    }
+
+    @Test
+    public void constructor_NonComparableElements() throws Exception {
+        int[] first = { 3 }, second = { 1 }, third = { 2 };
+        Comparator<int[]> byFirstValue = new Comparator<int[]>() {
+            public int compare(int[] left, int[] right) {
+                return Integer.compare(left[0], right[0]);
+            }
+        };
+        ComparatorSearchTree newTree = new ComparatorSearchTree(int[].class,
+            byFirstValue, first, second, third);
+        assertSame(int[].class, newTree.getElementType());
+        assertEquals(Arrays.asList(second, third, first), elementsOf(newTree));
+        assertTrue(newTree.hasAsElement(third));
+        assertFalse(newTree.canHaveAsElement("a"));
+        SearchTree resultTree = new ComparatorLeafSearchTree(int[].class,
+            byFirstValue, third).union(newTree);
+        assertEquals(Arrays.asList(second, third, first), elementsOf(resultTree));
+        resultTree = newTree.removeElement(first).removeElement(second);
+        assertTrue(resultTree instanceof ComparatorLeafSearchTree);
+    }
+
+    // Test for the method fromSorted
+
+    @Test
+    public void fromSorted_LegalCase() throws Exception {
+        SearchTree newTree = ComparatorSearchTree.fromSorted(String.class,
+            String.CASE_INSENSITIVE_ORDER,
+            Arrays.asList("apple", "Banana", "banana", "fig", "Pear").iterator(), 5);
+        assertTrue(newTree instanceof ComparatorSearchTree);
+        assertSame(String.CASE_INSENSITIVE_ORDER, newTree.getComparator());
+        assertEquals(Arrays.asList("apple", "Banana", "banana", "fig", "Pear"),
+            elementsOf(newTree));
+        newTree = newTree.addElement("cherry");
+        assertEquals("cherry", ((NonEmptySearchTree) newTree).getElementAt(4));
+    }
+
+    @Test
+    public void fromSorted_FewElements() throws Exception {
+        assertTrue(ComparatorSearchTree.fromSorted(String.class,
+            String.CASE_INSENSITIVE_ORDER, Collections.emptyIterator(), 0)
+            instanceof ComparatorEmptySearchTree);
+        assertTrue(ComparatorSearchTree.fromSorted(String.class,
+            String.CASE_INSENSITIVE_ORDER, Arrays.asList("a").iterator(), 1)
+            instanceof ComparatorLeafSearchTree);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void fromSorted_NotSorted() throws Exception {
+        ComparatorSearchTree.fromSorted(String.class,
+            String.CASE_INSENSITIVE_ORDER, Arrays.asList("b", "A").iterator(), 2);
+    }
+
+    @Test(expected = IllegalElementException.class)
+    public void fromSorted_IllegalElement() throws Exception {
+        ComparatorSearchTree.fromSorted(String.class,
+            String.CASE_INSENSITIVE_ORDER, Arrays.asList("a", 3).iterator(), 2);
+    }
+
+    // Test for the method canHaveAsElement
+
+    @Test
+    public void canHaveAsElement_SeveralCases() {
+        assertTrue(theTree.canHaveAsElement("kiwi"));
+        assertFalse(theTree.canHaveAsElement(12));
+        assertFalse(theTree.canHaveAsElement(null));
+    }
+
+    // Test for the methods hasAsElement and getNbOccurrencesOf
+
+    @Test
+    public void hasAsElement_SeveralCases() {
+        assertTrue(theTree.hasAsElement("Cherry"));
+        assertFalse(theTree.hasAsElement("cherry"));
+        assertFalse(theTree.hasAsElement(12));
+        assertEquals(0, theTree.getNbOccurrencesOf(12));
+    }
+
+    // Test for the iterator
+
+    @Test
+    public void iterator_OrderedByComparator() {
+        List<Object> elements = elementsOf(theTree);
+        assertEquals(6, elements.size());
+        for (int i = 1; i < elements.size(); i++)
+            assertTrue(String.CASE_INSENSITIVE_ORDER.compare(
+                (String) elements.get(i - 1), (String) elements.get(i)) <= 0);
+        assertEquals("pear", elements.get(5));
+    }
+
+    @Test
+    public void iterator_ReverseOrder() throws Exception {
+        ComparatorSearchTree tree = new ComparatorSearchTree(Integer.class,
+            Comparator.reverseOrder(), 3, 10, 1, 7, 5, 8, 2);
+        assertEquals(Arrays.asList(10, 8, 7, 5, 3, 2, 1), elementsOf(tree));
+        assertEquals(10, tree.first());
+        assertEquals(1, tree.last());
+        assertEquals(2, tree.getRankOf(7));
+        assertEquals(5, tree.ceiling(6));
+        assertEquals(7, tree.floor(6));
+    }
+
+    // Test for the method addElement
+
+    @Test
+    public void addElement_LegalCase() throws Exception {
+        ComparatorSearchTree newTree = theTree;
+        for (int i = 0; i < 50; i++)
+            newTree = newTree.addElement("Element" + i);
+        assertEquals(56, newTree.getNbElements());
+        assertSame(String.CASE_INSENSITIVE_ORDER, newTree.getComparator());
+        assertTrue(newTree.getHeight() <= 8);
+    }
+
+    @Test(expected = IllegalElementException.class)
+    public void addElement_IllegalElement() throws Exception {
+        theTree.addElement(12);
+    }
+
+    // Test for the method removeElement
+
+    @Test
+    public void removeElement_LegalCase() throws Exception {
+        NonEmptySearchTree result = theTree.removeElement("apple");
+        assertEquals(5, result.getNbElements());
+        assertTrue(result.hasAsElement("Apple"));
+        assertFalse(result.hasAsElement("apple"));
+    }
+
+    @Test
+    public void removeElement_UntilLeaf() throws Exception {
+        SearchTree result = theTree;
+        for (String element : new String[] { "pear", "Apple", "fig", "banana",
+                "apple" })
+            result = result.removeElement(element);
+        assertTrue(result instanceof ComparatorLeafSearchTree);
+        assertSame(String.CASE_INSENSITIVE_ORDER, result.getComparator());
+        assertTrue(result.hasAsElement("Cherry"));
+    }
+
+    @Test(expected = IllegalElementException.class)
+    public void removeElement_IllegalElement() throws Exception {
+        theTree.removeElement(12);
+    }
+
+    // Test for the method clone
+
+    @Test
+    public void clone_SingleCase() {
+        ComparatorSearchTree clone = theTree.clone();
+        assertNotSame(theTree, clone);
+        assertSame(theTree.getComparator(), clone.getComparator());
+        assertEquals(elementsOf(theTree), elementsOf(clone));
+    }
+
+    // Test for the method spliterator
+
+    @Test
+    public void spliterator_NotSortedByNaturalOrdering() {
+        assertFalse(theTree.spliterator().hasCharacteristics(Spliterator.SORTED));
+        assertEquals(6, theTree.stream().count());
+    }
+
+}
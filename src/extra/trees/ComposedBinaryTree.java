@@ -1,6 +1,7 @@
 package extra.trees;
 
 import java.util.*;
+import java.util.function.Consumer;
 import be.kuleuven.cs.som.annotate.*;
 import extra.trees.exceptions.*;
 
@@ -69,25 +70,215 @@ public abstract class ComposedBinaryTree extends NonEmptyBinaryTreeImpl {
 		return ((nbOccurrences == 0) || ((nbOccurrences > 0) && canHaveAsElement(element)));
 	}
 
+	/**
+	 * Return the total number of elements in this composed binary tree.
+	 * 
+	 * @note   The number of elements is registered in this composed binary
+	 *         tree, and kept up to date each time one of its subtrees is
+	 *         replaced. It can therefore be returned in constant time.
+	 */
+	@Raw
+	@Override
+	public int getNbElements() {
+		return nbElements;
+	}
+
+	/**
+	 * Recompute the number of elements registered in this composed binary
+	 * tree from the number of elements in its subtrees.
+	 * 
+	 * @post   The new number of elements of this composed binary tree is
+	 *         one more than the number of elements in its subtrees.
+	 *       | new.getNbElements() ==
+	 *       |   1 + getLeftTree().getNbElements() + getRightTree().getNbElements()
+	 */
+	@Raw
+	private void updateNbElements() {
+		int nbElements = 1;
+		// Because this is a raw method, there is no guarantee that
+		// the left tree and the right tree are effective.
+		if (getLeftTree() != null)
+			nbElements += getLeftTree().getNbElements();
+		if (getRightTree() != null)
+			nbElements += getRightTree().getNbElements();
+		this.nbElements = nbElements;
+	}
+
+	/**
+	 * Variable registering the total number of elements in this composed
+	 * binary tree.
+	 * 
+	 * @note   All changes to the elements of a composed binary tree are
+	 *         registered in one of its subtrees, and the changed subtree is
+	 *         then registered again as the new left or right subtree of its
+	 *         parent tree. Recomputing this number each time one of the
+	 *         subtrees is set, therefore keeps it up to date in all trees
+	 *         on the path towards the changed subtree.
+	 */
+	private int nbElements = 1;
+
+	/**
+	 * Return a hash code for the elements of this composed binary tree.
+	 * 
+	 * @note   The content hash of both subtrees is registered in this
+	 *         composed binary tree, and kept up to date each time one of its
+	 *         subtrees is replaced. Only the element hash of the root element
+	 *         is computed each time, because the root element of a composed
+	 *         binary tree may be replaced without replacing its subtrees.
+	 */
+	@Raw
+	@Override
+	public long getContentHash() {
+		return getElementHash(getRootElement()) + subTreesHash;
+	}
+
+	/**
+	 * Recompute the content hash of the subtrees registered in this composed
+	 * binary tree.
+	 * 
+	 * @post   The registered content hash of the subtrees of this composed
+	 *         binary tree is the sum of the content hashes of its subtrees.
+	 */
+	@Raw
+	private void updateSubTreesHash() {
+		long subTreesHash = 0;
+		if (getLeftTree() != null)
+			subTreesHash += getLeftTree().getContentHash();
+		if (getRightTree() != null)
+			subTreesHash += getRightTree().getContentHash();
+		this.subTreesHash = subTreesHash;
+	}
+
+	/**
+	 * Variable registering the sum of the content hashes of both subtrees
+	 * of this composed binary tree.
+	 * 
+	 * @note   Just like the number of elements, this sum is kept up to date
+	 *         in all trees on the path towards a changed subtree, such that
+	 *         each change takes time proportional to the length of that
+	 *         path.
+	 */
+	private long subTreesHash = 0;
+
 	/**
 	 * Add the given element to this composed binary tree.
 	 *
 	 * @return  This composed tree extended with the given element
 	 *          is returned.
 	 *        | result == this
+	 * @note    The subtree in which the given element is stored is chosen
+	 *          by the placement strategy of this composed binary tree.
+	 * @note    The composed trees on the path towards the subtree that
+	 *          receives the given element are registered on an explicit
+	 *          stack. Once that subtree has been extended, they are set
+	 *          again as subtrees of their parents, such that their number
+	 *          of elements is kept up to date.
 	 */
 	@Override
 	public ComposedBinaryTree addElement(Object element)
 			throws IllegalElementException {
 		if (!canHaveAsElement(element))
 			throw new IllegalElementException(element, this);
-		if (Math.random() > 0.5)
-			setLeftTree(getLeftTree().addElement(element));
-		else
-			setRightTree(getRightTree().addElement(element));
+		PlacementStrategy placementStrategy = getPlacementStrategy();
+		Deque<ComposedBinaryTree> path = new ArrayDeque<ComposedBinaryTree>();
+		ComposedBinaryTree currentTree = this;
+		BinaryTree subTree;
+		while (true) {
+			path.push(currentTree);
+			subTree = placementStrategy.placeLeft(currentTree.getLeftTree(),
+					currentTree.getRightTree(), element) ? currentTree
+					.getLeftTree() : currentTree.getRightTree();
+			subTree = currentTree.getSubTreeForUpdate(subTree);
+			if (!(subTree instanceof ComposedBinaryTree))
+				break;
+			currentTree = (ComposedBinaryTree) subTree;
+		}
+		BinaryTree resultTree = subTree.addElement(element);
+		while (!path.isEmpty()) {
+			currentTree = path.pop();
+			currentTree.replaceSubTree(subTree, resultTree);
+			subTree = resultTree = currentTree;
+		}
 		return this;
 	}
 
+	/**
+	 * Replace the given subtree of this composed binary tree by the given
+	 * tree.
+	 *
+	 * @param  subTree
+	 *         The left subtree or the right subtree of this composed binary
+	 *         tree to be replaced.
+	 * @param  tree
+	 *         The tree to replace the given subtree with.
+	 * @effect If the given subtree is the left subtree of this composed
+	 *         binary tree, the given tree is set as its left subtree;
+	 *         otherwise the given tree is set as its right subtree.
+	 *       | if (subTree == getLeftTree())
+	 *       |   then setLeftTree(tree)
+	 *       |   else setRightTree(tree)
+	 */
+	protected final void replaceSubTree(BinaryTree subTree, BinaryTree tree) {
+		if (subTree == getLeftTree())
+			setLeftTree(tree);
+		else
+			setRightTree(tree);
+	}
+
+	/**
+	 * Return the placement strategy used to choose the subtree in which
+	 * elements are added to this composed binary tree.
+	 *
+	 * @return  The default placement strategy for composed binary trees.
+	 *        | result == getDefaultPlacementStrategy()
+	 */
+	@Raw
+	protected PlacementStrategy getPlacementStrategy() {
+		return getDefaultPlacementStrategy();
+	}
+
+	/**
+	 * Return the placement strategy used by composed binary trees that
+	 * do not have a placement strategy of their own.
+	 */
+	@Basic
+	public static PlacementStrategy getDefaultPlacementStrategy() {
+		return defaultPlacementStrategy;
+	}
+
+	/**
+	 * Set the default placement strategy for composed binary trees to
+	 * the given placement strategy.
+	 *
+	 * @param  placementStrategy
+	 *         The new default placement strategy.
+	 * @post   The default placement strategy for composed binary trees is
+	 *         the same as the given placement strategy.
+	 *       | getDefaultPlacementStrategy() == placementStrategy
+	 * @throws IllegalArgumentException
+	 *         The given placement strategy is not effective.
+	 *       | placementStrategy == null
+	 */
+	public static void setDefaultPlacementStrategy(
+			PlacementStrategy placementStrategy)
+			throws IllegalArgumentException {
+		if (placementStrategy == null)
+			throw new IllegalArgumentException();
+		defaultPlacementStrategy = placementStrategy;
+	}
+
+	/**
+	 * Variable referencing the default placement strategy for composed
+	 * binary trees.
+	 *
+	 * @note   Elements used to be placed by means of Math.random(), which
+	 *         draws all its numbers from a single synchronized generator.
+	 *         The default strategy draws its numbers from a generator local
+	 *         to each thread instead.
+	 */
+	private static volatile PlacementStrategy defaultPlacementStrategy =
+			PlacementStrategy.RANDOM;
+
 	/**
 	 * Remove one occurrence of the given element from this composed
 	 * binary tree.
@@ -99,66 +290,396 @@ public abstract class ComposedBinaryTree extends NonEmptyBinaryTreeImpl {
 	 *         only has 2 elements.
 	 *       | if (getNbElements() == 2)
 	 *       |   then result instanceof LeafBinaryTree
+	 * @throws IllegalElementException
+	 *         The given element is not stored in this composed binary tree.
+	 *       | ! hasAsElement(element)
+	 * @note   The occurrence that is removed is the first one in pre-order:
+	 *         the root element is inspected first, followed by the elements
+	 *         in the left subtree and then the elements in the right subtree.
+	 *         The composed trees on the path towards it are registered on an
+	 *         explicit stack, instead of descending recursively and catching
+	 *         an exception each time a subtree does not store the element.
 	 */
 	@Override
 	public NonEmptyBinaryTree removeElement(Object element)
 			throws IllegalElementException {
-		if ((getRootElement() == null) && (element == null))
-			return removeRootElement();
-		if ((getRootElement() != null) && getRootElement().equals(element))
-			return removeRootElement();
-		try {
-			setLeftTree(getLeftTree().removeElement(element));
-		} catch (IllegalElementException exc) {
-			assert !getLeftTree().hasAsElement(element);
-			setRightTree(getRightTree().removeElement(element));
+		Deque<ComposedBinaryTree> path = new ArrayDeque<ComposedBinaryTree>();
+		BinaryTree currentTree = this;
+		while (!storesInRoot(currentTree, element)) {
+			if (currentTree instanceof ComposedBinaryTree) {
+				path.push((ComposedBinaryTree) currentTree);
+				currentTree = ((ComposedBinaryTree) currentTree).getLeftTree();
+			} else {
+				// Backtrack towards the first composed tree on the path that
+				// was left through its left subtree, and continue with its
+				// right subtree.
+				ComposedBinaryTree parentTree;
+				do {
+					if (path.isEmpty())
+						throw new IllegalElementException(element, this);
+					parentTree = path.peek();
+					if (currentTree == parentTree.getRightTree())
+						path.pop();
+					currentTree = parentTree;
+				} while (currentTree != path.peek());
+				currentTree = parentTree.getRightTree();
+			}
+		}
+		currentTree = unsharePath(path, currentTree);
+		BinaryTree subTree = currentTree;
+		BinaryTree resultTree = (currentTree instanceof ComposedBinaryTree)
+				? ((ComposedBinaryTree) currentTree).removeRootElement()
+				: currentTree.removeElement(element);
+		while (!path.isEmpty()) {
+			ComposedBinaryTree parentTree = path.pop();
+			parentTree.replaceSubTree(subTree, resultTree);
+			subTree = parentTree;
+			resultTree = parentTree.changeToLeafTree();
 		}
-		return changeToLeafTree();
+		return (NonEmptyBinaryTree) getUnsharedTree(resultTree);
+	}
+
+	/**
+	 * Check whether the given element is stored in the root of the given
+	 * tree, if that tree is a composed binary tree, or anywhere in the given
+	 * tree otherwise.
+	 */
+	private static boolean storesInRoot(BinaryTree tree, Object element) {
+		if (!(tree instanceof ComposedBinaryTree))
+			return tree.hasAsElement(element);
+		Object rootElement = ((ComposedBinaryTree) tree).getRootElement();
+		return (rootElement == null) ? (element == null) : rootElement
+				.equals(element);
 	}
 
 	/**
 	 * Return a clone of this composed binary tree.
+	 *
+	 * @note   The clone shares the subtrees of this composed binary tree,
+	 *         such that cloning takes constant time. Both subtrees are marked
+	 *         as shared, and shared composed trees are never changed in place
+	 *         again: whichever of both trees is changed first, copies the
+	 *         shared trees on the path towards the change. Leaf trees and
+	 *         empty trees are never changed in place, and need not be copied
+	 *         at all.
 	 */
 	@Override
 	public ComposedBinaryTree clone() {
-		ComposedBinaryTree resultTree = (ComposedBinaryTree) super.clone();
-		resultTree.setLeftTree(getLeftTree().clone());
-		resultTree.setRightTree(getRightTree().clone());
-		return resultTree;
+		return copyNode();
+	}
+
+	/**
+	 * Return a copy of this composed binary tree, sharing its subtrees
+	 * with this composed binary tree.
+	 * 
+	 * @post   The resulting copy is not shared, but both its subtrees are.
+	 *       | (! result.isShared()) &&
+	 *       | ( (! (getLeftTree() instanceof ComposedBinaryTree)) ||
+	 *       |   ((ComposedBinaryTree)new.getLeftTree()).isShared() ) &&
+	 *       | ( (! (getRightTree() instanceof ComposedBinaryTree)) ||
+	 *       |   ((ComposedBinaryTree)new.getRightTree()).isShared() )
+	 */
+	private ComposedBinaryTree copyNode() {
+		ComposedBinaryTree copy = (ComposedBinaryTree) super.clone();
+		copy.shared = false;
+		markShared(getLeftTree());
+		markShared(getRightTree());
+		return copy;
+	}
+
+	/**
+	 * Mark the given tree as shared, if it is a composed binary tree.
+	 */
+	private static void markShared(BinaryTree tree) {
+		if (tree instanceof ComposedBinaryTree)
+			((ComposedBinaryTree) tree).shared = true;
+	}
+
+	/**
+	 * Check whether this composed binary tree is shared.
+	 *
+	 * @note   A composed binary tree becomes shared as soon as it is a subtree
+	 *         of two or more composed binary trees, and it remains shared
+	 *         from then on.
+	 */
+	@Basic
+	@Raw
+	protected final boolean isShared() {
+		return shared;
+	}
+
+	/**
+	 * Variable registering whether this composed binary tree is shared.
+	 */
+	private boolean shared = false;
+
+	/**
+	 * Return the given tree, or a copy of it if it is a shared composed
+	 * binary tree.
+	 * 
+	 * @return If the given tree is a shared composed binary tree, a copy of
+	 *         that tree that is not shared; otherwise the given tree itself.
+	 *       | if ( (tree instanceof ComposedBinaryTree) &&
+	 *       |      ((ComposedBinaryTree)tree).isShared() )
+	 *       |   then (result != tree) && (! result.isShared()) &&
+	 *       |        (result.getClass() == tree.getClass())
+	 *       |   else result == tree
+	 * @note   Trees that are returned as the result of a change are passed
+	 *         through this method, such that the tree that is handed out can
+	 *         be changed in place.
+	 */
+	protected static BinaryTree getUnsharedTree(BinaryTree tree) {
+		if ((tree instanceof ComposedBinaryTree)
+				&& ((ComposedBinaryTree) tree).isShared())
+			return ((ComposedBinaryTree) tree).copyNode();
+		return tree;
+	}
+
+	/**
+	 * Return the given subtree of this composed binary tree, ready to be
+	 * changed in place.
+	 * 
+	 * @param  subTree
+	 *         The left subtree or the right subtree of this composed binary
+	 *         tree.
+	 * @effect If the given subtree is shared, it is replaced by a copy
+	 *         that is not shared.
+	 *       | if (getUnsharedTree(subTree) != subTree)
+	 *       |   then replaceSubTree(subTree,getUnsharedTree(subTree))
+	 * @return The new subtree of this composed binary tree at the position
+	 *         of the given subtree.
+	 *       | result == getUnsharedTree(subTree)
+	 */
+	protected final BinaryTree getSubTreeForUpdate(BinaryTree subTree) {
+		BinaryTree result = getUnsharedTree(subTree);
+		if (result != subTree)
+			replaceSubTree(subTree, result);
+		return result;
+	}
+
+	/**
+	 * Make all the trees on the given path ready to be changed in place,
+	 * and return the given tree at the end of that path, ready to be changed
+	 * in place as well.
+	 * 
+	 * @param  path
+	 *         A stack of composed binary trees, each of them a subtree of the
+	 *         tree below it on the stack. The tree at the bottom of the stack
+	 *         is not shared.
+	 * @param  tree
+	 *         A subtree of the tree at the top of the given stack, or the
+	 *         tree at the bottom of the stack if the stack is empty.
+	 * @post   Each shared tree on the given path is replaced by a copy, in
+	 *         the given stack as well as in its parent tree.
+	 * @note   Paths are searched first, and only made ready for changes once
+	 *         the element to be changed has been found. Failed searches thus
+	 *         never copy shared trees.
+	 */
+	@SuppressWarnings("unchecked")
+	protected static <T extends ComposedBinaryTree> BinaryTree unsharePath(
+			Deque<T> path, BinaryTree tree) {
+		boolean hasSharedTrees = getUnsharedTree(tree) != tree;
+		for (T pathTree : path)
+			hasSharedTrees |= pathTree.isShared();
+		if (!hasSharedTrees)
+			return tree;
+		List<T> pathTrees = new ArrayList<T>(path);
+		path.clear();
+		T parentTree = null;
+		for (int i = pathTrees.size() - 1; i >= 0; i--) {
+			T pathTree = pathTrees.get(i);
+			if (parentTree != null)
+				pathTree = (T) parentTree.getSubTreeForUpdate(pathTree);
+			path.push(pathTree);
+			parentTree = pathTree;
+		}
+		return (parentTree == null) ? tree : parentTree.getSubTreeForUpdate(tree);
 	}
 
 	/**
 	 * Return an iterator returning all the elements in this 
 	 * composed binary tree.
+	 * 
+	 * @note   The iterator keeps an explicit stack of the subtrees whose
+	 *         root element has not yet been returned, instead of chaining
+	 *         iterators for each of the subtrees. No objects are created
+	 *         while iterating, and each invocation of next takes constant
+	 *         time on average.
+	 * @note   The iterator fails fast: it throws a concurrent modification
+	 *         exception as soon as it notices that this composed binary tree
+	 *         has been changed after the iterator was created.
 	 */
 	@Override
 	public Iterator<Object> iterator() {
 		return new Iterator<Object>() {
 
 			public boolean hasNext() {
-				return ((!rootHandled) || currentIterator.hasNext());
+				return !pendingTrees.isEmpty();
 			}
 
-			public Object next() throws NoSuchElementException {
+			public Object next() throws NoSuchElementException,
+					ConcurrentModificationException {
+				if (modCount != expectedModCount)
+					throw new ConcurrentModificationException();
 				if (!hasNext())
 					throw new NoSuchElementException();
-				if (currentIterator.hasNext())
-					return currentIterator.next();
-				else {
-					assert !rootHandled;
-					rootHandled = true;
-					currentIterator = getRightTree().iterator();
-					return getRootElement();
+				NonEmptyBinaryTreeImpl currentTree = pendingTrees.pop();
+				pushLeftSpine(currentTree.getRightTree());
+				return currentTree.getRootElement();
+			}
+
+			/**
+			 * Push the given tree, its left subtree, the left subtree of
+			 * that subtree, and so on, on the stack of pending trees.
+			 */
+			private void pushLeftSpine(BinaryTree tree) {
+				while (tree instanceof NonEmptyBinaryTreeImpl) {
+					pendingTrees.push((NonEmptyBinaryTreeImpl) tree);
+					tree = ((NonEmptyBinaryTreeImpl) tree).getLeftTree();
 				}
 			}
 
-			private Iterator currentIterator = getLeftTree().iterator();
+			private final Deque<NonEmptyBinaryTreeImpl> pendingTrees =
+					new ArrayDeque<NonEmptyBinaryTreeImpl>();
 
-			private boolean rootHandled = false;
+			private final int expectedModCount = modCount;
+
+			{
+				pushLeftSpine(ComposedBinaryTree.this);
+			}
 
 		};
 	}
 
+	/**
+	 * Return a spliterator traversing all the elements in this composed
+	 * binary tree.
+	 * 
+	 * @return The resulting spliterator has the characteristics that apply
+	 *         to spliterators for this composed binary tree.
+	 *       | result.characteristics() == getSpliteratorCharacteristics()
+	 * @note   The resulting spliterator splits at the subtrees of this
+	 *         composed binary tree. Splitting it yields a spliterator for
+	 *         the elements in the left subtree, while the original one
+	 *         continues with the root element and the elements in the right
+	 *         subtree. Because the number of elements in each subtree is
+	 *         registered, the sizes of both parts are known exactly.
+	 */
+	@Override
+	public Spliterator<Object> spliterator() {
+		return new SubTreeSpliterator(this, getSpliteratorCharacteristics());
+	}
+
+	/**
+	 * Return the characteristics of spliterators for this composed binary
+	 * tree.
+	 * 
+	 * @return The elements of this composed binary tree are traversed in
+	 *         the same order as by its iterator, and the exact number of
+	 *         elements is known for each spliterator.
+	 *       | result ==
+	 *       |   Spliterator.ORDERED | Spliterator.SIZED | Spliterator.SUBSIZED
+	 */
+	protected int getSpliteratorCharacteristics() {
+		return Spliterator.ORDERED | Spliterator.SIZED | Spliterator.SUBSIZED;
+	}
+
+	/**
+	 * A class of spliterators traversing an optional head element, followed
+	 * by all the elements of a binary tree.
+	 */
+	private static class SubTreeSpliterator implements Spliterator<Object> {
+
+		private SubTreeSpliterator(BinaryTree tree, int characteristics) {
+			this.tree = tree;
+			this.characteristics = characteristics;
+			this.nbRemaining = tree.getNbElements();
+		}
+
+		public Spliterator<Object> trySplit() {
+			if (treeIterator != null)
+				return null;
+			if ((!hasHeadElement) && (tree instanceof NonEmptyBinaryTreeImpl)
+					&& (((NonEmptyBinaryTreeImpl) tree).getLeftTree().getNbElements() == 0))
+				// The left part would be empty; the same elements are
+				// described by the root element followed by the right subtree.
+				descendRight();
+			if (!(tree instanceof NonEmptyBinaryTreeImpl))
+				return null;
+			SubTreeSpliterator prefix = new SubTreeSpliterator(
+					((NonEmptyBinaryTreeImpl) tree).getLeftTree(), characteristics);
+			if (hasHeadElement) {
+				prefix.hasHeadElement = true;
+				prefix.headElement = headElement;
+				prefix.nbRemaining++;
+				nbRemaining--;
+			}
+			nbRemaining -= prefix.tree.getNbElements();
+			hasHeadElement = false;
+			descendRight();
+			return prefix;
+		}
+
+		/**
+		 * Replace the tree of this spliterator by its right subtree, and
+		 * make its root element the head element of this spliterator.
+		 */
+		private void descendRight() {
+			assert !hasHeadElement;
+			NonEmptyBinaryTreeImpl currentTree = (NonEmptyBinaryTreeImpl) tree;
+			hasHeadElement = true;
+			headElement = currentTree.getRootElement();
+			tree = currentTree.getRightTree();
+		}
+
+		public boolean tryAdvance(Consumer<? super Object> action) {
+			if (action == null)
+				throw new NullPointerException();
+			if (hasHeadElement) {
+				Object element = headElement;
+				hasHeadElement = false;
+				headElement = null;
+				nbRemaining--;
+				action.accept(element);
+				return true;
+			}
+			if (treeIterator == null)
+				treeIterator = tree.iterator();
+			if (!treeIterator.hasNext())
+				return false;
+			nbRemaining--;
+			action.accept(treeIterator.next());
+			return true;
+		}
+
+		public long estimateSize() {
+			return nbRemaining;
+		}
+
+		public int characteristics() {
+			return characteristics;
+		}
+
+		public Comparator<? super Object> getComparator() {
+			if (hasCharacteristics(Spliterator.SORTED))
+				return null;
+			throw new IllegalStateException();
+		}
+
+		private boolean hasHeadElement;
+
+		private Object headElement;
+
+		private BinaryTree tree;
+
+		private Iterator<Object> treeIterator;
+
+		private long nbRemaining;
+
+		private final int characteristics;
+
+	}
+
 	/**
 	 * Remove the element stored in the root of this composed binary tree.
 	 *
@@ -167,16 +688,32 @@ public abstract class ComposedBinaryTree extends NonEmptyBinaryTreeImpl {
      *       | if (getNbElements() == 2)
      *       |   then result instanceof LeafBinaryTree
      *       |   else result == this
+	 * @note   Each element on the left spine of this composed binary tree
+	 *         moves one level up. The composed trees on that spine are
+	 *         registered on an explicit stack, such that their left subtrees
+	 *         can be set again from the bottom up.
 	 */
 	@Override
 	protected NonEmptyBinaryTree removeRootElement() {
-		if (getLeftTree() instanceof NonEmptyBinaryTree) {
-			NonEmptyBinaryTreeImpl leftTree = (NonEmptyBinaryTreeImpl) getLeftTree();
-			setRootElement(leftTree.getRootElement());
-			setLeftTree(leftTree.removeRootElement());
-			return changeToLeafTree();
-		} else
+		if (!(getLeftTree() instanceof NonEmptyBinaryTree))
 			return (NonEmptyBinaryTree) getRightTree();
+		Deque<ComposedBinaryTree> path = new ArrayDeque<ComposedBinaryTree>();
+		NonEmptyBinaryTreeImpl currentTree = this;
+		while ((currentTree instanceof ComposedBinaryTree)
+				&& (currentTree.getLeftTree() instanceof NonEmptyBinaryTree)) {
+			path.push((ComposedBinaryTree) currentTree);
+			NonEmptyBinaryTreeImpl leftTree = (NonEmptyBinaryTreeImpl) ((ComposedBinaryTree) currentTree)
+					.getSubTreeForUpdate(currentTree.getLeftTree());
+			currentTree.setRootElement(leftTree.getRootElement());
+			currentTree = leftTree;
+		}
+		BinaryTree resultTree = currentTree.removeRootElement();
+		while (!path.isEmpty()) {
+			ComposedBinaryTree parentTree = path.pop();
+			parentTree.setLeftTree(resultTree);
+			resultTree = parentTree.changeToLeafTree();
+		}
+		return (NonEmptyBinaryTree) resultTree;
 	}
 
 	/**
@@ -198,10 +735,21 @@ public abstract class ComposedBinaryTree extends NonEmptyBinaryTreeImpl {
 	 * @post   The left subtree of this composed binary tree is the same
 	 *         as the given tree.
 	 *       | new.getLeftTree() == leftTree
+	 * @post   The number of elements in this composed binary tree is
+	 *         recomputed from the number of elements in its subtrees.
+	 *       | new.getNbElements() ==
+	 *       |   1 + leftTree.getNbElements() + getRightTree().getNbElements()
+	 * @post   The content hash of this composed binary tree is recomputed
+	 *         from the content hashes of its subtrees.
+	 *       | new.getContentHash() == getElementHash(getRootElement()) +
+	 *       |   leftTree.getContentHash() + getRightTree().getContentHash()
 	 */
 	protected final void setLeftTree(BinaryTree leftTree) {
 		assert canHaveAsLeftTree(leftTree);
 		this.leftTree = leftTree;
+		updateNbElements();
+		updateSubTreesHash();
+		modCount++;
 	}
 
 	/**
@@ -228,10 +776,21 @@ public abstract class ComposedBinaryTree extends NonEmptyBinaryTreeImpl {
 	 * @post   The right subtree of this composed binary tree is the same
 	 *         as the given tree.
 	 *       | new.getRightTree() == rightTree
+	 * @post   The number of elements in this composed binary tree is
+	 *         recomputed from the number of elements in its subtrees.
+	 *       | new.getNbElements() ==
+	 *       |   1 + getLeftTree().getNbElements() + rightTree.getNbElements()
+	 * @post   The content hash of this composed binary tree is recomputed
+	 *         from the content hashes of its subtrees.
+	 *       | new.getContentHash() == getElementHash(getRootElement()) +
+	 *       |   getLeftTree().getContentHash() + rightTree.getContentHash()
 	 */
 	protected final void setRightTree(BinaryTree rightTree) {
 		assert canHaveAsRightTree(rightTree);
 		this.rightTree = rightTree;
+		updateNbElements();
+		updateSubTreesHash();
+		modCount++;
 	}
 
 	/**
@@ -239,6 +798,26 @@ public abstract class ComposedBinaryTree extends NonEmptyBinaryTreeImpl {
 	 */
 	private BinaryTree rightTree;
 
+	/**
+	 * Return the number of times one of the subtrees of this composed binary
+	 * tree has been replaced.
+	 */
+	@Basic
+	@Raw
+	protected final int getModCount() {
+		return modCount;
+	}
+
+	/**
+	 * Variable registering the number of times one of the subtrees of this
+	 * composed binary tree has been replaced.
+	 * 
+	 * @note   Each change to the elements of a composed binary tree ends with
+	 *         setting one of its subtrees. Iterators use this counter to
+	 *         detect changes that happened while they were iterating.
+	 */
+	private int modCount = 0;
+
 	/**
 	 * Check whether this composed binary tree can have the given
 	 * trees as its left subtree, respectively as its right subtree.
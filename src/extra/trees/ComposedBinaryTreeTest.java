@@ -2,7 +2,7 @@ package extra.trees;
 
 import static org.junit.Assert.*;
 
-import java.util.Iterator;
+import java.util.*;
 
 import org.junit.*;
 
@@ -103,6 +103,96 @@ public class ComposedBinaryTreeTest {
             .getNbOccurrencesOf(20));
     }
 
+    @Test
+    public void clone_SharesSubTrees() throws Exception {
+        ComposedBinaryTree searchTree = new ComposedSearchTree(50, 20, 80, 10, 30, 70, 90);
+        ComposedBinaryTree clone = searchTree.clone();
+        assertNotSame(searchTree, clone);
+        assertSame(searchTree.getLeftTree(), clone.getLeftTree());
+        assertSame(searchTree.getRightTree(), clone.getRightTree());
+        assertFalse(clone.isShared());
+        assertTrue(((ComposedBinaryTree) clone.getLeftTree()).isShared());
+    }
+
+    @Test
+    public void clone_ChangesNotShared() throws Exception {
+        ComposedBinaryTree searchTree = new ComposedSearchTree(50, 20, 80, 10, 30, 70, 90);
+        ComposedBinaryTree clone = searchTree.clone();
+        clone.addElement(15);
+        searchTree.removeElement(10);
+        assertEquals(Arrays.asList(10, 15, 20, 30, 50, 70, 80, 90), elementsOf(clone));
+        assertEquals(Arrays.asList(20, 30, 50, 70, 80, 90), elementsOf(searchTree));
+        assertNotSame(searchTree.getLeftTree(), clone.getLeftTree());
+        assertSame(searchTree.getRightTree(), clone.getRightTree());
+    }
+
+    @Test
+    public void clone_FailedRemovalCopiesNothing() throws Exception {
+        ComposedBinaryTree unsortedTree = new ComposedUnsortedTree(1, 2, 3, 4, 5, 6, 7);
+        ComposedBinaryTree clone = unsortedTree.clone();
+        try {
+            clone.removeElement(8);
+            fail();
+        } catch (IllegalElementException exc) {
+            assertSame(unsortedTree.getLeftTree(), clone.getLeftTree());
+            assertSame(unsortedTree.getRightTree(), clone.getRightTree());
+        }
+    }
+
+    @Test
+    public void clone_RandomChanges() throws Exception {
+        checkRandomChanges(new ComposedSearchTree(20, 50, 40, 20), new Random(1));
+        checkRandomChanges(new ComposedUnsortedTree(20, 50, 40, 20), new Random(2));
+    }
+
+    /**
+     * Apply random additions, removals and clones to the given tree, to
+     * its clones and to the trees resulting from these changes, and check
+     * after each change that all of them still store the elements they
+     * are supposed to store.
+     */
+    static void checkRandomChanges(BinaryTree tree, Random random) throws Exception {
+        List<BinaryTree> trees = new ArrayList<BinaryTree>();
+        List<List<Object>> contents = new ArrayList<List<Object>>();
+        trees.add(tree);
+        contents.add(sortedElementsOf(tree));
+        for (int i = 0; i < 2000; i++) {
+            int index = random.nextInt(trees.size());
+            List<Object> content = contents.get(index);
+            int action = random.nextInt(10);
+            if ((action == 0) && (trees.size() < 20)) {
+                trees.add(trees.get(index).clone());
+                contents.add(new ArrayList<Object>(content));
+            } else if ((action < 5) && !content.isEmpty()) {
+                Object element = content.remove(random.nextInt(content.size()));
+                trees.set(index, trees.get(index).removeElement(element));
+            } else {
+                Integer element = random.nextInt(50);
+                content.add(element);
+                trees.set(index, trees.get(index).addElement(element));
+            }
+            Collections.sort((List) content);
+            for (int t = 0; t < trees.size(); t++) {
+                assertEquals(contents.get(t), sortedElementsOf(trees.get(t)));
+                assertEquals(contents.get(t).size(), trees.get(t).getNbElements());
+            }
+        }
+    }
+
+    private static List<Object> elementsOf(BinaryTree tree) {
+        List<Object> elements = new ArrayList<Object>();
+        for (Object element : tree)
+            elements.add(element);
+        return elements;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Object> sortedElementsOf(BinaryTree tree) {
+        List<Object> elements = elementsOf(tree);
+        Collections.sort((List) elements);
+        return elements;
+    }
+
     // Test for the method iterator
 
     @Test
@@ -115,6 +205,90 @@ public class ComposedBinaryTreeTest {
         assertFalse(theIterator.hasNext());
     }
 
+    @Test
+    public void iterator_DeepTree() throws Exception {
+        ComposedSearchTree newTree = new ComposedSearchTree(0, 1);
+        for (int i = 2; i < 200; i++)
+            newTree.addElement(i);
+        Iterator theIterator = newTree.iterator();
+        for (int i = 0; i < 200; i++)
+            assertEquals(i, theIterator.next());
+        assertFalse(theIterator.hasNext());
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void iterator_NoMoreElements() {
+        Iterator theIterator = theTree.iterator();
+        theIterator.next();
+        theIterator.next();
+        theIterator.next();
+    }
+
+    @Test(expected = ConcurrentModificationException.class)
+    public void iterator_ConcurrentModification() throws Exception {
+        Iterator theIterator = theTree.iterator();
+        theIterator.next();
+        theTree.addElement(30);
+        theIterator.next();
+    }
+
+    // Test for the method spliterator
+
+    @Test
+    public void spliterator_SplitPreservesOrderAndSizes() throws Exception {
+        ComposedSearchTree newTree = new ComposedSearchTree(50, 25, 75, 10,
+                30, 60, 90, 5, 95);
+        Spliterator suffix = newTree.spliterator();
+        Spliterator prefix = suffix.trySplit();
+        assertNotNull(prefix);
+        assertEquals(9, prefix.getExactSizeIfKnown()
+                + suffix.getExactSizeIfKnown());
+        List<Object> elements = new ArrayList<Object>();
+        prefix.forEachRemaining(elements::add);
+        suffix.forEachRemaining(elements::add);
+        assertEquals(Arrays.asList(5, 10, 25, 30, 50, 60, 75, 90, 95), elements);
+    }
+
+    @Test
+    public void spliterator_SplitUntilSingleElements() throws Exception {
+        ComposedSearchTree newTree = new ComposedSearchTree(50, 25, 75, 10,
+                30, 60, 90, 5, 95);
+        Deque<Spliterator> pending = new ArrayDeque<Spliterator>();
+        List<Object> elements = new ArrayList<Object>();
+        pending.push(newTree.spliterator());
+        while (!pending.isEmpty()) {
+            Spliterator spliterator = pending.pop();
+            Spliterator prefix = spliterator.trySplit();
+            if (prefix == null) {
+                long size = spliterator.getExactSizeIfKnown();
+                spliterator.forEachRemaining(elements::add);
+                assertTrue(size <= 1);
+            } else {
+                pending.push(spliterator);
+                pending.push(prefix);
+            }
+        }
+        assertEquals(Arrays.asList(5, 10, 25, 30, 50, 60, 75, 90, 95), elements);
+    }
+
+    @Test
+    public void spliterator_NoSplitAfterTraversalStarted() {
+        Spliterator spliterator = theTree.spliterator();
+        spliterator.tryAdvance(x -> assertEquals(10, x));
+        spliterator.tryAdvance(x -> assertEquals(20, x));
+        assertNull(spliterator.trySplit());
+        assertEquals(0, spliterator.getExactSizeIfKnown());
+    }
+
+    @Test
+    public void spliterator_Characteristics() throws Exception {
+        assertTrue(theTree.spliterator().hasCharacteristics(
+                Spliterator.SORTED | Spliterator.SUBSIZED));
+        Spliterator unsorted = new ComposedUnsortedTree(10, 20).spliterator();
+        assertTrue(unsorted.hasCharacteristics(Spliterator.SIZED));
+        assertFalse(unsorted.hasCharacteristics(Spliterator.SORTED));
+    }
+
     // Test for the method removeRootElement
 
     @Test
@@ -189,4 +363,77 @@ public class ComposedBinaryTreeTest {
         assertSame(theTree, resultTree);
     }
 
+    // Test for the method getNbElements
+
+    @Test
+    public void getNbElements_AfterAddingElements() throws Exception {
+        ComposedBinaryTree unsortedTree = new ComposedUnsortedTree(1, 2, 3);
+        for (int i = 0; i < 100; i++)
+            unsortedTree.addElement(i);
+        assertEquals(103, unsortedTree.getNbElements());
+    }
+
+    @Test
+    public void getNbElements_AfterRemovingElements() throws Exception {
+        NonEmptyBinaryTree searchTree = new ComposedSearchTree(50, 20, 80, 10, 30, 70, 90);
+        BinaryTree resultTree = searchTree.removeElement(50);
+        resultTree = resultTree.removeElement(10);
+        assertEquals(5, resultTree.getNbElements());
+        int nbElements = 0;
+        for (Object element: resultTree)
+            nbElements++;
+        assertEquals(5, nbElements);
+    }
+
+    // Test for the methods getContentHash, equals and hashCode
+
+    @Test
+    public void getContentHash_ShapeIndependent() throws Exception {
+        ComposedBinaryTree unsortedTree = new ComposedUnsortedTree(20, 10);
+        assertEquals(theTree.getContentHash(), unsortedTree.getContentHash());
+        assertEquals(NonEmptyBinaryTreeImpl.getElementHash(10)
+            + NonEmptyBinaryTreeImpl.getElementHash(20), theTree.getContentHash());
+    }
+
+    @Test
+    public void getContentHash_KeptUpToDate() throws Exception {
+        ComposedBinaryTree searchTree = new ComposedSearchTree(50, 20, 80, 10, 30, 70, 90);
+        long contentHash = searchTree.getContentHash();
+        searchTree.addElement(60);
+        assertEquals(contentHash + NonEmptyBinaryTreeImpl.getElementHash(60),
+            searchTree.getContentHash());
+        BinaryTree resultTree = searchTree.removeElement(60).removeElement(50);
+        assertEquals(contentHash - NonEmptyBinaryTreeImpl.getElementHash(50),
+            resultTree.getContentHash());
+    }
+
+    @Test
+    public void equals_SameElementsDifferentShapes() throws Exception {
+        ComposedBinaryTree unsortedTree = new ComposedUnsortedTree(20, 10);
+        assertEquals(theTree, unsortedTree);
+        assertEquals(unsortedTree, theTree);
+        assertEquals(theTree.hashCode(), unsortedTree.hashCode());
+        ComposedBinaryTree searchTree = new ComposedSearchTree(1, 2, 3, 4, 5, 5, 6);
+        assertEquals(searchTree, BalancedSearchTree.fromElements(6, 5, 4, 5, 3, 2, 1));
+    }
+
+    @Test
+    public void equals_DifferentElements() throws Exception {
+        assertNotEquals(theTree, new ComposedSearchTree(10, 30));
+        assertNotEquals(theTree, new ComposedSearchTree(10, 20, 20));
+        assertNotEquals(new ComposedSearchTree(10, 10, 20), new ComposedSearchTree(10, 20, 20));
+        assertNotEquals(theTree, EmptySearchTree.getPrototype());
+        assertNotEquals(theTree, null);
+    }
+
+    @Test
+    public void equals_AfterChanges() throws Exception {
+        ComposedBinaryTree clone = theTree.clone();
+        assertEquals(theTree, clone);
+        clone.addElement(30);
+        assertNotEquals(theTree, clone);
+        theTree.addElement(30);
+        assertEquals(theTree, clone);
+    }
+
 }
@@ -1,6 +1,6 @@
 package extra.trees;
 
-import java.util.Iterator;
+import java.util.*;
 import be.kuleuven.cs.som.annotate.*;
 
 import extra.trees.exceptions.*;
@@ -65,19 +65,70 @@ public class ComposedSearchTree extends ComposedBinaryTree implements
         // not yet satisfy its invariants.
         if (!canHaveAsElement(elements[1]))
             throw new IllegalElementException(elements[1], this);
-        if (((Comparable) elements[1]).compareTo(elements[0]) <= 0)
-            setLeftTree(new LeafSearchTree(elements[1]));
+        if (compareElements(elements[1], elements[0]) <= 0)
+            setLeftTree(createLeaf(elements[1]));
         else
-            setRightTree(new LeafSearchTree(elements[1]));
+            setRightTree(createLeaf(elements[1]));
         // Add all remaining elements in the given array to this
         // new composed search tree.
         for (int i = 2; i < elements.length; i++)
             this.addElement(elements[i]);
     }
 
+    /**
+     * Initialize this new composed search tree with given root element
+     * and given subtrees.
+     *
+     * @param   element
+     *          The element to be stored in the root of this new composed
+     *          search tree.
+     * @param   left
+     *          The left subtree for this new composed search tree.
+     * @param   right
+     *          The right subtree for this new composed search tree.
+     * @pre     This new composed search tree can have the given trees
+     *          as its left subtree, respectively as its right subtree.
+     *        | canHaveAsSubTrees(left,right)
+     * @post    The root element of this new composed search tree is the
+     *          same as the given element.
+     *        | new.getRootElement() == element
+     * @post    The left subtree and the right subtree of this new composed
+     *          search tree are the same as the given trees.
+     *        | (new.getLeftTree() == left) && (new.getRightTree() == right)
+     * @throws  IllegalElementException
+     *          This new composed search tree cannot have the given element
+     *          as an element.
+     *        | ! canHaveAsElement(element)
+     */
+    protected ComposedSearchTree(Object element, SearchTree left,
+            SearchTree right) throws IllegalElementException {
+        super(element);
+        setLeftTree(left);
+        setRightTree(right);
+    }
+
+    /**
+     * Initialize this new composed search tree with the null reference as
+     * its root element.
+     *
+     * @effect  This new composed search tree is initialized as a composed
+     *          binary tree with the null reference as its root element.
+     *        | super()
+     * @note    This constructor is needed in subclasses that must initialize
+     *          their own variables before they can check their elements.
+     */
+    @Raw
+    protected ComposedSearchTree() {
+    }
+
     /**
      * Return the number of occurrences of the given element in this composed
      * search tree.
+     *
+     * @note    The composed search trees on the path towards the given
+     *          element are visited in a loop, such that the depth of this
+     *          composed search tree does not affect the depth of the Java
+     *          stack.
      */
 	@Basic
     @Override
@@ -89,15 +140,21 @@ public class ComposedSearchTree extends ComposedBinaryTree implements
             // effective.
             if ( (getRootElement() == null) || (element == null) )
                 return super.getNbOccurrencesOf(element);
-            if (getRootElement().compareTo(element) >= 0) {
-                int nbOccurrences = (getRootElement().equals(element) ? 1 : 0);
-                if (getLeftTree() != null)
-                    return nbOccurrences
-                        + getLeftTree().getNbOccurrencesOf(element);
+            int nbOccurrences = 0;
+            SearchTree tree = this;
+            while (tree instanceof ComposedSearchTree) {
+                ComposedSearchTree currentTree = (ComposedSearchTree) tree;
+                if (compareElements(currentTree.getRootElement(), element) >= 0) {
+                    if (currentTree.getRootElement().equals(element))
+                        nbOccurrences++;
+                    tree = currentTree.getLeftTree();
+                }
+                else
+                    tree = currentTree.getRightTree();
             }
-            else if (getRightTree() != null)
-                return getRightTree().getNbOccurrencesOf(element);
-            return 0;
+            if (tree != null)
+                nbOccurrences += tree.getNbOccurrencesOf(element);
+            return nbOccurrences;
         }
         catch (ClassCastException exc) {
             // The given element is not comparable with the root element
@@ -113,8 +170,14 @@ public class ComposedSearchTree extends ComposedBinaryTree implements
 	@Raw
     @Override
     public boolean canHaveAsElement(Object element) {
+        // This composed search tree may still be under construction, or the
+        // given element may not be effective. Both cases are checked
+        // explicitly, because throwing and catching an exception each time
+        // a new tree is created is expensive.
+        if ((getRootElement() == null) || (element == null))
+            return (element instanceof Comparable);
         try {
-            getRootElement().compareTo(element);
+            ((Comparable) getRootElement()).compareTo(element);
             return true;
         }
         catch (ClassCastException exc) {
@@ -122,12 +185,6 @@ public class ComposedSearchTree extends ComposedBinaryTree implements
             // given element.
             return false;
         }
-        catch (NullPointerException exc) {
-            // This composed search tree is still under construction or
-            // the given element is not effective.
-            assert (getRootElement() == null) || (element == null);
-            return (element instanceof Comparable);
-        }
     }
 
     /**
@@ -137,12 +194,17 @@ public class ComposedSearchTree extends ComposedBinaryTree implements
     public boolean hasAsElement(Object element) {
         // Re-implementation for reasons of efficiency.
         try {
-            if (getRootElement().equals(element))
-                return true;
-            if (getRootElement().compareTo(element) >= 0)
-                return getLeftTree().hasAsElement(element);
-            else
-                return getRightTree().hasAsElement(element);
+            SearchTree tree = this;
+            while (tree instanceof ComposedSearchTree) {
+                ComposedSearchTree currentTree = (ComposedSearchTree) tree;
+                if (currentTree.getRootElement().equals(element))
+                    return true;
+                if (compareElements(currentTree.getRootElement(), element) >= 0)
+                    tree = currentTree.getLeftTree();
+                else
+                    tree = currentTree.getRightTree();
+            }
+            return tree.hasAsElement(element);
         }
         catch (ClassCastException exc) {
             // The given element is not comparable with the root element
@@ -155,35 +217,304 @@ public class ComposedSearchTree extends ComposedBinaryTree implements
         }
     }
 
+    /**
+     * Return the element at the given position in the ascending sequence
+     * of all the elements in this composed search tree.
+     */
+    @Override
+    public Object getElementAt(int index) throws IndexOutOfBoundsException {
+        // Re-implementation for reasons of efficiency. The registered number
+        // of elements in the subtrees reveals which subtree to descend into.
+        if ((index < 1) || (index > getNbElements()))
+            throw new IndexOutOfBoundsException();
+        NonEmptyBinaryTreeImpl node = this;
+        while (true) {
+            int nbLeftElements = node.getLeftTree().getNbElements();
+            if (index <= nbLeftElements)
+                node = (NonEmptyBinaryTreeImpl) node.getLeftTree();
+            else if (index == nbLeftElements + 1)
+                return node.getRootElement();
+            else {
+                index -= nbLeftElements + 1;
+                node = (NonEmptyBinaryTreeImpl) node.getRightTree();
+            }
+        }
+    }
+
+    /**
+     * Return the number of elements in this composed search tree that are
+     * less than the given element.
+     */
+    @Override
+    public int getRankOf(Object element) throws IllegalElementException {
+        // Re-implementation for reasons of efficiency.
+        if (!canHaveAsElement(element))
+            throw new IllegalElementException(element, this);
+        int rank = 0;
+        BinaryTree tree = this;
+        while (tree instanceof NonEmptyBinaryTreeImpl) {
+            NonEmptyBinaryTreeImpl node = (NonEmptyBinaryTreeImpl) tree;
+            if (compareElements(node.getRootElement(), element) < 0) {
+                rank += node.getLeftTree().getNbElements() + 1;
+                tree = node.getRightTree();
+            }
+            else
+                tree = node.getLeftTree();
+        }
+        return rank;
+    }
+
+    /**
+     * Return the greatest element in this composed search tree that is less
+     * than or equal to the given element.
+     */
+    @Override
+    public Object floor(Object element) throws IllegalElementException {
+        // Re-implementation for reasons of efficiency.
+        return getClosestElement(element, true, true);
+    }
+
+    /**
+     * Return the greatest element in this composed search tree that is
+     * strictly less than the given element.
+     */
+    @Override
+    public Object lower(Object element) throws IllegalElementException {
+        // Re-implementation for reasons of efficiency.
+        return getClosestElement(element, true, false);
+    }
+
+    /**
+     * Return the least element in this composed search tree that is greater
+     * than or equal to the given element.
+     */
+    @Override
+    public Object ceiling(Object element) throws IllegalElementException {
+        // Re-implementation for reasons of efficiency.
+        return getClosestElement(element, false, true);
+    }
+
+    /**
+     * Return the least element in this composed search tree that is
+     * strictly greater than the given element.
+     */
+    @Override
+    public Object higher(Object element) throws IllegalElementException {
+        // Re-implementation for reasons of efficiency.
+        return getClosestElement(element, false, false);
+    }
+
+    /**
+     * Return the element in this composed search tree that is closest to
+     * the given element, on the given side of it.
+     *
+     * @param  element
+     *         The element to compare with.
+     * @param  below
+     *         True if the closest element less than the given element must be
+     *         returned; false if the closest element greater than the given
+     *         element must be returned.
+     * @param  inclusive
+     *         True if an element equal to the given element may be returned.
+     * @return The result of floor(element), lower(element), ceiling(element)
+     *         or higher(element), depending on the given flags.
+     * @throws IllegalElementException
+     *         This composed search tree cannot have the given element as one
+     *         of its elements.
+     *       | ! canHaveAsElement(element)
+     */
+    private Object getClosestElement(Object element, boolean below,
+            boolean inclusive) throws IllegalElementException {
+        if (!canHaveAsElement(element))
+            throw new IllegalElementException(element, this);
+        Object result = null;
+        BinaryTree tree = this;
+        while (tree instanceof NonEmptyBinaryTreeImpl) {
+            NonEmptyBinaryTreeImpl node = (NonEmptyBinaryTreeImpl) tree;
+            int comparison = compareElements(node.getRootElement(), element);
+            boolean isCandidate = below ? (comparison < 0) : (comparison > 0);
+            if (isCandidate || (inclusive && (comparison == 0))) {
+                // The root element is on the requested side. Elements in the
+                // subtree facing the given element may be even closer.
+                result = node.getRootElement();
+                tree = below ? node.getRightTree() : node.getLeftTree();
+            }
+            else
+                tree = below ? node.getLeftTree() : node.getRightTree();
+        }
+        return result;
+    }
+
+    /**
+     * Return the least element in this composed search tree.
+     */
+    @Override
+    public Object first() {
+        NonEmptyBinaryTreeImpl node = this;
+        while (node.getLeftTree() instanceof NonEmptyBinaryTreeImpl)
+            node = (NonEmptyBinaryTreeImpl) node.getLeftTree();
+        return node.getRootElement();
+    }
+
+    /**
+     * Return the greatest element in this composed search tree.
+     */
+    @Override
+    public Object last() {
+        NonEmptyBinaryTreeImpl node = this;
+        while (node.getRightTree() instanceof NonEmptyBinaryTreeImpl)
+            node = (NonEmptyBinaryTreeImpl) node.getRightTree();
+        return node.getRootElement();
+    }
+
+    /**
+     * Return an iterator returning, in ascending order, all the elements
+     * in this composed search tree within the given bounds.
+     *
+     * @note   The iterator only visits the subtrees that may contain elements
+     *         within the given bounds. It starts by descending towards the
+     *         lower bound, and stops as soon as it reaches the upper bound.
+     *         Iterating over k elements therefore takes time proportional to
+     *         the depth of this composed search tree plus k.
+     * @note   Just like the iterator for all the elements of a composed
+     *         binary tree, the resulting iterator fails fast if this composed
+     *         search tree is changed while iterating.
+     */
+    @Override
+    public Iterator<Object> subTreeIterator(final Object from, final Object to)
+            throws IllegalElementException, IllegalArgumentException {
+        if ((from != null) && (!canHaveAsElement(from)))
+            throw new IllegalElementException(from, this);
+        if ((to != null) && (!canHaveAsElement(to)))
+            throw new IllegalElementException(to, this);
+        if ((from != null) && (to != null)
+                && (compareElements(from, to) > 0))
+            throw new IllegalArgumentException();
+        return new Iterator<Object>() {
+
+            public boolean hasNext() {
+                return (!pendingTrees.isEmpty())
+                    && ((to == null) || (compareElements(pendingTrees.peek()
+                        .getRootElement(), to) < 0));
+            }
+
+            public Object next() throws NoSuchElementException,
+                    ConcurrentModificationException {
+                if (getModCount() != expectedModCount)
+                    throw new ConcurrentModificationException();
+                if (!hasNext())
+                    throw new NoSuchElementException();
+                NonEmptyBinaryTreeImpl currentTree = pendingTrees.pop();
+                pushLeftSpine(currentTree.getRightTree());
+                return currentTree.getRootElement();
+            }
+
+            /**
+             * Push the given tree and its left subtrees on the stack of
+             * pending trees, skipping all trees whose root element is
+             * less than the lower bound.
+             */
+            private void pushLeftSpine(BinaryTree tree) {
+                while (tree instanceof NonEmptyBinaryTreeImpl) {
+                    NonEmptyBinaryTreeImpl node = (NonEmptyBinaryTreeImpl) tree;
+                    if ((from != null)
+                            && (compareElements(node.getRootElement(), from) < 0))
+                        // The root element and all the elements in the left
+                        // subtree are below the lower bound.
+                        tree = node.getRightTree();
+                    else {
+                        pendingTrees.push(node);
+                        tree = node.getLeftTree();
+                    }
+                }
+            }
+
+            private final Deque<NonEmptyBinaryTreeImpl> pendingTrees =
+                new ArrayDeque<NonEmptyBinaryTreeImpl>();
+
+            private final int expectedModCount = getModCount();
+
+            {
+                pushLeftSpine(ComposedSearchTree.this);
+            }
+
+        };
+    }
+
     /**
      * Add the given element to this composed search tree.
+     *
+     * @note    The composed search trees on the path towards the subtree
+     *          that receives the given element are registered on an explicit
+     *          stack, and set again as subtrees of their parents once that
+     *          subtree has been extended.
      */
     public ComposedSearchTree addElement(Object element)
             throws IllegalElementException {
         if (!canHaveAsElement(element))
             throw new IllegalElementException(element, this);
-        Comparable rootElement = getRootElement();
-        if (rootElement.compareTo(element) >= 0)
-            setLeftTree(getLeftTree().addElement(element));
-        else
-            setRightTree(getRightTree().addElement(element));
+        Deque<ComposedSearchTree> path = new ArrayDeque<ComposedSearchTree>();
+        ComposedSearchTree currentTree = this;
+        SearchTree subTree;
+        while (true) {
+            path.push(currentTree);
+            if (compareElements(currentTree.getRootElement(), element) >= 0)
+                subTree = currentTree.getLeftTree();
+            else
+                subTree = currentTree.getRightTree();
+            subTree = (SearchTree) currentTree.getSubTreeForUpdate(subTree);
+            if (!(subTree instanceof ComposedSearchTree))
+                break;
+            currentTree = (ComposedSearchTree) subTree;
+        }
+        SearchTree resultTree = subTree.addElement(element);
+        while (!path.isEmpty()) {
+            currentTree = path.pop();
+            currentTree.replaceSubTree(subTree, resultTree);
+            subTree = resultTree = currentTree;
+        }
         return this;
     }
 
     /**
      * Remove one occurrence of the given element from this composed
      * search tree.
+     *
+     * @note    The composed search trees on the path towards the given
+     *          element are registered on an explicit stack, and set again
+     *          as subtrees of their parents once the element is removed.
+     *          Shared trees on that path are only copied once the element
+     *          has been found.
      */
     public NonEmptySearchTree removeElement(Object element)
             throws IllegalElementException {
         try {
-            if (getRootElement().equals(element))
-                return removeRootElement();
-            if (getRootElement().compareTo(element) > 0)
-                setLeftTree(getLeftTree().removeElement(element));
-            else
-                setRightTree(getRightTree().removeElement(element));
-            return changeToLeafTree();
+            Deque<ComposedSearchTree> path = new ArrayDeque<ComposedSearchTree>();
+            SearchTree subTree = this;
+            while ((subTree instanceof ComposedSearchTree)
+                    && !((ComposedSearchTree) subTree).getRootElement().equals(element)) {
+                ComposedSearchTree currentTree = (ComposedSearchTree) subTree;
+                path.push(currentTree);
+                if (compareElements(currentTree.getRootElement(), element) > 0)
+                    subTree = currentTree.getLeftTree();
+                else
+                    subTree = currentTree.getRightTree();
+            }
+            // Shared trees must not be copied if the element is absent.
+            if (!(subTree instanceof ComposedSearchTree)
+                    && !subTree.hasAsElement(element))
+                throw new IllegalElementException(element, this);
+            subTree = (SearchTree) unsharePath(path, subTree);
+            SearchTree resultTree = (subTree instanceof ComposedSearchTree)
+                ? ((ComposedSearchTree) subTree).removeRootElement()
+                : subTree.removeElement(element);
+            while (!path.isEmpty()) {
+                ComposedSearchTree currentTree = path.pop();
+                currentTree.replaceSubTree(subTree, resultTree);
+                subTree = currentTree;
+                resultTree = currentTree.changeToLeafTree();
+            }
+            return (NonEmptySearchTree) getUnsharedTree(resultTree);
         }
         catch (NullPointerException exc) {
             assert element == null;
@@ -199,6 +530,24 @@ public class ComposedSearchTree extends ComposedBinaryTree implements
         return (ComposedSearchTree) super.clone();
     }
 
+    /**
+     * Return the characteristics of spliterators for this composed search
+     * tree.
+     *
+     * @return The elements of this composed search tree are traversed in
+     *         ascending order, and none of them is the null reference. They
+     *         are reported to be sorted according to their natural ordering,
+     *         if this composed search tree has no comparator.
+     *       | result ==
+     *       |   super.getSpliteratorCharacteristics() |
+     *       |   SearchTree.getSpliteratorCharacteristicsOf(this)
+     */
+    @Override
+    protected int getSpliteratorCharacteristics() {
+        return super.getSpliteratorCharacteristics()
+            | SearchTree.getSpliteratorCharacteristicsOf(this);
+    }
+
 //    /**
 //     * Return an iterator returning elements in this binary search tree
 //     * restricted to the given maximum number of elements.
@@ -214,37 +563,47 @@ public class ComposedSearchTree extends ComposedBinaryTree implements
 //        return super.getElements(maxNbElements);
 //    }
 
-    /**
-     * Return the element stored in the root of this composed search
-     * tree.
-     */
-	@Override
-    protected Comparable getRootElement() {
-        return (Comparable) super.getRootElement();
-    }
-
     /**
      * Remove the element stored in the root of this composed search tree.
+     *
+     * @note    Each composed tree on the right spine of the left subtree of
+     *          this composed search tree moves up, and takes the remaining
+     *          elements of this tree as its right subtree. Those composed
+     *          trees are registered on an explicit stack, such that their
+     *          right subtrees can be set again from the bottom up.
      */
     @Override
     protected NonEmptySearchTree removeRootElement() {
-        if (getLeftTree().isEmpty())
-            return (NonEmptySearchTree) getRightTree();
-        else if (getLeftTree().getNbElements() == 1) {
-            NonEmptyBinaryTreeImpl leftTree = (NonEmptyBinaryTreeImpl) getLeftTree();
-            setRootElement(leftTree.getRootElement());
-            setLeftTree(EmptySearchTree.getPrototype());
-            return this.changeToLeafTree();
-        }
-        else {
-            ComposedSearchTree leftTree = (ComposedSearchTree) getLeftTree();
+        Deque<ComposedSearchTree> path = new ArrayDeque<ComposedSearchTree>();
+        SearchTree resultTree;
+        while (true) {
+            if (getLeftTree().isEmpty()) {
+                resultTree = getRightTree();
+                break;
+            }
+            if (getLeftTree().getNbElements() == 1) {
+                NonEmptyBinaryTreeImpl leftTree = (NonEmptyBinaryTreeImpl) getLeftTree();
+                setRootElement(leftTree.getRootElement());
+                setLeftTree(EmptySearchTree.getPrototype());
+                resultTree = this.changeToLeafTree();
+                break;
+            }
+            ComposedSearchTree leftTree =
+                (ComposedSearchTree) getSubTreeForUpdate(getLeftTree());
             this.setLeftTree(leftTree.getRightTree());
-            if (this.getNbElements() == 1)
+            if (this.getNbElements() == 1) {
                 leftTree.setRightTree(EmptySearchTree.getPrototype());
-            else
-                leftTree.setRightTree(this.removeRootElement());
-            return leftTree;
+                resultTree = leftTree;
+                break;
+            }
+            path.push(leftTree);
         }
+        while (!path.isEmpty()) {
+            ComposedSearchTree leftTree = path.pop();
+            leftTree.setRightTree(resultTree);
+            resultTree = leftTree;
+        }
+        return (NonEmptySearchTree) resultTree;
     }
 
     /**
@@ -276,7 +635,7 @@ public class ComposedSearchTree extends ComposedBinaryTree implements
      *        |         then this.canHaveAsElement(object) ) &&
      *        |   ( for each comparable in Comparable:
      *        |       if (tree.hasAsElement(comparable))
-     *        |         then this.getRootElement().compareTo(comparable) >= 0 )
+     *        |         then compareElements(this.getRootElement(),comparable) >= 0 )
      */
     @Override
     protected boolean canHaveAsLeftTree(BinaryTree tree) {
@@ -289,7 +648,7 @@ public class ComposedSearchTree extends ComposedBinaryTree implements
             Object nextElement = treeIterator.next();
             if (!this.canHaveAsElement(nextElement))
                 return false;
-            if (getRootElement().compareTo(nextElement) < 0)
+            if (compareElements(getRootElement(), nextElement) < 0)
                 return false;
         }
         return true;
@@ -324,7 +683,7 @@ public class ComposedSearchTree extends ComposedBinaryTree implements
      *        |         then this.canHaveAsElement(object) ) &&
      *        |   ( for each comparable in Comparable:
      *        |       if (tree.hasAsElement(comparable))
-     *        |         then this.getRootElement().compareTo(comparable) < 0 )
+     *        |         then compareElements(this.getRootElement(),comparable) < 0 )
      */
     @Override
     protected boolean canHaveAsRightTree(BinaryTree tree) {
@@ -337,7 +696,7 @@ public class ComposedSearchTree extends ComposedBinaryTree implements
             Object nextElement = treeIterator.next();
             if (!this.canHaveAsElement(nextElement))
                 return false;
-            if (getRootElement().compareTo(nextElement) >= 0)
+            if (compareElements(getRootElement(), nextElement) >= 0)
                 return false;
         }
         return true;
@@ -365,6 +724,26 @@ public class ComposedSearchTree extends ComposedBinaryTree implements
             && super.canHaveAsSubTrees(left, right);
     }
 
+    /**
+     * Return a new leaf search tree storing the given element.
+     *
+     * @param   element
+     *          The element to be stored in the new leaf search tree.
+     * @return  A new leaf search tree storing the given element.
+     *        | (result != null) && result.hasAsElement(element) &&
+     *        | (result.getNbElements() == 1)
+     * @throws  IllegalElementException
+     *          The new leaf search tree cannot have the given element as
+     *          its element.
+     * @note    Subclasses may return leaf search trees of a more specific
+     *          kind, for instance leaves ordering their elements in the same
+     *          way as this composed search tree.
+     */
+    protected LeafSearchTree createLeaf(Object element)
+            throws IllegalElementException {
+        return new LeafSearchTree(element);
+    }
+
     /**
      * Change this composed search into a leaf search tree, if it only has
      * one element.
@@ -379,7 +758,7 @@ public class ComposedSearchTree extends ComposedBinaryTree implements
     protected NonEmptySearchTree changeToLeafTree() {
         try {
             if (getLeftTree().isEmpty() && getRightTree().isEmpty())
-                return new LeafSearchTree(getRootElement());
+                return createLeaf(getRootElement());
             else
                 return this;
         }
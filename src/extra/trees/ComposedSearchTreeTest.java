@@ -1,6 +1,7 @@
 package extra.trees;
 
 import static org.junit.Assert.*;
+import static extra.trees.DegenerateTrees.*;
 
 import java.util.Iterator;
 
@@ -152,6 +153,20 @@ public class ComposedSearchTreeTest {
         theTree.removeElement(null);
     }
 
+    @Test
+    public void removeElement_AbsentElementInClone() throws Exception {
+        ComposedSearchTree clone = theTree.clone();
+        Iterator theIterator = clone.iterator();
+        assertEquals(20, theIterator.next());
+        try {
+            clone.removeElement(60);
+            fail();
+        } catch (IllegalElementException exc) {
+        }
+        assertEquals(20, theIterator.next());
+        assertEquals(7, clone.getNbElements());
+    }
+
     // Test for the method clone
 
     @Test
@@ -315,4 +330,282 @@ public class ComposedSearchTreeTest {
         assertEquals(1, resultTree.getNbOccurrencesOf(theElement));
     }
 
+    // Test for the method getElementAt
+
+    @Test public void getElementAt_LegalIndices() {
+        assertEquals(20, theTree.getElementAt(1));
+        assertEquals(20, theTree.getElementAt(3));
+        assertEquals(40, theTree.getElementAt(4));
+        assertEquals(100, theTree.getElementAt(7));
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void getElementAt_IndexTooLow() {
+        theTree.getElementAt(0);
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void getElementAt_IndexTooHigh() {
+        theTree.getElementAt(8);
+    }
+
+    // Test for the method getRankOf
+
+    @Test public void getRankOf_ElementOccurs() {
+        assertEquals(0, theTree.getRankOf(20));
+        assertEquals(4, theTree.getRankOf(50));
+    }
+
+    @Test public void getRankOf_ElementDoesNotOccur() {
+        assertEquals(3, theTree.getRankOf(30));
+        assertEquals(7, theTree.getRankOf(1000));
+    }
+
+    @Test(expected = IllegalElementException.class)
+    public void getRankOf_IllegalElement() {
+        theTree.getRankOf("abc");
+    }
+
+    // Test for the methods floor, lower, ceiling and higher
+
+    @Test
+    public void floor_ElementOccurs() throws Exception {
+        assertEquals(40, theTree.floor(40));
+    }
+
+    @Test
+    public void floor_ElementDoesNotOccur() throws Exception {
+        assertEquals(50, theTree.floor(60));
+        assertNull(theTree.floor(10));
+    }
+
+    @Test(expected = IllegalElementException.class)
+    public void floor_IllegalElement() throws Exception {
+        theTree.floor("abc");
+    }
+
+    @Test
+    public void lower_SeveralCases() throws Exception {
+        assertEquals(20, theTree.lower(40));
+        assertEquals(100, theTree.lower(1000));
+        assertNull(theTree.lower(20));
+    }
+
+    @Test
+    public void ceiling_SeveralCases() throws Exception {
+        assertEquals(70, theTree.ceiling(70));
+        assertEquals(70, theTree.ceiling(60));
+        assertNull(theTree.ceiling(101));
+    }
+
+    @Test
+    public void higher_SeveralCases() throws Exception {
+        assertEquals(40, theTree.higher(20));
+        assertEquals(20, theTree.higher(-5));
+        assertNull(theTree.higher(100));
+    }
+
+    @Test(expected = IllegalElementException.class)
+    public void higher_NonEffectiveElement() throws Exception {
+        theTree.higher(null);
+    }
+
+    // Test for the methods first and last
+
+    @Test
+    public void first_SingleCase() {
+        assertEquals(20, theTree.first());
+    }
+
+    @Test
+    public void last_SingleCase() {
+        assertEquals(100, theTree.last());
+    }
+
+    // Test for the method subTreeIterator
+
+    @Test
+    public void subTreeIterator_BothBounds() throws Exception {
+        Iterator theIterator = theTree.subTreeIterator(20, 70);
+        assertEquals(20, theIterator.next());
+        assertEquals(20, theIterator.next());
+        assertEquals(20, theIterator.next());
+        assertEquals(40, theIterator.next());
+        assertEquals(50, theIterator.next());
+        assertFalse(theIterator.hasNext());
+    }
+
+    @Test
+    public void subTreeIterator_BoundsNotInTree() throws Exception {
+        Iterator theIterator = theTree.subTreeIterator(30, 60);
+        assertEquals(40, theIterator.next());
+        assertEquals(50, theIterator.next());
+        assertFalse(theIterator.hasNext());
+    }
+
+    @Test
+    public void subTreeIterator_EmptyRange() throws Exception {
+        assertFalse(theTree.subTreeIterator(41, 49).hasNext());
+        assertFalse(theTree.subTreeIterator(50, 50).hasNext());
+    }
+
+    @Test
+    public void subTreeIterator_UnboundedRange() throws Exception {
+        Iterator theIterator = theTree.subTreeIterator(null, null);
+        for (Object element : theTree)
+            assertEquals(element, theIterator.next());
+        assertFalse(theIterator.hasNext());
+    }
+
+    @Test
+    public void subTreeIterator_LargeTree() throws Exception {
+        ComposedSearchTree newTree = new ComposedSearchTree(0, 1);
+        java.util.Random random = new java.util.Random(5);
+        for (int i = 0; i < 300; i++)
+            newTree.addElement(random.nextInt(200));
+        Iterator theIterator = newTree.subTreeIterator(50, 120);
+        for (Object element : newTree) {
+            int value = (Integer) element;
+            if ((value >= 50) && (value < 120))
+                assertEquals(element, theIterator.next());
+        }
+        assertFalse(theIterator.hasNext());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void subTreeIterator_LowerBoundAboveUpperBound() throws Exception {
+        theTree.subTreeIterator(70, 20);
+    }
+
+    @Test(expected = IllegalElementException.class)
+    public void subTreeIterator_IllegalBound() throws Exception {
+        theTree.subTreeIterator(20, "abc");
+    }
+
+    @Test(expected = java.util.ConcurrentModificationException.class)
+    public void subTreeIterator_ConcurrentModification() throws Exception {
+        Iterator theIterator = theTree.subTreeIterator(20, 70);
+        theIterator.next();
+        theTree.addElement(30);
+        theIterator.next();
+    }
+
+    // Test for the methods headTreeIterator and tailTreeIterator
+
+    @Test
+    public void headTreeIterator_SingleCase() throws Exception {
+        Iterator theIterator = theTree.headTreeIterator(40);
+        for (int i = 0; i < 3; i++)
+            assertEquals(20, theIterator.next());
+        assertFalse(theIterator.hasNext());
+    }
+
+    @Test
+    public void tailTreeIterator_SingleCase() throws Exception {
+        Iterator theIterator = theTree.tailTreeIterator(70);
+        assertEquals(70, theIterator.next());
+        assertEquals(100, theIterator.next());
+        assertFalse(theIterator.hasNext());
+    }
+
+    @Test(expected = IllegalElementException.class)
+    public void tailTreeIterator_NonEffectiveBound() throws Exception {
+        theTree.tailTreeIterator(null);
+    }
+
+    // Test for the methods subTreeStream, headTreeStream and tailTreeStream
+
+    @Test
+    public void subTreeStream_SingleCase() throws Exception {
+        assertArrayEquals(new Object[] { 40, 50, 70 },
+                theTree.subTreeStream(21, 100).toArray());
+        assertEquals(3, theTree.subTreeStream(21, 100).spliterator()
+                .getExactSizeIfKnown());
+    }
+
+    @Test
+    public void headTreeStream_SingleCase() throws Exception {
+        assertEquals(4, theTree.headTreeStream(50).count());
+    }
+
+    @Test
+    public void tailTreeStream_SingleCase() throws Exception {
+        assertEquals(3, theTree.tailTreeStream(50).count());
+    }
+
+    // Test for degenerate trees
+
+    /**
+     * Return a composed search tree storing the numbers from 0 up to the
+     * given number, in which each element is stored in the right subtree
+     * of the previous one.
+     */
+    private static ComposedSearchTree degenerateTree(int nbElements)
+            throws IllegalElementException {
+        SearchTree tree = new LeafSearchTree(nbElements - 1);
+        for (int i = nbElements - 2; i >= 0; i--)
+            tree = new ComposedSearchTree(i, EmptySearchTree.getPrototype(),
+                tree);
+        return (ComposedSearchTree) tree;
+    }
+
+    @Test
+    public void degenerateTree_Queries() throws Throwable {
+        final ComposedSearchTree tree = degenerateTree(DEGENERATE_DEPTH);
+        runWithSmallStack(new Runnable() {
+            public void run() {
+                assertTrue(tree.hasAsElement(DEGENERATE_DEPTH - 1));
+                assertFalse(tree.hasAsElement(DEGENERATE_DEPTH));
+                assertEquals(1, tree.getNbOccurrencesOf(DEGENERATE_DEPTH - 1));
+                assertEquals(0, tree.getNbOccurrencesOf(-1));
+                assertFalse(tree.hasAsSubTree(new LeafSearchTree(0)));
+            }
+        });
+    }
+
+    @Test
+    public void degenerateTree_AddAndRemove() throws Throwable {
+        final ComposedSearchTree tree = degenerateTree(DEGENERATE_DEPTH);
+        runWithSmallStack(new Runnable() {
+            public void run() {
+                try {
+                    assertSame(tree, tree.addElement(DEGENERATE_DEPTH));
+                    assertEquals(DEGENERATE_DEPTH + 1, tree.getNbElements());
+                    assertSame(tree, tree.removeElement(DEGENERATE_DEPTH - 1));
+                    assertEquals(DEGENERATE_DEPTH, tree.getNbElements());
+                    assertFalse(tree.hasAsElement(DEGENERATE_DEPTH - 1));
+                    assertTrue(tree.hasAsElement(DEGENERATE_DEPTH));
+                } catch (IllegalElementException exc) {
+                    throw new AssertionError(exc);
+                }
+            }
+        });
+    }
+
+    @Test
+    public void degenerateTree_RemoveRootElement() throws Throwable {
+        final ComposedSearchTree tree = new ComposedSearchTree(DEGENERATE_DEPTH,
+            degenerateTree(DEGENERATE_DEPTH),
+            new LeafSearchTree(DEGENERATE_DEPTH + 1));
+        runWithSmallStack(new Runnable() {
+            public void run() {
+                try {
+                    NonEmptySearchTree resultTree =
+                        tree.removeElement(DEGENERATE_DEPTH);
+                    assertEquals(DEGENERATE_DEPTH + 1, resultTree.getNbElements());
+                    assertFalse(resultTree.hasAsElement(DEGENERATE_DEPTH));
+                    assertTrue(resultTree.hasAsElement(DEGENERATE_DEPTH - 1));
+                    assertTrue(resultTree.hasAsElement(DEGENERATE_DEPTH + 1));
+                    Iterator<Object> elements = resultTree.iterator();
+                    for (int i = 0; i < DEGENERATE_DEPTH; i++)
+                        assertEquals(i, elements.next());
+                    assertEquals(DEGENERATE_DEPTH + 1, elements.next());
+                    assertFalse(elements.hasNext());
+                } catch (IllegalElementException exc) {
+                    throw new AssertionError(exc);
+                }
+            }
+        });
+    }
+
 }
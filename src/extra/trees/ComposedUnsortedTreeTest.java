@@ -1,6 +1,7 @@
 package extra.trees;
 
 import static org.junit.Assert.*;
+import static extra.trees.DegenerateTrees.*;
 
 import org.junit.*;
 
@@ -222,4 +223,106 @@ public class ComposedUnsortedTreeTest {
         assertEquals(1, resultTree.getNbOccurrencesOf(theElement));
     }
 
+    // Test for degenerate trees
+
+    /**
+     * Return a composed unsorted tree storing the numbers from 0 up to the
+     * given number, in which the composed trees are chained through their
+     * right subtrees.
+     */
+    private static ComposedUnsortedTree degenerateTree(int nbElements) {
+        ComposedUnsortedTree tree = new ComposedUnsortedTree(nbElements - 2,
+            nbElements - 1);
+        for (int i = nbElements - 3; i >= 0; i--) {
+            ComposedUnsortedTree parentTree = new ComposedUnsortedTree(i, i);
+            parentTree.setLeftTree(EmptyUnsortedTree.getPrototype());
+            parentTree.setRightTree(tree);
+            tree = parentTree;
+        }
+        return tree;
+    }
+
+    @Test
+    public void degenerateTree_Queries() throws Throwable {
+        final ComposedUnsortedTree tree = degenerateTree(DEGENERATE_DEPTH);
+        runWithSmallStack(new Runnable() {
+            public void run() {
+                assertEquals(DEGENERATE_DEPTH, tree.getNbElements());
+                assertTrue(tree.hasAsElement(DEGENERATE_DEPTH - 1));
+                assertFalse(tree.hasAsElement(DEGENERATE_DEPTH));
+                assertEquals(1, tree.getNbOccurrencesOf(DEGENERATE_DEPTH - 1));
+                assertFalse(tree.hasAsSubTree(new LeafUnsortedTree(0)));
+            }
+        });
+    }
+
+    @Test
+    public void degenerateTree_Clone() throws Throwable {
+        final ComposedUnsortedTree tree = degenerateTree(DEGENERATE_DEPTH);
+        runWithSmallStack(new Runnable() {
+            public void run() {
+                ComposedUnsortedTree clone = tree.clone();
+                assertEquals(DEGENERATE_DEPTH, clone.getNbElements());
+                assertEquals(1, clone.getNbOccurrencesOf(DEGENERATE_DEPTH - 1));
+                try {
+                    clone.removeElement(DEGENERATE_DEPTH - 1);
+                } catch (IllegalElementException exc) {
+                    fail();
+                }
+                assertEquals(0, clone.getNbOccurrencesOf(DEGENERATE_DEPTH - 1));
+                assertEquals(1, tree.getNbOccurrencesOf(DEGENERATE_DEPTH - 1));
+                assertEquals(DEGENERATE_DEPTH, tree.getNbElements());
+            }
+        });
+    }
+
+    @Test
+    public void degenerateTree_AddAndRemove() throws Throwable {
+        final ComposedUnsortedTree tree = degenerateTree(DEGENERATE_DEPTH);
+        PlacementStrategy defaultStrategy =
+            ComposedBinaryTree.getDefaultPlacementStrategy();
+        ComposedBinaryTree.setDefaultPlacementStrategy(new PlacementStrategy() {
+            public boolean placeLeft(BinaryTree left, BinaryTree right,
+                    Object element) {
+                return false;
+            }
+        });
+        try {
+            runWithSmallStack(new Runnable() {
+                public void run() {
+                    try {
+                        assertSame(tree, tree.addElement(-1));
+                        assertEquals(DEGENERATE_DEPTH + 1, tree.getNbElements());
+                        assertSame(tree, tree.removeElement(DEGENERATE_DEPTH - 1));
+                        assertSame(tree, tree.removeElement(-1));
+                        assertEquals(DEGENERATE_DEPTH - 1, tree.getNbElements());
+                        assertFalse(tree.hasAsElement(DEGENERATE_DEPTH - 1));
+                        NonEmptyUnsortedTree resultTree = tree.removeElement(0);
+                        assertEquals(DEGENERATE_DEPTH - 2, resultTree.getNbElements());
+                        assertFalse(resultTree.hasAsElement(0));
+                    } catch (IllegalElementException exc) {
+                        throw new AssertionError(exc);
+                    }
+                }
+            });
+        } finally {
+            ComposedBinaryTree.setDefaultPlacementStrategy(defaultStrategy);
+        }
+    }
+
+    @Test
+    public void degenerateTree_RemoveNonExistingElement() throws Throwable {
+        final ComposedUnsortedTree tree = degenerateTree(DEGENERATE_DEPTH);
+        runWithSmallStack(new Runnable() {
+            public void run() {
+                try {
+                    tree.removeElement(DEGENERATE_DEPTH);
+                    fail();
+                } catch (IllegalElementException exc) {
+                    assertEquals(DEGENERATE_DEPTH, tree.getNbElements());
+                }
+            }
+        });
+    }
+
 }
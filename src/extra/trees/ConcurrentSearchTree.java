@@ -0,0 +1,305 @@
+package extra.trees;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+import extra.trees.exceptions.*;
+
+/**
+ * A class of search trees that can be shared by several threads.
+ *   Elements can be added to, removed from and looked up in a concurrent
+ *   search tree by several threads at the same time, without any external
+ *   synchronization. The elements are stored in a concurrent skip list,
+ *   mapping each element to its number of occurrences. Threads working on
+ *   different elements do not block each other, such that the throughput
+ *   grows with the number of cores.
+ *   In contrast to the search trees of the hierarchy of binary trees, a
+ *   concurrent search tree is changed in place, and always remains the
+ *   same tree. It does not implement the interface SearchTree, because
+ *   that interface reflects the emptiness of trees in the types of the
+ *   results of its methods, which cannot be guaranteed while other threads
+ *   may be adding and removing elements. A snapshot of a concurrent search
+ *   tree in the form of an ordinary search tree can be obtained at any
+ *   time.
+ *
+ * @invar   Each concurrent search tree only stores effective comparable
+ *          objects.
+ *        | for each element in this:
+ *        |   element instanceof Comparable
+ *
+ * @version  2.0
+ * @author   Eric Steegmans
+ */
+@SuppressWarnings("all")
+public class ConcurrentSearchTree implements Iterable<Object> {
+
+    /**
+     * Initialize this new concurrent search tree with given elements.
+     *
+     * @param   elements
+     *          The elements to be stored in this new concurrent search tree.
+     * @effect  Each of the given elements is added to this new concurrent
+     *          search tree.
+     *        | for each element in elements:
+     *        |   addElement(element)
+     */
+    public ConcurrentSearchTree(Object... elements)
+            throws IllegalElementException {
+        for (Object element : elements)
+            addElement(element);
+    }
+
+    /**
+     * Return the number of occurrences of the given element in this
+     * concurrent search tree.
+     *
+     * @return  Zero if the given element cannot be an element of this
+     *          concurrent search tree.
+     *        | if (! canHaveAsElement(element))
+     *        |   then result == 0
+     */
+    public int getNbOccurrencesOf(Object element) {
+        if (!(element instanceof Comparable))
+            return 0;
+        try {
+            Integer nbOccurrences = occurrences.get(element);
+            return (nbOccurrences == null) ? 0 : nbOccurrences;
+        }
+        catch (ClassCastException exc) {
+            // The given element is not comparable with the elements
+            // of this concurrent search tree.
+            return 0;
+        }
+    }
+
+    /**
+     * Check whether this concurrent search tree can have occurrences of the
+     * given element.
+     *
+     * @return  False if the given element is not an effective comparable.
+     *        | if (! (element instanceof Comparable))
+     *        |   then result == false
+     * @return  True if the given element is an effective comparable and this
+     *          concurrent search tree is empty.
+     * @note    Because other threads may change this concurrent search tree
+     *          at the same time, the result is only a hint. Methods adding
+     *          elements check their element again while adding it.
+     */
+    public boolean canHaveAsElement(Object element) {
+        if (!(element instanceof Comparable))
+            return false;
+        try {
+            Map.Entry<Object, Integer> firstEntry = occurrences.firstEntry();
+            if (firstEntry != null)
+                ((Comparable) element).compareTo(firstEntry.getKey());
+            return true;
+        }
+        catch (ClassCastException exc) {
+            return false;
+        }
+    }
+
+    /**
+     * Check whether the given element is stored in this concurrent
+     * search tree.
+     *
+     * @return  True if and only if the given element occurs at least once
+     *          in this concurrent search tree.
+     *        | result == (getNbOccurrencesOf(element) > 0)
+     */
+    public boolean hasAsElement(Object element) {
+        return getNbOccurrencesOf(element) > 0;
+    }
+
+    /**
+     * Return the total number of elements in this concurrent search tree.
+     *
+     * @return  The sum of the number of occurrences of all the elements
+     *          in this concurrent search tree.
+     *        | result ==
+     *        |   sum( { element in Object : true :
+     *        |       getNbOccurrencesOf(element) } )
+     * @note    If other threads are adding or removing elements at the same
+     *          time, the result is only an estimate.
+     */
+    public int getNbElements() {
+        return nbElements.intValue();
+    }
+
+    /**
+     * Check whether this concurrent search tree has no elements.
+     *
+     * @return  True if and only if no element is stored in this concurrent
+     *          search tree.
+     *        | result == (getNbElements() == 0)
+     */
+    public boolean isEmpty() {
+        return occurrences.isEmpty();
+    }
+
+    /**
+     * Add the given element to this concurrent search tree.
+     *
+     * @param   element
+     *          The element to be added.
+     * @post    The number of occurrences of the given element in this
+     *          concurrent search tree is incremented by 1.
+     *        | new.getNbOccurrencesOf(element) ==
+     *        |   getNbOccurrencesOf(element) + 1
+     * @throws  IllegalElementException
+     *          This concurrent search tree cannot have the given element
+     *          as one of its elements.
+     *        | ! canHaveAsElement(element)
+     */
+    public void addElement(Object element) throws IllegalElementException {
+        if (!(element instanceof Comparable))
+            throw new IllegalElementException(element, null);
+        try {
+            occurrences.merge(element, 1, Integer::sum);
+        }
+        catch (ClassCastException exc) {
+            throw new IllegalElementException(element, null);
+        }
+        nbElements.increment();
+    }
+
+    /**
+     * Remove one occurrence of the given element from this concurrent
+     * search tree.
+     *
+     * @param   element
+     *          The element to be removed.
+     * @post    The number of occurrences of the given element in this
+     *          concurrent search tree is decremented by 1.
+     *        | new.getNbOccurrencesOf(element) ==
+     *        |   getNbOccurrencesOf(element) - 1
+     * @throws  IllegalElementException
+     *          The given element is not stored in this concurrent search
+     *          tree.
+     *        | ! hasAsElement(element)
+     */
+    public void removeElement(Object element) throws IllegalElementException {
+        if (!(element instanceof Comparable))
+            throw new IllegalElementException(element, null);
+        try {
+            while (true) {
+                Integer nbOccurrences = occurrences.get(element);
+                if (nbOccurrences == null)
+                    throw new IllegalElementException(element, null);
+                // The number of occurrences is only changed if no other
+                // thread has changed it in the meantime; otherwise the
+                // removal is retried.
+                boolean removed = (nbOccurrences == 1) ?
+                    occurrences.remove(element, nbOccurrences) :
+                    occurrences.replace(element, nbOccurrences, nbOccurrences - 1);
+                if (removed)
+                    break;
+            }
+        }
+        catch (ClassCastException exc) {
+            throw new IllegalElementException(element, null);
+        }
+        nbElements.decrement();
+    }
+
+    /**
+     * Return an iterator returning all the elements in this concurrent
+     * search tree in ascending order.
+     *
+     * @note    The iterator never throws a concurrent modification exception.
+     *          It returns elements as they are stored in this concurrent
+     *          search tree at the time they are reached, and may or may not
+     *          reflect changes made after the iterator was created.
+     */
+    @Override
+    public Iterator<Object> iterator() {
+        final Iterator<Map.Entry<Object, Integer>> entries =
+            occurrences.entrySet().iterator();
+        return new Iterator<Object>() {
+
+            public boolean hasNext() {
+                return (nbRemaining > 0) || entries.hasNext();
+            }
+
+            public Object next() throws NoSuchElementException {
+                if (nbRemaining == 0) {
+                    Map.Entry<Object, Integer> entry = entries.next();
+                    currentElement = entry.getKey();
+                    nbRemaining = entry.getValue();
+                }
+                nbRemaining--;
+                return currentElement;
+            }
+
+            private Object currentElement;
+
+            private int nbRemaining = 0;
+
+        };
+    }
+
+    /**
+     * Return a stream that delivers all the elements of this concurrent
+     * search tree in ascending order.
+     *
+     * @return  An effective stream that delivers the same elements in the
+     *          same order as the iterator for this concurrent search tree.
+     */
+    public Stream<Object> stream() {
+        return occurrences.entrySet().stream().flatMap(
+            entry -> Collections.nCopies(entry.getValue(), entry.getKey()).stream());
+    }
+
+    /**
+     * Return a possibly parallel stream that delivers all the elements of
+     * this concurrent search tree.
+     *
+     * @return  An effective stream that delivers all the elements of this
+     *          concurrent search tree, and that can be processed in parallel.
+     */
+    public Stream<Object> parallelStream() {
+        return occurrences.entrySet().parallelStream().flatMap(
+            entry -> Collections.nCopies(entry.getValue(), entry.getKey()).stream());
+    }
+
+    /**
+     * Return a search tree storing the elements of this concurrent search
+     * tree.
+     *
+     * @return  A balanced search tree storing the elements returned by the
+     *          iterator for this concurrent search tree.
+     *        | result.getNbElements() == getNbElements()
+     * @note    The resulting search tree is independent of this concurrent
+     *          search tree. It is built in linear time from the elements in
+     *          ascending order.
+     */
+    public SearchTree snapshot() {
+        List<Object> elements = new ArrayList<Object>();
+        for (Object element : this)
+            elements.add(element);
+        return BalancedSearchTree.fromSorted(elements.iterator(), elements.size());
+    }
+
+    /**
+     * Variable mapping each element of this concurrent search tree to its
+     * number of occurrences.
+     *
+     * @invar   Each element is mapped to a positive number of occurrences.
+     *        | for each entry in occurrences.entrySet():
+     *        |   entry.getValue() > 0
+     */
+    private final ConcurrentSkipListMap<Object, Integer> occurrences =
+        new ConcurrentSkipListMap<Object, Integer>();
+
+    /**
+     * Variable registering the total number of elements in this concurrent
+     * search tree.
+     *
+     * @note    A striped counter is used, such that threads adding and
+     *          removing elements do not compete for a single counter.
+     */
+    private final LongAdder nbElements = new LongAdder();
+
+}
@@ -0,0 +1,169 @@
+package extra.trees;
+
+import static org.junit.Assert.*;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import org.junit.*;
+
+import extra.trees.exceptions.IllegalElementException;
+
+public class ConcurrentSearchTreeTest {
+
+    private ConcurrentSearchTree theTree;
+
+    @Before
+    public void setUp() throws Exception {
+        theTree = new ConcurrentSearchTree(20, 50, 40, 20, 70, 20, 100);
+    }
+
+    // Test for the constructor
+
+    @Test
+    public void constructor_LegalCase() {
+        assertEquals(7, theTree.getNbElements());
+        assertEquals(3, theTree.getNbOccurrencesOf(20));
+    }
+
+    @Test
+    public void constructor_NoElements() {
+        assertTrue(new ConcurrentSearchTree().isEmpty());
+    }
+
+    @Test(expected = IllegalElementException.class)
+    public void constructor_IncompatibleElements() throws Exception {
+        new ConcurrentSearchTree(20, "abc");
+    }
+
+    // Test for the method canHaveAsElement
+
+    @Test
+    public void canHaveAsElement_SeveralCases() {
+        assertTrue(theTree.canHaveAsElement(5));
+        assertFalse(theTree.canHaveAsElement("abc"));
+        assertFalse(theTree.canHaveAsElement(null));
+    }
+
+    // Test for the method hasAsElement
+
+    @Test
+    public void hasAsElement_SeveralCases() {
+        assertTrue(theTree.hasAsElement(70));
+        assertFalse(theTree.hasAsElement(71));
+        assertFalse(theTree.hasAsElement("abc"));
+        assertFalse(theTree.hasAsElement(null));
+    }
+
+    // Test for the method addElement
+
+    @Test
+    public void addElement_LegalCase() {
+        theTree.addElement(40);
+        assertEquals(2, theTree.getNbOccurrencesOf(40));
+        assertEquals(8, theTree.getNbElements());
+    }
+
+    @Test(expected = IllegalElementException.class)
+    public void addElement_NonEffectiveElement() {
+        theTree.addElement(null);
+    }
+
+    // Test for the method removeElement
+
+    @Test
+    public void removeElement_SeveralOccurrences() {
+        theTree.removeElement(20);
+        assertEquals(2, theTree.getNbOccurrencesOf(20));
+        assertEquals(6, theTree.getNbElements());
+    }
+
+    @Test
+    public void removeElement_LastOccurrence() {
+        theTree.removeElement(50);
+        assertFalse(theTree.hasAsElement(50));
+    }
+
+    @Test(expected = IllegalElementException.class)
+    public void removeElement_NonExistingElement() {
+        theTree.removeElement(33);
+    }
+
+    // Test for the method iterator
+
+    @Test
+    public void iterator_AscendingOrder() {
+        Iterator<Object> theIterator = theTree.iterator();
+        for (int element : new int[] { 20, 20, 20, 40, 50, 70, 100 })
+            assertEquals(element, theIterator.next());
+        assertFalse(theIterator.hasNext());
+    }
+
+    // Test for the methods stream and parallelStream
+
+    @Test
+    public void stream_SingleCase() {
+        assertArrayEquals(new Object[] { 20, 20, 20, 40, 50, 70, 100 },
+            theTree.stream().toArray());
+        assertEquals(320, theTree.parallelStream().mapToInt(x -> (Integer) x).sum());
+    }
+
+    // Test for the method snapshot
+
+    @Test
+    public void snapshot_IndependentOfTree() {
+        SearchTree snapshot = theTree.snapshot();
+        theTree.addElement(45);
+        assertEquals(7, snapshot.getNbElements());
+        assertEquals(3, snapshot.getNbOccurrencesOf(20));
+        assertFalse(snapshot.hasAsElement(45));
+    }
+
+    // Stress test for concurrent changes
+
+    @Test
+    public void concurrentChanges_StressTest() throws Exception {
+        final ConcurrentSearchTree sharedTree = new ConcurrentSearchTree();
+        final int nbThreads = 8;
+        final int nbElements = 2000;
+        ExecutorService executor = Executors.newFixedThreadPool(nbThreads);
+        final CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> results = new ArrayList<Future<?>>();
+        for (int t = 0; t < nbThreads; t++) {
+            final int thread = t;
+            results.add(executor.submit(new Callable<Void>() {
+                public Void call() throws Exception {
+                    start.await();
+                    // All threads add all elements twice, and remove each
+                    // element once; some elements are removed while other
+                    // threads are still adding them.
+                    for (int i = 0; i < nbElements; i++) {
+                        sharedTree.addElement(i);
+                        sharedTree.addElement((i + thread * 97) % nbElements);
+                        assertTrue(sharedTree.hasAsElement(i));
+                    }
+                    for (int i = 0; i < nbElements; i++)
+                        sharedTree.removeElement((i * 7 + thread) % nbElements);
+                    return null;
+                }
+            }));
+        }
+        start.countDown();
+        for (Future<?> result : results)
+            result.get(60, TimeUnit.SECONDS);
+        executor.shutdown();
+        assertEquals(nbThreads * nbElements, sharedTree.getNbElements());
+        for (int i = 0; i < nbElements; i++)
+            assertEquals(nbThreads, sharedTree.getNbOccurrencesOf(i));
+        Object previous = null;
+        int count = 0;
+        for (Object element : sharedTree) {
+            if (previous != null)
+                assertTrue(((Integer) previous) <= (Integer) element);
+            previous = element;
+            count++;
+        }
+        assertEquals(nbThreads * nbElements, count);
+    }
+
+}
@@ -0,0 +1,517 @@
+package extra.trees;
+
+import java.util.*;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import be.kuleuven.cs.som.annotate.*;
+import extra.trees.exceptions.*;
+
+/**
+ * A class of search trees storing each distinct element only once,
+ * together with its number of occurrences.
+ *   Composed search trees store each occurrence of an element in a node
+ *   of its own, such that counting the occurrences of an element takes
+ *   time proportional to its number of occurrences. A counted search tree
+ *   has a single node for each distinct element, registering how many
+ *   times that element has been added. Adding and removing an occurrence
+ *   of an element that is already stored only changes that number, and
+ *   counting the occurrences of an element takes logarithmic time in the
+ *   number of distinct elements, whatever the number of occurrences.
+ *   Just like balanced search trees, counted search trees rebalance
+ *   themselves after each addition and removal of a node (AVL trees).
+ *   Counted search trees are changed in place. They do not belong to the
+ *   hierarchy of binary trees, because the nodes of binary trees store a
+ *   single occurrence of their element.
+ *
+ * @invar   Each counted search tree only stores effective comparable
+ *          objects.
+ *        | for each element in this:
+ *        |   element instanceof Comparable
+ * @invar   The heights of the subtrees of each node in a counted search
+ *          tree differ by at most one.
+ * @note    Elements that are equal according to their natural ordering are
+ *          counted as occurrences of the same element. The element added
+ *          first is the one returned by the iterator.
+ *
+ * @version  2.0
+ * @author   Eric Steegmans
+ */
+@SuppressWarnings("all")
+public class CountedSearchTree implements Iterable<Object> {
+
+    /**
+     * Initialize this new counted search tree with given elements.
+     *
+     * @param   elements
+     *          The elements to be stored in this new counted search tree.
+     * @effect  Each of the given elements is added to this new counted
+     *          search tree.
+     *        | for each element in elements:
+     *        |   addElement(element)
+     */
+    public CountedSearchTree(Object... elements)
+            throws IllegalElementException {
+        for (Object element : elements)
+            addElement(element);
+    }
+
+    /**
+     * Return the number of occurrences of the given element in this
+     * counted search tree.
+     *
+     * @return  Zero if this counted search tree cannot have the given
+     *          element as one of its elements.
+     *        | if (! canHaveAsElement(element))
+     *        |   then result == 0
+     * @note    Only the nodes on the path towards the node of the given
+     *          element are visited.
+     */
+    @Basic
+    public int getNbOccurrencesOf(Object element) {
+        if (!(element instanceof Comparable))
+            return 0;
+        try {
+            Node node = getNodeOf(element);
+            return (node == null) ? 0 : node.nbOccurrences;
+        }
+        catch (ClassCastException exc) {
+            // The given element is not comparable with the elements
+            // of this counted search tree.
+            return 0;
+        }
+    }
+
+    /**
+     * Check whether this counted search tree can have occurrences of the
+     * given element.
+     *
+     * @return  False if the given element is not an effective comparable.
+     *        | if (! (element instanceof Comparable))
+     *        |   then result == false
+     * @return  True if the given element is an effective comparable and this
+     *          counted search tree is empty.
+     *        | if ( (element instanceof Comparable) && isEmpty() )
+     *        |   then result == true
+     */
+    public boolean canHaveAsElement(Object element) {
+        if (!(element instanceof Comparable))
+            return false;
+        if (root == null)
+            return true;
+        try {
+            ((Comparable) root.element).compareTo(element);
+            return true;
+        }
+        catch (ClassCastException exc) {
+            return false;
+        }
+    }
+
+    /**
+     * Check whether the given element is stored in this counted search tree.
+     *
+     * @return  True if and only if the given element occurs at least once
+     *          in this counted search tree.
+     *        | result == (getNbOccurrencesOf(element) > 0)
+     */
+    public boolean hasAsElement(Object element) {
+        return getNbOccurrencesOf(element) > 0;
+    }
+
+    /**
+     * Return the total number of elements in this counted search tree.
+     *
+     * @return  The sum of the number of occurrences of all the elements
+     *          in this counted search tree.
+     *        | result ==
+     *        |   sum( { element in Object : true :
+     *        |       getNbOccurrencesOf(element) } )
+     */
+    public int getNbElements() {
+        return nbElements;
+    }
+
+    /**
+     * Return the number of distinct elements in this counted search tree.
+     *
+     * @return  The number of elements that occur at least once in this
+     *          counted search tree.
+     *        | result ==
+     *        |   card( { element in Object : hasAsElement(element) } )
+     */
+    public int getNbDistinctElements() {
+        return nbDistinctElements;
+    }
+
+    /**
+     * Check whether this counted search tree has no elements.
+     *
+     * @return  True if and only if this counted search tree has no elements.
+     *        | result == (getNbElements() == 0)
+     */
+    public boolean isEmpty() {
+        return root == null;
+    }
+
+    /**
+     * Return the height of this counted search tree.
+     *
+     * @return  Zero if this counted search tree is empty; otherwise the
+     *          number of nodes on the longest path from the root to a leaf.
+     * @note    The height only depends on the number of distinct elements.
+     */
+    public int getHeight() {
+        return getHeightOf(root);
+    }
+
+    /**
+     * Add the given element to this counted search tree.
+     *
+     * @param   element
+     *          The element to be added.
+     * @effect  One occurrence of the given element is added to this counted
+     *          search tree.
+     *        | addElement(element,1)
+     */
+    public void addElement(Object element) throws IllegalElementException {
+        addElement(element, 1);
+    }
+
+    /**
+     * Add the given number of occurrences of the given element to this
+     * counted search tree.
+     *
+     * @param   element
+     *          The element to be added.
+     * @param   nbOccurrences
+     *          The number of occurrences to be added.
+     * @post    The number of occurrences of the given element in this
+     *          counted search tree is incremented by the given number.
+     *        | new.getNbOccurrencesOf(element) ==
+     *        |   getNbOccurrencesOf(element) + nbOccurrences
+     * @throws  IllegalElementException
+     *          This counted search tree cannot have the given element as
+     *          one of its elements.
+     *        | ! canHaveAsElement(element)
+     * @throws  IllegalArgumentException
+     *          The given number of occurrences is not positive.
+     *        | nbOccurrences <= 0
+     */
+    public void addElement(Object element, int nbOccurrences)
+            throws IllegalElementException, IllegalArgumentException {
+        if (nbOccurrences <= 0)
+            throw new IllegalArgumentException();
+        if (!(element instanceof Comparable))
+            throw new IllegalElementException(element, null);
+        try {
+            root = add(root, element, nbOccurrences);
+        }
+        catch (ClassCastException exc) {
+            // No node has been changed yet, because elements are compared
+            // while descending towards the position of the element.
+            throw new IllegalElementException(element, null);
+        }
+        nbElements += nbOccurrences;
+        modCount++;
+    }
+
+    /**
+     * Remove one occurrence of the given element from this counted search
+     * tree.
+     *
+     * @param   element
+     *          The element to be removed.
+     * @post    The number of occurrences of the given element in this
+     *          counted search tree is decremented by 1.
+     *        | new.getNbOccurrencesOf(element) ==
+     *        |   getNbOccurrencesOf(element) - 1
+     * @throws  IllegalElementException
+     *          The given element is not stored in this counted search tree.
+     *        | ! hasAsElement(element)
+     * @note    The node of the given element is only removed when its last
+     *          occurrence is removed.
+     */
+    public void removeElement(Object element) throws IllegalElementException {
+        if (!hasAsElement(element))
+            throw new IllegalElementException(element, null);
+        root = remove(root, element);
+        nbElements--;
+        modCount++;
+    }
+
+    /**
+     * Return an iterator returning all the elements in this counted search
+     * tree in ascending order.
+     *
+     * @note    Each element is returned as many times as it occurs in this
+     *          counted search tree. The iterator fails fast if this counted
+     *          search tree is changed while iterating.
+     */
+    @Override
+    public Iterator<Object> iterator() {
+        return new Iterator<Object>() {
+
+            public boolean hasNext() {
+                return (nbRemaining > 0) || (!pendingNodes.isEmpty());
+            }
+
+            public Object next() throws NoSuchElementException,
+                    ConcurrentModificationException {
+                if (modCount != expectedModCount)
+                    throw new ConcurrentModificationException();
+                if (!hasNext())
+                    throw new NoSuchElementException();
+                if (nbRemaining == 0) {
+                    currentNode = pendingNodes.pop();
+                    nbRemaining = currentNode.nbOccurrences;
+                    pushLeftSpine(currentNode.right);
+                }
+                nbRemaining--;
+                return currentNode.element;
+            }
+
+            private void pushLeftSpine(Node node) {
+                while (node != null) {
+                    pendingNodes.push(node);
+                    node = node.left;
+                }
+            }
+
+            private final Deque<Node> pendingNodes = new ArrayDeque<Node>();
+
+            private Node currentNode;
+
+            private int nbRemaining = 0;
+
+            private final int expectedModCount = modCount;
+
+            {
+                pushLeftSpine(root);
+            }
+
+        };
+    }
+
+    /**
+     * Return a stream that delivers all the elements of this counted search
+     * tree in ascending order.
+     *
+     * @return  An effective stream that delivers the same elements in the
+     *          same order as the iterator for this counted search tree.
+     */
+    public Stream<Object> stream() {
+        return StreamSupport.stream(Spliterators.spliterator(iterator(),
+            getNbElements(), Spliterator.ORDERED | Spliterator.SORTED
+                | Spliterator.NONNULL), false);
+    }
+
+    /**
+     * Return a search tree storing the elements of this counted search tree.
+     *
+     * @return  A balanced search tree storing the elements returned by the
+     *          iterator for this counted search tree.
+     *        | result.getNbElements() == getNbElements()
+     * @note    The resulting search tree has a node for each occurrence of
+     *          each element. It is built in linear time from the elements
+     *          in ascending order.
+     */
+    public SearchTree snapshot() {
+        return BalancedSearchTree.fromSorted(iterator(), getNbElements());
+    }
+
+    /**
+     * Return the node storing the given element, or null if the given
+     * element is not stored in this counted search tree.
+     *
+     * @throws  ClassCastException
+     *          The given element is not comparable with the elements
+     *          of this counted search tree.
+     */
+    private Node getNodeOf(Object element) throws ClassCastException {
+        Node node = root;
+        while (node != null) {
+            int comparison = ((Comparable) node.element).compareTo(element);
+            if (comparison > 0)
+                node = node.left;
+            else if (comparison < 0)
+                node = node.right;
+            else
+                return node;
+        }
+        return null;
+    }
+
+    /**
+     * Add the given number of occurrences of the given element to the
+     * subtree rooted at the given node, and return the root of the
+     * resulting subtree.
+     */
+    private Node add(Node node, Object element, int nbOccurrences) {
+        if (node == null) {
+            nbDistinctElements++;
+            return new Node(element, nbOccurrences);
+        }
+        int comparison = ((Comparable) node.element).compareTo(element);
+        if (comparison > 0)
+            node.left = add(node.left, element, nbOccurrences);
+        else if (comparison < 0)
+            node.right = add(node.right, element, nbOccurrences);
+        else {
+            node.nbOccurrences += nbOccurrences;
+            return node;
+        }
+        return rebalance(node);
+    }
+
+    /**
+     * Remove one occurrence of the given element from the subtree rooted
+     * at the given node, and return the root of the resulting subtree.
+     *
+     * @pre     The given element is stored in the given subtree.
+     */
+    private Node remove(Node node, Object element) {
+        int comparison = ((Comparable) node.element).compareTo(element);
+        if (comparison > 0)
+            node.left = remove(node.left, element);
+        else if (comparison < 0)
+            node.right = remove(node.right, element);
+        else if (node.nbOccurrences > 1) {
+            node.nbOccurrences--;
+            return node;
+        }
+        else {
+            nbDistinctElements--;
+            if ((node.left == null) || (node.right == null))
+                return (node.left != null) ? node.left : node.right;
+            // Replace the element by the smallest element in the right
+            // subtree, and remove the node of that element.
+            Node successor = node.right;
+            while (successor.left != null)
+                successor = successor.left;
+            node.element = successor.element;
+            node.nbOccurrences = successor.nbOccurrences;
+            node.right = removeSmallest(node.right);
+        }
+        return rebalance(node);
+    }
+
+    /**
+     * Remove the node with the smallest element from the subtree rooted at
+     * the given node, and return the root of the resulting subtree.
+     */
+    private Node removeSmallest(Node node) {
+        if (node.left == null)
+            return node.right;
+        node.left = removeSmallest(node.left);
+        return rebalance(node);
+    }
+
+    /**
+     * Restore the balance of the subtree rooted at the given node, and
+     * return the root of the resulting subtree.
+     */
+    private static Node rebalance(Node node) {
+        int balance = getHeightOf(node.left) - getHeightOf(node.right);
+        if (balance > 1) {
+            if (getHeightOf(node.left.left) < getHeightOf(node.left.right))
+                node.left = rotateLeft(node.left);
+            return rotateRight(node);
+        }
+        if (balance < -1) {
+            if (getHeightOf(node.right.right) < getHeightOf(node.right.left))
+                node.right = rotateRight(node.right);
+            return rotateLeft(node);
+        }
+        updateHeight(node);
+        return node;
+    }
+
+    /**
+     * Rotate the subtree rooted at the given node to the left, and return
+     * the root of the resulting subtree.
+     */
+    private static Node rotateLeft(Node node) {
+        Node rightTree = node.right;
+        node.right = rightTree.left;
+        rightTree.left = node;
+        updateHeight(node);
+        updateHeight(rightTree);
+        return rightTree;
+    }
+
+    /**
+     * Rotate the subtree rooted at the given node to the right, and return
+     * the root of the resulting subtree.
+     */
+    private static Node rotateRight(Node node) {
+        Node leftTree = node.left;
+        node.left = leftTree.right;
+        leftTree.right = node;
+        updateHeight(node);
+        updateHeight(leftTree);
+        return leftTree;
+    }
+
+    /**
+     * Return the height of the subtree rooted at the given node.
+     */
+    private static int getHeightOf(Node node) {
+        return (node == null) ? 0 : node.height;
+    }
+
+    /**
+     * Recompute the height of the given node from the heights of its
+     * subtrees.
+     */
+    private static void updateHeight(Node node) {
+        node.height = 1 + Math.max(getHeightOf(node.left),
+            getHeightOf(node.right));
+    }
+
+    /**
+     * A class of nodes in counted search trees.
+     */
+    private static class Node {
+
+        private Node(Object element, int nbOccurrences) {
+            this.element = element;
+            this.nbOccurrences = nbOccurrences;
+        }
+
+        private Object element;
+
+        private int nbOccurrences;
+
+        private Node left;
+
+        private Node right;
+
+        private int height = 1;
+
+    }
+
+    /**
+     * Variable referencing the node at the root of this counted search tree.
+     */
+    private Node root = null;
+
+    /**
+     * Variable registering the total number of elements in this counted
+     * search tree.
+     */
+    private int nbElements = 0;
+
+    /**
+     * Variable registering the number of distinct elements in this counted
+     * search tree.
+     */
+    private int nbDistinctElements = 0;
+
+    /**
+     * Variable registering the number of changes to this counted search
+     * tree.
+     */
+    private int modCount = 0;
+
+}
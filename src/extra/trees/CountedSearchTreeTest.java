@@ -0,0 +1,159 @@
+package extra.trees;
+
+import static org.junit.Assert.*;
+
+import java.util.*;
+
+import org.junit.*;
+
+import extra.trees.exceptions.IllegalElementException;
+
+public class CountedSearchTreeTest {
+
+    private CountedSearchTree theTree;
+
+    @Before
+    public void setUp() throws Exception {
+        theTree = new CountedSearchTree(20, 50, 40, 20, 70, 20, 100);
+    }
+
+    private static List<Object> elementsOf(CountedSearchTree tree) {
+        List<Object> elements = new ArrayList<Object>();
+        for (Object element : tree)
+            elements.add(element);
+        return elements;
+    }
+
+    // Test for the constructor
+
+    @Test
+    public void constructor_LegalCase() {
+        assertEquals(7, theTree.getNbElements());
+        assertEquals(5, theTree.getNbDistinctElements());
+        assertEquals(3, theTree.getNbOccurrencesOf(20));
+        assertEquals(1, theTree.getNbOccurrencesOf(100));
+    }
+
+    @Test
+    public void constructor_NoElements() throws Exception {
+        CountedSearchTree newTree = new CountedSearchTree();
+        assertTrue(newTree.isEmpty());
+        assertEquals(0, newTree.getHeight());
+        assertFalse(newTree.iterator().hasNext());
+    }
+
+    @Test(expected = IllegalElementException.class)
+    public void constructor_IncompatibleElements() throws Exception {
+        new CountedSearchTree(20, "abc");
+    }
+
+    // Test for the method canHaveAsElement
+
+    @Test
+    public void canHaveAsElement_SeveralCases() {
+        assertTrue(theTree.canHaveAsElement(33));
+        assertFalse(theTree.canHaveAsElement("abc"));
+        assertFalse(theTree.canHaveAsElement(null));
+    }
+
+    // Test for the methods hasAsElement and getNbOccurrencesOf
+
+    @Test
+    public void hasAsElement_SeveralCases() {
+        assertTrue(theTree.hasAsElement(40));
+        assertFalse(theTree.hasAsElement(41));
+        assertFalse(theTree.hasAsElement("abc"));
+        assertEquals(0, theTree.getNbOccurrencesOf(null));
+    }
+
+    // Test for the method addElement
+
+    @Test
+    public void addElement_ManyDuplicates() throws Exception {
+        for (int i = 0; i < 100000; i++)
+            theTree.addElement(i % 10);
+        assertEquals(100007, theTree.getNbElements());
+        assertEquals(15, theTree.getNbDistinctElements());
+        assertEquals(10000, theTree.getNbOccurrencesOf(7));
+        assertTrue(theTree.getHeight() <= 5);
+    }
+
+    @Test
+    public void addElement_SeveralOccurrences() throws Exception {
+        theTree.addElement(40, 1000000);
+        assertEquals(1000001, theTree.getNbOccurrencesOf(40));
+        assertEquals(1000007, theTree.getNbElements());
+        assertEquals(5, theTree.getNbDistinctElements());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void addElement_NonPositiveNbOccurrences() throws Exception {
+        theTree.addElement(40, 0);
+    }
+
+    @Test
+    public void addElement_IllegalElement() {
+        try {
+            theTree.addElement("abc");
+            fail();
+        }
+        catch (IllegalElementException exc) {
+            assertEquals(7, theTree.getNbElements());
+            assertEquals(5, theTree.getNbDistinctElements());
+        }
+    }
+
+    // Test for the method removeElement
+
+    @Test
+    public void removeElement_SeveralOccurrences() throws Exception {
+        theTree.removeElement(20);
+        assertEquals(2, theTree.getNbOccurrencesOf(20));
+        assertEquals(6, theTree.getNbElements());
+        assertEquals(5, theTree.getNbDistinctElements());
+    }
+
+    @Test
+    public void removeElement_LastOccurrences() throws Exception {
+        theTree.removeElement(50);
+        theTree.removeElement(40);
+        assertEquals(Arrays.asList(20, 20, 20, 70, 100), elementsOf(theTree));
+        assertEquals(3, theTree.getNbDistinctElements());
+    }
+
+    @Test(expected = IllegalElementException.class)
+    public void removeElement_NonExistingElement() throws Exception {
+        theTree.removeElement(41);
+    }
+
+    // Test for the iterator
+
+    @Test
+    public void iterator_RepeatsOccurrences() {
+        assertEquals(Arrays.asList(20, 20, 20, 40, 50, 70, 100),
+            elementsOf(theTree));
+    }
+
+    @Test(expected = ConcurrentModificationException.class)
+    public void iterator_FailsFast() throws Exception {
+        Iterator<Object> theIterator = theTree.iterator();
+        theIterator.next();
+        theTree.addElement(20);
+        theIterator.next();
+    }
+
+    // Test for the methods stream and snapshot
+
+    @Test
+    public void stream_SingleCase() {
+        assertEquals(320L, theTree.stream().mapToLong(x -> (Integer) x).sum());
+    }
+
+    @Test
+    public void snapshot_SingleCase() {
+        SearchTree snapshot = theTree.snapshot();
+        assertEquals(7, snapshot.getNbElements());
+        assertEquals(3, snapshot.getNbOccurrencesOf(20));
+    }
+
+}
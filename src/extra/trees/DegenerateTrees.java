@@ -0,0 +1,42 @@
+package extra.trees;
+
+/**
+ * A class of helpers for testing the methods of binary trees on degenerate
+ * trees, whose depth is proportional to their number of elements.
+ *
+ * @version  2.0
+ * @author   Eric Steegmans
+ */
+final class DegenerateTrees {
+
+    /**
+     * Constant reflecting the number of elements of the degenerate trees
+     * used in tests.
+     */
+    static final int DEGENERATE_DEPTH = 2000;
+
+    /**
+     * Run the given test by a thread with a stack that is far too small
+     * to descend recursively through a degenerate tree.
+     */
+    static void runWithSmallStack(final Runnable test) throws Throwable {
+        final Throwable[] failure = new Throwable[1];
+        Thread thread = new Thread(null, new Runnable() {
+            public void run() {
+                try {
+                    test.run();
+                } catch (Throwable exc) {
+                    failure[0] = exc;
+                }
+            }
+        }, "small stack", 64 * 1024);
+        thread.start();
+        thread.join();
+        if (failure[0] != null)
+            throw failure[0];
+    }
+
+    private DegenerateTrees() {
+    }
+
+}
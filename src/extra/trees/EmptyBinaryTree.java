@@ -85,6 +85,18 @@ public abstract class EmptyBinaryTree implements BinaryTree {
         return true;
     }
 
+    /**
+     * Return a hash code for the elements of this empty binary tree.
+     *
+     * @return Always 0.
+     *       | result == 0
+     */
+    @Raw
+    @Override
+    public final long getContentHash() {
+        return 0;
+    }
+
     /**
      * Add the given element to this empty binary tree.
      */
@@ -137,6 +149,30 @@ public abstract class EmptyBinaryTree implements BinaryTree {
         };
     }
 
+    /**
+     * Check whether this empty binary tree has the same elements as the
+     * given object.
+     *
+     * @return True if and only if the given object is an empty binary tree.
+     *       | result ==
+     *       |   (other instanceof BinaryTree) && ((BinaryTree)other).isEmpty()
+     */
+    @Override
+    public boolean equals(Object other) {
+        return (other instanceof BinaryTree) && ((BinaryTree) other).isEmpty();
+    }
+
+    /**
+     * Return the hash code of this empty binary tree.
+     *
+     * @return Always 0.
+     *       | result == 0
+     */
+    @Override
+    public int hashCode() {
+        return 0;
+    }
+
     /**
      * Check whether this empty binary tree has the given tree as a direct
      * or indirect subtree.
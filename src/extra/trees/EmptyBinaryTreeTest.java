@@ -92,6 +92,22 @@ public class EmptyBinaryTreeTest {
         assertFalse(theIterator.hasNext());
     }
 
+    // Test for the methods getContentHash, equals and hashCode
+
+    @Test
+    public void getContentHash_SingleCase() {
+        assertEquals(0, theTree.getContentHash());
+    }
+
+    @Test
+    public void equals_SeveralCases() throws Exception {
+        assertEquals(theTree, EmptySearchTree.getPrototype());
+        assertEquals(theTree.hashCode(), EmptySearchTree.getPrototype().hashCode());
+        assertNotEquals(theTree, new LeafUnsortedTree(5));
+        assertNotEquals(theTree, null);
+        assertNotEquals(theTree, "abc");
+    }
+
     // Test for the method hasAsSubTree
 
     @Test
@@ -80,4 +80,20 @@ public class EmptySearchTreeTest {
         theTree.removeElement(5);
     }
 
+    // Test for the methods floor and ceiling
+
+    @Test
+    public void floorAndCeiling_SingleCase() throws Exception {
+        assertNull(theTree.floor(10));
+        assertNull(theTree.ceiling(10));
+    }
+
+    // Test for the method subTreeIterator
+
+    @Test
+    public void subTreeIterator_SingleCase() throws Exception {
+        assertFalse(theTree.subTreeIterator(10, 20).hasNext());
+        assertEquals(0, theTree.headTreeStream(20).count());
+    }
+
 }
@@ -0,0 +1,315 @@
+package extra.trees;
+
+import java.util.*;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import be.kuleuven.cs.som.annotate.*;
+
+/**
+ * A class of immutable search trees storing their elements in a single
+ * array.
+ *   Looking up an element in a composed search tree follows references
+ *   from one node object to the next, and each of these nodes may be
+ *   stored anywhere on the heap. A frozen search tree stores the elements
+ *   of a search tree in an array, laid out level by level as in a complete
+ *   binary tree (Eytzinger layout): the element at index 1 is the root,
+ *   and the subtrees of the element at index k are rooted at index 2k and
+ *   2k+1. The first levels visited by each lookup therefore share a few
+ *   cache lines, and no node objects are involved at all.
+ *   Each step of a lookup computes the index of the next element to be
+ *   inspected from the sign of a single comparison, without branching on
+ *   its outcome.
+ *   Frozen search trees cannot be changed. They do not belong to the
+ *   hierarchy of binary trees, because that hierarchy reflects whether a
+ *   tree is empty in the types of the results of its methods.
+ *
+ * @invar   The elements of each frozen search tree are stored in ascending
+ *          order, when traversed in order.
+ *        | for each I in 1..getNbElements()-1:
+ *        |   compareElements(getElementAt(I),getElementAt(I+1)) <= 0
+ *
+ * @version  2.0
+ * @author   Eric Steegmans
+ */
+@SuppressWarnings("all")
+public class FrozenSearchTree implements Iterable<Object> {
+
+    /**
+     * Initialize this new frozen search tree with the elements of the
+     * given search tree.
+     *
+     * @param   tree
+     *          The search tree whose elements must be stored in this new
+     *          frozen search tree.
+     * @post    This new frozen search tree stores the same elements as the
+     *          given search tree, ordered by the same comparator.
+     *        | (new.getComparator() == tree.getComparator()) &&
+     *        | for each element in (Object union {null}):
+     *        |   new.getNbOccurrencesOf(element) ==
+     *        |     tree.getNbOccurrencesOf(element)
+     * @throws  IllegalArgumentException
+     *          The given search tree is not effective.
+     *        | tree == null
+     * @note    The iterator of the given search tree returns its elements
+     *          in ascending order. They are then spread over the array of
+     *          this new frozen search tree in linear time.
+     */
+    public FrozenSearchTree(SearchTree tree) throws IllegalArgumentException {
+        if (tree == null)
+            throw new IllegalArgumentException();
+        this.comparator = tree.getComparator();
+        Object[] sortedElements = new Object[tree.getNbElements()];
+        int index = 0;
+        for (Object element : tree)
+            sortedElements[index++] = element;
+        this.elements = new Object[sortedElements.length + 1];
+        fill(sortedElements, 0, 1);
+    }
+
+    /**
+     * Store the given sorted elements, starting from the given index, in
+     * the subtree rooted at the given position of this frozen search tree.
+     *
+     * @return  The index of the first of the given sorted elements that is
+     *          not stored in the subtree rooted at the given position.
+     * @note    This method recurses once per level of a complete binary
+     *          tree, such that the depth of the recursion is logarithmic in
+     *          the number of elements.
+     */
+    @Raw
+    private int fill(Object[] sortedElements, int index, int position) {
+        if (position < elements.length) {
+            index = fill(sortedElements, index, 2 * position);
+            elements[position] = sortedElements[index++];
+            index = fill(sortedElements, index, 2 * position + 1);
+        }
+        return index;
+    }
+
+    /**
+     * Return the comparator ordering the elements of this frozen search
+     * tree.
+     *
+     * @note    The null reference means that the elements are ordered
+     *          according to their natural ordering.
+     */
+    @Basic @Immutable
+    public Comparator<Object> getComparator() {
+        return this.comparator;
+    }
+
+    /**
+     * Variable referencing the comparator ordering the elements of this
+     * frozen search tree.
+     */
+    private final Comparator<Object> comparator;
+
+    /**
+     * Compare the given elements according to the ordering of this frozen
+     * search tree.
+     *
+     * @return  The result of comparing the given elements by means of the
+     *          comparator of this frozen search tree, if it has one.
+     *        | if (getComparator() != null)
+     *        |   then result == getComparator().compare(first,second)
+     * @return  The result of comparing the first element with the second
+     *          element according to their natural ordering, if this frozen
+     *          search tree has no comparator.
+     *        | if (getComparator() == null)
+     *        |   then result == ((Comparable)first).compareTo(second)
+     * @throws  ClassCastException
+     *          The given elements cannot be compared with each other.
+     */
+    public int compareElements(Object first, Object second)
+            throws ClassCastException {
+        if (comparator == null)
+            return ((Comparable) first).compareTo(second);
+        return comparator.compare(first, second);
+    }
+
+    /**
+     * Return the total number of elements in this frozen search tree.
+     */
+    @Basic @Immutable
+    public int getNbElements() {
+        return elements.length - 1;
+    }
+
+    /**
+     * Check whether this frozen search tree has no elements.
+     *
+     * @return  True if and only if this frozen search tree has no elements.
+     *        | result == (getNbElements() == 0)
+     */
+    public boolean isEmpty() {
+        return getNbElements() == 0;
+    }
+
+    /**
+     * Return the number of occurrences of the given element in this frozen
+     * search tree.
+     *
+     * @return  Zero if the given element is not effective, or if it cannot
+     *          be compared with the elements of this frozen search tree.
+     * @note    The position of the first element that is not less than the
+     *          given element is looked up, after which the elements equal
+     *          to the given element are counted in ascending order.
+     */
+    @Basic
+    public int getNbOccurrencesOf(Object element) {
+        if (element == null)
+            return 0;
+        try {
+            int nbOccurrences = 0;
+            for (int position = getLowerBoundPosition(element);
+                    (position != 0)
+                    && (compareElements(elements[position], element) == 0);
+                    position = getSuccessorPosition(position))
+                if (elements[position].equals(element))
+                    nbOccurrences++;
+            return nbOccurrences;
+        }
+        catch (ClassCastException exc) {
+            // The given element is not comparable with the elements
+            // of this frozen search tree.
+            return 0;
+        }
+    }
+
+    /**
+     * Check whether the given element is stored in this frozen search tree.
+     *
+     * @return  True if and only if the given element occurs at least once
+     *          in this frozen search tree.
+     *        | result == (getNbOccurrencesOf(element) > 0)
+     */
+    public boolean hasAsElement(Object element) {
+        if (element == null)
+            return false;
+        try {
+            for (int position = getLowerBoundPosition(element);
+                    (position != 0)
+                    && (compareElements(elements[position], element) == 0);
+                    position = getSuccessorPosition(position))
+                if (elements[position].equals(element))
+                    return true;
+            return false;
+        }
+        catch (ClassCastException exc) {
+            // The given element is not comparable with the elements
+            // of this frozen search tree.
+            return false;
+        }
+    }
+
+    /**
+     * Return the position of the smallest element in this frozen search
+     * tree that is not less than the given element.
+     *
+     * @return  Zero if all the elements of this frozen search tree are less
+     *          than the given element.
+     * @throws  ClassCastException
+     *          The given element cannot be compared with the elements of
+     *          this frozen search tree.
+     * @note    Each step moves to the left subtree or to the right subtree,
+     *          by adding the sign bit of the comparison to twice the current
+     *          position. The position of the lower bound is then found by
+     *          undoing the steps to the right taken after the last step to
+     *          the left, and that step itself.
+     */
+    private int getLowerBoundPosition(Object element)
+            throws ClassCastException {
+        int position = 1;
+        while (position < elements.length)
+            position = 2 * position
+                + (compareElements(elements[position], element) >>> 31);
+        return position >>> (Integer.numberOfTrailingZeros(~position) + 1);
+    }
+
+    /**
+     * Return the position of the first element in this frozen search tree.
+     *
+     * @return  Zero if this frozen search tree is empty.
+     */
+    private int getFirstPosition() {
+        if (isEmpty())
+            return 0;
+        int position = 1;
+        while (2 * position < elements.length)
+            position = 2 * position;
+        return position;
+    }
+
+    /**
+     * Return the position of the element following the element at the
+     * given position in ascending order.
+     *
+     * @return  Zero if the element at the given position is the last one.
+     */
+    private int getSuccessorPosition(int position) {
+        if (2 * position + 1 < elements.length) {
+            position = 2 * position + 1;
+            while (2 * position < elements.length)
+                position = 2 * position;
+            return position;
+        }
+        return position >>> (Integer.numberOfTrailingZeros(~position) + 1);
+    }
+
+    /**
+     * Return an iterator returning all the elements in this frozen search
+     * tree in ascending order.
+     *
+     * @note    The iterator walks through the array of this frozen search
+     *          tree by computing the position of each next element. It does
+     *          not support the removal of elements.
+     */
+    @Override
+    public Iterator<Object> iterator() {
+        return new Iterator<Object>() {
+
+            public boolean hasNext() {
+                return nextPosition != 0;
+            }
+
+            public Object next() throws NoSuchElementException {
+                if (!hasNext())
+                    throw new NoSuchElementException();
+                Object result = elements[nextPosition];
+                nextPosition = getSuccessorPosition(nextPosition);
+                return result;
+            }
+
+            private int nextPosition = getFirstPosition();
+
+        };
+    }
+
+    /**
+     * Return a stream that delivers all the elements of this frozen search
+     * tree in ascending order.
+     *
+     * @return  An effective stream that delivers the same elements in the
+     *          same order as the iterator for this frozen search tree.
+     */
+    public Stream<Object> stream() {
+        int characteristics = Spliterator.ORDERED | Spliterator.NONNULL
+            | Spliterator.IMMUTABLE;
+        if (comparator == null)
+            characteristics |= Spliterator.SORTED;
+        return StreamSupport.stream(Spliterators.spliterator(iterator(),
+            getNbElements(), characteristics), false);
+    }
+
+    /**
+     * Variable referencing the array storing the elements of this frozen
+     * search tree at position 1 and beyond, level by level.
+     *
+     * @note    Position 0 is not used, such that the positions of the roots
+     *          of the subtrees of each position can be computed by doubling
+     *          that position.
+     */
+    private final Object[] elements;
+
+}
@@ -0,0 +1,172 @@
+package extra.trees;
+
+import static org.junit.Assert.*;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+import org.junit.*;
+
+public class FrozenSearchTreeTest {
+
+    private FrozenSearchTree theTree;
+
+    @Before
+    public void setUp() throws Exception {
+        theTree = new ComposedSearchTree(20, 50, 40, 20, 70, 20, 100).freeze();
+    }
+
+    private static List<Object> elementsOf(FrozenSearchTree tree) {
+        List<Object> elements = new ArrayList<Object>();
+        for (Object element : tree)
+            elements.add(element);
+        return elements;
+    }
+
+    // Test for the constructor and for the method freeze
+
+    @Test
+    public void constructor_LegalCase() {
+        assertEquals(7, theTree.getNbElements());
+        assertNull(theTree.getComparator());
+        assertEquals(Arrays.asList(20, 20, 20, 40, 50, 70, 100),
+            elementsOf(theTree));
+    }
+
+    @Test
+    public void constructor_EmptyTree() {
+        FrozenSearchTree newTree = EmptySearchTree.getPrototype().freeze();
+        assertTrue(newTree.isEmpty());
+        assertFalse(newTree.iterator().hasNext());
+        assertFalse(newTree.hasAsElement(10));
+    }
+
+    @Test
+    public void constructor_LeafTree() throws Exception {
+        FrozenSearchTree newTree = new LeafSearchTree(10).freeze();
+        assertEquals(1, newTree.getNbElements());
+        assertEquals(1, newTree.getNbOccurrencesOf(10));
+        assertEquals(Arrays.asList(10), elementsOf(newTree));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void constructor_NonEffectiveTree() {
+        new FrozenSearchTree(null);
+    }
+
+    @Test
+    public void constructor_ComparatorTree() throws Exception {
+        Comparator<Integer> descending = Comparator.reverseOrder();
+        FrozenSearchTree newTree = new ComparatorSearchTree(Integer.class,
+            descending, 3, 1, 2, 1).freeze();
+        assertSame(descending, newTree.getComparator());
+        assertEquals(Arrays.asList(3, 2, 1, 1), elementsOf(newTree));
+        assertEquals(2, newTree.getNbOccurrencesOf(1));
+        assertTrue(newTree.hasAsElement(3));
+        assertFalse(newTree.hasAsElement(4));
+    }
+
+    @Test
+    public void freeze_LaterChangesNotReflected() throws Exception {
+        ComposedSearchTree tree = new ComposedSearchTree(10, 20);
+        FrozenSearchTree frozenTree = tree.freeze();
+        tree.addElement(30);
+        assertEquals(2, frozenTree.getNbElements());
+        assertFalse(frozenTree.hasAsElement(30));
+    }
+
+    // Test for the method getNbOccurrencesOf
+
+    @Test
+    public void getNbOccurrencesOf_RepeatedElement() {
+        assertEquals(3, theTree.getNbOccurrencesOf(20));
+    }
+
+    @Test
+    public void getNbOccurrencesOf_SingleElement() {
+        assertEquals(1, theTree.getNbOccurrencesOf(100));
+    }
+
+    @Test
+    public void getNbOccurrencesOf_NonExistingElements() {
+        assertEquals(0, theTree.getNbOccurrencesOf(10));
+        assertEquals(0, theTree.getNbOccurrencesOf(45));
+        assertEquals(0, theTree.getNbOccurrencesOf(200));
+    }
+
+    @Test
+    public void getNbOccurrencesOf_IllegalElements() {
+        assertEquals(0, theTree.getNbOccurrencesOf(null));
+        assertEquals(0, theTree.getNbOccurrencesOf("abc"));
+    }
+
+    // Test for the method hasAsElement
+
+    @Test
+    public void hasAsElement_TrueCase() {
+        for (Object element : new Object[] { 20, 40, 50, 70, 100 })
+            assertTrue(theTree.hasAsElement(element));
+    }
+
+    @Test
+    public void hasAsElement_FalseCase() {
+        assertFalse(theTree.hasAsElement(19));
+        assertFalse(theTree.hasAsElement(60));
+        assertFalse(theTree.hasAsElement(101));
+        assertFalse(theTree.hasAsElement(null));
+        assertFalse(theTree.hasAsElement("abc"));
+    }
+
+    @Test
+    public void hasAsElement_ManyElements() throws Exception {
+        Object[] elements = new Object[1000];
+        for (int i = 0; i < elements.length; i++)
+            elements[i] = 2 * i;
+        FrozenSearchTree newTree =
+            BalancedSearchTree.fromElements(elements).freeze();
+        for (int i = -1; i < 2 * elements.length; i++)
+            assertEquals((i >= 0) && (i % 2 == 0), newTree.hasAsElement(i));
+    }
+
+    // Test for the iterator and for the method stream
+
+    @Test(expected = NoSuchElementException.class)
+    public void iterator_NoMoreElements() {
+        Iterator<Object> theIterator = theTree.iterator();
+        while (theIterator.hasNext())
+            theIterator.next();
+        theIterator.next();
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void iterator_Remove() {
+        Iterator<Object> theIterator = theTree.iterator();
+        theIterator.next();
+        theIterator.remove();
+    }
+
+    @Test
+    public void iterator_AllSizes() throws Exception {
+        // Complete and incomplete last levels must both be traversed.
+        for (int nbElements = 2; nbElements <= 40; nbElements++) {
+            Object[] elements = new Object[nbElements];
+            for (int i = 0; i < nbElements; i++)
+                elements[i] = nbElements - i;
+            List<Object> expected = new ArrayList<Object>();
+            for (int i = 1; i <= nbElements; i++)
+                expected.add(i);
+            assertEquals(expected,
+                elementsOf(new ComposedSearchTree(elements).freeze()));
+        }
+    }
+
+    @Test
+    public void stream_SingleCase() {
+        assertEquals(Arrays.asList(20, 20, 20, 40, 50, 70, 100),
+            theTree.stream().collect(Collectors.toList()));
+        assertTrue(theTree.stream().spliterator()
+            .hasCharacteristics(Spliterator.SORTED));
+        assertEquals(7, theTree.stream().spliterator().getExactSizeIfKnown());
+    }
+
+}
@@ -0,0 +1,310 @@
+package extra.trees;
+
+import java.util.*;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import be.kuleuven.cs.som.annotate.*;
+import extra.trees.exceptions.*;
+
+/**
+ * A class of unsorted binary trees indexing the nodes in which their
+ * elements are stored.
+ *   Composed unsorted trees must inspect all their nodes to find out how
+ *   many times an element occurs in them, and to find a node from which
+ *   to remove an element. An indexed unsorted tree keeps a hash index,
+ *   mapping each of its elements to the nodes in which that element is
+ *   stored. Checking whether an element is stored, counting its occurrences
+ *   and removing it therefore take constant time on average.
+ *   The nodes of an indexed unsorted tree form a complete binary tree,
+ *   stored level by level in an array: the subtrees of the node at index
+ *   i are rooted at the nodes at index 2i+1 and 2i+2. Elements are added
+ *   in the first free node. Removing an element moves the element in the
+ *   last node into the node that is freed.
+ *   Indexed unsorted trees are changed in place. They do not belong to the
+ *   hierarchy of binary trees, because that hierarchy reflects whether a
+ *   tree is empty in the types of the results of its methods.
+ *
+ * @invar   The number of occurrences of each element in an indexed unsorted
+ *          tree is equal to the number of nodes registered for it in the
+ *          index.
+ * @note    Elements are compared by means of their methods equals and
+ *          hashCode. Elements must therefore not be changed in a way that
+ *          changes their hash code, while they are stored in an indexed
+ *          unsorted tree.
+ *
+ * @version  2.0
+ * @author   Eric Steegmans
+ */
+@SuppressWarnings("all")
+public class IndexedUnsortedTree implements Iterable<Object> {
+
+    /**
+     * Initialize this new indexed unsorted tree with given elements.
+     *
+     * @param   elements
+     *          The elements to be stored in this new indexed unsorted tree.
+     * @effect  Each of the given elements is added to this new indexed
+     *          unsorted tree.
+     *        | for each element in elements:
+     *        |   addElement(element)
+     */
+    public IndexedUnsortedTree(Object... elements) {
+        for (Object element : elements)
+            addElement(element);
+    }
+
+    /**
+     * Return the number of occurrences of the given element in this
+     * indexed unsorted tree.
+     *
+     * @note    The number of occurrences is looked up in the index of this
+     *          indexed unsorted tree. No nodes are inspected.
+     */
+    @Basic
+    public int getNbOccurrencesOf(Object element) {
+        Occurrences occurrences = index.get(element);
+        return (occurrences == null) ? 0 : occurrences.nbNodes;
+    }
+
+    /**
+     * Check whether this indexed unsorted tree can have occurrences of the
+     * given element.
+     *
+     * @return  Always true: indexed unsorted trees can store any object,
+     *          including the null reference.
+     *        | result == true
+     */
+    public boolean canHaveAsElement(Object element) {
+        return true;
+    }
+
+    /**
+     * Check whether the given element is stored in this indexed unsorted
+     * tree.
+     *
+     * @return  True if and only if the given element occurs at least once
+     *          in this indexed unsorted tree.
+     *        | result == (getNbOccurrencesOf(element) > 0)
+     */
+    public boolean hasAsElement(Object element) {
+        return index.containsKey(element);
+    }
+
+    /**
+     * Return the total number of elements in this indexed unsorted tree.
+     */
+    @Basic
+    public int getNbElements() {
+        return nbElements;
+    }
+
+    /**
+     * Check whether this indexed unsorted tree has no elements.
+     *
+     * @return  True if and only if this indexed unsorted tree has no
+     *          elements.
+     *        | result == (getNbElements() == 0)
+     */
+    public boolean isEmpty() {
+        return getNbElements() == 0;
+    }
+
+    /**
+     * Return the height of this indexed unsorted tree.
+     *
+     * @return  Zero if this indexed unsorted tree is empty; otherwise the
+     *          number of levels of the complete binary tree formed by its
+     *          nodes.
+     *        | result == (the smallest h such that 2^h > getNbElements())
+     */
+    public int getHeight() {
+        return 32 - Integer.numberOfLeadingZeros(nbElements);
+    }
+
+    /**
+     * Add the given element to this indexed unsorted tree.
+     *
+     * @param   element
+     *          The element to be added.
+     * @post    The number of occurrences of the given element in this
+     *          indexed unsorted tree is incremented by 1.
+     *        | new.getNbOccurrencesOf(element) ==
+     *        |   getNbOccurrencesOf(element) + 1
+     * @post    The given element is stored in the first free node of this
+     *          indexed unsorted tree.
+     */
+    public void addElement(Object element) {
+        if (nbElements == elements.length) {
+            elements = Arrays.copyOf(elements, 2 * elements.length);
+            positions = Arrays.copyOf(positions, 2 * positions.length);
+        }
+        int node = nbElements++;
+        elements[node] = element;
+        Occurrences occurrences = index.get(element);
+        if (occurrences == null) {
+            occurrences = new Occurrences();
+            index.put(element, occurrences);
+        }
+        positions[node] = occurrences.add(node);
+        modCount++;
+    }
+
+    /**
+     * Remove one occurrence of the given element from this indexed unsorted
+     * tree.
+     *
+     * @param   element
+     *          The element to be removed.
+     * @post    The number of occurrences of the given element in this
+     *          indexed unsorted tree is decremented by 1.
+     *        | new.getNbOccurrencesOf(element) ==
+     *        |   getNbOccurrencesOf(element) - 1
+     * @throws  IllegalElementException
+     *          The given element is not stored in this indexed unsorted tree.
+     *        | ! hasAsElement(element)
+     * @note    The node to be freed is found in the index. The element in
+     *          the last node of this indexed unsorted tree is moved into that
+     *          node, such that the nodes still form a complete binary tree.
+     */
+    public void removeElement(Object element) throws IllegalElementException {
+        Occurrences occurrences = index.get(element);
+        if (occurrences == null)
+            throw new IllegalElementException(element, null);
+        int node = occurrences.removeLast();
+        if (occurrences.nbNodes == 0)
+            index.remove(element);
+        int lastNode = --nbElements;
+        if (node != lastNode) {
+            Object movedElement = elements[lastNode];
+            elements[node] = movedElement;
+            positions[node] = positions[lastNode];
+            index.get(movedElement).nodes[positions[node]] = node;
+        }
+        elements[lastNode] = null;
+        modCount++;
+    }
+
+    /**
+     * Return an iterator returning all the elements in this indexed
+     * unsorted tree.
+     *
+     * @note    The elements are returned level by level, starting with the
+     *          element in the root. The iterator fails fast if this indexed
+     *          unsorted tree is changed while iterating.
+     */
+    @Override
+    public Iterator<Object> iterator() {
+        return new Iterator<Object>() {
+
+            public boolean hasNext() {
+                return nextNode < nbElements;
+            }
+
+            public Object next() throws NoSuchElementException,
+                    ConcurrentModificationException {
+                if (modCount != expectedModCount)
+                    throw new ConcurrentModificationException();
+                if (!hasNext())
+                    throw new NoSuchElementException();
+                return elements[nextNode++];
+            }
+
+            private int nextNode = 0;
+
+            private final int expectedModCount = modCount;
+
+        };
+    }
+
+    /**
+     * Return a stream that delivers all the elements of this indexed
+     * unsorted tree.
+     *
+     * @return  An effective stream that delivers the same elements in the
+     *          same order as the iterator for this indexed unsorted tree.
+     */
+    public Stream<Object> stream() {
+        return StreamSupport.stream(Spliterators.spliterator(iterator(),
+            getNbElements(), Spliterator.ORDERED), false);
+    }
+
+    /**
+     * Return an unsorted binary tree storing the elements of this indexed
+     * unsorted tree.
+     *
+     * @return  An unsorted binary tree storing the same elements as this
+     *          indexed unsorted tree.
+     *        | for each element in (Object union {null}):
+     *        |   result.getNbOccurrencesOf(element) ==
+     *        |     getNbOccurrencesOf(element)
+     */
+    public UnsortedBinaryTree snapshot() {
+        if (nbElements == 0)
+            return EmptyUnsortedTree.getPrototype();
+        if (nbElements == 1)
+            return new LeafUnsortedTree(elements[0]);
+        return new ComposedUnsortedTree(Arrays.copyOf(elements, nbElements));
+    }
+
+    /**
+     * A class registering the nodes in which an element is stored.
+     */
+    private static class Occurrences {
+
+        /**
+         * Register the given node, and return its position in the nodes
+         * registered so far.
+         */
+        private int add(int node) {
+            if (nbNodes == nodes.length)
+                nodes = Arrays.copyOf(nodes, 2 * nodes.length);
+            nodes[nbNodes] = node;
+            return nbNodes++;
+        }
+
+        /**
+         * Unregister the node registered last, and return it.
+         */
+        private int removeLast() {
+            return nodes[--nbNodes];
+        }
+
+        private int[] nodes = new int[1];
+
+        private int nbNodes = 0;
+
+    }
+
+    /**
+     * Variable mapping each element of this indexed unsorted tree to the
+     * nodes in which it is stored.
+     */
+    private final Map<Object, Occurrences> index =
+        new HashMap<Object, Occurrences>();
+
+    /**
+     * Variable registering the elements stored in the nodes of this indexed
+     * unsorted tree, level by level.
+     */
+    private Object[] elements = new Object[16];
+
+    /**
+     * Variable registering, for each node, its position among the nodes
+     * registered in the index for its element.
+     */
+    private int[] positions = new int[16];
+
+    /**
+     * Variable registering the total number of elements in this indexed
+     * unsorted tree.
+     */
+    private int nbElements = 0;
+
+    /**
+     * Variable registering the number of changes to this indexed unsorted
+     * tree.
+     */
+    private int modCount = 0;
+
+}
@@ -0,0 +1,146 @@
+package extra.trees;
+
+import static org.junit.Assert.*;
+
+import java.util.*;
+
+import org.junit.*;
+
+import extra.trees.exceptions.IllegalElementException;
+
+public class IndexedUnsortedTreeTest {
+
+    private IndexedUnsortedTree theTree;
+
+    @Before
+    public void setUp() throws Exception {
+        theTree = new IndexedUnsortedTree(20, "abc", null, 20, 70.0, 20, null);
+    }
+
+    private static List<Object> elementsOf(IndexedUnsortedTree tree) {
+        List<Object> elements = new ArrayList<Object>();
+        for (Object element : tree)
+            elements.add(element);
+        return elements;
+    }
+
+    // Test for the constructor
+
+    @Test
+    public void constructor_LegalCase() {
+        assertEquals(7, theTree.getNbElements());
+        assertEquals(3, theTree.getNbOccurrencesOf(20));
+        assertEquals(2, theTree.getNbOccurrencesOf(null));
+        assertEquals(3, theTree.getHeight());
+    }
+
+    @Test
+    public void constructor_NoElements() {
+        IndexedUnsortedTree newTree = new IndexedUnsortedTree();
+        assertTrue(newTree.isEmpty());
+        assertEquals(0, newTree.getHeight());
+        assertFalse(newTree.iterator().hasNext());
+    }
+
+    // Test for the method hasAsElement
+
+    @Test
+    public void hasAsElement_SeveralCases() {
+        assertTrue(theTree.hasAsElement("abc"));
+        assertTrue(theTree.hasAsElement(null));
+        assertFalse(theTree.hasAsElement(70));
+        assertTrue(theTree.hasAsElement(70.0));
+    }
+
+    // Test for the method addElement
+
+    @Test
+    public void addElement_ManyElements() {
+        for (int i = 0; i < 100000; i++)
+            theTree.addElement(i % 1000);
+        assertEquals(100007, theTree.getNbElements());
+        assertEquals(103, theTree.getNbOccurrencesOf(20));
+        assertEquals(17, theTree.getHeight());
+    }
+
+    // Test for the method removeElement
+
+    @Test
+    public void removeElement_SeveralOccurrences() throws Exception {
+        theTree.removeElement(20);
+        assertEquals(2, theTree.getNbOccurrencesOf(20));
+        assertEquals(6, theTree.getNbElements());
+    }
+
+    @Test
+    public void removeElement_AllElements() throws Exception {
+        for (Object element : new Object[] { 20, null, "abc", 20, 70.0, null, 20 })
+            theTree.removeElement(element);
+        assertTrue(theTree.isEmpty());
+        assertFalse(theTree.hasAsElement(20));
+        assertFalse(theTree.hasAsElement(null));
+    }
+
+    @Test
+    public void removeElement_IndexKeptConsistent() throws Exception {
+        Random random = new Random(3);
+        Map<Object, Integer> expected = new HashMap<Object, Integer>();
+        IndexedUnsortedTree newTree = new IndexedUnsortedTree();
+        for (int i = 0; i < 10000; i++) {
+            Integer element = random.nextInt(50);
+            if (random.nextBoolean() || !newTree.hasAsElement(element)) {
+                newTree.addElement(element);
+                expected.merge(element, 1, Integer::sum);
+            }
+            else {
+                newTree.removeElement(element);
+                expected.merge(element, -1, Integer::sum);
+            }
+        }
+        for (int element = 0; element < 50; element++)
+            assertEquals(expected.getOrDefault(element, 0).intValue(),
+                newTree.getNbOccurrencesOf(element));
+        Map<Object, Integer> actual = new HashMap<Object, Integer>();
+        for (Object element : newTree)
+            actual.merge(element, 1, Integer::sum);
+        expected.values().removeIf(count -> count == 0);
+        assertEquals(expected, actual);
+    }
+
+    @Test(expected = IllegalElementException.class)
+    public void removeElement_NonExistingElement() throws Exception {
+        theTree.removeElement(41);
+    }
+
+    // Test for the iterator
+
+    @Test
+    public void iterator_LevelByLevel() {
+        assertEquals(Arrays.asList(20, "abc", null, 20, 70.0, 20, null),
+            elementsOf(theTree));
+    }
+
+    @Test(expected = ConcurrentModificationException.class)
+    public void iterator_FailsFast() throws Exception {
+        Iterator<Object> theIterator = theTree.iterator();
+        theIterator.next();
+        theTree.removeElement("abc");
+        theIterator.next();
+    }
+
+    // Test for the methods stream and snapshot
+
+    @Test
+    public void stream_SingleCase() {
+        assertEquals(3, theTree.stream().filter(x -> Integer.valueOf(20).equals(x)).count());
+    }
+
+    @Test
+    public void snapshot_SingleCase() {
+        UnsortedBinaryTree snapshot = theTree.snapshot();
+        assertEquals(7, snapshot.getNbElements());
+        assertEquals(3, snapshot.getNbOccurrencesOf(20));
+        assertEquals(2, snapshot.getNbOccurrencesOf(null));
+    }
+
+}
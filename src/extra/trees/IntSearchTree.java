@@ -0,0 +1,432 @@
+package extra.trees;
+
+import java.util.*;
+import java.util.stream.IntStream;
+import java.util.stream.StreamSupport;
+
+import be.kuleuven.cs.som.annotate.*;
+import extra.trees.exceptions.*;
+
+/**
+ * A class of search trees storing values of the primitive type int.
+ *   An int search tree stores its elements without boxing them into
+ *   objects of the class Integer. Its nodes are not objects either:
+ *   each node is an index in a set of parallel arrays, registering the
+ *   element in the node, its number of occurrences, the indices of its
+ *   left and right subtrees and its height. Each distinct element thus
+ *   only takes some 17 bytes, and elements are compared without invoking
+ *   any method.
+ *   Just like balanced search trees, int search trees rebalance themselves
+ *   after each addition and removal (AVL trees). Occurrences of the same
+ *   element share a single node.
+ *   Int search trees are changed in place. They do not belong to the
+ *   hierarchy of binary trees, because the methods of binary trees take
+ *   and return objects.
+ *
+ * @invar   The heights of the subtrees of each node in an int search tree
+ *          differ by at most one.
+ *
+ * @version  2.0
+ * @author   Eric Steegmans
+ */
+public class IntSearchTree implements Iterable<Integer> {
+
+    /**
+     * Initialize this new int search tree with given elements.
+     *
+     * @param   elements
+     *          The elements to be stored in this new int search tree.
+     * @effect  Each of the given elements is added to this new int
+     *          search tree.
+     *        | for each element in elements:
+     *        |   addElement(element)
+     */
+    public IntSearchTree(int... elements) {
+        for (int element : elements)
+            addElement(element);
+    }
+
+    /**
+     * Return the number of occurrences of the given element in this
+     * int search tree.
+     */
+    @Basic
+    public int getNbOccurrencesOf(int element) {
+        int node = root;
+        while (node != NIL) {
+            if (element < keys[node])
+                node = leftTrees[node];
+            else if (element > keys[node])
+                node = rightTrees[node];
+            else
+                return counts[node];
+        }
+        return 0;
+    }
+
+    /**
+     * Check whether the given element is stored in this int search tree.
+     *
+     * @return  True if and only if the given element occurs at least once
+     *          in this int search tree.
+     *        | result == (getNbOccurrencesOf(element) > 0)
+     */
+    public boolean hasAsElement(int element) {
+        return getNbOccurrencesOf(element) > 0;
+    }
+
+    /**
+     * Return the total number of elements in this int search tree.
+     */
+    @Basic
+    public int getNbElements() {
+        return nbElements;
+    }
+
+    /**
+     * Check whether this int search tree has no elements.
+     *
+     * @return  True if and only if this int search tree has no elements.
+     *        | result == (getNbElements() == 0)
+     */
+    public boolean isEmpty() {
+        return getNbElements() == 0;
+    }
+
+    /**
+     * Return the height of this int search tree.
+     *
+     * @return  Zero if this int search tree is empty; otherwise the number
+     *          of nodes on the longest path from the root to a leaf.
+     */
+    public int getHeight() {
+        return heights[root];
+    }
+
+    /**
+     * Add the given element to this int search tree.
+     *
+     * @param   element
+     *          The element to be added.
+     * @post    The number of occurrences of the given element in this
+     *          int search tree is incremented by 1.
+     *        | new.getNbOccurrencesOf(element) ==
+     *        |   getNbOccurrencesOf(element) + 1
+     */
+    public void addElement(int element) {
+        root = add(root, element);
+        nbElements++;
+        modCount++;
+    }
+
+    /**
+     * Remove one occurrence of the given element from this int search tree.
+     *
+     * @param   element
+     *          The element to be removed.
+     * @post    The number of occurrences of the given element in this
+     *          int search tree is decremented by 1.
+     *        | new.getNbOccurrencesOf(element) ==
+     *        |   getNbOccurrencesOf(element) - 1
+     * @throws  IllegalElementException
+     *          The given element is not stored in this int search tree.
+     *        | ! hasAsElement(element)
+     */
+    public void removeElement(int element) throws IllegalElementException {
+        if (!hasAsElement(element))
+            throw new IllegalElementException(element, null);
+        root = remove(root, element);
+        nbElements--;
+        modCount++;
+    }
+
+    /**
+     * Return an iterator returning all the elements in this int search tree
+     * in ascending order.
+     *
+     * @note    The iterator returns values of the primitive type int by means
+     *          of its method nextInt. It fails fast if this int search tree
+     *          is changed while iterating.
+     */
+    @Override
+    public PrimitiveIterator.OfInt iterator() {
+        return new PrimitiveIterator.OfInt() {
+
+            public boolean hasNext() {
+                return (nbRemaining > 0) || (stackSize > 0);
+            }
+
+            public int nextInt() throws NoSuchElementException,
+                    ConcurrentModificationException {
+                if (modCount != expectedModCount)
+                    throw new ConcurrentModificationException();
+                if (!hasNext())
+                    throw new NoSuchElementException();
+                if (nbRemaining == 0) {
+                    currentNode = pendingNodes[--stackSize];
+                    nbRemaining = counts[currentNode];
+                    pushLeftSpine(rightTrees[currentNode]);
+                }
+                nbRemaining--;
+                return keys[currentNode];
+            }
+
+            private void pushLeftSpine(int node) {
+                while (node != NIL) {
+                    pendingNodes[stackSize++] = node;
+                    node = leftTrees[node];
+                }
+            }
+
+            // The height of an AVL tree with less than 2^31 nodes is
+            // less than 64.
+            private final int[] pendingNodes = new int[64];
+
+            private int stackSize = 0;
+
+            private int currentNode;
+
+            private int nbRemaining = 0;
+
+            private final int expectedModCount = modCount;
+
+            {
+                pushLeftSpine(root);
+            }
+
+        };
+    }
+
+    /**
+     * Return a stream that delivers all the elements of this int search tree
+     * in ascending order.
+     *
+     * @return  An effective stream that delivers the same elements in the
+     *          same order as the iterator for this int search tree.
+     */
+    public IntStream stream() {
+        return StreamSupport.intStream(Spliterators.spliterator(iterator(),
+            getNbElements(), Spliterator.ORDERED | Spliterator.SORTED
+                | Spliterator.NONNULL), false);
+    }
+
+    /**
+     * Add the given element to the subtree rooted at the given node, and
+     * return the root of the resulting subtree.
+     */
+    private int add(int node, int element) {
+        if (node == NIL)
+            return createNode(element);
+        // The arrays may be replaced by larger arrays while adding the
+        // element to a subtree. The resulting subtree must therefore be
+        // computed before it is registered in the arrays.
+        if (element < keys[node]) {
+            int leftTree = add(leftTrees[node], element);
+            leftTrees[node] = leftTree;
+        }
+        else if (element > keys[node]) {
+            int rightTree = add(rightTrees[node], element);
+            rightTrees[node] = rightTree;
+        }
+        else {
+            counts[node]++;
+            return node;
+        }
+        return rebalance(node);
+    }
+
+    /**
+     * Remove one occurrence of the given element from the subtree rooted
+     * at the given node, and return the root of the resulting subtree.
+     *
+     * @pre     The given element is stored in the given subtree.
+     */
+    private int remove(int node, int element) {
+        if (element < keys[node])
+            leftTrees[node] = remove(leftTrees[node], element);
+        else if (element > keys[node])
+            rightTrees[node] = remove(rightTrees[node], element);
+        else if (counts[node] > 1) {
+            counts[node]--;
+            return node;
+        }
+        else if ((leftTrees[node] == NIL) || (rightTrees[node] == NIL)) {
+            int child = (leftTrees[node] != NIL) ? leftTrees[node] : rightTrees[node];
+            releaseNode(node);
+            return child;
+        }
+        else {
+            // Replace the element by the smallest element in the right
+            // subtree, and remove the node of that element.
+            int successor = rightTrees[node];
+            while (leftTrees[successor] != NIL)
+                successor = leftTrees[successor];
+            keys[node] = keys[successor];
+            counts[node] = counts[successor];
+            rightTrees[node] = removeSmallest(rightTrees[node]);
+        }
+        return rebalance(node);
+    }
+
+    /**
+     * Remove the node with the smallest element from the subtree rooted at
+     * the given node, and return the root of the resulting subtree.
+     */
+    private int removeSmallest(int node) {
+        if (leftTrees[node] == NIL) {
+            int rightTree = rightTrees[node];
+            releaseNode(node);
+            return rightTree;
+        }
+        leftTrees[node] = removeSmallest(leftTrees[node]);
+        return rebalance(node);
+    }
+
+    /**
+     * Restore the balance of the subtree rooted at the given node, and
+     * return the root of the resulting subtree.
+     */
+    private int rebalance(int node) {
+        int balance = heights[leftTrees[node]] - heights[rightTrees[node]];
+        if (balance > 1) {
+            int leftTree = leftTrees[node];
+            if (heights[leftTrees[leftTree]] < heights[rightTrees[leftTree]])
+                leftTrees[node] = rotateLeft(leftTree);
+            return rotateRight(node);
+        }
+        if (balance < -1) {
+            int rightTree = rightTrees[node];
+            if (heights[rightTrees[rightTree]] < heights[leftTrees[rightTree]])
+                rightTrees[node] = rotateRight(rightTree);
+            return rotateLeft(node);
+        }
+        updateHeight(node);
+        return node;
+    }
+
+    /**
+     * Rotate the subtree rooted at the given node to the left, and return
+     * the root of the resulting subtree.
+     */
+    private int rotateLeft(int node) {
+        int rightTree = rightTrees[node];
+        rightTrees[node] = leftTrees[rightTree];
+        leftTrees[rightTree] = node;
+        updateHeight(node);
+        updateHeight(rightTree);
+        return rightTree;
+    }
+
+    /**
+     * Rotate the subtree rooted at the given node to the right, and return
+     * the root of the resulting subtree.
+     */
+    private int rotateRight(int node) {
+        int leftTree = leftTrees[node];
+        leftTrees[node] = rightTrees[leftTree];
+        rightTrees[leftTree] = node;
+        updateHeight(node);
+        updateHeight(leftTree);
+        return leftTree;
+    }
+
+    /**
+     * Recompute the height of the given node from the heights of its
+     * subtrees.
+     */
+    private void updateHeight(int node) {
+        heights[node] = (byte) (1 + Math.max(heights[leftTrees[node]],
+            heights[rightTrees[node]]));
+    }
+
+    /**
+     * Return a new node storing a single occurrence of the given element.
+     *
+     * @note    Released nodes are reused first. Otherwise, the arrays are
+     *          replaced by arrays of twice their size if they are full.
+     */
+    private int createNode(int element) {
+        int node;
+        if (firstFreeNode != NIL) {
+            node = firstFreeNode;
+            firstFreeNode = leftTrees[node];
+        }
+        else {
+            if (nbUsedNodes == keys.length) {
+                int capacity = 2 * keys.length;
+                keys = Arrays.copyOf(keys, capacity);
+                counts = Arrays.copyOf(counts, capacity);
+                leftTrees = Arrays.copyOf(leftTrees, capacity);
+                rightTrees = Arrays.copyOf(rightTrees, capacity);
+                heights = Arrays.copyOf(heights, capacity);
+            }
+            node = nbUsedNodes++;
+        }
+        keys[node] = element;
+        counts[node] = 1;
+        leftTrees[node] = NIL;
+        rightTrees[node] = NIL;
+        heights[node] = 1;
+        return node;
+    }
+
+    /**
+     * Register the given node as a node that can be reused.
+     *
+     * @note    Released nodes are chained via their left subtree.
+     */
+    private void releaseNode(int node) {
+        leftTrees[node] = firstFreeNode;
+        firstFreeNode = node;
+    }
+
+    /**
+     * The index of the node representing an empty subtree.
+     *
+     * @note    The node at this index is never used to store an element.
+     *          Its height is zero.
+     */
+    private static final int NIL = 0;
+
+    /**
+     * Variable registering the node at the root of this int search tree.
+     */
+    private int root = NIL;
+
+    /**
+     * Variable registering the total number of elements in this int
+     * search tree.
+     */
+    private int nbElements = 0;
+
+    /**
+     * Variable registering the number of changes to this int search tree.
+     */
+    private int modCount = 0;
+
+    /**
+     * Variables registering, for each node, its element, its number of
+     * occurrences, its left subtree, its right subtree and its height.
+     */
+    private int[] keys = new int[16];
+
+    private int[] counts = new int[16];
+
+    private int[] leftTrees = new int[16];
+
+    private int[] rightTrees = new int[16];
+
+    private byte[] heights = new byte[16];
+
+    /**
+     * Variable registering the number of nodes that have been used so far,
+     * including the node representing empty subtrees.
+     */
+    private int nbUsedNodes = 1;
+
+    /**
+     * Variable referencing the first node in the chain of released nodes.
+     */
+    private int firstFreeNode = NIL;
+
+}
@@ -0,0 +1,149 @@
+package extra.trees;
+
+import static org.junit.Assert.*;
+
+import java.util.*;
+
+import org.junit.*;
+
+import extra.trees.exceptions.IllegalElementException;
+
+public class IntSearchTreeTest {
+
+    private IntSearchTree theTree;
+
+    @Before
+    public void setUp() throws Exception {
+        theTree = new IntSearchTree(20, 50, 40, 20, 70, 20, 100);
+    }
+
+    // Test for the constructor
+
+    @Test
+    public void constructor_LegalCase() {
+        assertEquals(7, theTree.getNbElements());
+        assertEquals(3, theTree.getNbOccurrencesOf(20));
+        assertEquals(1, theTree.getNbOccurrencesOf(100));
+    }
+
+    @Test
+    public void constructor_NoElements() {
+        IntSearchTree newTree = new IntSearchTree();
+        assertTrue(newTree.isEmpty());
+        assertEquals(0, newTree.getHeight());
+        assertFalse(newTree.iterator().hasNext());
+    }
+
+    // Test for the method hasAsElement
+
+    @Test
+    public void hasAsElement_SeveralCases() {
+        assertTrue(theTree.hasAsElement(40));
+        assertFalse(theTree.hasAsElement(41));
+        assertFalse(theTree.hasAsElement(Integer.MIN_VALUE));
+    }
+
+    // Test for the method addElement
+
+    @Test
+    public void addElement_SortedElements() {
+        IntSearchTree newTree = new IntSearchTree();
+        for (int i = 0; i < 100000; i++)
+            newTree.addElement(i);
+        assertEquals(100000, newTree.getNbElements());
+        assertTrue(newTree.getHeight() <= 25);
+        assertTrue(newTree.hasAsElement(99999));
+    }
+
+    @Test
+    public void addElement_ExtremeValues() {
+        theTree.addElement(Integer.MIN_VALUE);
+        theTree.addElement(Integer.MAX_VALUE);
+        PrimitiveIterator.OfInt theIterator = theTree.iterator();
+        assertEquals(Integer.MIN_VALUE, theIterator.nextInt());
+        assertEquals(Integer.MAX_VALUE, theTree.stream().max().getAsInt());
+    }
+
+    // Test for the method removeElement
+
+    @Test
+    public void removeElement_SeveralOccurrences() {
+        theTree.removeElement(20);
+        assertEquals(2, theTree.getNbOccurrencesOf(20));
+        assertEquals(6, theTree.getNbElements());
+    }
+
+    @Test
+    public void removeElement_NodeWithTwoSubtrees() {
+        theTree.removeElement(50);
+        theTree.removeElement(40);
+        assertArrayEquals(new int[] { 20, 20, 20, 70, 100 }, theTree.stream().toArray());
+    }
+
+    @Test(expected = IllegalElementException.class)
+    public void removeElement_NonExistingElement() {
+        theTree.removeElement(33);
+    }
+
+    @Test
+    public void removeElement_RandomOperations() {
+        Random random = new Random(9);
+        TreeMap<Integer, Integer> model = new TreeMap<Integer, Integer>();
+        IntSearchTree newTree = new IntSearchTree();
+        for (int i = 0; i < 20000; i++) {
+            int element = random.nextInt(500);
+            if (random.nextInt(5) < 3) {
+                newTree.addElement(element);
+                model.merge(element, 1, Integer::sum);
+            } else if (model.containsKey(element)) {
+                newTree.removeElement(element);
+                model.computeIfPresent(element, (key, count) -> (count == 1) ? null : count - 1);
+            }
+        }
+        for (int element = 0; element < 500; element++)
+            assertEquals(model.getOrDefault(element, 0).intValue(),
+                newTree.getNbOccurrencesOf(element));
+        List<Integer> expected = new ArrayList<Integer>();
+        for (Map.Entry<Integer, Integer> entry : model.entrySet())
+            expected.addAll(Collections.nCopies(entry.getValue(), entry.getKey()));
+        List<Integer> actual = new ArrayList<Integer>();
+        for (int element : newTree)
+            actual.add(element);
+        assertEquals(expected, actual);
+        assertTrue(newTree.getHeight() <= 12);
+    }
+
+    // Test for the method iterator
+
+    @Test
+    public void iterator_AscendingOrder() {
+        PrimitiveIterator.OfInt theIterator = theTree.iterator();
+        for (int element : new int[] { 20, 20, 20, 40, 50, 70, 100 })
+            assertEquals(element, theIterator.nextInt());
+        assertFalse(theIterator.hasNext());
+    }
+
+    @Test(expected = ConcurrentModificationException.class)
+    public void iterator_ConcurrentModification() {
+        PrimitiveIterator.OfInt theIterator = theTree.iterator();
+        theIterator.nextInt();
+        theTree.addElement(30);
+        theIterator.nextInt();
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void iterator_NoMoreElements() {
+        PrimitiveIterator.OfInt theIterator = new IntSearchTree(5).iterator();
+        theIterator.nextInt();
+        theIterator.nextInt();
+    }
+
+    // Test for the method stream
+
+    @Test
+    public void stream_SingleCase() {
+        assertEquals(320, theTree.stream().sum());
+        assertEquals(7, theTree.stream().spliterator().getExactSizeIfKnown());
+    }
+
+}
@@ -31,6 +31,20 @@ public class LeafSearchTree extends LeafBinaryTree implements
         super(element);
     }
 
+    /**
+     * Initialize this new leaf search tree with the null reference as its
+     * root element.
+     *
+     * @effect  This new leaf search tree is initialized as a binary leaf
+     *          tree with the null reference as its root element.
+     *        | super()
+     * @note    This constructor is needed in subclasses that must initialize
+     *          their own variables before they can check their element.
+     */
+    @Raw
+    protected LeafSearchTree() {
+    }
+
     /**
      * Return the number of occurrences of the given element in this
      * leaf search tree.
@@ -49,8 +63,14 @@ public class LeafSearchTree extends LeafBinaryTree implements
     @Raw
     @Override
     public boolean canHaveAsElement(Object element) {
+        // This leaf search tree may still be under construction, or the
+        // given element may not be effective. Both cases are checked
+        // explicitly, because throwing and catching an exception each time
+        // a new tree is created is expensive.
+        if ((getRootElement() == null) || (element == null))
+            return (element instanceof Comparable);
         try {
-            getRootElement().compareTo(element);
+            ((Comparable) getRootElement()).compareTo(element);
             return true;
         }
         catch (ClassCastException exc) {
@@ -58,12 +78,6 @@ public class LeafSearchTree extends LeafBinaryTree implements
             // given element.
             return false;
         }
-        catch (NullPointerException exc) {
-            // This leaf search tree is still under construction or
-            // the given element is not effective.
-            assert (getRootElement() == null) || (element == null);
-            return (element instanceof Comparable);
-        }
     }
 
     /**
@@ -75,6 +89,76 @@ public class LeafSearchTree extends LeafBinaryTree implements
         return getRootElement().equals(element);
     }
 
+    /**
+     * Return the greatest element in this leaf search tree that is less
+     * than or equal to the given element.
+     */
+    @Override
+    public Object floor(Object element) throws IllegalElementException {
+        // Re-implementation for reasons of efficiency.
+        if (!canHaveAsElement(element))
+            throw new IllegalElementException(element, this);
+        return (compareElements(getRootElement(), element) <= 0) ? getRootElement() : null;
+    }
+
+    /**
+     * Return the greatest element in this leaf search tree that is strictly
+     * less than the given element.
+     */
+    @Override
+    public Object lower(Object element) throws IllegalElementException {
+        // Re-implementation for reasons of efficiency.
+        if (!canHaveAsElement(element))
+            throw new IllegalElementException(element, this);
+        return (compareElements(getRootElement(), element) < 0) ? getRootElement() : null;
+    }
+
+    /**
+     * Return the least element in this leaf search tree that is greater
+     * than or equal to the given element.
+     */
+    @Override
+    public Object ceiling(Object element) throws IllegalElementException {
+        // Re-implementation for reasons of efficiency.
+        if (!canHaveAsElement(element))
+            throw new IllegalElementException(element, this);
+        return (compareElements(getRootElement(), element) >= 0) ? getRootElement() : null;
+    }
+
+    /**
+     * Return the least element in this leaf search tree that is strictly
+     * greater than the given element.
+     */
+    @Override
+    public Object higher(Object element) throws IllegalElementException {
+        // Re-implementation for reasons of efficiency.
+        if (!canHaveAsElement(element))
+            throw new IllegalElementException(element, this);
+        return (compareElements(getRootElement(), element) > 0) ? getRootElement() : null;
+    }
+
+    /**
+     * Return the least element in this leaf search tree.
+     *
+     * @return The element stored in the root of this leaf search tree.
+     *       | result == getRootElement()
+     */
+    @Override
+    public Object first() {
+        return getRootElement();
+    }
+
+    /**
+     * Return the greatest element in this leaf search tree.
+     *
+     * @return The element stored in the root of this leaf search tree.
+     *       | result == getRootElement()
+     */
+    @Override
+    public Object last() {
+        return getRootElement();
+    }
+
     /**
      * Add the given element to this leaf search tree.
      */
@@ -103,15 +187,6 @@ public class LeafSearchTree extends LeafBinaryTree implements
         return (LeafSearchTree) super.clone();
     }
 
-    /**
-     * Return the element stored in the root of this leaf search
-     * tree.
-     */
-	@Override
-    protected Comparable getRootElement() {
-        return (Comparable) super.getRootElement();
-    }
-
     /**
      * Remove the element stored in the root of this leaf search tree.
      */
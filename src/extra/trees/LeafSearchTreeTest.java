@@ -99,9 +99,8 @@ public class LeafSearchTreeTest {
 
     // Test for the method getRootElement
 
-    @SuppressWarnings("unchecked")
-	@Test public void getRootElement_SingleCase() {
-        Comparable<Object> result = theTree.getRootElement();
+    @Test public void getRootElement_SingleCase() {
+        Object result = theTree.getRootElement();
         assertSame(theTree.getRootElement(), result);
     }
 
@@ -146,4 +145,71 @@ public class LeafSearchTreeTest {
         assertFalse(theTree.canHaveAsRightTree(null));
     }
 
+    // Test for the method getElementAt
+
+    @Test public void getElementAt_LegalIndex() {
+        assertEquals(23, theTree.getElementAt(1));
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void getElementAt_IllegalIndex() {
+        theTree.getElementAt(2);
+    }
+
+    // Test for the method getRankOf
+
+    @Test public void getRankOf_SingleCase() {
+        assertEquals(0, theTree.getRankOf(23));
+        assertEquals(1, theTree.getRankOf(24));
+    }
+
+    // Test for the methods floor, lower, ceiling and higher
+
+    @Test
+    public void floor_SeveralCases() throws Exception {
+        assertEquals(23, theTree.floor(23));
+        assertEquals(23, theTree.floor(30));
+        assertNull(theTree.floor(10));
+    }
+
+    @Test
+    public void lower_SeveralCases() throws Exception {
+        assertEquals(23, theTree.lower(24));
+        assertNull(theTree.lower(23));
+    }
+
+    @Test
+    public void ceiling_SeveralCases() throws Exception {
+        assertEquals(23, theTree.ceiling(23));
+        assertNull(theTree.ceiling(24));
+    }
+
+    @Test
+    public void higher_SeveralCases() throws Exception {
+        assertEquals(23, theTree.higher(22));
+        assertNull(theTree.higher(23));
+    }
+
+    @Test(expected = IllegalElementException.class)
+    public void floor_IllegalElement() throws Exception {
+        theTree.floor("abc");
+    }
+
+    // Test for the methods first and last
+
+    @Test
+    public void firstAndLast_SingleCase() {
+        assertEquals(23, theTree.first());
+        assertEquals(23, theTree.last());
+    }
+
+    // Test for the method subTreeIterator
+
+    @Test
+    public void subTreeIterator_SeveralCases() throws Exception {
+        assertTrue(theTree.subTreeIterator(23, 24).hasNext());
+        assertFalse(theTree.subTreeIterator(10, 23).hasNext());
+        assertEquals(23, theTree.tailTreeIterator(0).next());
+    }
+
 }
@@ -0,0 +1,73 @@
+package extra.trees;
+
+import static org.junit.Assert.*;
+
+import java.util.*;
+
+import org.junit.*;
+
+import extra.trees.exceptions.IllegalElementException;
+
+public class LongSearchTreeTest {
+
+    private LongSearchTree theTree;
+
+    @Before
+    public void setUp() throws Exception {
+        theTree = new LongSearchTree(20L, 5000000000L, 40L, 20L, -5000000000L);
+    }
+
+    // Test for the constructor
+
+    @Test
+    public void constructor_LegalCase() {
+        assertEquals(5, theTree.getNbElements());
+        assertEquals(2, theTree.getNbOccurrencesOf(20L));
+        assertEquals(1, theTree.getNbOccurrencesOf(5000000000L));
+        assertEquals(0, theTree.getNbOccurrencesOf(705032704L));
+    }
+
+    // Test for the method addElement
+
+    @Test
+    public void addElement_ManyElements() {
+        LongSearchTree newTree = new LongSearchTree();
+        for (long i = 0; i < 50000; i++)
+            newTree.addElement(i * 1000000007L);
+        assertEquals(50000, newTree.getNbElements());
+        assertTrue(newTree.getHeight() <= 23);
+        assertTrue(newTree.hasAsElement(49999 * 1000000007L));
+    }
+
+    // Test for the method removeElement
+
+    @Test
+    public void removeElement_LegalCase() {
+        theTree.removeElement(5000000000L);
+        theTree.removeElement(20L);
+        assertArrayEquals(new long[] { -5000000000L, 20L, 40L }, theTree.stream().toArray());
+    }
+
+    @Test(expected = IllegalElementException.class)
+    public void removeElement_NonExistingElement() {
+        theTree.removeElement(21L);
+    }
+
+    // Test for the method iterator
+
+    @Test
+    public void iterator_AscendingOrder() {
+        PrimitiveIterator.OfLong theIterator = theTree.iterator();
+        for (long element : new long[] { -5000000000L, 20L, 20L, 40L, 5000000000L })
+            assertEquals(element, theIterator.nextLong());
+        assertFalse(theIterator.hasNext());
+    }
+
+    // Test for the method stream
+
+    @Test
+    public void stream_SingleCase() {
+        assertEquals(80L, theTree.stream().sum());
+    }
+
+}
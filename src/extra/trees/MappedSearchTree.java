@@ -0,0 +1,554 @@
+package extra.trees;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import be.kuleuven.cs.som.annotate.*;
+import extra.trees.exceptions.*;
+
+/**
+ * A class of immutable search trees served straight from a file.
+ *   The elements of a search tree can be written to a file in a binary
+ *   format, in ascending order. A mapped search tree maps such a file
+ *   into memory, and looks up its elements by binary search on the mapped
+ *   pages. Nothing is deserialized when the file is loaded: the operating
+ *   system reads the pages of the file as they are needed, such that
+ *   loading a mapped search tree takes the same time whatever the number
+ *   of its elements.
+ *   The format supports search trees of which all elements are integers,
+ *   all elements are longs, or all elements are strings, ordered according
+ *   to their natural ordering. Integers and longs are stored as fixed-size
+ *   records. Strings are stored in UTF-8, preceded by a table with the
+ *   offset of each string.
+ *   Mapped search trees cannot be changed. They do not belong to the
+ *   hierarchy of binary trees, because that hierarchy reflects whether a
+ *   tree is empty in the types of the results of its methods.
+ *
+ * @invar   The elements of each mapped search tree are stored in ascending
+ *          order.
+ *        | for each I in 1..getNbElements()-1:
+ *        |   ((Comparable)getElementAt(I)).compareTo(getElementAt(I+1)) <= 0
+ * @note    A file is mapped as a whole, such that files of 2 gigabytes or
+ *          more cannot be loaded.
+ *
+ * @version  2.0
+ * @author   Eric Steegmans
+ */
+@SuppressWarnings("all")
+public class MappedSearchTree implements Iterable<Object> {
+
+    /**
+     * Write the elements of the given search tree to the given file.
+     *
+     * @param   tree
+     *          The search tree whose elements must be written.
+     * @param   file
+     *          The path of the file to write to.
+     * @post    A mapped search tree loaded from the given file stores the
+     *          same elements as the given search tree.
+     *        | for each element in Object:
+     *        |   (new MappedSearchTree(file)).getNbOccurrencesOf(element) ==
+     *        |     tree.getNbOccurrencesOf(element)
+     * @throws  IllegalArgumentException
+     *          The given search tree or the given path is not effective, the
+     *          given search tree orders its elements by means of a
+     *          comparator, or its elements are not all integers, not all
+     *          longs and not all strings.
+     *        | (tree == null) || (file == null) ||
+     *        | (tree.getComparator() != null) ||
+     *        | (! canWrite(tree))
+     * @throws  IOException
+     *          The given file could not be written.
+     */
+    public static void write(SearchTree tree, Path file)
+            throws IllegalArgumentException, IOException {
+        if ((tree == null) || (file == null) || (!canWrite(tree)))
+            throw new IllegalArgumentException();
+        Class<?> elementType = tree.isEmpty() ? null
+            : tree.iterator().next().getClass();
+        try (DataOutputStream output = new DataOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(file)))) {
+            output.writeInt(MAGIC_NUMBER);
+            output.writeInt(FORMAT_VERSION);
+            output.writeInt(getTypeCodeOf(elementType));
+            output.writeInt(tree.getNbElements());
+            if (elementType == Integer.class)
+                for (Object element : tree)
+                    output.writeInt((Integer) element);
+            else if (elementType == Long.class)
+                for (Object element : tree)
+                    output.writeLong((Long) element);
+            else if (elementType == String.class) {
+                byte[][] encodedElements = new byte[tree.getNbElements()][];
+                int index = 0;
+                for (Object element : tree)
+                    encodedElements[index++] =
+                        ((String) element).getBytes(StandardCharsets.UTF_8);
+                long offset = 0;
+                output.writeInt(0);
+                for (byte[] encodedElement : encodedElements) {
+                    offset += encodedElement.length;
+                    if (offset > Integer.MAX_VALUE)
+                        throw new IOException("Search tree too large");
+                    output.writeInt((int) offset);
+                }
+                for (byte[] encodedElement : encodedElements)
+                    output.write(encodedElement);
+            }
+        }
+    }
+
+    /**
+     * Check whether the elements of the given search tree can be written
+     * to a file.
+     *
+     * @param   tree
+     *          The search tree to check.
+     * @return  True if and only if the given search tree is effective, it
+     *          has no comparator, and all its elements are integers, all
+     *          its elements are longs or all its elements are strings.
+     *        | result ==
+     *        |   (tree != null) && (tree.getComparator() == null) &&
+     *        |   ( for some type in {Integer,Long,String}:
+     *        |       for each element in tree:
+     *        |         element.getClass() == type )
+     */
+    public static boolean canWrite(SearchTree tree) {
+        if ((tree == null) || (tree.getComparator() != null))
+            return false;
+        Class<?> elementType = null;
+        for (Object element : tree) {
+            if (elementType == null)
+                elementType = element.getClass();
+            if ((element.getClass() != elementType)
+                    || (getTypeCodeOf(elementType) == 0))
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Initialize this new mapped search tree with the elements written
+     * to the given file.
+     *
+     * @param   file
+     *          The path of the file to load.
+     * @post    This new mapped search tree stores the elements of the
+     *          search tree that has been written to the given file.
+     * @throws  IllegalArgumentException
+     *          The given path is not effective.
+     *        | file == null
+     * @throws  IOException
+     *          The given file could not be read, it is too large to be
+     *          mapped, or it does not contain a search tree written in the
+     *          format of mapped search trees.
+     * @note    The file is mapped read-only. Changing the file while this
+     *          new mapped search tree is in use, leads to undefined results.
+     */
+    public MappedSearchTree(Path file)
+            throws IllegalArgumentException, IOException {
+        if (file == null)
+            throw new IllegalArgumentException();
+        try (FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE)
+                throw new IOException("File too large to be mapped");
+            this.buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0,
+                channel.size()).order(ByteOrder.BIG_ENDIAN);
+        }
+        if ((buffer.capacity() < HEADER_SIZE)
+                || (buffer.getInt(0) != MAGIC_NUMBER)
+                || (buffer.getInt(4) != FORMAT_VERSION))
+            throw new IOException("Not a search tree file");
+        this.elementType = getTypeOf(buffer.getInt(8));
+        this.nbElements = buffer.getInt(12);
+        if ((nbElements < 0) || (buffer.capacity() < getMinimumFileSize()))
+            throw new IOException("Corrupt search tree file");
+    }
+
+    /**
+     * Return the minimum size of a file storing the elements of this
+     * mapped search tree, as derived from its header.
+     *
+     * @throws  IOException
+     *          The header of the file refers to an unknown element type.
+     */
+    @Raw
+    private long getMinimumFileSize() throws IOException {
+        if (elementType == null) {
+            if (nbElements != 0)
+                throw new IOException("Corrupt search tree file");
+            return HEADER_SIZE;
+        }
+        if (elementType == Integer.class)
+            return HEADER_SIZE + 4L * nbElements;
+        if (elementType == Long.class)
+            return HEADER_SIZE + 8L * nbElements;
+        long dataSize = HEADER_SIZE + 4L * (nbElements + 1);
+        if (buffer.capacity() < dataSize)
+            return dataSize;
+        return dataSize + buffer.getInt(HEADER_SIZE + 4 * nbElements);
+    }
+
+    /**
+     * Return the type of all the elements of this mapped search tree.
+     *
+     * @return  The null reference if this mapped search tree is empty.
+     *        | if (isEmpty())
+     *        |   then result == null
+     */
+    @Basic @Immutable
+    public Class<?> getElementType() {
+        return this.elementType;
+    }
+
+    /**
+     * Variable referencing the type of all the elements of this mapped
+     * search tree.
+     */
+    private final Class<?> elementType;
+
+    /**
+     * Check whether this mapped search tree can have the given element
+     * as one of its elements.
+     *
+     * @return  True if and only if the given element is effective, and it
+     *          has the type of all the elements of this mapped search tree,
+     *          or it is an integer, a long or a string if this mapped search
+     *          tree is empty.
+     *        | result == (element != null) &&
+     *        |   ( (element.getClass() == getElementType()) ||
+     *        |     ( isEmpty() &&
+     *        |       (element instanceof Integer || element instanceof Long ||
+     *        |        element instanceof String) ) )
+     */
+    public boolean canHaveAsElement(Object element) {
+        if (element == null)
+            return false;
+        if (elementType == null)
+            return getTypeCodeOf(element.getClass()) != 0;
+        return element.getClass() == elementType;
+    }
+
+    /**
+     * Return the total number of elements in this mapped search tree.
+     */
+    @Basic @Immutable
+    public int getNbElements() {
+        return this.nbElements;
+    }
+
+    /**
+     * Variable registering the total number of elements in this mapped
+     * search tree.
+     */
+    private final int nbElements;
+
+    /**
+     * Check whether this mapped search tree has no elements.
+     *
+     * @return  True if and only if this mapped search tree has no elements.
+     *        | result == (getNbElements() == 0)
+     */
+    public boolean isEmpty() {
+        return getNbElements() == 0;
+    }
+
+    /**
+     * Return the element at the given index in this mapped search tree.
+     *
+     * @param   index
+     *          The index of the element to return.
+     * @return  The element at the given index, counting from 1, if the
+     *          elements of this mapped search tree are listed in ascending
+     *          order.
+     * @throws  IndexOutOfBoundsException
+     *          The given index is not positive or exceeds the number of
+     *          elements in this mapped search tree.
+     *        | (index < 1) || (index > getNbElements())
+     */
+    public Object getElementAt(int index) throws IndexOutOfBoundsException {
+        if ((index < 1) || (index > getNbElements()))
+            throw new IndexOutOfBoundsException();
+        return readElement(index - 1);
+    }
+
+    /**
+     * Return the number of elements in this mapped search tree that are
+     * less than the given element.
+     *
+     * @param   element
+     *          The element whose rank must be returned.
+     * @return  The number of occurrences of all the elements of this mapped
+     *          search tree that are less than the given element.
+     *        | result == card( { I in 1..getNbElements() :
+     *        |   ((Comparable)getElementAt(I)).compareTo(element) < 0 } )
+     * @throws  IllegalElementException
+     *          This mapped search tree cannot have the given element as one
+     *          of its elements.
+     *        | ! canHaveAsElement(element)
+     */
+    public int getRankOf(Object element) throws IllegalElementException {
+        if (!canHaveAsElement(element))
+            throw new IllegalElementException(element, null);
+        return getLowerBoundPosition(element, false);
+    }
+
+    /**
+     * Return the number of occurrences of the given element in this mapped
+     * search tree.
+     *
+     * @return  Zero if this mapped search tree cannot have the given element
+     *          as one of its elements.
+     *        | if (! canHaveAsElement(element))
+     *        |   then result == 0
+     */
+    @Basic
+    public int getNbOccurrencesOf(Object element) {
+        if ((!canHaveAsElement(element)) || isEmpty())
+            return 0;
+        return getLowerBoundPosition(element, true)
+            - getLowerBoundPosition(element, false);
+    }
+
+    /**
+     * Check whether the given element is stored in this mapped search tree.
+     *
+     * @return  True if and only if the given element occurs at least once
+     *          in this mapped search tree.
+     *        | result == (getNbOccurrencesOf(element) > 0)
+     */
+    public boolean hasAsElement(Object element) {
+        if ((!canHaveAsElement(element)) || isEmpty())
+            return false;
+        int position = getLowerBoundPosition(element, false);
+        return (position < nbElements) && (compareAt(position, element) == 0);
+    }
+
+    /**
+     * Return the position of the first element in this mapped search tree
+     * that is greater than the given element, or that is not less than the
+     * given element.
+     *
+     * @param   element
+     *          The element to compare with.
+     * @param   strict
+     *          A flag indicating whether the elements equal to the given
+     *          element must be skipped.
+     * @return  The number of elements of this mapped search tree if no such
+     *          element exists.
+     * @pre     This mapped search tree can have the given element as one of
+     *          its elements.
+     */
+    private int getLowerBoundPosition(Object element, boolean strict) {
+        int low = 0;
+        int high = nbElements;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            int comparison = compareAt(middle, element);
+            if ((comparison < 0) || (strict && (comparison == 0)))
+                low = middle + 1;
+            else
+                high = middle;
+        }
+        return low;
+    }
+
+    /**
+     * Compare the element at the given position in this mapped search tree
+     * with the given element.
+     *
+     * @pre     This mapped search tree is not empty, and it can have the given
+     *          element as one of its elements.
+     * @note    Integers and longs are compared without creating objects for
+     *          the elements in the file.
+     */
+    private int compareAt(int position, Object element) {
+        if (elementType == Integer.class)
+            return Integer.compare(buffer.getInt(HEADER_SIZE + 4 * position),
+                (Integer) element);
+        if (elementType == Long.class)
+            return Long.compare(buffer.getLong(HEADER_SIZE + 8 * position),
+                (Long) element);
+        return ((String) readElement(position)).compareTo((String) element);
+    }
+
+    /**
+     * Return the element at the given position in this mapped search tree.
+     *
+     * @pre     The given position is not negative and it is less than the
+     *          number of elements in this mapped search tree.
+     */
+    private Object readElement(int position) {
+        if (elementType == Integer.class)
+            return buffer.getInt(HEADER_SIZE + 4 * position);
+        if (elementType == Long.class)
+            return buffer.getLong(HEADER_SIZE + 8 * position);
+        int offsetTable = HEADER_SIZE + 4 * position;
+        int start = buffer.getInt(offsetTable);
+        byte[] encodedElement = new byte[buffer.getInt(offsetTable + 4) - start];
+        // A view keeps the position of the shared buffer untouched.
+        ByteBuffer view = buffer.duplicate();
+        view.position(HEADER_SIZE + 4 * (nbElements + 1) + start);
+        view.get(encodedElement);
+        return new String(encodedElement, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Return an iterator returning all the elements in this mapped search
+     * tree in ascending order.
+     *
+     * @return  An iterator for all the elements without bounds.
+     *        | result == subTreeIterator(null,null)
+     */
+    @Override
+    public Iterator<Object> iterator() {
+        return iterator(0, nbElements);
+    }
+
+    /**
+     * Return an iterator returning, in ascending order, all the elements
+     * in this mapped search tree that are not less than the given lower
+     * bound and that are less than the given upper bound.
+     *
+     * @param   from
+     *          The lower bound (inclusive), or the null reference if the
+     *          elements are not bounded from below.
+     * @param   to
+     *          The upper bound (exclusive), or the null reference if the
+     *          elements are not bounded from above.
+     * @return  The resulting iterator returns the elements at the indices
+     *          from the rank of the lower bound up to the rank of the upper
+     *          bound, in ascending order.
+     *        | for each I in 1..(getRankOf(to)-getRankOf(from)):
+     *        |   the I-th element returned by result ==
+     *        |     getElementAt(getRankOf(from)+I)
+     * @throws  IllegalElementException
+     *          One of the given bounds is effective, and this mapped search
+     *          tree cannot have it as one of its elements.
+     *        | ( (from != null) && (! canHaveAsElement(from)) ) ||
+     *        | ( (to != null) && (! canHaveAsElement(to)) )
+     * @throws  IllegalArgumentException
+     *          Both bounds are effective and the lower bound is greater than
+     *          the upper bound.
+     *        | (from != null) && (to != null) &&
+     *        | (((Comparable)from).compareTo(to) > 0)
+     * @note    Both bounds are looked up by binary search, after which only
+     *          the elements within the bounds are read.
+     */
+    public Iterator<Object> subTreeIterator(Object from, Object to)
+            throws IllegalElementException, IllegalArgumentException {
+        if ((from != null) && (!canHaveAsElement(from)))
+            throw new IllegalElementException(from, null);
+        if ((to != null) && (!canHaveAsElement(to)))
+            throw new IllegalElementException(to, null);
+        if ((from != null) && (to != null)
+                && (((Comparable) from).compareTo(to) > 0))
+            throw new IllegalArgumentException();
+        return iterator((from == null) ? 0 : getRankOf(from),
+            (to == null) ? nbElements : getRankOf(to));
+    }
+
+    /**
+     * Return an iterator returning the elements of this mapped search tree
+     * from the given start position up to the given end position.
+     */
+    private Iterator<Object> iterator(final int start, final int end) {
+        return new Iterator<Object>() {
+
+            public boolean hasNext() {
+                return nextPosition < end;
+            }
+
+            public Object next() throws NoSuchElementException {
+                if (!hasNext())
+                    throw new NoSuchElementException();
+                return readElement(nextPosition++);
+            }
+
+            private int nextPosition = start;
+
+        };
+    }
+
+    /**
+     * Return a stream that delivers all the elements of this mapped search
+     * tree in ascending order.
+     *
+     * @return  An effective stream that delivers the same elements in the
+     *          same order as the iterator for this mapped search tree.
+     */
+    public Stream<Object> stream() {
+        return StreamSupport.stream(Spliterators.spliterator(iterator(),
+            getNbElements(), Spliterator.ORDERED | Spliterator.SORTED
+                | Spliterator.NONNULL | Spliterator.IMMUTABLE), false);
+    }
+
+    /**
+     * Variable referencing the buffer mapped onto the file storing the
+     * elements of this mapped search tree.
+     *
+     * @note    Absolute reads from a buffer do not change its position, such
+     *          that a single buffer can be shared by concurrent readers.
+     */
+    private final ByteBuffer buffer;
+
+    /**
+     * Return the code identifying the given element type in a file.
+     *
+     * @return  Zero if the given type cannot be written.
+     */
+    private static int getTypeCodeOf(Class<?> elementType) {
+        if (elementType == Integer.class)
+            return 1;
+        if (elementType == Long.class)
+            return 2;
+        if (elementType == String.class)
+            return 3;
+        return 0;
+    }
+
+    /**
+     * Return the element type identified by the given code in a file.
+     *
+     * @throws  IOException
+     *          The given code does not identify a type.
+     */
+    private static Class<?> getTypeOf(int typeCode) throws IOException {
+        switch (typeCode) {
+            case 0:
+                return null;
+            case 1:
+                return Integer.class;
+            case 2:
+                return Long.class;
+            case 3:
+                return String.class;
+            default:
+                throw new IOException("Unknown element type");
+        }
+    }
+
+    /**
+     * Constants reflecting the first and the second integer in a file
+     * storing a search tree.
+     */
+    private static final int MAGIC_NUMBER = 0x4F475054;
+
+    private static final int FORMAT_VERSION = 1;
+
+    /**
+     * Constant reflecting the number of bytes in the header of a file,
+     * which consists of the magic number, the format version, the code of
+     * the element type and the number of elements.
+     */
+    private static final int HEADER_SIZE = 16;
+
+}
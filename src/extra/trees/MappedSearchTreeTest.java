@@ -0,0 +1,202 @@
+package extra.trees;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.*;
+import java.util.stream.Collectors;
+
+import org.junit.*;
+import org.junit.rules.TemporaryFolder;
+
+import extra.trees.exceptions.IllegalElementException;
+
+public class MappedSearchTreeTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Path file;
+
+    private MappedSearchTree theTree;
+
+    @Before
+    public void setUp() throws Exception {
+        file = folder.newFile().toPath();
+        MappedSearchTree.write(new ComposedSearchTree(20, 50, 40, 20, 70, 20, 100), file);
+        theTree = new MappedSearchTree(file);
+    }
+
+    private static List<Object> elementsOf(Iterator<Object> iterator) {
+        List<Object> elements = new ArrayList<Object>();
+        while (iterator.hasNext())
+            elements.add(iterator.next());
+        return elements;
+    }
+
+    // Test for the method write and for the constructor
+
+    @Test
+    public void constructor_IntegerElements() {
+        assertEquals(7, theTree.getNbElements());
+        assertSame(Integer.class, theTree.getElementType());
+        assertEquals(Arrays.asList(20, 20, 20, 40, 50, 70, 100),
+            elementsOf(theTree.iterator()));
+    }
+
+    @Test
+    public void constructor_LongElements() throws Exception {
+        MappedSearchTree.write(new ComposedSearchTree(5000000000L, -1L, 7L), file);
+        MappedSearchTree newTree = new MappedSearchTree(file);
+        assertSame(Long.class, newTree.getElementType());
+        assertEquals(Arrays.asList(-1L, 7L, 5000000000L),
+            elementsOf(newTree.iterator()));
+        assertTrue(newTree.hasAsElement(5000000000L));
+        assertFalse(newTree.hasAsElement(7));
+    }
+
+    @Test
+    public void constructor_StringElements() throws Exception {
+        MappedSearchTree.write(new ComposedSearchTree("pear", "", "été",
+            "apple", "pear", "🍎"), file);
+        MappedSearchTree newTree = new MappedSearchTree(file);
+        assertSame(String.class, newTree.getElementType());
+        assertEquals(Arrays.asList("", "apple", "pear", "pear", "été",
+            "🍎"), elementsOf(newTree.iterator()));
+        assertEquals(2, newTree.getNbOccurrencesOf("pear"));
+        assertTrue(newTree.hasAsElement("été"));
+        assertFalse(newTree.hasAsElement("peach"));
+    }
+
+    @Test
+    public void constructor_EmptyTree() throws Exception {
+        MappedSearchTree.write(EmptySearchTree.getPrototype(), file);
+        MappedSearchTree newTree = new MappedSearchTree(file);
+        assertTrue(newTree.isEmpty());
+        assertNull(newTree.getElementType());
+        assertFalse(newTree.iterator().hasNext());
+        assertFalse(newTree.hasAsElement(10));
+    }
+
+    @Test
+    public void constructor_ManyElements() throws Exception {
+        Object[] elements = new Object[10000];
+        for (int i = 0; i < elements.length; i++)
+            elements[i] = 2 * i;
+        MappedSearchTree.write(BalancedSearchTree.fromElements(elements), file);
+        MappedSearchTree newTree = new MappedSearchTree(file);
+        for (int i = -1; i < 2 * elements.length; i++)
+            assertEquals((i >= 0) && (i % 2 == 0), newTree.hasAsElement(i));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void write_ComparatorTree() throws Exception {
+        MappedSearchTree.write(new ComparatorSearchTree(Integer.class,
+            Comparator.reverseOrder(), 1, 2), file);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void write_UnsupportedElements() throws Exception {
+        MappedSearchTree.write(new ComposedSearchTree(1.0, 2.0), file);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void write_NonEffectiveTree() throws Exception {
+        MappedSearchTree.write(null, file);
+    }
+
+    @Test(expected = IOException.class)
+    public void constructor_NotATreeFile() throws Exception {
+        Files.write(file, new byte[] { 1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16 });
+        new MappedSearchTree(file);
+    }
+
+    @Test(expected = IOException.class)
+    public void constructor_TruncatedFile() throws Exception {
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 1));
+        new MappedSearchTree(file);
+    }
+
+    // Test for the methods getNbOccurrencesOf and hasAsElement
+
+    @Test
+    public void getNbOccurrencesOf_SeveralCases() {
+        assertEquals(3, theTree.getNbOccurrencesOf(20));
+        assertEquals(1, theTree.getNbOccurrencesOf(100));
+        assertEquals(0, theTree.getNbOccurrencesOf(45));
+        assertEquals(0, theTree.getNbOccurrencesOf(null));
+        assertEquals(0, theTree.getNbOccurrencesOf("abc"));
+    }
+
+    @Test
+    public void hasAsElement_SeveralCases() {
+        assertTrue(theTree.hasAsElement(20));
+        assertTrue(theTree.hasAsElement(100));
+        assertFalse(theTree.hasAsElement(19));
+        assertFalse(theTree.hasAsElement(101));
+        assertFalse(theTree.hasAsElement(20L));
+    }
+
+    // Test for the methods getElementAt and getRankOf
+
+    @Test
+    public void getElementAt_LegalCase() {
+        assertEquals(20, theTree.getElementAt(1));
+        assertEquals(40, theTree.getElementAt(4));
+        assertEquals(100, theTree.getElementAt(7));
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void getElementAt_IllegalIndex() {
+        theTree.getElementAt(8);
+    }
+
+    @Test
+    public void getRankOf_LegalCase() throws Exception {
+        assertEquals(0, theTree.getRankOf(20));
+        assertEquals(3, theTree.getRankOf(21));
+        assertEquals(7, theTree.getRankOf(1000));
+    }
+
+    // Test for the iterators and for the method stream
+
+    @Test(expected = NoSuchElementException.class)
+    public void iterator_NoMoreElements() {
+        Iterator<Object> theIterator = theTree.iterator();
+        while (theIterator.hasNext())
+            theIterator.next();
+        theIterator.next();
+    }
+
+    @Test
+    public void subTreeIterator_LegalCase() throws Exception {
+        assertEquals(Arrays.asList(20, 20, 20, 40),
+            elementsOf(theTree.subTreeIterator(null, 50)));
+        assertEquals(Arrays.asList(40, 50, 70),
+            elementsOf(theTree.subTreeIterator(21, 100)));
+        assertEquals(Arrays.asList(70, 100),
+            elementsOf(theTree.subTreeIterator(70, null)));
+        assertEquals(Arrays.asList(),
+            elementsOf(theTree.subTreeIterator(41, 42)));
+    }
+
+    @Test(expected = IllegalElementException.class)
+    public void subTreeIterator_IllegalBound() throws Exception {
+        theTree.subTreeIterator("abc", null);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void subTreeIterator_BoundsInWrongOrder() throws Exception {
+        theTree.subTreeIterator(50, 40);
+    }
+
+    @Test
+    public void stream_SingleCase() {
+        assertEquals(Arrays.asList(20, 20, 20, 40, 50, 70, 100),
+            theTree.stream().collect(Collectors.toList()));
+        assertEquals(7, theTree.stream().spliterator().getExactSizeIfKnown());
+    }
+
+}
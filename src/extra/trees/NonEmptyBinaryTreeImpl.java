@@ -1,5 +1,10 @@
 package extra.trees;
 
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+
 import be.kuleuven.cs.som.annotate.*;
 import extra.trees.exceptions.*;
 
@@ -56,39 +61,114 @@ public abstract class NonEmptyBinaryTreeImpl implements
     /**
      * Return the number of occurrences of the given element in this
      * non-empty binary tree.
+     *
+     * @note    The nodes of this non-empty binary tree are visited in a loop
+     *          that descends into the left subtree of each node, and pushes
+     *          its right subtree on an explicit stack. The depth of this tree
+     *          therefore does not affect the depth of the Java stack.
      */
     @Basic
     @Override
     public int getNbOccurrencesOf(Object element) {
         int number = 0;
-        if ((getRootElement() == null) && (element == null))
-            number = 1;
-        else if ((getRootElement() != null) && getRootElement().equals(element))
-            number = 1;
-        // Because this is a raw method, there is no guarantee that
-        // the left tree and the right tree are effective.
-        if (getLeftTree() != null)
-            number += getLeftTree().getNbOccurrencesOf(element);
-        if (getRightTree() != null)
-            number += getRightTree().getNbOccurrencesOf(element);
-        return number;
+        Deque<NonEmptyBinaryTreeImpl> pendingTrees =
+            new ArrayDeque<NonEmptyBinaryTreeImpl>();
+        NonEmptyBinaryTreeImpl currentTree = this;
+        while (true) {
+            if (hasAsRootElement(currentTree, element))
+                number++;
+            // Because this is a raw method, there is no guarantee that
+            // the left tree and the right tree are effective.
+            BinaryTree leftTree = currentTree.getLeftTree();
+            BinaryTree rightTree = currentTree.getRightTree();
+            if (!(leftTree instanceof NonEmptyBinaryTreeImpl) && (leftTree != null))
+                number += leftTree.getNbOccurrencesOf(element);
+            if (!(rightTree instanceof NonEmptyBinaryTreeImpl) && (rightTree != null))
+                number += rightTree.getNbOccurrencesOf(element);
+            currentTree = nextTree(leftTree, rightTree, pendingTrees);
+            if (currentTree == null)
+                return number;
+        }
     }
 
     /**
      * Check whether this non-empty binary tree has the given element as
      * one of its elements.
+     *
+     * @note    The nodes of this non-empty binary tree are visited in the
+     *          same order as before: the root first, then the left subtree
+     *          and then the right subtree. Right subtrees still to be visited
+     *          are registered on an explicit stack.
      */
     @Override
     public boolean hasAsElement(Object element) {
         // Re-implementation for reasons of efficiency.
-        return ((getRootElement() == null) && (element == null))
-            || ((getRootElement() != null) && getRootElement().equals(element))
-            || getLeftTree().hasAsElement(element)
-            || getRightTree().hasAsElement(element);
+        Deque<NonEmptyBinaryTreeImpl> pendingTrees =
+            new ArrayDeque<NonEmptyBinaryTreeImpl>();
+        NonEmptyBinaryTreeImpl currentTree = this;
+        while (true) {
+            if (hasAsRootElement(currentTree, element))
+                return true;
+            BinaryTree leftTree = currentTree.getLeftTree();
+            BinaryTree rightTree = currentTree.getRightTree();
+            if (!(leftTree instanceof NonEmptyBinaryTreeImpl) && (leftTree != null)
+                    && leftTree.hasAsElement(element))
+                return true;
+            if (!(rightTree instanceof NonEmptyBinaryTreeImpl) && (rightTree != null)
+                    && rightTree.hasAsElement(element))
+                return true;
+            currentTree = nextTree(leftTree, rightTree, pendingTrees);
+            if (currentTree == null)
+                return false;
+        }
+    }
+
+    /**
+     * Return the next non-empty binary tree to be visited in a pre-order
+     * traversal, after the root of the tree with the given subtrees.
+     *
+     * @param   leftTree
+     *          The left subtree of the tree whose root has been visited.
+     * @param   rightTree
+     *          The right subtree of the tree whose root has been visited.
+     * @param   pendingTrees
+     *          The stack of right subtrees still to be visited.
+     * @return  The given left subtree, if it is a non-empty binary tree;
+     *          otherwise the given right subtree, if it is a non-empty
+     *          binary tree; otherwise the tree popped from the given stack,
+     *          or null if that stack is empty.
+     * @post    If both given subtrees are non-empty binary trees, the given
+     *          right subtree is pushed on the given stack.
+     */
+    private static NonEmptyBinaryTreeImpl nextTree(BinaryTree leftTree,
+            BinaryTree rightTree, Deque<NonEmptyBinaryTreeImpl> pendingTrees) {
+        if (leftTree instanceof NonEmptyBinaryTreeImpl) {
+            if (rightTree instanceof NonEmptyBinaryTreeImpl)
+                pendingTrees.push((NonEmptyBinaryTreeImpl) rightTree);
+            return (NonEmptyBinaryTreeImpl) leftTree;
+        }
+        if (rightTree instanceof NonEmptyBinaryTreeImpl)
+            return (NonEmptyBinaryTreeImpl) rightTree;
+        return pendingTrees.poll();
+    }
+
+    /**
+     * Check whether the given element is stored in the root of the given
+     * non-empty binary tree.
+     */
+    private static boolean hasAsRootElement(NonEmptyBinaryTreeImpl tree,
+            Object element) {
+        Object rootElement = tree.getRootElement();
+        return (rootElement == null) ? (element == null)
+            : rootElement.equals(element);
     }
 
     /**
      * Return the total number of elements in this non-empty binary tree.
+     *
+     * @note    Composed binary trees register their number of elements.
+     *          This method therefore does not descend deeper than the
+     *          subtrees of this non-empty binary tree.
      */
     @Raw
     @Override
@@ -101,6 +181,155 @@ public abstract class NonEmptyBinaryTreeImpl implements
         return nbElements;
     }
 
+    /**
+     * Return a hash code for the elements of this non-empty binary tree.
+     *
+     * @return The element hash of the root element of this non-empty binary
+     *         tree, added to the content hashes of both its subtrees.
+     *       | result == getElementHash(getRootElement()) +
+     *       |   getLeftTree().getContentHash() + getRightTree().getContentHash()
+     * @note    Composed binary trees register the content hash of their
+     *          subtrees, just like their number of elements. This method
+     *          therefore does not descend deeper than the subtrees of this
+     *          non-empty binary tree.
+     */
+    @Raw
+    @Override
+    public long getContentHash() {
+        long contentHash = getElementHash(getRootElement());
+        if (getLeftTree() != null)
+            contentHash += getLeftTree().getContentHash();
+        if (getRightTree() != null)
+            contentHash += getRightTree().getContentHash();
+        return contentHash;
+    }
+
+    /**
+     * Return the hash of the given element, as it contributes to the
+     * content hash of binary trees.
+     *
+     * @return  The hash code of the given element, spread over all the bits
+     *          of a long.
+     *        | result == mix(Objects.hashCode(element))
+     * @note    Content hashes add the hashes of their elements. Mixing the
+     *          hash code of each element first, prevents small hash codes,
+     *          such as the hash codes of integers, from adding up to the same
+     *          sum for different elements.
+     */
+    public static long getElementHash(Object element) {
+        return mix((element == null) ? 0 : element.hashCode());
+    }
+
+    /**
+     * Return the given value, with its bits mixed such that each bit of
+     * the given value influences all the bits of the result.
+     *
+     * @note    The value is finalized as in the SplitMix64 generator.
+     *          Different values yield different results.
+     */
+    static long mix(long value) {
+        value = (value ^ (value >>> 30)) * 0xBF58476D1CE4E5B9L;
+        value = (value ^ (value >>> 27)) * 0x94D049BB133111EBL;
+        return value ^ (value >>> 31);
+    }
+
+    /**
+     * Check whether this non-empty binary tree has the same elements as
+     * the given object.
+     *
+     * @return  True if and only if the given object is a binary tree in
+     *          which each element occurs as many times as in this non-empty
+     *          binary tree.
+     *        | result == (other instanceof BinaryTree) &&
+     *        |   for each element in (Object union {null}):
+     *        |     ((BinaryTree)other).getNbOccurrencesOf(element) ==
+     *        |       getNbOccurrencesOf(element)
+     * @note    The shape of both trees is not taken into account. A search
+     *          tree and an unsorted tree with the same elements are equal.
+     * @note    Trees with a different number of elements or with a different
+     *          content hash are told apart in constant time. Otherwise, both
+     *          trees are traversed side by side, skipping all the subtrees
+     *          they share. Versions of a persistent search tree are thus
+     *          compared in time proportional to the number of trees copied
+     *          from one version to the other.
+     */
+    @Override
+    public boolean equals(Object other) {
+        if (other == this)
+            return true;
+        if (!(other instanceof BinaryTree))
+            return false;
+        BinaryTree otherTree = (BinaryTree) other;
+        if ((getNbElements() != otherTree.getNbElements())
+                || (getContentHash() != otherTree.getContentHash()))
+            return false;
+        // The map registers, for each element met so far, how many more
+        // times it has been met in this tree than in the other tree.
+        Map<Object, Integer> surplus = new HashMap<Object, Integer>();
+        Deque<BinaryTree> pendingPairs = new ArrayDeque<BinaryTree>();
+        pendingPairs.push(otherTree);
+        pendingPairs.push(this);
+        while (!pendingPairs.isEmpty()) {
+            BinaryTree tree = pendingPairs.pop();
+            BinaryTree pairedTree = pendingPairs.pop();
+            if (tree == pairedTree)
+                continue;
+            if ((tree instanceof NonEmptyBinaryTreeImpl)
+                    && (pairedTree instanceof NonEmptyBinaryTreeImpl)) {
+                NonEmptyBinaryTreeImpl node = (NonEmptyBinaryTreeImpl) tree;
+                NonEmptyBinaryTreeImpl pairedNode =
+                    (NonEmptyBinaryTreeImpl) pairedTree;
+                // Trees of the same shape mostly pair equal root elements,
+                // which need not be registered.
+                if (!hasAsRootElement(pairedNode, node.getRootElement())) {
+                    addSurplus(surplus, node.getRootElement(), 1);
+                    addSurplus(surplus, pairedNode.getRootElement(), -1);
+                }
+                pendingPairs.push(pairedNode.getRightTree());
+                pendingPairs.push(node.getRightTree());
+                pendingPairs.push(pairedNode.getLeftTree());
+                pendingPairs.push(node.getLeftTree());
+            }
+            else {
+                for (Object element : tree)
+                    addSurplus(surplus, element, 1);
+                for (Object element : pairedTree)
+                    addSurplus(surplus, element, -1);
+            }
+        }
+        return surplus.isEmpty();
+    }
+
+    /**
+     * Add the given number to the surplus registered for the given element
+     * in the given map, and remove the element from the map if its surplus
+     * becomes zero.
+     */
+    private static void addSurplus(Map<Object, Integer> surplus,
+            Object element, int number) {
+        Integer oldSurplus = surplus.get(element);
+        int newSurplus = (oldSurplus == null) ? number : oldSurplus + number;
+        if (newSurplus == 0)
+            surplus.remove(element);
+        else
+            surplus.put(element, newSurplus);
+    }
+
+    /**
+     * Return the hash code of this non-empty binary tree.
+     *
+     * @return  The content hash of this non-empty binary tree, folded into
+     *          an integer.
+     *        | result == Long.hashCode(getContentHash())
+     * @note    The hash code of a binary tree changes if elements are added
+     *          to it or removed from it. Binary trees must therefore not be
+     *          changed while they are stored in hash-based collections.
+     */
+    @Override
+    public int hashCode() {
+        return Long.hashCode(getContentHash());
+    }
+
 	/**
 	 * Return a clone of this binary tree.
 	 */
@@ -260,9 +489,26 @@ public abstract class NonEmptyBinaryTreeImpl implements
     @Override
     @Raw
     public boolean hasAsSubTree(BinaryTree tree) {
-        return (getLeftTree() == tree) || (getRightTree() == tree)
-            || getLeftTree().hasAsSubTree(tree)
-            || getRightTree().hasAsSubTree(tree);
+        // The subtrees are visited in a loop, because this method is
+        // checked each time a subtree is replaced.
+        Deque<NonEmptyBinaryTreeImpl> pendingTrees =
+            new ArrayDeque<NonEmptyBinaryTreeImpl>();
+        NonEmptyBinaryTreeImpl currentTree = this;
+        while (true) {
+            BinaryTree leftTree = currentTree.getLeftTree();
+            BinaryTree rightTree = currentTree.getRightTree();
+            if ((leftTree == tree) || (rightTree == tree))
+                return true;
+            if (!(leftTree instanceof NonEmptyBinaryTreeImpl) && (leftTree != null)
+                    && leftTree.hasAsSubTree(tree))
+                return true;
+            if (!(rightTree instanceof NonEmptyBinaryTreeImpl) && (rightTree != null)
+                    && rightTree.hasAsSubTree(tree))
+                return true;
+            currentTree = nextTree(leftTree, rightTree, pendingTrees);
+            if (currentTree == null)
+                return false;
+        }
     }
 
     /**
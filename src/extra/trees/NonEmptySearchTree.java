@@ -26,6 +26,24 @@ public interface NonEmptySearchTree extends SearchTree, NonEmptyBinaryTree {
     @Override
     public abstract boolean canHaveAsElement(Object element);
 
+    /**
+     * Return the least element in this non-empty search tree.
+     *
+     * @return The resulting element is the first element in the ascending
+     *         sequence of all the elements in this non-empty search tree.
+     *       | result == getElementAt(1)
+     */
+    public abstract Object first();
+
+    /**
+     * Return the greatest element in this non-empty search tree.
+     *
+     * @return The resulting element is the last element in the ascending
+     *         sequence of all the elements in this non-empty search tree.
+     *       | result == getElementAt(getNbElements())
+     */
+    public abstract Object last();
+
     /**
      * Add the given element to this non-empty search tree.
      */
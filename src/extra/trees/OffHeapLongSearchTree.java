@@ -0,0 +1,705 @@
+package extra.trees;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.*;
+import java.util.stream.LongStream;
+import java.util.stream.StreamSupport;
+
+import be.kuleuven.cs.som.annotate.*;
+import extra.trees.exceptions.*;
+
+/**
+ * A class of search trees storing values of the primitive type long
+ * outside the heap.
+ *   Just like long search trees, off-heap long search trees represent
+ *   each node by an index, and share a single node among all occurrences
+ *   of the same element. Their nodes are not stored in arrays on the heap,
+ *   but in direct byte buffers, each of them storing a fixed number of
+ *   nodes. The garbage collector thus only sees a few buffer objects,
+ *   whatever the number of elements in the tree, and the time it spends
+ *   on an off-heap long search tree does not grow with its size.
+ *   A node takes 24 bytes: 8 bytes for its element, 4 bytes for its number
+ *   of occurrences, 4 bytes for each of its subtrees and 1 byte for its
+ *   height. Nodes that are no longer used are chained in a list of free
+ *   nodes, and reused before new buffers are allocated.
+ *   Off-heap long search trees rebalance themselves after each addition
+ *   and removal (AVL trees). They are changed in place. Once closed, they
+ *   no longer refer to their buffers, and they can no longer be used.
+ *
+ * @invar   The heights of the subtrees of each node in an off-heap long
+ *          search tree differ by at most one.
+ * @invar   The number of nodes per buffer of each off-heap long search tree
+ *          is a power of two.
+ *        | Integer.bitCount(getNbNodesPerBuffer()) == 1
+ * @note    Direct byte buffers cannot be released explicitly. Closing an
+ *          off-heap long search tree drops all references to its buffers,
+ *          such that their memory is returned to the operating system as
+ *          soon as the garbage collector notices that the (few) buffer
+ *          objects are unreachable.
+ * @note    Off-heap long search trees do not implement the interface
+ *          SearchTree. That interface stores boxed objects in persistent
+ *          trees, whose changes return new trees, whereas off-heap long
+ *          search trees store unboxed longs and are changed in place.
+ *          A search tree with the same elements is returned by snapshot.
+ *
+ * @version  2.0
+ * @author   Eric Steegmans
+ */
+public class OffHeapLongSearchTree implements Iterable<Long>, AutoCloseable {
+
+    /**
+     * Initialize this new off-heap long search tree with given number of
+     * nodes per buffer and given elements.
+     *
+     * @param   nbNodesPerBuffer
+     *          The number of nodes to be stored in each of the buffers of
+     *          this new off-heap long search tree.
+     * @param   elements
+     *          The elements to be stored in this new off-heap long search
+     *          tree.
+     * @post    The number of nodes per buffer of this new off-heap long
+     *          search tree is equal to the given number.
+     *        | new.getNbNodesPerBuffer() == nbNodesPerBuffer
+     * @effect  Each of the given elements is added to this new off-heap
+     *          long search tree.
+     *        | for each element in elements:
+     *        |   addElement(element)
+     * @throws  IllegalArgumentException
+     *          The given number of nodes per buffer is not a power of two
+     *          between 2 and 2^26.
+     *        | (Integer.bitCount(nbNodesPerBuffer) != 1) ||
+     *        | (nbNodesPerBuffer < 2) || (nbNodesPerBuffer > 1 << 26)
+     */
+    public OffHeapLongSearchTree(int nbNodesPerBuffer, long... elements)
+            throws IllegalArgumentException {
+        if ((Integer.bitCount(nbNodesPerBuffer) != 1) || (nbNodesPerBuffer < 2)
+                || (nbNodesPerBuffer > MAX_NB_NODES_PER_BUFFER))
+            throw new IllegalArgumentException();
+        this.bufferShift = Integer.numberOfTrailingZeros(nbNodesPerBuffer);
+        for (long element : elements)
+            addElement(element);
+    }
+
+    /**
+     * Initialize this new off-heap long search tree with given elements.
+     *
+     * @param   elements
+     *          The elements to be stored in this new off-heap long search
+     *          tree.
+     * @effect  This new off-heap long search tree is initialized with
+     *          2^16 nodes per buffer and with the given elements.
+     *        | this(1 << 16, elements)
+     */
+    public OffHeapLongSearchTree(long... elements) {
+        this(1 << 16, elements);
+    }
+
+    /**
+     * Return the number of nodes stored in each of the buffers of this
+     * off-heap long search tree.
+     */
+    @Basic @Immutable
+    public int getNbNodesPerBuffer() {
+        return 1 << bufferShift;
+    }
+
+    /**
+     * Variable registering the base-2 logarithm of the number of nodes
+     * stored in each of the buffers of this off-heap long search tree.
+     */
+    private final int bufferShift;
+
+    /**
+     * Constant reflecting the maximum number of nodes in a single buffer.
+     *
+     * @note    A buffer of that many nodes takes 1.5 gigabytes, which is
+     *          still below the maximum capacity of a byte buffer.
+     */
+    public static final int MAX_NB_NODES_PER_BUFFER = 1 << 26;
+
+    /**
+     * Return the number of occurrences of the given element in this
+     * off-heap long search tree.
+     *
+     * @throws  IllegalStateException
+     *          This off-heap long search tree is closed.
+     *        | isClosed()
+     */
+    @Basic
+    public int getNbOccurrencesOf(long element) throws IllegalStateException {
+        ensureOpen();
+        int node = root;
+        while (node != NIL) {
+            long key = getKey(node);
+            if (element < key)
+                node = getLeftTree(node);
+            else if (element > key)
+                node = getRightTree(node);
+            else
+                return getCount(node);
+        }
+        return 0;
+    }
+
+    /**
+     * Check whether the given element is stored in this off-heap long
+     * search tree.
+     *
+     * @return  True if and only if the given element occurs at least once
+     *          in this off-heap long search tree.
+     *        | result == (getNbOccurrencesOf(element) > 0)
+     * @throws  IllegalStateException
+     *          This off-heap long search tree is closed.
+     *        | isClosed()
+     */
+    public boolean hasAsElement(long element) throws IllegalStateException {
+        return getNbOccurrencesOf(element) > 0;
+    }
+
+    /**
+     * Return the total number of elements in this off-heap long search tree.
+     */
+    @Basic
+    public int getNbElements() {
+        return nbElements;
+    }
+
+    /**
+     * Check whether this off-heap long search tree has no elements.
+     *
+     * @return  True if and only if this off-heap long search tree has no
+     *          elements.
+     *        | result == (getNbElements() == 0)
+     */
+    public boolean isEmpty() {
+        return getNbElements() == 0;
+    }
+
+    /**
+     * Return the height of this off-heap long search tree.
+     *
+     * @return  Zero if this off-heap long search tree is empty; otherwise
+     *          the number of nodes on the longest path from the root to a
+     *          leaf.
+     * @throws  IllegalStateException
+     *          This off-heap long search tree is closed.
+     *        | isClosed()
+     */
+    public int getHeight() throws IllegalStateException {
+        ensureOpen();
+        return (root == NIL) ? 0 : getHeightOf(root);
+    }
+
+    /**
+     * Return the number of nodes for which this off-heap long search tree
+     * has allocated memory, including the node representing empty subtrees.
+     *
+     * @return  The number of buffers of this off-heap long search tree,
+     *          times the number of nodes per buffer.
+     *        | result == getNbBuffers() * getNbNodesPerBuffer()
+     */
+    public long getCapacity() {
+        return (long) nbBuffers << bufferShift;
+    }
+
+    /**
+     * Return the number of buffers allocated by this off-heap long search
+     * tree.
+     */
+    @Basic
+    public int getNbBuffers() {
+        return nbBuffers;
+    }
+
+    /**
+     * Add the given element to this off-heap long search tree.
+     *
+     * @param   element
+     *          The element to be added.
+     * @post    The number of occurrences of the given element in this
+     *          off-heap long search tree is incremented by 1.
+     *        | new.getNbOccurrencesOf(element) ==
+     *        |   getNbOccurrencesOf(element) + 1
+     * @throws  IllegalStateException
+     *          This off-heap long search tree is closed.
+     *        | isClosed()
+     */
+    public void addElement(long element) throws IllegalStateException {
+        ensureOpen();
+        root = add(root, element);
+        nbElements++;
+        modCount++;
+    }
+
+    /**
+     * Remove one occurrence of the given element from this off-heap long
+     * search tree.
+     *
+     * @param   element
+     *          The element to be removed.
+     * @post    The number of occurrences of the given element in this
+     *          off-heap long search tree is decremented by 1.
+     *        | new.getNbOccurrencesOf(element) ==
+     *        |   getNbOccurrencesOf(element) - 1
+     * @throws  IllegalElementException
+     *          The given element is not stored in this off-heap long search
+     *          tree.
+     *        | ! hasAsElement(element)
+     * @throws  IllegalStateException
+     *          This off-heap long search tree is closed.
+     *        | isClosed()
+     */
+    public void removeElement(long element)
+            throws IllegalElementException, IllegalStateException {
+        if (!hasAsElement(element))
+            throw new IllegalElementException(element, null);
+        root = remove(root, element);
+        nbElements--;
+        modCount++;
+    }
+
+    /**
+     * Check whether this off-heap long search tree is closed.
+     */
+    @Basic
+    public boolean isClosed() {
+        return buffers == null;
+    }
+
+    /**
+     * Close this off-heap long search tree.
+     *
+     * @post    This off-heap long search tree is closed, and it has no
+     *          elements nor buffers.
+     *        | new.isClosed() && new.isEmpty() && (new.getNbBuffers() == 0)
+     * @note    Closing an off-heap long search tree that is already closed
+     *          has no effect.
+     */
+    @Override
+    public void close() {
+        buffers = null;
+        nbBuffers = 0;
+        root = NIL;
+        nbElements = 0;
+        nbUsedNodes = 1;
+        firstFreeNode = NIL;
+        modCount++;
+    }
+
+    /**
+     * Check whether this off-heap long search tree is still open.
+     *
+     * @throws  IllegalStateException
+     *          This off-heap long search tree is closed.
+     *        | isClosed()
+     */
+    private void ensureOpen() throws IllegalStateException {
+        if (isClosed())
+            throw new IllegalStateException("Off-heap tree is closed");
+    }
+
+    /**
+     * Return an iterator returning all the elements in this off-heap long
+     * search tree in ascending order.
+     *
+     * @throws  IllegalStateException
+     *          This off-heap long search tree is closed.
+     *        | isClosed()
+     * @note    The iterator fails fast if this off-heap long search tree is
+     *          changed or closed while iterating.
+     */
+    @Override
+    public PrimitiveIterator.OfLong iterator() throws IllegalStateException {
+        ensureOpen();
+        return new PrimitiveIterator.OfLong() {
+
+            public boolean hasNext() {
+                return (nbRemaining > 0) || (stackSize > 0);
+            }
+
+            public long nextLong() throws NoSuchElementException,
+                    ConcurrentModificationException {
+                if (modCount != expectedModCount)
+                    throw new ConcurrentModificationException();
+                if (!hasNext())
+                    throw new NoSuchElementException();
+                if (nbRemaining == 0) {
+                    currentNode = pendingNodes[--stackSize];
+                    nbRemaining = getCount(currentNode);
+                    pushLeftSpine(getRightTree(currentNode));
+                }
+                nbRemaining--;
+                return getKey(currentNode);
+            }
+
+            private void pushLeftSpine(int node) {
+                while (node != NIL) {
+                    pendingNodes[stackSize++] = node;
+                    node = getLeftTree(node);
+                }
+            }
+
+            // The height of an AVL tree with less than 2^31 nodes is
+            // less than 64.
+            private final int[] pendingNodes = new int[64];
+
+            private int stackSize = 0;
+
+            private int currentNode;
+
+            private int nbRemaining = 0;
+
+            private final int expectedModCount = modCount;
+
+            {
+                pushLeftSpine(root);
+            }
+
+        };
+    }
+
+    /**
+     * Return a stream that delivers all the elements of this off-heap long
+     * search tree in ascending order.
+     *
+     * @return  An effective stream that delivers the same elements in the
+     *          same order as the iterator for this off-heap long search tree.
+     * @throws  IllegalStateException
+     *          This off-heap long search tree is closed.
+     *        | isClosed()
+     */
+    public LongStream stream() throws IllegalStateException {
+        return StreamSupport.longStream(Spliterators.spliterator(iterator(),
+            getNbElements(), Spliterator.ORDERED | Spliterator.SORTED
+                | Spliterator.NONNULL), false);
+    }
+
+    /**
+     * Return a search tree storing the elements of this off-heap long
+     * search tree.
+     *
+     * @return  A balanced search tree storing the elements returned by the
+     *          iterator for this off-heap long search tree, boxed as longs.
+     *        | result.getNbElements() == getNbElements()
+     * @throws  IllegalStateException
+     *          This off-heap long search tree is closed.
+     *        | isClosed()
+     * @note    The resulting search tree is stored on the heap. Later
+     *          changes to this off-heap long search tree are not reflected
+     *          in it.
+     */
+    public SearchTree snapshot() throws IllegalStateException {
+        return BalancedSearchTree.fromSorted(iterator(), getNbElements());
+    }
+
+    /**
+     * Add the given element to the subtree rooted at the given node, and
+     * return the root of the resulting subtree.
+     */
+    private int add(int node, long element) {
+        if (node == NIL)
+            return createNode(element);
+        long key = getKey(node);
+        if (element < key)
+            setLeftTree(node, add(getLeftTree(node), element));
+        else if (element > key)
+            setRightTree(node, add(getRightTree(node), element));
+        else {
+            setCount(node, getCount(node) + 1);
+            return node;
+        }
+        return rebalance(node);
+    }
+
+    /**
+     * Remove one occurrence of the given element from the subtree rooted
+     * at the given node, and return the root of the resulting subtree.
+     *
+     * @pre     The given element is stored in the given subtree.
+     */
+    private int remove(int node, long element) {
+        long key = getKey(node);
+        if (element < key)
+            setLeftTree(node, remove(getLeftTree(node), element));
+        else if (element > key)
+            setRightTree(node, remove(getRightTree(node), element));
+        else if (getCount(node) > 1) {
+            setCount(node, getCount(node) - 1);
+            return node;
+        }
+        else if ((getLeftTree(node) == NIL) || (getRightTree(node) == NIL)) {
+            int child = (getLeftTree(node) != NIL) ? getLeftTree(node)
+                : getRightTree(node);
+            releaseNode(node);
+            return child;
+        }
+        else {
+            // Replace the element by the smallest element in the right
+            // subtree, and remove the node of that element.
+            int successor = getRightTree(node);
+            while (getLeftTree(successor) != NIL)
+                successor = getLeftTree(successor);
+            setKey(node, getKey(successor));
+            setCount(node, getCount(successor));
+            setRightTree(node, removeSmallest(getRightTree(node)));
+        }
+        return rebalance(node);
+    }
+
+    /**
+     * Remove the node with the smallest element from the subtree rooted at
+     * the given node, and return the root of the resulting subtree.
+     */
+    private int removeSmallest(int node) {
+        if (getLeftTree(node) == NIL) {
+            int rightTree = getRightTree(node);
+            releaseNode(node);
+            return rightTree;
+        }
+        setLeftTree(node, removeSmallest(getLeftTree(node)));
+        return rebalance(node);
+    }
+
+    /**
+     * Restore the balance of the subtree rooted at the given node, and
+     * return the root of the resulting subtree.
+     */
+    private int rebalance(int node) {
+        int leftTree = getLeftTree(node);
+        int rightTree = getRightTree(node);
+        int balance = getHeightOf(leftTree) - getHeightOf(rightTree);
+        if (balance > 1) {
+            if (getHeightOf(getLeftTree(leftTree))
+                    < getHeightOf(getRightTree(leftTree)))
+                setLeftTree(node, rotateLeft(leftTree));
+            return rotateRight(node);
+        }
+        if (balance < -1) {
+            if (getHeightOf(getRightTree(rightTree))
+                    < getHeightOf(getLeftTree(rightTree)))
+                setRightTree(node, rotateRight(rightTree));
+            return rotateLeft(node);
+        }
+        updateHeight(node);
+        return node;
+    }
+
+    /**
+     * Rotate the subtree rooted at the given node to the left, and return
+     * the root of the resulting subtree.
+     */
+    private int rotateLeft(int node) {
+        int rightTree = getRightTree(node);
+        setRightTree(node, getLeftTree(rightTree));
+        setLeftTree(rightTree, node);
+        updateHeight(node);
+        updateHeight(rightTree);
+        return rightTree;
+    }
+
+    /**
+     * Rotate the subtree rooted at the given node to the right, and return
+     * the root of the resulting subtree.
+     */
+    private int rotateRight(int node) {
+        int leftTree = getLeftTree(node);
+        setLeftTree(node, getRightTree(leftTree));
+        setRightTree(leftTree, node);
+        updateHeight(node);
+        updateHeight(leftTree);
+        return leftTree;
+    }
+
+    /**
+     * Recompute the height of the given node from the heights of its
+     * subtrees.
+     */
+    private void updateHeight(int node) {
+        setHeight(node, 1 + Math.max(getHeightOf(getLeftTree(node)),
+            getHeightOf(getRightTree(node))));
+    }
+
+    /**
+     * Return a new node storing a single occurrence of the given element.
+     *
+     * @note    Released nodes are reused first. Otherwise, a new buffer is
+     *          allocated if all the nodes in the existing buffers are used.
+     *          Existing buffers are never copied.
+     */
+    private int createNode(long element) {
+        int node;
+        if (firstFreeNode != NIL) {
+            node = firstFreeNode;
+            firstFreeNode = getLeftTree(node);
+        }
+        else {
+            if (nbUsedNodes >= getCapacity())
+                addBuffer();
+            node = nbUsedNodes++;
+        }
+        setKey(node, element);
+        setCount(node, 1);
+        setLeftTree(node, NIL);
+        setRightTree(node, NIL);
+        setHeight(node, 1);
+        return node;
+    }
+
+    /**
+     * Register the given node as a node that can be reused.
+     *
+     * @note    Released nodes are chained via their left subtree.
+     */
+    private void releaseNode(int node) {
+        setLeftTree(node, firstFreeNode);
+        firstFreeNode = node;
+    }
+
+    /**
+     * Allocate a new buffer for the nodes of this off-heap long search tree.
+     *
+     * @throws  IllegalStateException
+     *          This off-heap long search tree cannot have more nodes, because
+     *          their indices would no longer fit in an int.
+     * @note    The array referencing the buffers is doubled in size when it
+     *          is full. It is the only object on the heap whose size grows
+     *          with the number of elements, and it has a single entry per
+     *          buffer.
+     */
+    private void addBuffer() throws IllegalStateException {
+        if (getCapacity() + getNbNodesPerBuffer() > Integer.MAX_VALUE)
+            throw new IllegalStateException("Off-heap tree is full");
+        if (nbBuffers == buffers.length)
+            buffers = Arrays.copyOf(buffers, 2 * buffers.length);
+        buffers[nbBuffers++] = ByteBuffer.allocateDirect(
+            getNbNodesPerBuffer() * NODE_SIZE).order(ByteOrder.nativeOrder());
+    }
+
+    /**
+     * Return the height of the given node, which is zero for the node
+     * representing empty subtrees.
+     */
+    private int getHeightOf(int node) {
+        // The node representing empty subtrees may not have been allocated
+        // yet, and its height is zero anyway.
+        if (node == NIL)
+            return 0;
+        return getBuffer(node).get(getOffset(node) + HEIGHT_OFFSET);
+    }
+
+    private void setHeight(int node, int height) {
+        getBuffer(node).put(getOffset(node) + HEIGHT_OFFSET, (byte) height);
+    }
+
+    private long getKey(int node) {
+        return getBuffer(node).getLong(getOffset(node) + KEY_OFFSET);
+    }
+
+    private void setKey(int node, long key) {
+        getBuffer(node).putLong(getOffset(node) + KEY_OFFSET, key);
+    }
+
+    private int getCount(int node) {
+        return getBuffer(node).getInt(getOffset(node) + COUNT_OFFSET);
+    }
+
+    private void setCount(int node, int count) {
+        getBuffer(node).putInt(getOffset(node) + COUNT_OFFSET, count);
+    }
+
+    private int getLeftTree(int node) {
+        return getBuffer(node).getInt(getOffset(node) + LEFT_OFFSET);
+    }
+
+    private void setLeftTree(int node, int leftTree) {
+        getBuffer(node).putInt(getOffset(node) + LEFT_OFFSET, leftTree);
+    }
+
+    private int getRightTree(int node) {
+        return getBuffer(node).getInt(getOffset(node) + RIGHT_OFFSET);
+    }
+
+    private void setRightTree(int node, int rightTree) {
+        getBuffer(node).putInt(getOffset(node) + RIGHT_OFFSET, rightTree);
+    }
+
+    /**
+     * Return the buffer storing the given node.
+     */
+    private ByteBuffer getBuffer(int node) {
+        return buffers[node >>> bufferShift];
+    }
+
+    /**
+     * Return the offset of the given node in its buffer.
+     */
+    private int getOffset(int node) {
+        return (node & ((1 << bufferShift) - 1)) * NODE_SIZE;
+    }
+
+    /**
+     * Constants reflecting the number of bytes taken by a node, and the
+     * offsets of its element, its number of occurrences, its subtrees and
+     * its height within those bytes.
+     */
+    private static final int NODE_SIZE = 24;
+
+    private static final int KEY_OFFSET = 0;
+
+    private static final int COUNT_OFFSET = 8;
+
+    private static final int LEFT_OFFSET = 12;
+
+    private static final int RIGHT_OFFSET = 16;
+
+    private static final int HEIGHT_OFFSET = 20;
+
+    /**
+     * The index of the node representing an empty subtree.
+     *
+     * @note    The node at this index is never used to store an element.
+     */
+    private static final int NIL = 0;
+
+    /**
+     * Variable registering the node at the root of this off-heap long
+     * search tree.
+     */
+    private int root = NIL;
+
+    /**
+     * Variable registering the total number of elements in this off-heap
+     * long search tree.
+     */
+    private int nbElements = 0;
+
+    /**
+     * Variable registering the number of changes to this off-heap long
+     * search tree.
+     */
+    private int modCount = 0;
+
+    /**
+     * Variable referencing the buffers storing the nodes of this off-heap
+     * long search tree, or the null reference if it is closed.
+     */
+    private ByteBuffer[] buffers = new ByteBuffer[4];
+
+    /**
+     * Variable registering the number of buffers in use.
+     */
+    private int nbBuffers = 0;
+
+    /**
+     * Variable registering the number of nodes that have been used so far,
+     * including the node representing empty subtrees.
+     */
+    private int nbUsedNodes = 1;
+
+    /**
+     * Variable referencing the first node in the chain of released nodes.
+     */
+    private int firstFreeNode = NIL;
+
+}
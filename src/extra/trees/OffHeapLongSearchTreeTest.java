@@ -0,0 +1,177 @@
+package extra.trees;
+
+import static org.junit.Assert.*;
+
+import java.util.*;
+
+import org.junit.*;
+
+import extra.trees.exceptions.IllegalElementException;
+
+public class OffHeapLongSearchTreeTest {
+
+    private OffHeapLongSearchTree theTree;
+
+    @Before
+    public void setUp() throws Exception {
+        theTree = new OffHeapLongSearchTree(20L, 5000000000L, 40L, 20L, -5000000000L);
+    }
+
+    @After
+    public void tearDown() {
+        theTree.close();
+    }
+
+    // Test for the constructors
+
+    @Test
+    public void constructor_LegalCase() {
+        assertEquals(5, theTree.getNbElements());
+        assertEquals(1 << 16, theTree.getNbNodesPerBuffer());
+        assertEquals(2, theTree.getNbOccurrencesOf(20L));
+        assertEquals(1, theTree.getNbOccurrencesOf(5000000000L));
+        assertEquals(0, theTree.getNbOccurrencesOf(705032704L));
+        assertFalse(theTree.isClosed());
+    }
+
+    @Test
+    public void constructor_NoElements() {
+        try (OffHeapLongSearchTree newTree = new OffHeapLongSearchTree()) {
+            assertTrue(newTree.isEmpty());
+            assertEquals(0, newTree.getHeight());
+            assertEquals(0, newTree.getNbBuffers());
+            assertFalse(newTree.hasAsElement(0L));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void constructor_NonPowerOfTwo() {
+        new OffHeapLongSearchTree(100, 1L);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void constructor_TooFewNodesPerBuffer() {
+        new OffHeapLongSearchTree(1, 1L);
+    }
+
+    // Test for the method addElement
+
+    @Test
+    public void addElement_ManyElements() {
+        try (OffHeapLongSearchTree newTree = new OffHeapLongSearchTree(1024)) {
+            for (long i = 0; i < 50000; i++)
+                newTree.addElement(i * 1000000007L);
+            assertEquals(50000, newTree.getNbElements());
+            assertTrue(newTree.getHeight() <= 23);
+            assertTrue(newTree.hasAsElement(49999 * 1000000007L));
+            assertEquals(49, newTree.getNbBuffers());
+        }
+    }
+
+    // Test for the method removeElement
+
+    @Test
+    public void removeElement_LegalCase() {
+        theTree.removeElement(5000000000L);
+        theTree.removeElement(20L);
+        assertArrayEquals(new long[] { -5000000000L, 20L, 40L }, theTree.stream().toArray());
+    }
+
+    @Test(expected = IllegalElementException.class)
+    public void removeElement_NonExistingElement() {
+        theTree.removeElement(21L);
+    }
+
+    @Test
+    public void removeElement_ReleasedNodesReused() {
+        try (OffHeapLongSearchTree newTree = new OffHeapLongSearchTree(16)) {
+            for (long i = 0; i < 1000; i++)
+                newTree.addElement(i);
+            long capacity = newTree.getCapacity();
+            for (long i = 0; i < 1000; i += 2)
+                newTree.removeElement(i);
+            for (long i = 1000; i < 1500; i++)
+                newTree.addElement(i);
+            assertEquals(capacity, newTree.getCapacity());
+            assertEquals(1000, newTree.getNbElements());
+            long expected = 1;
+            PrimitiveIterator.OfLong theIterator = newTree.iterator();
+            while (expected < 1000) {
+                assertEquals(expected, theIterator.nextLong());
+                expected += 2;
+            }
+            expected = 1000;
+            while (expected < 1500)
+                assertEquals(expected++, theIterator.nextLong());
+            assertFalse(theIterator.hasNext());
+        }
+    }
+
+    // Test for the method close
+
+    @Test
+    public void close_SingleCase() {
+        theTree.close();
+        assertTrue(theTree.isClosed());
+        assertTrue(theTree.isEmpty());
+        assertEquals(0, theTree.getNbBuffers());
+        theTree.close();
+        assertTrue(theTree.isClosed());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void close_AddAfterClose() {
+        theTree.close();
+        theTree.addElement(10L);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void close_LookupAfterClose() {
+        theTree.close();
+        theTree.hasAsElement(20L);
+    }
+
+    // Test for the method iterator
+
+    @Test
+    public void iterator_AscendingOrder() {
+        PrimitiveIterator.OfLong theIterator = theTree.iterator();
+        for (long element : new long[] { -5000000000L, 20L, 20L, 40L, 5000000000L })
+            assertEquals(element, theIterator.nextLong());
+        assertFalse(theIterator.hasNext());
+    }
+
+    @Test(expected = ConcurrentModificationException.class)
+    public void iterator_ClosedWhileIterating() {
+        PrimitiveIterator.OfLong theIterator = theTree.iterator();
+        theIterator.nextLong();
+        theTree.close();
+        theIterator.nextLong();
+    }
+
+    // Test for the method stream
+
+    @Test
+    public void stream_SingleCase() {
+        assertEquals(80L, theTree.stream().sum());
+    }
+
+    // Test for the method snapshot
+
+    @Test
+    public void snapshot_SingleCase() {
+        SearchTree snapshot = theTree.snapshot();
+        assertEquals(5, snapshot.getNbElements());
+        assertEquals(2, snapshot.getNbOccurrencesOf(20L));
+        assertEquals(5000000000L, snapshot.getElementAt(5));
+        theTree.addElement(30L);
+        assertFalse(snapshot.hasAsElement(30L));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void snapshot_Closed() {
+        theTree.close();
+        theTree.snapshot();
+    }
+
+}
@@ -0,0 +1,64 @@
+package extra.trees;
+
+import extra.trees.exceptions.*;
+
+/**
+ * A class of persistent empty search trees.
+ *   Adding an element to a persistent empty search tree yields a new
+ *   persistent leaf search tree. Persistent empty search trees are the
+ *   starting point for building persistent search trees one element at
+ *   a time.
+ *
+ * @version  2.0
+ * @author   Eric Steegmans
+ */
+public class PersistentEmptySearchTree extends EmptySearchTree {
+
+    /**
+     * Return a reference to a predefined persistent empty search tree.
+     *
+     * @return A reference to an effective predefined persistent empty
+     *         search tree.
+     *       | result != null
+     */
+    public static PersistentEmptySearchTree getPrototype() {
+        return prototype;
+    }
+
+    /**
+     * Initialize this new persistent empty search tree.
+     */
+    protected PersistentEmptySearchTree() {
+    }
+
+    /**
+     * The prototype instance of a persistent empty search tree.
+     *
+     * @invar  The prototype of the persistent empty search tree is effective.
+     *       | prototype != null
+     */
+    private static PersistentEmptySearchTree prototype = new PersistentEmptySearchTree();
+
+    /**
+     * Return a new persistent leaf search tree storing the given element.
+     *
+     * @return The resulting tree is a new persistent leaf search tree.
+     *       | result instanceof PersistentLeafSearchTree
+     */
+    @Override
+    public PersistentLeafSearchTree addElement(Object element)
+            throws IllegalElementException {
+        return new PersistentLeafSearchTree(element);
+    }
+
+    /**
+     * Remove one occurrence of the given element from this persistent
+     * empty search tree.
+     */
+    @Override
+    public PersistentEmptySearchTree removeElement(Object element)
+            throws IllegalElementException {
+        return (PersistentEmptySearchTree) super.removeElement(element);
+    }
+
+}
@@ -0,0 +1,40 @@
+package extra.trees;
+
+import static org.junit.Assert.*;
+
+import org.junit.*;
+
+import extra.trees.exceptions.IllegalElementException;
+
+public class PersistentEmptySearchTreeTest {
+
+    // Test for the method getPrototype
+
+    @Test
+    public void getPrototype_SingleCase() {
+        assertNotNull(PersistentEmptySearchTree.getPrototype());
+        assertNotSame(EmptySearchTree.getPrototype(), PersistentEmptySearchTree.getPrototype());
+    }
+
+    // Test for the method addElement
+
+    @Test
+    public void addElement_LegalCase() throws Exception {
+        PersistentLeafSearchTree newTree = PersistentEmptySearchTree.getPrototype().addElement(5);
+        assertEquals(1, newTree.getNbOccurrencesOf(5));
+        assertTrue(PersistentEmptySearchTree.getPrototype().isEmpty());
+    }
+
+    @Test(expected = IllegalElementException.class)
+    public void addElement_IllegalCase() throws Exception {
+        PersistentEmptySearchTree.getPrototype().addElement(null);
+    }
+
+    // Test for the method removeElement
+
+    @Test(expected = IllegalElementException.class)
+    public void removeElement_SingleCase() throws Exception {
+        PersistentEmptySearchTree.getPrototype().removeElement(5);
+    }
+
+}
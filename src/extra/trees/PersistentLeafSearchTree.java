@@ -0,0 +1,83 @@
+package extra.trees;
+
+import extra.trees.exceptions.*;
+
+/**
+ * A class of persistent search trees consisting of a single leaf.
+ *   Adding an element to a persistent leaf search tree yields a new
+ *   persistent search tree. Removing its element yields the persistent
+ *   empty search tree.
+ *
+ * @version  2.0
+ * @author   Eric Steegmans
+ */
+@SuppressWarnings("all")
+public class PersistentLeafSearchTree extends LeafSearchTree {
+
+    /**
+     * Initialize this new persistent leaf search tree with given element.
+     *
+     * @param  element
+     *         The element to be stored in this new persistent leaf search
+     *         tree.
+     * @effect This new persistent leaf search tree is initialized as a
+     *         leaf search tree with the given element.
+     *       | super(element)
+     */
+    public PersistentLeafSearchTree(Object element)
+            throws IllegalElementException {
+        super(element);
+    }
+
+    /**
+     * Return a new persistent search tree storing the element of this
+     * persistent leaf search tree and the given element.
+     *
+     * @return The resulting tree is a new persistent search tree.
+     *       | result instanceof PersistentSearchTree
+     * @throws IllegalElementException
+     *         This persistent leaf search tree cannot have the given
+     *         element as one of its elements.
+     *       | ! canHaveAsElement(element)
+     */
+    @Override
+    public PersistentSearchTree addElement(Object element)
+            throws IllegalElementException {
+        if (!canHaveAsElement(element))
+            throw new IllegalElementException(element, this);
+        if (compareElements(getRootElement(), element) >= 0)
+            return new PersistentSearchTree(getRootElement(),
+                new LeafSearchTree(element), EmptySearchTree.getPrototype());
+        else
+            return new PersistentSearchTree(getRootElement(),
+                EmptySearchTree.getPrototype(), new LeafSearchTree(element));
+    }
+
+    /**
+     * Remove one occurrence of the given element from this persistent leaf
+     * search tree.
+     *
+     * @return The persistent empty search tree.
+     *       | result == PersistentEmptySearchTree.getPrototype()
+     */
+    @Override
+    public PersistentEmptySearchTree removeElement(Object element)
+            throws IllegalElementException {
+        if (!hasAsElement(element))
+            throw new IllegalElementException(element, this);
+        return PersistentEmptySearchTree.getPrototype();
+    }
+
+    /**
+     * Return a clone of this persistent leaf search tree.
+     *
+     * @return The resulting tree is the same as this persistent leaf search
+     *         tree.
+     *       | result == this
+     */
+    @Override
+    public PersistentLeafSearchTree clone() {
+        return this;
+    }
+
+}
@@ -0,0 +1,53 @@
+package extra.trees;
+
+import static org.junit.Assert.*;
+
+import org.junit.*;
+
+import extra.trees.exceptions.IllegalElementException;
+
+public class PersistentLeafSearchTreeTest {
+
+    private static PersistentLeafSearchTree theTree;
+
+    @BeforeClass
+    public static void setUp() throws Exception {
+        theTree = new PersistentLeafSearchTree(23);
+    }
+
+    // Test for the method addElement
+
+    @Test
+    public void addElement_LegalCase() throws Exception {
+        PersistentSearchTree newTree = theTree.addElement(10);
+        assertEquals(2, newTree.getNbElements());
+        assertEquals(1, theTree.getNbElements());
+        assertEquals(10, newTree.first());
+    }
+
+    @Test(expected = IllegalElementException.class)
+    public void addElement_IllegalCase() throws Exception {
+        theTree.addElement("abc");
+    }
+
+    // Test for the method removeElement
+
+    @Test
+    public void removeElement_LegalCase() throws Exception {
+        assertSame(PersistentEmptySearchTree.getPrototype(), theTree.removeElement(23));
+        assertTrue(theTree.hasAsElement(23));
+    }
+
+    @Test(expected = IllegalElementException.class)
+    public void removeElement_NonExistingElement() throws Exception {
+        theTree.removeElement(10);
+    }
+
+    // Test for the method clone
+
+    @Test
+    public void clone_SingleCase() {
+        assertSame(theTree, theTree.clone());
+    }
+
+}
@@ -0,0 +1,217 @@
+package extra.trees;
+
+import be.kuleuven.cs.som.annotate.*;
+
+import extra.trees.exceptions.*;
+
+/**
+ * A class of persistent balanced search trees.
+ *   A persistent search tree is never changed after it has been created.
+ *   Adding an element to it, or removing an element from it, yields a new
+ *   search tree. Only the trees on the path from the root towards the
+ *   changed element are copied; all other subtrees are shared between
+ *   the original tree and the new tree. Each change therefore only takes
+ *   logarithmic time and space, and keeping the original tree as a
+ *   snapshot costs nothing.
+ *   Because persistent search trees are never changed, several threads
+ *   may inspect and iterate the same tree without any synchronization,
+ *   provided that the tree has been safely published to those threads,
+ *   for instance through a volatile variable or a concurrent collection.
+ *
+ * @invar   The trees that result from adding elements to or removing
+ *          elements from a persistent search tree are persistent trees
+ *          as well.
+ *        | isPersistentTree(addElement(...)) &&
+ *        | isPersistentTree(removeElement(...))
+ *
+ * @version  2.0
+ * @author   Eric Steegmans
+ */
+@SuppressWarnings("all")
+public class PersistentSearchTree extends BalancedSearchTree {
+
+    /**
+     * Initialize this new persistent search tree with given elements.
+     *
+     * @param   elements
+     *          The elements to be stored in this new persistent search tree.
+     * @post    The number of occurrences of each object in this new
+     *          persistent search tree is equal to the number of occurrences
+     *          of that element in the given array of elements.
+     *        | for each element in (Object union {null}):
+     *        |   (new.getNbOccurrencesOf(element) ==
+     *        |        ExtArray.getNbOcurrencesOf(elements,element))
+     * @throws  IllegalElementException
+     *          At least one of the given elements is not an effective
+     *          comparable object, or is not comparable with the other
+     *          elements.
+     * @throws  IllegalArgumentException
+     *          The given array of elements does not have at least 2 elements.
+     *        | elements.length < 2
+     */
+    public PersistentSearchTree(Object... elements)
+            throws IllegalArgumentException, IllegalElementException {
+        this(addAll(elements));
+    }
+
+    /**
+     * Initialize this new persistent search tree with the same root
+     * element and the same subtrees as the given persistent search tree.
+     *
+     * @param   tree
+     *          The persistent search tree to share the subtrees with.
+     * @effect  This new persistent search tree is initialized as a balanced
+     *          search tree with the root element and the subtrees of the
+     *          given tree.
+     *        | this(tree.getRootElement(),tree.getLeftTree(),tree.getRightTree())
+     */
+    private PersistentSearchTree(PersistentSearchTree tree)
+            throws IllegalElementException {
+        this(tree.getRootElement(), tree.getLeftTree(), tree.getRightTree());
+    }
+
+    /**
+     * Initialize this new persistent search tree with given root element
+     * and given subtrees.
+     *
+     * @param   element
+     *          The element to be stored in the root of this new persistent
+     *          search tree.
+     * @param   left
+     *          The left subtree for this new persistent search tree.
+     * @param   right
+     *          The right subtree for this new persistent search tree.
+     * @effect  This new persistent search tree is initialized as a balanced
+     *          search tree with the given element as its root element and
+     *          with the given trees as its subtrees.
+     *        | super(element,left,right)
+     */
+    protected PersistentSearchTree(Object element, SearchTree left,
+            SearchTree right) throws IllegalElementException {
+        super(element, left, right);
+    }
+
+    /**
+     * Return a persistent search tree storing all the given elements.
+     *
+     * @throws  IllegalArgumentException
+     *          The given array of elements does not have at least 2 elements.
+     *        | elements.length < 2
+     */
+    private static PersistentSearchTree addAll(Object[] elements)
+            throws IllegalArgumentException, IllegalElementException {
+        if (elements.length < 2)
+            throw new IllegalArgumentException();
+        SearchTree result = PersistentEmptySearchTree.getPrototype();
+        for (Object element : elements)
+            result = result.addElement(element);
+        return (PersistentSearchTree) result;
+    }
+
+    /**
+     * Return a new persistent search tree storing all the elements of this
+     * persistent search tree complemented with the given element.
+     *
+     * @return  The resulting tree is a new persistent search tree.
+     *        | (result != this) && isPersistentTree(result)
+     * @post    This persistent search tree is not changed.
+     *        | for each object in (Object union {null}):
+     *        |   new.getNbOccurrencesOf(object) == getNbOccurrencesOf(object)
+     */
+    @Override
+    public PersistentSearchTree addElement(Object element)
+            throws IllegalElementException {
+        return (PersistentSearchTree) super.addElement(element);
+    }
+
+    /**
+     * Return a new search tree storing all the elements of this persistent
+     * search tree, except for one occurrence of the given element.
+     *
+     * @return  The resulting tree is a new persistent search tree.
+     *        | (result != this) && isPersistentTree(result)
+     * @post    This persistent search tree is not changed.
+     *        | for each object in (Object union {null}):
+     *        |   new.getNbOccurrencesOf(object) == getNbOccurrencesOf(object)
+     */
+    @Override
+    public NonEmptySearchTree removeElement(Object element)
+            throws IllegalElementException {
+        NonEmptySearchTree result = super.removeElement(element);
+        if (isPersistentTree(result))
+            return result;
+        // Leaves are shared between persistent search trees in the form
+        // of ordinary leaf search trees. Leaves that become the result of
+        // a removal must be turned into persistent leaf search trees.
+        return new PersistentLeafSearchTree(((LeafSearchTree) result)
+            .getRootElement());
+    }
+
+    /**
+     * Return a clone of this persistent search tree.
+     *
+     * @return  The resulting tree is the same as this persistent search tree.
+     *        | result == this
+     * @note    Persistent search trees are never changed. Sharing them is
+     *          therefore as good as copying them.
+     */
+    @Override
+    public PersistentSearchTree clone() {
+        return this;
+    }
+
+    /**
+     * Return the balanced search tree to be changed when elements are added
+     * to or removed from this persistent search tree.
+     *
+     * @return  A new persistent search tree with the same root element and
+     *          the same subtrees as this persistent search tree.
+     *        | (result != this) && (result instanceof PersistentSearchTree) &&
+     *        | (result.getRootElement() == getRootElement()) &&
+     *        | (result.getLeftTree() == getLeftTree()) &&
+     *        | (result.getRightTree() == getRightTree())
+     */
+    @Override
+    protected PersistentSearchTree getTreeForUpdate() {
+        try {
+            return new PersistentSearchTree(this);
+        }
+        catch (IllegalElementException exc) {
+            assert false;
+            return null;
+        }
+    }
+
+    /**
+     * Return a new persistent search tree with the given root element and
+     * the given subtrees.
+     *
+     * @return  The resulting tree is a new persistent search tree.
+     *        | result instanceof PersistentSearchTree
+     */
+    @Override
+    protected PersistentSearchTree createTree(Object element, SearchTree left,
+            SearchTree right) throws IllegalElementException {
+        return new PersistentSearchTree(element, left, right);
+    }
+
+    /**
+     * Check whether the given tree is a persistent tree.
+     *
+     * @param   tree
+     *          The tree to check.
+     * @return  True if and only if the given tree is a persistent empty
+     *          search tree, a persistent leaf search tree or a persistent
+     *          search tree.
+     *        | result ==
+     *        |   (tree instanceof PersistentEmptySearchTree) ||
+     *        |   (tree instanceof PersistentLeafSearchTree) ||
+     *        |   (tree instanceof PersistentSearchTree)
+     */
+    public static boolean isPersistentTree(BinaryTree tree) {
+        return (tree instanceof PersistentEmptySearchTree)
+            || (tree instanceof PersistentLeafSearchTree)
+            || (tree instanceof PersistentSearchTree);
+    }
+
+}
@@ -0,0 +1,195 @@
+package extra.trees;
+
+import static org.junit.Assert.*;
+
+import java.util.*;
+
+import org.junit.*;
+
+import extra.trees.exceptions.IllegalElementException;
+
+@SuppressWarnings("rawtypes")
+public class PersistentSearchTreeTest {
+
+    private PersistentSearchTree theTree;
+
+    @Before
+    public void setUp() throws Exception {
+        theTree = new PersistentSearchTree(20, 50, 40, 20, 70, 20, 100);
+    }
+
+    private static List<Object> elementsOf(BinaryTree tree) {
+        List<Object> elements = new ArrayList<Object>();
+        for (Object element : tree)
+            elements.add(element);
+        return elements;
+    }
+
+    // Test for the constructor
+
+    @Test
+    public void constructor_LegalCase() throws Exception {
+        assertEquals(7, theTree.getNbElements());
+        assertEquals(3, theTree.getNbOccurrencesOf(20));
+        assertEquals(3, theTree.getHeight());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void constructor_LessThanTwoElements() throws Exception {
+        new PersistentSearchTree(20);
+    }
+
+    @Test(expected = IllegalElementException.class)
+    public void constructor_IncompatibleElements() throws Exception {
+        new PersistentSearchTree(20, "abc", 30);
+    }
+
+    // Test for the method addElement
+
+    @Test
+    public void addElement_OriginalTreeUnchanged() throws Exception {
+        List<Object> originalElements = elementsOf(theTree);
+        PersistentSearchTree newTree = theTree.addElement(45);
+        assertNotSame(theTree, newTree);
+        assertEquals(originalElements, elementsOf(theTree));
+        assertEquals(7, theTree.getNbElements());
+        assertFalse(theTree.hasAsElement(45));
+        assertEquals(8, newTree.getNbElements());
+        assertTrue(newTree.hasAsElement(45));
+    }
+
+    @Test
+    public void addElement_SubTreesShared() throws Exception {
+        PersistentSearchTree newTree = theTree.addElement(1000);
+        assertSame(theTree.getLeftTree(), newTree.getLeftTree());
+        assertNotSame(theTree.getRightTree(), newTree.getRightTree());
+    }
+
+    @Test
+    public void addElement_ManyVersions() throws Exception {
+        List<SearchTree> versions = new ArrayList<SearchTree>();
+        SearchTree tree = PersistentEmptySearchTree.getPrototype();
+        for (int i = 0; i < 200; i++) {
+            versions.add(tree);
+            tree = tree.addElement(i);
+        }
+        for (int i = 0; i < 200; i++) {
+            assertEquals(i, versions.get(i).getNbElements());
+            assertEquals(i > 0, versions.get(i).hasAsElement(i - 1));
+            assertFalse(versions.get(i).hasAsElement(i));
+        }
+        assertTrue(((BalancedSearchTree) tree).getHeight() <= 10);
+    }
+
+    @Test(expected = IllegalElementException.class)
+    public void addElement_IllegalCase() throws Exception {
+        theTree.addElement(null);
+    }
+
+    // Test for the method removeElement
+
+    @Test
+    public void removeElement_OriginalTreeUnchanged() throws Exception {
+        List<Object> originalElements = elementsOf(theTree);
+        NonEmptySearchTree newTree = theTree.removeElement(20);
+        assertTrue(PersistentSearchTree.isPersistentTree(newTree));
+        assertEquals(originalElements, elementsOf(theTree));
+        assertEquals(3, theTree.getNbOccurrencesOf(20));
+        assertEquals(2, newTree.getNbOccurrencesOf(20));
+    }
+
+    @Test
+    public void removeElement_UntilEmpty() throws Exception {
+        SearchTree tree = theTree;
+        for (Object element : elementsOf(theTree)) {
+            tree = tree.removeElement(element);
+            assertTrue(PersistentSearchTree.isPersistentTree(tree));
+        }
+        assertSame(PersistentEmptySearchTree.getPrototype(), tree);
+        assertEquals(7, theTree.getNbElements());
+    }
+
+    @Test
+    public void removeElement_RandomOperations() throws Exception {
+        Random random = new Random(7);
+        List<Object> model = new ArrayList<Object>();
+        SearchTree tree = PersistentEmptySearchTree.getPrototype();
+        for (int i = 0; i < 400; i++) {
+            SearchTree previous = tree;
+            int previousSize = model.size();
+            if (model.isEmpty() || random.nextInt(3) > 0) {
+                Integer element = random.nextInt(50);
+                tree = tree.addElement(element);
+                model.add(element);
+            } else {
+                Object element = model.remove(random.nextInt(model.size()));
+                tree = tree.removeElement(element);
+            }
+            assertEquals(previousSize, previous.getNbElements());
+            assertTrue(PersistentSearchTree.isPersistentTree(tree));
+        }
+        Collections.sort((List) model);
+        assertEquals(model, elementsOf(tree));
+    }
+
+    @Test(expected = IllegalElementException.class)
+    public void removeElement_NonExistingElement() throws Exception {
+        theTree.removeElement(33);
+    }
+
+    // Test for the method clone
+
+    @Test
+    public void clone_SingleCase() {
+        assertSame(theTree, theTree.clone());
+    }
+
+    // Test for the method iterator
+
+    @Test
+    public void iterator_ConcurrentReaders() throws Exception {
+        SearchTree tree = PersistentEmptySearchTree.getPrototype();
+        for (int i = 0; i < 500; i++)
+            tree = tree.addElement(i);
+        final SearchTree snapshot = tree;
+        final List<Throwable> failures = Collections.synchronizedList(new ArrayList<Throwable>());
+        Thread[] readers = new Thread[4];
+        for (int i = 0; i < readers.length; i++) {
+            readers[i] = new Thread(new Runnable() {
+                public void run() {
+                    try {
+                        for (int round = 0; round < 20; round++) {
+                            int expected = 0;
+                            for (Object element : snapshot)
+                                assertEquals(expected++, element);
+                            assertEquals(500, expected);
+                        }
+                    } catch (Throwable exc) {
+                        failures.add(exc);
+                    }
+                }
+            });
+            readers[i].start();
+        }
+        for (int i = 0; i < 200; i++)
+            tree = tree.removeElement(i).addElement(1000 + i);
+        for (Thread reader : readers)
+            reader.join();
+        assertTrue(failures.isEmpty());
+        assertEquals(500, tree.getNbElements());
+    }
+
+    // Test for the method equals
+
+    @Test
+    public void equals_Versions() throws Exception {
+        SearchTree tree = PersistentEmptySearchTree.getPrototype();
+        for (int i = 0; i < 1000; i++)
+            tree = tree.addElement(i);
+        SearchTree otherVersion = tree.removeElement(500).addElement(500);
+        assertNotSame(tree, otherVersion);
+        assertEquals(tree, otherVersion);
+        assertNotEquals(tree, otherVersion.removeElement(10).addElement(1010));
+    }
+
+}
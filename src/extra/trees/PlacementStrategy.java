@@ -0,0 +1,122 @@
+package extra.trees;
+
+import java.util.Objects;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * An interface of strategies deciding in which subtree of a composed
+ * binary tree a new element must be stored.
+ *   Composed binary trees that do not order their elements are free to
+ *   store a new element in their left subtree or in their right subtree.
+ *   They consult a placement strategy to make that choice, at each level
+ *   of the descent towards the leaf in which the element ends up.
+ *
+ * @note    Placement strategies are shared by all the trees, and by all
+ *          the threads building those trees. Implementations must therefore
+ *          not register any state that is changed while placing elements.
+ *
+ * @version  2.0
+ * @author   Eric Steegmans
+ */
+public interface PlacementStrategy {
+
+    /**
+     * Check whether the given element must be stored in the given left
+     * subtree rather than in the given right subtree.
+     *
+     * @param   left
+     *          The left subtree of the composed binary tree to which the
+     *          given element is added.
+     * @param   right
+     *          The right subtree of the composed binary tree to which the
+     *          given element is added.
+     * @param   element
+     *          The element to be added.
+     */
+    public abstract boolean placeLeft(BinaryTree left, BinaryTree right,
+        Object element);
+
+    /**
+     * A placement strategy choosing one of both subtrees at random.
+     *
+     * @note    Random numbers are drawn from a generator local to the
+     *          calling thread. Threads building trees at the same time
+     *          therefore do not compete for a single generator, as they
+     *          do with Math.random().
+     */
+    public static final PlacementStrategy RANDOM = new PlacementStrategy() {
+
+        public boolean placeLeft(BinaryTree left, BinaryTree right,
+                Object element) {
+            return ThreadLocalRandom.current().nextBoolean();
+        }
+
+        @Override
+        public String toString() {
+            return "RANDOM";
+        }
+
+    };
+
+    /**
+     * A placement strategy choosing the subtree with the fewest elements,
+     * and the left subtree if both subtrees have the same number of
+     * elements.
+     *
+     * @note    Trees built by means of this strategy have a height that
+     *          is logarithmic in their number of elements, as long as no
+     *          elements are removed from them.
+     */
+    public static final PlacementStrategy SIZE_BALANCED =
+        new PlacementStrategy() {
+
+        public boolean placeLeft(BinaryTree left, BinaryTree right,
+                Object element) {
+            return left.getNbElements() <= right.getNbElements();
+        }
+
+        @Override
+        public String toString() {
+            return "SIZE_BALANCED";
+        }
+
+    };
+
+    /**
+     * Return a placement strategy choosing subtrees in a way that only
+     * depends on the given seed, the number of elements in both subtrees
+     * and the hash code of the element to be added.
+     *
+     * @param   seed
+     *          The seed for the resulting placement strategy.
+     * @return  A placement strategy that makes the same choice each time it
+     *          is asked to place an element with the same hash code, next to
+     *          subtrees with the same number of elements.
+     * @note    Adding the same elements in the same order to trees built
+     *          with placement strategies with the same seed yields trees
+     *          with the same shape. The resulting strategy has no state
+     *          that changes, so it can be used by several threads at once.
+     */
+    public static PlacementStrategy seeded(final long seed) {
+        return new PlacementStrategy() {
+
+            public boolean placeLeft(BinaryTree left, BinaryTree right,
+                    Object element) {
+                long key = seed;
+                key += 0x9E3779B97F4A7C15L * (left.getNbElements() + 1);
+                key += 0xC2B2AE3D27D4EB4FL * (right.getNbElements() + 1);
+                key += Objects.hashCode(element);
+                // Mix the key, such that all its bits influence the bit
+                // that is used.
+                return (NonEmptyBinaryTreeImpl.mix(key) & 1) == 0;
+            }
+
+            @Override
+            public String toString() {
+                return "SEEDED(" + seed + ")";
+            }
+
+        };
+    }
+
+}
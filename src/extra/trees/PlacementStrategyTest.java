@@ -0,0 +1,133 @@
+package extra.trees;
+
+import static org.junit.Assert.*;
+
+import java.util.*;
+
+import org.junit.*;
+
+public class PlacementStrategyTest {
+
+    private PlacementStrategy defaultStrategy;
+
+    @Before
+    public void setUp() {
+        defaultStrategy = ComposedBinaryTree.getDefaultPlacementStrategy();
+    }
+
+    @After
+    public void tearDown() {
+        ComposedBinaryTree.setDefaultPlacementStrategy(defaultStrategy);
+    }
+
+    private static ComposedUnsortedTree buildTree(int nbElements) {
+        ComposedUnsortedTree tree = new ComposedUnsortedTree(0, 1);
+        for (int i = 2; i < nbElements; i++)
+            tree.addElement(i);
+        return tree;
+    }
+
+    private static int heightOf(BinaryTree tree) {
+        if (!(tree instanceof ComposedBinaryTree))
+            return tree.isEmpty() ? 0 : 1;
+        ComposedBinaryTree composedTree = (ComposedBinaryTree) tree;
+        return 1 + Math.max(heightOf(composedTree.getLeftTree()),
+            heightOf(composedTree.getRightTree()));
+    }
+
+    private static List<Object> elementsOf(BinaryTree tree) {
+        List<Object> elements = new ArrayList<Object>();
+        for (Object element : tree)
+            elements.add(element);
+        return elements;
+    }
+
+    // Test for the default placement strategy
+
+    @Test
+    public void getDefaultPlacementStrategy_Initially() {
+        assertSame(PlacementStrategy.RANDOM, defaultStrategy);
+    }
+
+    @Test
+    public void setDefaultPlacementStrategy_LegalCase() {
+        ComposedBinaryTree.setDefaultPlacementStrategy(
+            PlacementStrategy.SIZE_BALANCED);
+        assertSame(PlacementStrategy.SIZE_BALANCED,
+            ComposedBinaryTree.getDefaultPlacementStrategy());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void setDefaultPlacementStrategy_NonEffectiveStrategy() {
+        ComposedBinaryTree.setDefaultPlacementStrategy(null);
+    }
+
+    // Test for the strategy RANDOM
+
+    @Test
+    public void random_AllElementsStored() {
+        ComposedBinaryTree.setDefaultPlacementStrategy(PlacementStrategy.RANDOM);
+        ComposedUnsortedTree tree = buildTree(500);
+        assertEquals(500, tree.getNbElements());
+        for (int i = 0; i < 500; i++)
+            assertEquals(1, tree.getNbOccurrencesOf(i));
+    }
+
+    // Test for the strategy SIZE_BALANCED
+
+    @Test
+    public void sizeBalanced_SmallerSubtree() {
+        assertTrue(PlacementStrategy.SIZE_BALANCED.placeLeft(
+            EmptyUnsortedTree.getPrototype(), new LeafUnsortedTree(1), 2));
+        assertFalse(PlacementStrategy.SIZE_BALANCED.placeLeft(
+            new LeafUnsortedTree(1), EmptyUnsortedTree.getPrototype(), 2));
+        assertTrue(PlacementStrategy.SIZE_BALANCED.placeLeft(
+            new LeafUnsortedTree(1), new LeafUnsortedTree(2), 3));
+    }
+
+    @Test
+    public void sizeBalanced_LogarithmicHeight() {
+        ComposedBinaryTree.setDefaultPlacementStrategy(
+            PlacementStrategy.SIZE_BALANCED);
+        ComposedUnsortedTree tree = buildTree(1023);
+        assertEquals(1023, tree.getNbElements());
+        assertEquals(10, heightOf(tree));
+    }
+
+    // Test for seeded strategies
+
+    @Test
+    public void seeded_SameSeedSameShape() {
+        ComposedBinaryTree.setDefaultPlacementStrategy(
+            PlacementStrategy.seeded(42));
+        ComposedUnsortedTree first = buildTree(300);
+        ComposedBinaryTree.setDefaultPlacementStrategy(
+            PlacementStrategy.seeded(42));
+        ComposedUnsortedTree second = buildTree(300);
+        assertEquals(elementsOf(first), elementsOf(second));
+        assertEquals(heightOf(first), heightOf(second));
+    }
+
+    @Test
+    public void seeded_DifferentSeedsDifferentShapes() {
+        ComposedBinaryTree.setDefaultPlacementStrategy(
+            PlacementStrategy.seeded(1));
+        ComposedUnsortedTree first = buildTree(300);
+        ComposedBinaryTree.setDefaultPlacementStrategy(
+            PlacementStrategy.seeded(2));
+        ComposedUnsortedTree second = buildTree(300);
+        assertNotEquals(elementsOf(first), elementsOf(second));
+    }
+
+    @Test
+    public void seeded_BothSubtreesUsed() {
+        PlacementStrategy strategy = PlacementStrategy.seeded(7);
+        BinaryTree leaf = new LeafUnsortedTree(0);
+        int nbLeft = 0;
+        for (int i = 0; i < 1000; i++)
+            if (strategy.placeLeft(leaf, leaf, i))
+                nbLeft++;
+        assertTrue((nbLeft > 400) && (nbLeft < 600));
+    }
+
+}
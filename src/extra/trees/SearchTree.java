@@ -1,5 +1,13 @@
 package extra.trees;
 
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
 import extra.trees.exceptions.*;
 
 /**
@@ -26,6 +34,585 @@ public interface SearchTree extends BinaryTree {
 		return element instanceof Comparable;
 	}
 
+    /**
+     * Return a spliterator traversing all the elements in this search tree.
+     *
+     * @return The resulting spliterator traverses the elements in ascending
+     *         order. It reports them to be sorted according to their natural
+     *         ordering, if this search tree has no comparator.
+     *       | if (getComparator() == null)
+     *       |   then result.hasCharacteristics(Spliterator.SORTED) &&
+     *       |        (result.getComparator() == null)
+     * @return The resulting spliterator never encounters the null reference.
+     *       | result.hasCharacteristics(Spliterator.NONNULL)
+     */
+    @Override
+    public default Spliterator<Object> spliterator() {
+        return Spliterators.spliterator(iterator(), getNbElements(),
+            getSpliteratorCharacteristicsOf(this));
+    }
+
+    /**
+     * Return the comparator ordering the elements of this search tree.
+     *
+     * @return The null reference, meaning that the elements of this search
+     *         tree are ordered according to their natural ordering.
+     *       | result == null
+     * @note   Search trees with a comparator of their own compare their
+     *         elements by means of that comparator, instead of by means of
+     *         the method compareTo of the elements themselves.
+     */
+    public default Comparator<Object> getComparator() {
+        return null;
+    }
+
+    /**
+     * Compare the given elements according to the ordering of this search
+     * tree.
+     *
+     * @param  first
+     *         The first element to compare.
+     * @param  second
+     *         The second element to compare.
+     * @return The result of comparing the given elements by means of the
+     *         comparator of this search tree, if it has one.
+     *       | if (getComparator() != null)
+     *       |   then result == getComparator().compare(first,second)
+     * @return The result of comparing the first element with the second
+     *         element according to their natural ordering, if this search
+     *         tree has no comparator.
+     *       | if (getComparator() == null)
+     *       |   then result == ((Comparable)first).compareTo(second)
+     * @throws ClassCastException
+     *         The given elements cannot be compared with each other.
+     */
+    @SuppressWarnings({ "rawtypes", "unchecked" })
+    public default int compareElements(Object first, Object second)
+            throws ClassCastException {
+        Comparator<Object> comparator = getComparator();
+        if (comparator == null)
+            return ((Comparable) first).compareTo(second);
+        return comparator.compare(first, second);
+    }
+
+    /**
+     * Return the element at the given position in the ascending sequence
+     * of all the elements in this search tree.
+     *
+     * @param  index
+     *         The position of the requested element, counting from 1.
+     * @return The resulting element is an element of this search tree.
+     *       | hasAsElement(result)
+     * @return Less than the given number of elements in this search tree
+     *         precede the resulting element, and at least the given number
+     *         of elements do not succeed it.
+     *       | (getRankOf(result) < index) &&
+     *       | (getRankOf(result) + getNbOccurrencesOf(result) >= index)
+     * @throws IndexOutOfBoundsException
+     *         The given index is not positive or exceeds the number of
+     *         elements in this search tree.
+     *       | (index < 1) || (index > getNbElements())
+     */
+    public default Object getElementAt(int index)
+            throws IndexOutOfBoundsException {
+        if ((index < 1) || (index > getNbElements()))
+            throw new IndexOutOfBoundsException();
+        Iterator<Object> elements = iterator();
+        for (int i = 1; i < index; i++)
+            elements.next();
+        return elements.next();
+    }
+
+    /**
+     * Return the number of elements in this search tree that are less
+     * than the given element.
+     *
+     * @param  element
+     *         The element whose rank must be returned.
+     * @return The number of occurrences of all the elements of this search
+     *         tree that are less than the given element.
+     *       | result ==
+     *       |   sum( { object in Object : compareElements(object,element) < 0 :
+     *       |       getNbOccurrencesOf(object) } )
+     * @throws IllegalElementException
+     *         This search tree cannot have the given element as one of its
+     *         elements.
+     *       | ! canHaveAsElement(element)
+     */
+    public default int getRankOf(Object element)
+            throws IllegalElementException {
+        if (!canHaveAsElement(element))
+            throw new IllegalElementException(element, this);
+        int rank = 0;
+        for (Object nextElement: this)
+            if (compareElements(nextElement, element) < 0)
+                rank++;
+        return rank;
+    }
+
+    /**
+     * Return the greatest element in this search tree that is less than
+     * or equal to the given element.
+     *
+     * @param  element
+     *         The element to compare with.
+     * @return The null reference if no element of this search tree is less
+     *         than or equal to the given element; otherwise an element of
+     *         this search tree that is less than or equal to the given
+     *         element, and that is not less than any other such element.
+     *       | if (getRankOf(element) + getNbOccurrencesOf(element) == 0)
+     *       |   then result == null
+     *       |   else hasAsElement(result) &&
+     *       |        (compareElements(result,element) <= 0) &&
+     *       |        (getRankOf(result) + getNbOccurrencesOf(result) ==
+     *       |            getRankOf(element) + getNbOccurrencesOf(element))
+     * @throws IllegalElementException
+     *         This search tree cannot have the given element as one of its
+     *         elements.
+     *       | ! canHaveAsElement(element)
+     */
+    public default Object floor(Object element) throws IllegalElementException {
+        if (!canHaveAsElement(element))
+            throw new IllegalElementException(element, this);
+        Object result = null;
+        for (Object nextElement: this) {
+            if (compareElements(nextElement, element) > 0)
+                break;
+            result = nextElement;
+        }
+        return result;
+    }
+
+    /**
+     * Return the greatest element in this search tree that is strictly
+     * less than the given element.
+     *
+     * @param  element
+     *         The element to compare with.
+     * @return The null reference if no element of this search tree is less
+     *         than the given element; otherwise an element of this search
+     *         tree that is less than the given element, and that is not
+     *         less than any other such element.
+     *       | if (getRankOf(element) == 0)
+     *       |   then result == null
+     *       |   else hasAsElement(result) &&
+     *       |        (compareElements(result,element) < 0) &&
+     *       |        (getRankOf(result) + getNbOccurrencesOf(result) ==
+     *       |            getRankOf(element))
+     * @throws IllegalElementException
+     *         This search tree cannot have the given element as one of its
+     *         elements.
+     *       | ! canHaveAsElement(element)
+     */
+    public default Object lower(Object element) throws IllegalElementException {
+        if (!canHaveAsElement(element))
+            throw new IllegalElementException(element, this);
+        Object result = null;
+        for (Object nextElement: this) {
+            if (compareElements(nextElement, element) >= 0)
+                break;
+            result = nextElement;
+        }
+        return result;
+    }
+
+    /**
+     * Return the least element in this search tree that is greater than
+     * or equal to the given element.
+     *
+     * @param  element
+     *         The element to compare with.
+     * @return The null reference if no element of this search tree is
+     *         greater than or equal to the given element; otherwise an
+     *         element of this search tree that is greater than or equal to
+     *         the given element, and that is not greater than any other such
+     *         element.
+     *       | if (getRankOf(element) == getNbElements())
+     *       |   then result == null
+     *       |   else hasAsElement(result) &&
+     *       |        (compareElements(result,element) >= 0) &&
+     *       |        (getRankOf(result) == getRankOf(element))
+     * @throws IllegalElementException
+     *         This search tree cannot have the given element as one of its
+     *         elements.
+     *       | ! canHaveAsElement(element)
+     */
+    public default Object ceiling(Object element) throws IllegalElementException {
+        if (!canHaveAsElement(element))
+            throw new IllegalElementException(element, this);
+        for (Object nextElement: this)
+            if (compareElements(nextElement, element) >= 0)
+                return nextElement;
+        return null;
+    }
+
+    /**
+     * Return the least element in this search tree that is strictly
+     * greater than the given element.
+     *
+     * @param  element
+     *         The element to compare with.
+     * @return The null reference if no element of this search tree is
+     *         greater than the given element; otherwise an element of this
+     *         search tree that is greater than the given element, and that
+     *         is not greater than any other such element.
+     *       | if (getRankOf(element) + getNbOccurrencesOf(element) ==
+     *       |       getNbElements())
+     *       |   then result == null
+     *       |   else hasAsElement(result) &&
+     *       |        (compareElements(result,element) > 0) &&
+     *       |        (getRankOf(result) ==
+     *       |            getRankOf(element) + getNbOccurrencesOf(element))
+     * @throws IllegalElementException
+     *         This search tree cannot have the given element as one of its
+     *         elements.
+     *       | ! canHaveAsElement(element)
+     */
+    public default Object higher(Object element) throws IllegalElementException {
+        if (!canHaveAsElement(element))
+            throw new IllegalElementException(element, this);
+        for (Object nextElement: this)
+            if (compareElements(nextElement, element) > 0)
+                return nextElement;
+        return null;
+    }
+
+    /**
+     * Return an iterator returning, in ascending order, all the elements
+     * in this search tree that are not less than the given lower bound and
+     * that are less than the given upper bound.
+     *
+     * @param  from
+     *         The lower bound (inclusive), or the null reference if the
+     *         elements are not bounded from below.
+     * @param  to
+     *         The upper bound (exclusive), or the null reference if the
+     *         elements are not bounded from above.
+     * @return The resulting iterator returns all the occurrences of all the
+     *         elements of this search tree within the given bounds, in
+     *         ascending order.
+     *         (A formal specification of this clause is not possible, because
+     *         Iterator does not offer enough methods for that purpose)
+     * @throws IllegalElementException
+     *         One of the given bounds is effective, and this search tree
+     *         cannot have it as one of its elements.
+     *       | ( (from != null) && (! canHaveAsElement(from)) ) ||
+     *       | ( (to != null) && (! canHaveAsElement(to)) )
+     * @throws IllegalArgumentException
+     *         Both bounds are effective and the lower bound is greater than
+     *         the upper bound.
+     *       | (from != null) && (to != null) &&
+     *       | (compareElements(from,to) > 0)
+     */
+    public default Iterator<Object> subTreeIterator(Object from, Object to)
+            throws IllegalElementException, IllegalArgumentException {
+        if ((from != null) && (!canHaveAsElement(from)))
+            throw new IllegalElementException(from, this);
+        if ((to != null) && (!canHaveAsElement(to)))
+            throw new IllegalElementException(to, this);
+        if ((from != null) && (to != null)
+                && (compareElements(from, to) > 0))
+            throw new IllegalArgumentException();
+        final Iterator<Object> elements = iterator();
+        return new Iterator<Object>() {
+
+            public boolean hasNext() {
+                return nextElement != null;
+            }
+
+            public Object next() throws NoSuchElementException {
+                if (!hasNext())
+                    throw new NoSuchElementException();
+                Object result = nextElement;
+                nextElement = findNext();
+                return result;
+            }
+
+            private Object findNext() {
+                while (elements.hasNext()) {
+                    Object element = elements.next();
+                    if ((to != null) && (compareElements(element, to) >= 0))
+                        return null;
+                    if ((from == null) || (compareElements(element, from) >= 0))
+                        return element;
+                }
+                return null;
+            }
+
+            private Object nextElement = findNext();
+
+        };
+    }
+
+    /**
+     * Return an iterator returning, in ascending order, all the elements
+     * in this search tree that are less than the given upper bound.
+     *
+     * @param  to
+     *         The upper bound (exclusive).
+     * @return The resulting iterator is the same as an iterator for the
+     *         elements in this search tree without a lower bound.
+     *       | result == subTreeIterator(null,to)
+     * @throws IllegalElementException
+     *         This search tree cannot have the given upper bound as one of
+     *         its elements.
+     *       | ! canHaveAsElement(to)
+     */
+    public default Iterator<Object> headTreeIterator(Object to)
+            throws IllegalElementException {
+        if (!canHaveAsElement(to))
+            throw new IllegalElementException(to, this);
+        return subTreeIterator(null, to);
+    }
+
+    /**
+     * Return an iterator returning, in ascending order, all the elements
+     * in this search tree that are not less than the given lower bound.
+     *
+     * @param  from
+     *         The lower bound (inclusive).
+     * @return The resulting iterator is the same as an iterator for the
+     *         elements in this search tree without an upper bound.
+     *       | result == subTreeIterator(from,null)
+     * @throws IllegalElementException
+     *         This search tree cannot have the given lower bound as one of
+     *         its elements.
+     *       | ! canHaveAsElement(from)
+     */
+    public default Iterator<Object> tailTreeIterator(Object from)
+            throws IllegalElementException {
+        if (!canHaveAsElement(from))
+            throw new IllegalElementException(from, this);
+        return subTreeIterator(from, null);
+    }
+
+    /**
+     * Return a stream that delivers, in ascending order, all the elements
+     * in this search tree that are not less than the given lower bound and
+     * that are less than the given upper bound.
+     *
+     * @param  from
+     *         The lower bound (inclusive), or the null reference if the
+     *         elements are not bounded from below.
+     * @param  to
+     *         The upper bound (exclusive), or the null reference if the
+     *         elements are not bounded from above.
+     * @return An effective stream that delivers the same elements in the
+     *         same order as the iterator for the elements within the given
+     *         bounds.
+     *       | result.toArray() equals the elements returned by
+     *       |   subTreeIterator(from,to)
+     * @throws IllegalElementException
+     *         One of the given bounds is effective, and this search tree
+     *         cannot have it as one of its elements.
+     *       | ( (from != null) && (! canHaveAsElement(from)) ) ||
+     *       | ( (to != null) && (! canHaveAsElement(to)) )
+     * @throws IllegalArgumentException
+     *         Both bounds are effective and the lower bound is greater than
+     *         the upper bound.
+     *       | (from != null) && (to != null) &&
+     *       | (compareElements(from,to) > 0)
+     * @note   The number of elements within the given bounds is computed
+     *         from the ranks of both bounds, such that the resulting stream
+     *         knows its exact size.
+     */
+    public default Stream<Object> subTreeStream(Object from, Object to)
+            throws IllegalElementException, IllegalArgumentException {
+        Iterator<Object> elements = subTreeIterator(from, to);
+        int nbElements = ((to == null) ? getNbElements() : getRankOf(to))
+            - ((from == null) ? 0 : getRankOf(from));
+        return StreamSupport.stream(Spliterators.spliterator(elements,
+            nbElements, getSpliteratorCharacteristicsOf(this)), false);
+    }
+
+    /**
+     * Return the characteristics of spliterators traversing the elements
+     * of the given search tree in ascending order.
+     *
+     * @param  tree
+     *         The search tree whose elements are traversed.
+     * @return The resulting characteristics are ordered and non-null.
+     *       | (result & Spliterator.ORDERED) != 0 &&
+     *       | (result & Spliterator.NONNULL) != 0
+     * @return The resulting characteristics are sorted if and only if the
+     *         given tree orders its elements according to their natural
+     *         ordering.
+     *       | ((result & Spliterator.SORTED) != 0) ==
+     *       |   (tree.getComparator() == null)
+     * @note   A sorted spliterator must report the comparator of the order
+     *         in which it traverses its elements. The spliterators of search
+     *         trees only report natural orderings.
+     */
+    public static int getSpliteratorCharacteristicsOf(SearchTree tree) {
+        int characteristics = Spliterator.ORDERED | Spliterator.NONNULL;
+        if (tree.getComparator() == null)
+            characteristics |= Spliterator.SORTED;
+        return characteristics;
+    }
+
+    /**
+     * Return a stream that delivers, in ascending order, all the elements
+     * in this search tree that are less than the given upper bound.
+     *
+     * @param  to
+     *         The upper bound (exclusive).
+     * @return The resulting stream is the same as a stream for the
+     *         elements in this search tree without a lower bound.
+     *       | result == subTreeStream(null,to)
+     * @throws IllegalElementException
+     *         This search tree cannot have the given upper bound as one of
+     *         its elements.
+     *       | ! canHaveAsElement(to)
+     */
+    public default Stream<Object> headTreeStream(Object to)
+            throws IllegalElementException {
+        if (!canHaveAsElement(to))
+            throw new IllegalElementException(to, this);
+        return subTreeStream(null, to);
+    }
+
+    /**
+     * Return a stream that delivers, in ascending order, all the elements
+     * in this search tree that are not less than the given lower bound.
+     *
+     * @param  from
+     *         The lower bound (inclusive).
+     * @return The resulting stream is the same as a stream for the
+     *         elements in this search tree without an upper bound.
+     *       | result == subTreeStream(from,null)
+     * @throws IllegalElementException
+     *         This search tree cannot have the given lower bound as one of
+     *         its elements.
+     *       | ! canHaveAsElement(from)
+     */
+    public default Stream<Object> tailTreeStream(Object from)
+            throws IllegalElementException {
+        if (!canHaveAsElement(from))
+            throw new IllegalElementException(from, this);
+        return subTreeStream(from, null);
+    }
+
+    /**
+     * Return a frozen search tree storing the elements of this search tree.
+     *
+     * @return An effective frozen search tree storing the same elements as
+     *         this search tree, ordered by the same comparator.
+     *       | (result != null) &&
+     *       | (result.getComparator() == getComparator()) &&
+     *       | for each element in (Object union {null}):
+     *       |   result.getNbOccurrencesOf(element) ==
+     *       |     getNbOccurrencesOf(element)
+     * @note   Later changes to this search tree are not reflected in the
+     *         resulting frozen search tree.
+     */
+    public default FrozenSearchTree freeze() {
+        return new FrozenSearchTree(this);
+    }
+
+    /**
+     * Return a new search tree storing all the occurrences of the elements
+     * of this search tree and of the given search tree.
+     *
+     * @param  other
+     *         The search tree to combine with this search tree.
+     * @return The resulting tree stores each element as many times as
+     *         the sum of its numbers of occurrences in both trees.
+     *       | result == SetOperation.MERGE.apply(this,other)
+     * @throws IllegalArgumentException
+     *         The given tree is not effective, or it does not order its
+     *         elements in the same way as this search tree.
+     *       | (other == null) || (other.getComparator() != getComparator())
+     * @throws IllegalElementException
+     *         The given tree stores an element that this search tree cannot
+     *         have, or that cannot be compared with its elements.
+     *       | for some element in other:
+     *       |   ! canHaveAsElement(element)
+     * @note   Both trees are traversed in ascending order at the same time,
+     *         such that the resulting tree is built in linear time. For large
+     *         trees, SetOperation.MERGE.applyInParallel(this,other) combines
+     *         ranges of elements in several threads.
+     */
+    public default SearchTree merge(SearchTree other)
+            throws IllegalArgumentException, IllegalElementException {
+        return SetOperation.MERGE.apply(this, other);
+    }
+
+    /**
+     * Return a new search tree storing the elements of this search tree and
+     * of the given search tree.
+     *
+     * @param  other
+     *         The search tree to combine with this search tree.
+     * @return The resulting tree stores each element as many times as
+     *         the greatest of its numbers of occurrences in both trees.
+     *       | result == SetOperation.UNION.apply(this,other)
+     * @throws IllegalArgumentException
+     *         The given tree is not effective, or it does not order its
+     *         elements in the same way as this search tree.
+     *       | (other == null) || (other.getComparator() != getComparator())
+     * @throws IllegalElementException
+     *         The given tree stores an element that this search tree cannot
+     *         have, or that cannot be compared with its elements.
+     *       | for some element in other:
+     *       |   ! canHaveAsElement(element)
+     * @note   Just like merging both trees, this takes linear time.
+     */
+    public default SearchTree union(SearchTree other)
+            throws IllegalArgumentException, IllegalElementException {
+        return SetOperation.UNION.apply(this, other);
+    }
+
+    /**
+     * Return a new search tree storing the elements that this search tree
+     * and the given search tree have in common.
+     *
+     * @param  other
+     *         The search tree to combine with this search tree.
+     * @return The resulting tree stores each element as many times as
+     *         the smallest of its numbers of occurrences in both trees.
+     *       | result == SetOperation.INTERSECTION.apply(this,other)
+     * @throws IllegalArgumentException
+     *         The given tree is not effective, or it does not order its
+     *         elements in the same way as this search tree.
+     *       | (other == null) || (other.getComparator() != getComparator())
+     * @throws IllegalElementException
+     *         The given tree stores an element that this search tree cannot
+     *         have, or that cannot be compared with its elements.
+     *       | for some element in other:
+     *       |   ! canHaveAsElement(element)
+     * @note   Just like merging both trees, this takes linear time.
+     */
+    public default SearchTree intersection(SearchTree other)
+            throws IllegalArgumentException, IllegalElementException {
+        return SetOperation.INTERSECTION.apply(this, other);
+    }
+
+    /**
+     * Return a new search tree storing the elements of this search tree
+     * that are not matched by elements of the given search tree.
+     *
+     * @param  other
+     *         The search tree to combine with this search tree.
+     * @return The resulting tree stores each element as many times as
+     *         its number of occurrences in this search tree minus its
+     *         number of occurrences in the given tree, if that is positive.
+     *       | result == SetOperation.DIFFERENCE.apply(this,other)
+     * @throws IllegalArgumentException
+     *         The given tree is not effective, or it does not order its
+     *         elements in the same way as this search tree.
+     *       | (other == null) || (other.getComparator() != getComparator())
+     * @throws IllegalElementException
+     *         The given tree stores an element that this search tree cannot
+     *         have, or that cannot be compared with its elements.
+     *       | for some element in other:
+     *       |   ! canHaveAsElement(element)
+     * @note   Just like merging both trees, this takes linear time.
+     */
+    public default SearchTree difference(SearchTree other)
+            throws IllegalArgumentException, IllegalElementException {
+        return SetOperation.DIFFERENCE.apply(this, other);
+    }
+
     /**
      * Add the given element to this search tree.
      */
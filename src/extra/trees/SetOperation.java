@@ -0,0 +1,364 @@
+package extra.trees;
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import extra.trees.exceptions.*;
+
+/**
+ * A class of operations combining the elements of two search trees
+ * into a new search tree.
+ *   Search trees may store several occurrences of the same element. A set
+ *   operation therefore decides how many occurrences of each element end
+ *   up in the resulting tree, given the number of occurrences of that
+ *   element in both operands. Elements comparing equal according to the
+ *   ordering of the operands are treated as occurrences of the same element.
+ *   Both operands are traversed in ascending order at the same time, such
+ *   that the resulting tree is built in time linear in the number of
+ *   elements of both operands, whatever their shape.
+ *
+ * @note    Set operations are shared by all the trees, and by all the
+ *          threads combining those trees. Implementations must therefore
+ *          not register any state that is changed while combining trees.
+ *
+ * @version  2.0
+ * @author   Eric Steegmans
+ */
+public abstract class SetOperation {
+
+    /**
+     * Return the number of occurrences of an element in the result of this
+     * set operation, given its number of occurrences in both operands.
+     *
+     * @param   nbInFirst
+     *          The number of occurrences of the element in the first operand.
+     * @param   nbInSecond
+     *          The number of occurrences of the element in the second
+     *          operand.
+     * @return  The resulting number is not negative, and it is zero if
+     *          the element does not occur in any of both operands.
+     *        | (result >= 0) &&
+     *        | ( ((nbInFirst == 0) && (nbInSecond == 0)) ?
+     *        |     (result == 0) : true )
+     */
+    public abstract int getNbOccurrences(int nbInFirst, int nbInSecond);
+
+    /**
+     * Return a search tree combining the elements of the given search trees
+     * by means of this set operation.
+     *
+     * @param   first
+     *          The first operand of this set operation.
+     * @param   second
+     *          The second operand of this set operation.
+     * @return  The resulting tree is built in the same way as balanced
+     *          search trees built from sorted elements, and it orders its
+     *          elements in the same way as the first operand. It stores each
+     *          element as many times as this set operation decides from its
+     *          number of occurrences in both operands.
+     *        | (result.getComparator() == first.getComparator()) &&
+     *        | for each element in first union second:
+     *        |   result.getNbOccurrencesOf(element) ==
+     *        |     getNbOccurrences(first.getNbOccurrencesOf(element),
+     *        |       second.getNbOccurrencesOf(element))
+     * @return  Occurrences are taken from the first operand before they
+     *          are taken from the second operand.
+     * @throws  IllegalArgumentException
+     *          One of the given trees is not effective, or both trees do
+     *          not order their elements in the same way.
+     *        | (first == null) || (second == null) ||
+     *        | (first.getComparator() != second.getComparator())
+     * @throws  IllegalElementException
+     *          The second operand stores an element that the first operand
+     *          cannot have, or that cannot be compared with its elements.
+     *        | for some element in second:
+     *        |   ! first.canHaveAsElement(element)
+     * @note    Neither operand is changed. The resulting tree does not share
+     *          any of its subtrees with them.
+     */
+    public SearchTree apply(SearchTree first, SearchTree second)
+            throws IllegalArgumentException, IllegalElementException {
+        checkOperands(first, second);
+        List<Object> elements = new ArrayList<Object>();
+        combine(first, first.iterator(), second.iterator(), elements);
+        return buildTree(first, elements);
+    }
+
+    /**
+     * Return a search tree combining the elements of the given search trees
+     * by means of this set operation, using several threads.
+     *
+     * @return  The resulting tree is the same as the tree resulting from
+     *          applying this set operation in a single thread.
+     *        | result.equals(apply(first,second))
+     * @throws  IllegalArgumentException
+     *          One of the given trees is not effective, or both trees do
+     *          not order their elements in the same way.
+     *        | (first == null) || (second == null) ||
+     *        | (first.getComparator() != second.getComparator())
+     * @throws  IllegalElementException
+     *          The second operand stores an element that the first operand
+     *          cannot have, or that cannot be compared with its elements.
+     *        | for some element in second:
+     *        |   ! first.canHaveAsElement(element)
+     * @note    The range of elements is split at evenly spaced elements of
+     *          the largest operand. All occurrences of the same element fall
+     *          in the same range, such that the ranges can be combined
+     *          independently of each other in the common fork-join pool.
+     *          Only the final tree is built in a single thread. Operands
+     *          with few elements are combined in a single thread right away.
+     */
+    public SearchTree applyInParallel(final SearchTree first,
+            final SearchTree second)
+            throws IllegalArgumentException, IllegalElementException {
+        checkOperands(first, second);
+        final SearchTree largest = (first.getNbElements() >= second
+            .getNbElements()) ? first : second;
+        int nbRanges = Math.min(largest.getNbElements() / MIN_RANGE_SIZE,
+            4 * ForkJoinPool.getCommonPoolParallelism());
+        if (nbRanges < 2)
+            return apply(first, second);
+        final Object[] bounds = new Object[nbRanges + 1];
+        for (int i = 1; i < nbRanges; i++)
+            bounds[i] = largest.getElementAt(
+                1 + (int) ((long) i * largest.getNbElements() / nbRanges));
+        List<List<Object>> ranges = IntStream.range(0, nbRanges).parallel()
+            .mapToObj(i -> {
+                List<Object> elements = new ArrayList<Object>();
+                combine(first, rangeOf(first, bounds[i], bounds[i + 1]),
+                    rangeOf(second, bounds[i], bounds[i + 1]), elements);
+                return elements;
+            }).collect(Collectors.toList());
+        List<Object> elements = new ArrayList<Object>();
+        for (List<Object> range : ranges)
+            elements.addAll(range);
+        return buildTree(first, elements);
+    }
+
+    /**
+     * The minimal number of elements of the largest operand in each of the
+     * ranges combined by different threads.
+     */
+    public static final int MIN_RANGE_SIZE = 1 << 13;
+
+    /**
+     * A set operation keeping all the occurrences of both operands.
+     */
+    public static final SetOperation MERGE = new SetOperation() {
+
+        public int getNbOccurrences(int nbInFirst, int nbInSecond) {
+            return nbInFirst + nbInSecond;
+        }
+
+        @Override
+        public String toString() {
+            return "MERGE";
+        }
+
+    };
+
+    /**
+     * A set operation keeping each element as many times as it occurs
+     * in the operand in which it occurs most.
+     */
+    public static final SetOperation UNION = new SetOperation() {
+
+        public int getNbOccurrences(int nbInFirst, int nbInSecond) {
+            return Math.max(nbInFirst, nbInSecond);
+        }
+
+        @Override
+        public String toString() {
+            return "UNION";
+        }
+
+    };
+
+    /**
+     * A set operation keeping each element as many times as it occurs
+     * in the operand in which it occurs least.
+     */
+    public static final SetOperation INTERSECTION = new SetOperation() {
+
+        public int getNbOccurrences(int nbInFirst, int nbInSecond) {
+            return Math.min(nbInFirst, nbInSecond);
+        }
+
+        @Override
+        public String toString() {
+            return "INTERSECTION";
+        }
+
+    };
+
+    /**
+     * A set operation keeping the occurrences of the first operand that
+     * are not matched by occurrences in the second operand.
+     */
+    public static final SetOperation DIFFERENCE = new SetOperation() {
+
+        public int getNbOccurrences(int nbInFirst, int nbInSecond) {
+            return Math.max(nbInFirst - nbInSecond, 0);
+        }
+
+        @Override
+        public String toString() {
+            return "DIFFERENCE";
+        }
+
+    };
+
+    /**
+     * Check whether the given search trees can be combined by a set
+     * operation.
+     *
+     * @throws  IllegalArgumentException
+     *          One of the given trees is not effective, or both trees do
+     *          not order their elements in the same way.
+     *        | (first == null) || (second == null) ||
+     *        | (first.getComparator() != second.getComparator())
+     */
+    private static void checkOperands(SearchTree first, SearchTree second)
+            throws IllegalArgumentException {
+        if ((first == null) || (second == null)
+                || (first.getComparator() != second.getComparator()))
+            throw new IllegalArgumentException();
+    }
+
+    /**
+     * Return an iterator returning, in ascending order, all the elements
+     * of the given search tree within the given bounds.
+     *
+     * @note    Bounds that the given tree cannot have as elements are
+     *          taken from the other operand. Such elements cannot be
+     *          compared with the elements of the given tree.
+     */
+    private static Iterator<Object> rangeOf(SearchTree tree, Object from, Object to)
+            throws IllegalElementException {
+        try {
+            return tree.subTreeIterator(from, to);
+        }
+        catch (IllegalElementException | ClassCastException exc) {
+            throw new IllegalElementException(
+                ((from != null) && !tree.canHaveAsElement(from)) ? from : to,
+                tree);
+        }
+    }
+
+    /**
+     * Add to the given list, in ascending order, the occurrences of all
+     * the elements returned by the given iterators, as many times as this
+     * set operation decides.
+     *
+     * @param   first
+     *          The first operand, ordering the elements of both iterators.
+     * @param   firstElements
+     *          An iterator returning elements of the first operand in
+     *          ascending order.
+     * @param   secondElements
+     *          An iterator returning elements of the second operand in
+     *          ascending order.
+     * @param   result
+     *          The list to which the resulting occurrences are added.
+     * @note    A run of occurrences of the same element is collected from
+     *          both iterators at once. The resulting occurrences are taken
+     *          from the run of the first operand before they are taken from
+     *          the run of the second operand.
+     */
+    private void combine(SearchTree first, Iterator<Object> firstElements,
+            Iterator<Object> secondElements, List<Object> result)
+            throws IllegalElementException {
+        List<Object> firstRun = new ArrayList<Object>();
+        List<Object> secondRun = new ArrayList<Object>();
+        Object firstElement = firstElements.hasNext() ? firstElements.next() : null;
+        Object secondElement = nextOf(first, secondElements);
+        while ((firstElement != null) || (secondElement != null)) {
+            Object element;
+            if (firstElement == null)
+                element = secondElement;
+            else if (secondElement == null)
+                element = firstElement;
+            else
+                element = (compare(first, firstElement, secondElement) <= 0) ?
+                    firstElement : secondElement;
+            while ((firstElement != null)
+                    && (compare(first, firstElement, element) == 0)) {
+                firstRun.add(firstElement);
+                firstElement = firstElements.hasNext() ? firstElements.next() : null;
+            }
+            while ((secondElement != null)
+                    && (compare(first, secondElement, element) == 0)) {
+                secondRun.add(secondElement);
+                secondElement = nextOf(first, secondElements);
+            }
+            int nbOccurrences = getNbOccurrences(firstRun.size(), secondRun.size());
+            for (int i = 0; i < nbOccurrences; i++)
+                result.add((i < firstRun.size()) ? firstRun.get(i) :
+                    secondRun.get(i - firstRun.size()));
+            firstRun.clear();
+            secondRun.clear();
+        }
+    }
+
+    /**
+     * Return the next element of the given iterator over the second
+     * operand, or the null reference if it has no more elements.
+     *
+     * @throws  IllegalElementException
+     *          The given first operand cannot have the next element as one
+     *          of its elements.
+     *        | ! first.canHaveAsElement(result)
+     */
+    private static Object nextOf(SearchTree first, Iterator<Object> secondElements)
+            throws IllegalElementException {
+        if (!secondElements.hasNext())
+            return null;
+        Object element = secondElements.next();
+        if (!first.canHaveAsElement(element))
+            throw new IllegalElementException(element, first);
+        return element;
+    }
+
+    /**
+     * Compare the given elements according to the ordering of the given
+     * first operand.
+     *
+     * @throws  IllegalElementException
+     *          The given elements cannot be compared with each other.
+     */
+    private static int compare(SearchTree first, Object element, Object other)
+            throws IllegalElementException {
+        try {
+            return first.compareElements(element, other);
+        }
+        catch (ClassCastException exc) {
+            throw new IllegalElementException(other, first);
+        }
+    }
+
+    /**
+     * Return a balanced search tree storing the given elements, ordered
+     * in the same way as the given first operand.
+     *
+     * @note    Comparator search trees only differ in their element type
+     *          and their comparator. The empty, leaf and composed versions
+     *          of these trees each register their element type.
+     */
+    private static SearchTree buildTree(SearchTree first, List<Object> elements) {
+        if (first.getComparator() == null)
+            return BalancedSearchTree.fromSorted(elements.iterator(),
+                elements.size());
+        Class<?> elementType;
+        if (first instanceof ComparatorSearchTree)
+            elementType = ((ComparatorSearchTree) first).getElementType();
+        else if (first instanceof ComparatorLeafSearchTree)
+            elementType = ((ComparatorLeafSearchTree) first).getElementType();
+        else
+            elementType = ((ComparatorEmptySearchTree) first).getElementType();
+        return ComparatorSearchTree.fromSorted(elementType,
+            first.getComparator(), elements.iterator(), elements.size());
+    }
+
+}
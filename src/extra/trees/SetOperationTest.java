@@ -0,0 +1,161 @@
+package extra.trees;
+
+import static org.junit.Assert.*;
+
+import java.util.*;
+
+import org.junit.*;
+
+import extra.trees.exceptions.IllegalElementException;
+
+public class SetOperationTest {
+
+    private SearchTree first;
+
+    private SearchTree second;
+
+    @Before
+    public void setUp() throws Exception {
+        first = new ComposedSearchTree(10, 20, 20, 20, 30, 50);
+        second = new BalancedSearchTree(20, 40, 20, 10, 60);
+    }
+
+    private static List<Object> elementsOf(BinaryTree tree) {
+        List<Object> elements = new ArrayList<Object>();
+        for (Object element : tree)
+            elements.add(element);
+        return elements;
+    }
+
+    // Test for the method getNbOccurrences
+
+    @Test
+    public void getNbOccurrences_AllOperations() {
+        assertEquals(5, SetOperation.MERGE.getNbOccurrences(3, 2));
+        assertEquals(3, SetOperation.UNION.getNbOccurrences(3, 2));
+        assertEquals(2, SetOperation.INTERSECTION.getNbOccurrences(3, 2));
+        assertEquals(1, SetOperation.DIFFERENCE.getNbOccurrences(3, 2));
+        assertEquals(0, SetOperation.DIFFERENCE.getNbOccurrences(2, 3));
+    }
+
+    // Test for the method apply and for the methods of search trees
+    // relying on it
+
+    @Test
+    public void apply_AllOperations() throws Exception {
+        assertEquals(Arrays.asList(10, 10, 20, 20, 20, 20, 20, 30, 40, 50, 60),
+            elementsOf(first.merge(second)));
+        assertEquals(Arrays.asList(10, 20, 20, 20, 30, 40, 50, 60),
+            elementsOf(first.union(second)));
+        assertEquals(Arrays.asList(10, 20, 20),
+            elementsOf(first.intersection(second)));
+        assertEquals(Arrays.asList(20, 30, 50),
+            elementsOf(first.difference(second)));
+        assertEquals(Arrays.asList(40, 60),
+            elementsOf(second.difference(first)));
+    }
+
+    @Test
+    public void apply_OperandsUnchanged() throws Exception {
+        SearchTree result = first.merge(second);
+        assertTrue(result instanceof BalancedSearchTree);
+        assertEquals(6, first.getNbElements());
+        assertEquals(5, second.getNbElements());
+        result.addElement(70);
+        assertFalse(first.hasAsElement(70));
+        assertFalse(second.hasAsElement(70));
+    }
+
+    @Test
+    public void apply_EmptyAndLeafOperands() throws Exception {
+        SearchTree empty = EmptySearchTree.getPrototype();
+        SearchTree leaf = new LeafSearchTree(20);
+        assertTrue(empty.union(empty).isEmpty());
+        assertEquals(elementsOf(first), elementsOf(first.union(empty)));
+        assertTrue(first.intersection(empty).isEmpty());
+        assertEquals(Arrays.asList(20), elementsOf(leaf.intersection(first)));
+        assertTrue(leaf.difference(first).isEmpty());
+        assertTrue(leaf.merge(empty) instanceof LeafSearchTree);
+    }
+
+    @Test
+    public void apply_DegenerateOperands() throws Exception {
+        // Each element is stored in the right subtree of the previous one.
+        SearchTree degenerate = new LeafSearchTree(1999);
+        for (int i = 1998; i >= 0; i--)
+            degenerate = new ComposedSearchTree(i,
+                EmptySearchTree.getPrototype(), degenerate);
+        SearchTree result = degenerate.intersection(new ComposedSearchTree(5, 1999, 2000));
+        assertEquals(Arrays.asList(5, 1999), elementsOf(result));
+    }
+
+    @Test
+    public void apply_PersistentOperands() throws Exception {
+        SearchTree version = PersistentEmptySearchTree.getPrototype()
+            .addElement(30).addElement(10);
+        assertEquals(Arrays.asList(10, 10, 20, 20, 20, 30, 30, 50),
+            elementsOf(first.merge(version)));
+        assertEquals(2, version.getNbElements());
+    }
+
+    @Test
+    public void apply_ComparatorOperands() throws Exception {
+        SearchTree firstWords = new ComparatorSearchTree(String.class,
+            String.CASE_INSENSITIVE_ORDER, "pear", "Apple", "fig");
+        SearchTree secondWords = new ComparatorSearchTree(String.class,
+            String.CASE_INSENSITIVE_ORDER, "apple", "Kiwi");
+        SearchTree result = firstWords.union(secondWords);
+        assertTrue(result instanceof ComparatorSearchTree);
+        assertSame(String.CASE_INSENSITIVE_ORDER, result.getComparator());
+        assertEquals(Arrays.asList("Apple", "fig", "Kiwi", "pear"),
+            elementsOf(result));
+        assertEquals(Arrays.asList("Apple", "apple", "fig", "Kiwi", "pear"),
+            elementsOf(firstWords.merge(secondWords)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void apply_DifferentOrderings() throws Exception {
+        first.union(new ComparatorSearchTree(Integer.class,
+            Comparator.reverseOrder(), 1, 2));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void apply_NonEffectiveOperand() throws Exception {
+        first.union(null);
+    }
+
+    @Test(expected = IllegalElementException.class)
+    public void apply_IncomparableElements() throws Exception {
+        first.merge(new ComposedSearchTree("a", "b"));
+    }
+
+    // Test for the method applyInParallel
+
+    @Test
+    public void applyInParallel_SameAsApply() throws Exception {
+        Random random = new Random(5);
+        Object[] firstElements = new Object[5 * SetOperation.MIN_RANGE_SIZE];
+        for (int i = 0; i < firstElements.length; i++)
+            firstElements[i] = random.nextInt(firstElements.length / 4);
+        Object[] secondElements = new Object[3 * SetOperation.MIN_RANGE_SIZE];
+        for (int i = 0; i < secondElements.length; i++)
+            secondElements[i] = random.nextInt(firstElements.length / 4);
+        SearchTree firstTree = BalancedSearchTree.fromElements(firstElements);
+        SearchTree secondTree = BalancedSearchTree.fromElements(secondElements);
+        for (SetOperation operation : new SetOperation[] { SetOperation.MERGE,
+                SetOperation.UNION, SetOperation.INTERSECTION,
+                SetOperation.DIFFERENCE }) {
+            assertEquals(elementsOf(operation.apply(firstTree, secondTree)),
+                elementsOf(operation.applyInParallel(firstTree, secondTree)));
+            assertEquals(elementsOf(operation.apply(secondTree, firstTree)),
+                elementsOf(operation.applyInParallel(secondTree, firstTree)));
+        }
+    }
+
+    @Test
+    public void applyInParallel_FewElements() throws Exception {
+        assertEquals(Arrays.asList(10, 20, 20, 20, 30, 40, 50, 60),
+            elementsOf(SetOperation.UNION.applyInParallel(first, second)));
+    }
+
+}
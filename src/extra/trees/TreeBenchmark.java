@@ -0,0 +1,853 @@
+package extra.trees;
+
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+import extra.trees.exceptions.*;
+
+/**
+ * A class collecting micro benchmarks for binary trees.
+ *		Each benchmark is run a number of times to warm up the virtual
+ *		machine, after which the average time of a number of measured runs
+ *		is reported. Benchmarks must be run without assertions enabled,
+ *		because the assertions in the methods to change subtrees of binary
+ *		trees inspect all the elements of those subtrees.
+ *
+ * @version  1.0
+ * @author   Eric Steegmans
+ */
+@SuppressWarnings("rawtypes")
+public class TreeBenchmark {
+
+	public static void main(String args[]) throws IllegalElementException {
+		int nbElements = (args.length > 0) ? Integer.parseInt(args[0]) : 1000000;
+		benchmarkIterators(nbElements);
+		benchmarkStreams(nbElements);
+		benchmarkConcurrentTrees(nbElements);
+		benchmarkPrimitiveTrees(nbElements);
+		benchmarkComparatorTrees(nbElements);
+		benchmarkCountedTrees(nbElements);
+		benchmarkIndexedUnsortedTrees(nbElements);
+		benchmarkPlacementStrategies(nbElements);
+		benchmarkFrozenTrees(nbElements);
+		benchmarkOffHeapTrees(nbElements);
+		benchmarkMappedTrees(nbElements);
+		benchmarkTreeEquality(nbElements);
+		benchmarkClones(nbElements);
+		benchmarkSetOperations(nbElements);
+	}
+
+	/**
+	 * Number of runs to warm up the virtual machine before measuring.
+	 */
+	private static final int NB_WARMUP_RUNS = 5;
+
+	/**
+	 * Number of measured runs for each benchmark.
+	 */
+	private static final int NB_MEASURED_RUNS = 10;
+
+	/**
+	 * Variable collecting results of benchmarks, to prevent the virtual
+	 * machine from eliminating the code under test.
+	 */
+	private static long sink;
+
+	/**
+	 * Run the given benchmark, and print the average time per element.
+	 */
+	private static void run(String name, int nbElements, Runnable benchmark) {
+		for (int i = 0; i < NB_WARMUP_RUNS; i++)
+			benchmark.run();
+		long start = System.nanoTime();
+		for (int i = 0; i < NB_MEASURED_RUNS; i++)
+			benchmark.run();
+		long elapsed = System.nanoTime() - start;
+		System.out.printf("%-50s %8.2f ns/element%n", name,
+				(double) elapsed / NB_MEASURED_RUNS / nbElements);
+	}
+
+	/**
+	 * Return a list with the numbers from 0 up to the given number,
+	 * shuffled in a reproducible way.
+	 */
+	private static List<Integer> shuffledNumbers(int nbElements) {
+		List<Integer> numbers = new ArrayList<Integer>(nbElements);
+		for (int i = 0; i < nbElements; i++)
+			numbers.add(i);
+		Collections.shuffle(numbers, new Random(nbElements));
+		return numbers;
+	}
+
+	/**
+	 * Compare the stack-based iterator of composed binary trees with
+	 * an iterator chaining iterators for each of the subtrees.
+	 */
+	public static void benchmarkIterators(int nbElements)
+			throws IllegalElementException {
+		List<Integer> numbers = shuffledNumbers(nbElements);
+		// Search trees are filled in random order, to keep them reasonably
+		// well balanced without depending on balanced search trees.
+		ComposedSearchTree searchTree = new ComposedSearchTree(numbers.get(0),
+				numbers.get(1));
+		ComposedUnsortedTree unsortedTree = new ComposedUnsortedTree(
+				numbers.get(0), numbers.get(1));
+		for (int i = 2; i < nbElements; i++) {
+			searchTree.addElement(numbers.get(i));
+			unsortedTree.addElement(numbers.get(i));
+		}
+		for (final BinaryTree tree : new BinaryTree[] { searchTree, unsortedTree }) {
+			String treeName = tree.getClass().getSimpleName();
+			run(treeName + " chained iterators", nbElements, new Runnable() {
+				public void run() {
+					iterate(chainedIterator(tree));
+				}
+			});
+			run(treeName + " stack-based iterator", nbElements, new Runnable() {
+				public void run() {
+					iterate(tree.iterator());
+				}
+			});
+		}
+	}
+
+	/**
+	 * Compare sequential and parallel streams computing the sum of the
+	 * squares of all the elements in a composed search tree.
+	 */
+	public static void benchmarkStreams(int nbElements)
+			throws IllegalElementException {
+		List<Integer> numbers = shuffledNumbers(nbElements);
+		final ComposedSearchTree searchTree = new ComposedSearchTree(
+				numbers.get(0), numbers.get(1));
+		for (int i = 2; i < nbElements; i++)
+			searchTree.addElement(numbers.get(i));
+		run("ComposedSearchTree sequential stream", nbElements, new Runnable() {
+			public void run() {
+				sink += searchTree.stream().mapToLong(x -> (long) (Integer) x * (Integer) x).sum();
+			}
+		});
+		run("ComposedSearchTree parallel stream", nbElements, new Runnable() {
+			public void run() {
+				sink += searchTree.parallelStream().mapToLong(x -> (long) (Integer) x * (Integer) x).sum();
+			}
+		});
+	}
+
+	/**
+	 * Compare the throughput of a concurrent search tree with the throughput
+	 * of a balanced search tree protected by a single lock, for an increasing
+	 * number of threads. Each thread performs a mix of lookups (50%),
+	 * additions (25%) and removals (25%) of random elements.
+	 */
+	public static void benchmarkConcurrentTrees(int nbElements)
+			throws IllegalElementException {
+		int maxNbThreads = Runtime.getRuntime().availableProcessors();
+		final int nbOperations = Math.max(nbElements / 10, 1000);
+		for (int nbThreads = 1; nbThreads <= maxNbThreads; nbThreads *= 2) {
+			final ConcurrentSearchTree concurrentTree = new ConcurrentSearchTree();
+			final BalancedSearchTree lockedTree = new BalancedSearchTree(-1, -2);
+			for (int i = 0; i < nbElements; i += 2) {
+				concurrentTree.addElement(i);
+				lockedTree.addElement(i);
+			}
+			runConcurrently("ConcurrentSearchTree", nbThreads, nbOperations,
+					new ThreadBenchmark() {
+						public void run(Random random, int nbOperations) {
+							for (int i = 0; i < nbOperations; i++) {
+								int element = random.nextInt(nbElements);
+								int operation = random.nextInt(4);
+								if (operation < 2)
+									sink += concurrentTree.hasAsElement(element) ? 1 : 0;
+								else if (operation == 2)
+									concurrentTree.addElement(element);
+								else if (concurrentTree.hasAsElement(element)) {
+									try {
+										concurrentTree.removeElement(element);
+									} catch (IllegalElementException exc) {
+										// Removed by another thread in the meantime.
+									}
+								}
+							}
+						}
+					});
+			runConcurrently("synchronized BalancedSearchTree", nbThreads, nbOperations,
+					new ThreadBenchmark() {
+						public void run(Random random, int nbOperations) {
+							for (int i = 0; i < nbOperations; i++) {
+								int element = random.nextInt(nbElements);
+								int operation = random.nextInt(4);
+								synchronized (lockedTree) {
+									if (operation < 2)
+										sink += lockedTree.hasAsElement(element) ? 1 : 0;
+									else if (operation == 2)
+										lockedTree.addElement(element);
+									else if (lockedTree.hasAsElement(element))
+										lockedTree.removeElement(element);
+								}
+							}
+						}
+					});
+		}
+	}
+
+	/**
+	 * An interface for benchmarks executed by several threads at once.
+	 */
+	private static interface ThreadBenchmark {
+
+		/**
+		 * Perform the given number of operations, using the given
+		 * generator of random numbers.
+		 */
+		void run(Random random, int nbOperations);
+
+	}
+
+	/**
+	 * Run the given benchmark by the given number of threads, each
+	 * performing the given number of operations, and print the throughput.
+	 */
+	private static void runConcurrently(String name, int nbThreads,
+			final int nbOperations, final ThreadBenchmark benchmark) {
+		for (int run = 0; run <= NB_WARMUP_RUNS; run++) {
+			Thread[] threads = new Thread[nbThreads];
+			for (int t = 0; t < nbThreads; t++) {
+				final Random random = new Random(run * 31 + t);
+				threads[t] = new Thread(new Runnable() {
+					public void run() {
+						benchmark.run(random, nbOperations);
+					}
+				});
+			}
+			long start = System.nanoTime();
+			for (Thread thread : threads)
+				thread.start();
+			try {
+				for (Thread thread : threads)
+					thread.join();
+			} catch (InterruptedException exc) {
+				Thread.currentThread().interrupt();
+				return;
+			}
+			long elapsed = System.nanoTime() - start;
+			// Only the last run is reported; the others warm up the machine.
+			if (run == NB_WARMUP_RUNS)
+				System.out.printf("%-50s %8.2f operations/us%n",
+						name + " (" + nbThreads + " threads)",
+						(double) nbThreads * nbOperations * 1000 / elapsed);
+		}
+	}
+
+	/**
+	 * Compare the memory used by and the time to look up elements in a
+	 * balanced search tree of boxed integers and an int search tree.
+	 * Both trees are filled, and searched, in the same random order.
+	 */
+	public static void benchmarkPrimitiveTrees(final int nbElements)
+			throws IllegalElementException {
+		List<Integer> numbers = shuffledNumbers(nbElements);
+		final int[] elements = new int[nbElements];
+		for (int i = 0; i < nbElements; i++)
+			elements[i] = numbers.get(i);
+		numbers = null;
+		// The memory of the boxed tree includes the Integer objects created
+		// while adding the elements.
+		long memoryBefore = getUsedMemory();
+		final BalancedSearchTree boxedTree = new BalancedSearchTree(elements[0],
+				elements[1]);
+		for (int i = 2; i < nbElements; i++)
+			boxedTree.addElement(elements[i]);
+		long boxedMemory = getUsedMemory() - memoryBefore;
+		memoryBefore = getUsedMemory();
+		final IntSearchTree intTree = new IntSearchTree();
+		for (int element : elements)
+			intTree.addElement(element);
+		long intMemory = getUsedMemory() - memoryBefore;
+		System.out.printf("%-50s %8.2f bytes/element%n", "BalancedSearchTree memory",
+				(double) boxedMemory / nbElements);
+		System.out.printf("%-50s %8.2f bytes/element%n", "IntSearchTree memory",
+				(double) intMemory / nbElements);
+		run("BalancedSearchTree lookups", nbElements, new Runnable() {
+			public void run() {
+				for (int element : elements)
+					sink += boxedTree.hasAsElement(element) ? 1 : 0;
+			}
+		});
+		run("IntSearchTree lookups", nbElements, new Runnable() {
+			public void run() {
+				for (int element : elements)
+					sink += intTree.hasAsElement(element) ? 1 : 0;
+			}
+		});
+	}
+
+	/**
+	 * Compare a balanced search tree ordering its elements according to
+	 * their natural ordering with a comparator search tree, for a stream
+	 * of elements of which one in four is a string instead of an integer.
+	 * Each element is only added if the tree can have it as an element.
+	 * The balanced search tree finds out that it cannot have a string by
+	 * catching a class cast exception; the comparator search tree checks
+	 * the type of the string.
+	 */
+	public static void benchmarkComparatorTrees(int nbElements)
+			throws IllegalElementException {
+		List<Integer> numbers = shuffledNumbers(nbElements);
+		final Object[] elements = new Object[nbElements];
+		for (int i = 0; i < nbElements; i++)
+			elements[i] = (i % 4 == 3) ? ("#" + i) : numbers.get(i);
+		run("BalancedSearchTree mixed-type inserts", nbElements, new Runnable() {
+			public void run() {
+				try {
+					BalancedSearchTree tree = new BalancedSearchTree(-1, -2);
+					for (Object element : elements)
+						if (tree.canHaveAsElement(element))
+							tree = tree.addElement(element);
+					sink += tree.getNbElements();
+				} catch (IllegalElementException exc) {
+					throw new AssertionError(exc);
+				}
+			}
+		});
+		run("ComparatorSearchTree mixed-type inserts", nbElements, new Runnable() {
+			public void run() {
+				try {
+					ComparatorSearchTree tree = new ComparatorSearchTree(
+							Integer.class, Comparator.naturalOrder(), -1, -2);
+					for (Object element : elements)
+						if (tree.canHaveAsElement(element))
+							tree = tree.addElement(element);
+					sink += tree.getNbElements();
+				} catch (IllegalElementException exc) {
+					throw new AssertionError(exc);
+				}
+			}
+		});
+	}
+
+	/**
+	 * Compare the time to count the occurrences of elements in a balanced
+	 * search tree and in a counted search tree, both storing the given
+	 * number of elements as repeats of a thousand times fewer distinct
+	 * elements.
+	 */
+	public static void benchmarkCountedTrees(int nbElements)
+			throws IllegalElementException {
+		final int nbKeys = Math.max(nbElements / 1000, 10);
+		List<Integer> numbers = shuffledNumbers(nbElements);
+		final BalancedSearchTree balancedTree = new BalancedSearchTree(0, 0);
+		final CountedSearchTree countedTree = new CountedSearchTree(0, 0);
+		for (int i = 2; i < nbElements; i++) {
+			balancedTree.addElement(numbers.get(i) % nbKeys);
+			countedTree.addElement(numbers.get(i) % nbKeys);
+		}
+		run("BalancedSearchTree duplicate counts", nbKeys, new Runnable() {
+			public void run() {
+				for (int key = 0; key < nbKeys; key++)
+					sink += balancedTree.getNbOccurrencesOf(key);
+			}
+		});
+		run("CountedSearchTree duplicate counts", nbKeys, new Runnable() {
+			public void run() {
+				for (int key = 0; key < nbKeys; key++)
+					sink += countedTree.getNbOccurrencesOf(key);
+			}
+		});
+	}
+
+	/**
+	 * Compare the time to look up, remove and add again elements in a
+	 * composed unsorted tree and in an indexed unsorted tree. The size of
+	 * the trees is limited to 10000 elements, because each lookup in a
+	 * composed unsorted tree inspects all its elements, and each removal
+	 * backtracks by means of exceptions.
+	 */
+	public static void benchmarkIndexedUnsortedTrees(int nbElements) {
+		final int size = Math.min(nbElements, 10000);
+		final int nbOperations = 100;
+		final List<Integer> numbers = shuffledNumbers(size);
+		final ComposedUnsortedTree composedTree = new ComposedUnsortedTree(
+				numbers.toArray());
+		final IndexedUnsortedTree indexedTree = new IndexedUnsortedTree(
+				numbers.toArray());
+		run("ComposedUnsortedTree lookup+remove+add", nbOperations, new Runnable() {
+			public void run() {
+				try {
+					for (int i = 0; i < nbOperations; i++) {
+						Integer element = numbers.get(i);
+						if (composedTree.hasAsElement(element)) {
+							composedTree.removeElement(element);
+							composedTree.addElement(element);
+						}
+					}
+				} catch (IllegalElementException exc) {
+					throw new AssertionError(exc);
+				}
+			}
+		});
+		run("IndexedUnsortedTree lookup+remove+add", nbOperations, new Runnable() {
+			public void run() {
+				try {
+					for (int i = 0; i < nbOperations; i++) {
+						Integer element = numbers.get(i);
+						if (indexedTree.hasAsElement(element)) {
+							indexedTree.removeElement(element);
+							indexedTree.addElement(element);
+						}
+					}
+				} catch (IllegalElementException exc) {
+					throw new AssertionError(exc);
+				}
+			}
+		});
+	}
+
+	/**
+	 * Compare placement strategies for unsorted trees, for an increasing
+	 * number of threads. Each thread builds an unsorted tree of its own;
+	 * the height of a tree built by a single thread is printed as well.
+	 * The strategy drawing its numbers from Math.random() is the way
+	 * elements used to be placed.
+	 */
+	public static void benchmarkPlacementStrategies(int nbElements) {
+		int maxNbThreads = Runtime.getRuntime().availableProcessors();
+		final int size = Math.min(nbElements, 100000);
+		PlacementStrategy mathRandom = new PlacementStrategy() {
+			public boolean placeLeft(BinaryTree left, BinaryTree right,
+					Object element) {
+				return Math.random() > 0.5;
+			}
+
+			@Override
+			public String toString() {
+				return "Math.random()";
+			}
+		};
+		PlacementStrategy defaultStrategy = ComposedBinaryTree
+				.getDefaultPlacementStrategy();
+		try {
+			for (PlacementStrategy strategy : new PlacementStrategy[] {
+					mathRandom, PlacementStrategy.RANDOM,
+					PlacementStrategy.SIZE_BALANCED, PlacementStrategy.seeded(size) }) {
+				ComposedBinaryTree.setDefaultPlacementStrategy(strategy);
+				System.out.printf("%-50s %8d levels%n", strategy + " height",
+						heightOf(buildUnsortedTree(size)));
+				for (int nbThreads = 1; nbThreads <= maxNbThreads; nbThreads *= 2)
+					runConcurrently(strategy + " additions", nbThreads, size,
+							new ThreadBenchmark() {
+								public void run(Random random, int nbOperations) {
+									sink += buildUnsortedTree(nbOperations).getNbElements();
+								}
+							});
+			}
+		} finally {
+			ComposedBinaryTree.setDefaultPlacementStrategy(defaultStrategy);
+		}
+	}
+
+	/**
+	 * Compare the time to look up elements in a composed search tree, in
+	 * a balanced search tree and in a frozen search tree with the same
+	 * elements. The composed search tree is filled in random order; half
+	 * of the lookups are for elements that are not stored.
+	 */
+	public static void benchmarkFrozenTrees(int nbElements)
+			throws IllegalElementException {
+		List<Integer> numbers = shuffledNumbers(nbElements);
+		final ComposedSearchTree composedTree = new ComposedSearchTree(
+				2 * numbers.get(0), 2 * numbers.get(1));
+		for (int i = 2; i < nbElements; i++)
+			composedTree.addElement(2 * numbers.get(i));
+		final SearchTree balancedTree = BalancedSearchTree
+				.fromStream(composedTree.stream());
+		final FrozenSearchTree frozenTree = composedTree.freeze();
+		final Integer[] keys = new Integer[nbElements];
+		for (int i = 0; i < nbElements; i++)
+			keys[i] = 2 * numbers.get(i) + (i % 2);
+		run("ComposedSearchTree lookups", nbElements, new Runnable() {
+			public void run() {
+				for (Integer key : keys)
+					sink += composedTree.hasAsElement(key) ? 1 : 0;
+			}
+		});
+		run("BalancedSearchTree lookups", nbElements, new Runnable() {
+			public void run() {
+				for (Integer key : keys)
+					sink += balancedTree.hasAsElement(key) ? 1 : 0;
+			}
+		});
+		run("FrozenSearchTree lookups", nbElements, new Runnable() {
+			public void run() {
+				for (Integer key : keys)
+					sink += frozenTree.hasAsElement(key) ? 1 : 0;
+			}
+		});
+	}
+
+	/**
+	 * Compare the heap used by, the duration of a full garbage collection
+	 * with, and the time to look up elements in an off-heap long search
+	 * tree, a long search tree and a balanced search tree of boxed longs.
+	 * All trees are filled, and searched, in the same random order. They
+	 * all remain reachable until the end, such that the memory used by
+	 * each of them can be measured as the growth of the heap.
+	 */
+	public static void benchmarkOffHeapTrees(final int nbElements)
+			throws IllegalElementException {
+		List<Integer> numbers = shuffledNumbers(nbElements);
+		final long[] elements = new long[nbElements];
+		for (int i = 0; i < nbElements; i++)
+			elements[i] = numbers.get(i) * 1000000007L;
+		numbers = null;
+		long memoryBefore = getUsedMemory();
+		try (final OffHeapLongSearchTree offHeapTree = new OffHeapLongSearchTree()) {
+			for (long element : elements)
+				offHeapTree.addElement(element);
+			reportHeapUsage("OffHeapLongSearchTree", getUsedMemory() - memoryBefore,
+					nbElements);
+			run("OffHeapLongSearchTree lookups", nbElements, new Runnable() {
+				public void run() {
+					for (long element : elements)
+						sink += offHeapTree.hasAsElement(element) ? 1 : 0;
+				}
+			});
+			memoryBefore = getUsedMemory();
+			final LongSearchTree longTree = new LongSearchTree();
+			for (long element : elements)
+				longTree.addElement(element);
+			reportHeapUsage("LongSearchTree", getUsedMemory() - memoryBefore,
+					nbElements);
+			run("LongSearchTree lookups", nbElements, new Runnable() {
+				public void run() {
+					for (long element : elements)
+						sink += longTree.hasAsElement(element) ? 1 : 0;
+				}
+			});
+			memoryBefore = getUsedMemory();
+			final BalancedSearchTree boxedTree = new BalancedSearchTree(
+					elements[0], elements[1]);
+			for (int i = 2; i < nbElements; i++)
+				boxedTree.addElement(elements[i]);
+			reportHeapUsage("BalancedSearchTree", getUsedMemory() - memoryBefore,
+					nbElements);
+			run("BalancedSearchTree lookups", nbElements, new Runnable() {
+				public void run() {
+					for (long element : elements)
+						sink += boxedTree.hasAsElement(element) ? 1 : 0;
+				}
+			});
+			sink += offHeapTree.getNbElements() + longTree.getNbElements()
+					+ boxedTree.getNbElements();
+		}
+	}
+
+	/**
+	 * Print the given number of bytes on the heap per element, and the
+	 * time taken by a full garbage collection with all the objects that
+	 * are currently reachable, including the trees built before.
+	 */
+	private static void reportHeapUsage(String name, long memory, int nbElements) {
+		System.out.printf("%-50s %8.2f bytes/element%n", name + " heap",
+				(double) memory / nbElements);
+		long start = System.nanoTime();
+		System.gc();
+		System.out.printf("%-50s %8.2f ms%n", name + " full GC",
+				(System.nanoTime() - start) / 1e6);
+	}
+
+	/**
+	 * Compare the time to start up with a balanced search tree, rebuilt
+	 * from its elements in random order, with the time to start up with a
+	 * mapped search tree, loaded from a file written before. The time to
+	 * look up elements in both trees is compared as well, starting with
+	 * the first lookups after loading the mapped search tree.
+	 */
+	public static void benchmarkMappedTrees(int nbElements)
+			throws IllegalElementException {
+		List<Integer> numbers = shuffledNumbers(nbElements);
+		final Object[] elements = numbers.toArray();
+		final Integer[] keys = new Integer[nbElements];
+		for (int i = 0; i < nbElements; i++)
+			keys[i] = numbers.get(i) + (i % 2) * nbElements;
+		final SearchTree balancedTree = BalancedSearchTree.fromElements(elements);
+		try {
+			final Path file = Files.createTempFile("tree", ".bin");
+			try {
+				MappedSearchTree.write(balancedTree, file);
+				run("BalancedSearchTree rebuild", nbElements, new Runnable() {
+					public void run() {
+						try {
+							sink += BalancedSearchTree.fromElements(elements)
+									.getNbElements();
+						} catch (IllegalElementException exc) {
+							throw new IllegalStateException(exc);
+						}
+					}
+				});
+				run("MappedSearchTree load", nbElements, new Runnable() {
+					public void run() {
+						try {
+							sink += new MappedSearchTree(file).getNbElements();
+						} catch (IOException exc) {
+							throw new UncheckedIOException(exc);
+						}
+					}
+				});
+				final MappedSearchTree mappedTree = new MappedSearchTree(file);
+				long start = System.nanoTime();
+				for (int i = 0; i < 1000; i++)
+					sink += mappedTree.hasAsElement(keys[i % nbElements]) ? 1 : 0;
+				System.out.printf("%-50s %8.2f ns/element%n",
+						"MappedSearchTree first 1000 lookups",
+						(System.nanoTime() - start) / 1000.0);
+				run("BalancedSearchTree lookups", nbElements, new Runnable() {
+					public void run() {
+						for (Integer key : keys)
+							sink += balancedTree.hasAsElement(key) ? 1 : 0;
+					}
+				});
+				run("MappedSearchTree lookups", nbElements, new Runnable() {
+					public void run() {
+						for (Integer key : keys)
+							sink += mappedTree.hasAsElement(key) ? 1 : 0;
+					}
+				});
+			} finally {
+				Files.delete(file);
+			}
+		} catch (IOException exc) {
+			throw new UncheckedIOException(exc);
+		}
+	}
+
+	/**
+	 * Compare checking whether two trees have the same elements by sorting
+	 * the elements of both trees, with the method equals. Both are applied
+	 * to trees differing in a single element, to two versions of the same
+	 * persistent search tree, and to a tree and its clone.
+	 */
+	public static void benchmarkTreeEquality(int nbElements)
+			throws IllegalElementException {
+		List<Integer> numbers = shuffledNumbers(nbElements);
+		final ComposedSearchTree tree = new ComposedSearchTree(numbers.get(0),
+				numbers.get(1));
+		for (int i = 2; i < nbElements; i++)
+			tree.addElement(numbers.get(i));
+		final ComposedSearchTree clone = tree.clone();
+		final ComposedSearchTree changedTree = tree.clone();
+		changedTree.removeElement(0);
+		changedTree.addElement(nbElements);
+		SearchTree version = PersistentEmptySearchTree.getPrototype();
+		for (Integer number : numbers)
+			version = version.addElement(number);
+		final SearchTree firstVersion = version;
+		final SearchTree secondVersion = version.removeElement(0).addElement(0);
+		final BinaryTree[][] pairs = { { tree, changedTree },
+				{ firstVersion, secondVersion }, { tree, clone } };
+		final String[] names = { "different elements", "persistent versions",
+				"clones" };
+		for (int p = 0; p < pairs.length; p++) {
+			final BinaryTree first = pairs[p][0];
+			final BinaryTree second = pairs[p][1];
+			run("Sorted lists equality, " + names[p], nbElements, new Runnable() {
+				public void run() {
+					List<Object> firstElements = new ArrayList<Object>();
+					for (Object element : first)
+						firstElements.add(element);
+					List<Object> secondElements = new ArrayList<Object>();
+					for (Object element : second)
+						secondElements.add(element);
+					Collections.sort((List) firstElements);
+					Collections.sort((List) secondElements);
+					sink += firstElements.equals(secondElements) ? 1 : 0;
+				}
+			});
+			run("BinaryTree.equals, " + names[p], nbElements, new Runnable() {
+				public void run() {
+					sink += first.equals(second) ? 1 : 0;
+				}
+			});
+		}
+	}
+
+	/**
+	 * Compare copying all nodes of a search tree, as cloning used to do,
+	 * with the copy-on-write clone of composed binary trees. Both copies
+	 * are followed by a few changes, that must leave the original tree
+	 * untouched.
+	 */
+	public static void benchmarkClones(final int nbElements)
+			throws IllegalElementException {
+		List<Integer> numbers = shuffledNumbers(nbElements);
+		final ComposedSearchTree tree = new ComposedSearchTree(numbers.get(0),
+				numbers.get(1));
+		for (int i = 2; i < nbElements; i++)
+			tree.addElement(numbers.get(i));
+		final int nbChanges = 100;
+		run("Deep copy, " + nbChanges + " changes", nbElements, new Runnable() {
+			public void run() {
+				ComposedBinaryTree copy = deepCopy(tree);
+				for (int i = 0; i < nbChanges; i++)
+					copy.addElement(nbElements + i);
+				sink += copy.getNbElements();
+			}
+		});
+		run("Copy-on-write clone, " + nbChanges + " changes", nbElements,
+				new Runnable() {
+			public void run() {
+				ComposedBinaryTree copy = tree.clone();
+				for (int i = 0; i < nbChanges; i++)
+					copy.addElement(nbElements + i);
+				sink += copy.getNbElements();
+			}
+		});
+		if (tree.getNbElements() != nbElements)
+			throw new IllegalStateException("Original tree changed");
+	}
+
+	/**
+	 * Return a copy of the given composed binary tree, in which all
+	 * composed subtrees are copied as well.
+	 */
+	private static ComposedBinaryTree deepCopy(ComposedBinaryTree tree) {
+		ComposedBinaryTree resultTree = tree.clone();
+		Deque<ComposedBinaryTree> pendingCopies = new ArrayDeque<ComposedBinaryTree>();
+		pendingCopies.push(resultTree);
+		while (!pendingCopies.isEmpty()) {
+			ComposedBinaryTree copy = pendingCopies.pop();
+			if (copy.getLeftTree() instanceof ComposedBinaryTree) {
+				ComposedBinaryTree leftCopy =
+						((ComposedBinaryTree) copy.getLeftTree()).clone();
+				copy.setLeftTree(leftCopy);
+				pendingCopies.push(leftCopy);
+			}
+			if (copy.getRightTree() instanceof ComposedBinaryTree) {
+				ComposedBinaryTree rightCopy =
+						((ComposedBinaryTree) copy.getRightTree()).clone();
+				copy.setRightTree(rightCopy);
+				pendingCopies.push(rightCopy);
+			}
+		}
+		return resultTree;
+	}
+
+	/**
+	 * Compare adding the elements of one balanced search tree one by one
+	 * to a clone of another balanced search tree, with merging both trees
+	 * by means of a set operation in a single thread and in several threads.
+	 */
+	public static void benchmarkSetOperations(int nbElements)
+			throws IllegalElementException {
+		Object[] evenNumbers = new Object[nbElements];
+		Object[] oddNumbers = new Object[nbElements];
+		for (int i = 0; i < nbElements; i++) {
+			evenNumbers[i] = 2 * i;
+			oddNumbers[i] = 2 * i + 1;
+		}
+		final BalancedSearchTree first =
+				(BalancedSearchTree) BalancedSearchTree.fromElements(evenNumbers);
+		final SearchTree second = BalancedSearchTree.fromElements(oddNumbers);
+		run("Balanced search tree, add one by one", nbElements, new Runnable() {
+			public void run() {
+				SearchTree result = first.clone();
+				for (Object element : second)
+					result = result.addElement(element);
+				sink += result.getNbElements();
+			}
+		});
+		run("SetOperation.MERGE, apply", nbElements, new Runnable() {
+			public void run() {
+				sink += SetOperation.MERGE.apply(first, second).getNbElements();
+			}
+		});
+		run("SetOperation.MERGE, applyInParallel", nbElements, new Runnable() {
+			public void run() {
+				sink += SetOperation.MERGE.applyInParallel(first, second)
+						.getNbElements();
+			}
+		});
+	}
+
+	/**
+	 * Return an unsorted tree storing the numbers from 0 up to the given
+	 * number, added one by one.
+	 */
+	private static ComposedUnsortedTree buildUnsortedTree(int nbElements) {
+		ComposedUnsortedTree tree = new ComposedUnsortedTree(0, 1);
+		for (int i = 2; i < nbElements; i++)
+			tree.addElement(i);
+		return tree;
+	}
+
+	/**
+	 * Return the number of levels in the given binary tree.
+	 */
+	private static int heightOf(BinaryTree tree) {
+		if (!(tree instanceof ComposedBinaryTree))
+			return tree.isEmpty() ? 0 : 1;
+		ComposedBinaryTree composedTree = (ComposedBinaryTree) tree;
+		return 1 + Math.max(heightOf(composedTree.getLeftTree()),
+				heightOf(composedTree.getRightTree()));
+	}
+
+	/**
+	 * Return the number of bytes currently in use on the heap, after
+	 * requesting a garbage collection.
+	 */
+	private static long getUsedMemory() {
+		Runtime runtime = Runtime.getRuntime();
+		for (int i = 0; i < 3; i++)
+			System.gc();
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+
+	/**
+	 * Iterate over all the elements returned by the given iterator.
+	 */
+	private static void iterate(Iterator<Object> iterator) {
+		long total = 0;
+		while (iterator.hasNext())
+			total += iterator.next().hashCode();
+		sink += total;
+	}
+
+	/**
+	 * Return an iterator chaining iterators for each of the subtrees
+	 * of the given binary tree.
+	 *
+	 * @note   This is the way composed binary trees used to be iterated.
+	 *         Each subtree gives rise to a new iterator, and each element
+	 *         is passed through the iterators of all the trees on the path
+	 *         towards it.
+	 */
+	private static Iterator<Object> chainedIterator(final BinaryTree tree) {
+		if (!(tree instanceof ComposedBinaryTree))
+			return tree.iterator();
+		final ComposedBinaryTree composedTree = (ComposedBinaryTree) tree;
+		return new Iterator<Object>() {
+
+			public boolean hasNext() {
+				return ((!rootHandled) || currentIterator.hasNext());
+			}
+
+			public Object next() throws NoSuchElementException {
+				if (!hasNext())
+					throw new NoSuchElementException();
+				if (currentIterator.hasNext())
+					return currentIterator.next();
+				else {
+					rootHandled = true;
+					currentIterator = chainedIterator(composedTree.getRightTree());
+					return composedTree.getRootElement();
+				}
+			}
+
+			private Iterator<Object> currentIterator = chainedIterator(composedTree.getLeftTree());
+
+			private boolean rootHandled = false;
+
+		};
+	}
+
+}